@@ -53,11 +53,12 @@ public class BlockRedstoneWire extends Block {
 	public static PropertyEnum<BlockRedstoneWire.EnumAttachPosition> SOUTH;
 	public static PropertyEnum<BlockRedstoneWire.EnumAttachPosition> WEST;
 	public static final PropertyInteger POWER = PropertyInteger.create("power", 0, 15);
-	private boolean canProvidePower = true;
+	boolean canProvidePower = true;
 	/**+
 	 * List of blocks to update with redstone.
 	 */
 	private final Set<BlockPos> blocksNeedingUpdate = Sets.newHashSet();
+	private final RedstoneWireEngine wireEngine = new RedstoneWireEngine(this);
 
 	public BlockRedstoneWire() {
 		super(Material.circuits);
@@ -139,6 +140,9 @@ public class BlockRedstoneWire extends Block {
 	}
 
 	private IBlockState updateSurroundingRedstone(World worldIn, BlockPos pos, IBlockState state) {
+		if (worldIn.getGameRules().getBoolean("fastRedstoneWire") && this.wireEngine.updatePower(worldIn, pos, state)) {
+			return worldIn.getBlockState(pos);
+		}
 		state = this.calculateCurrentChanges(worldIn, pos, pos, state);
 		ArrayList<BlockPos> arraylist = Lists.newArrayList(this.blocksNeedingUpdate);
 		this.blocksNeedingUpdate.clear();
@@ -146,6 +150,7 @@ public class BlockRedstoneWire extends Block {
 		for (int i = 0, l = arraylist.size(); i < l; ++i) {
 			worldIn.notifyNeighborsOfStateChange(arraylist.get(i), this);
 		}
+		worldIn.getStatsListener().onWireNotifies(arraylist.size() * 6);
 
 		return state;
 	}
@@ -203,6 +208,7 @@ public class BlockRedstoneWire extends Block {
 			state = state.withProperty(POWER, Integer.valueOf(j));
 			if (worldIn.getBlockState(pos1) == iblockstate) {
 				worldIn.setBlockState(pos1, state, 2);
+				worldIn.getStatsListener().onWirePowerChanged(1);
 			}
 
 			this.blocksNeedingUpdate.add(pos1);
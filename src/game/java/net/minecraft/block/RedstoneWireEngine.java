@@ -0,0 +1,364 @@
+package net.minecraft.block;
+
+import com.carrotsearch.hppc.LongArrayDeque;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongIntHashMap;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.IWorldStatsListener;
+import net.minecraft.world.World;
+
+/**+
+ * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
+ * 
+ * Minecraft 1.8.8 bytecode is (c) 2015 Mojang AB. "Do not distribute!"
+ * Mod Coder Pack v9.18 deobfuscation configs are (c) Copyright by the MCP Team
+ * 
+ * EaglercraftX 1.8 patch files (c) 2022-2025 lax1dude, ayunami2000. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+/**
+ * Breadth first replacement for the recursive power calculation in
+ * BlockRedstoneWire, used in worlds with the fastRedstoneWire game rule. Power
+ * levels are worked out on a copy first, lowering everything that could have
+ * depended on the old power and then flooding back out from the wires that
+ * still have a source, so every wire is written once and the blocks around
+ * the changed wires each get a single neighbor update afterwards in the order
+ * the wires were reached.
+ * 
+ * The stable result is the same as vanilla, a wire ends up at the higher of
+ * its own outside power and the strongest wire it reads from minus one.
+ */
+class RedstoneWireEngine {
+
+	/**
+	 * Every block vanilla notifies when a wire changes, the wire's neighbors
+	 * and their neighbors, in the order notifyNeighborsOfStateChange uses
+	 */
+	private static final int[] NOTIFY_OFFSETS;
+
+	static {
+		EnumFacing[] order = new EnumFacing[] { EnumFacing.WEST, EnumFacing.EAST, EnumFacing.DOWN, EnumFacing.UP,
+				EnumFacing.NORTH, EnumFacing.SOUTH };
+		LongArrayList offsets = new LongArrayList();
+		LongHashSet seen = new LongHashSet();
+		for (int i = -1; i < order.length; ++i) {
+			int x = i == -1 ? 0 : order[i].getFrontOffsetX();
+			int y = i == -1 ? 0 : order[i].getFrontOffsetY();
+			int z = i == -1 ? 0 : order[i].getFrontOffsetZ();
+			for (int j = 0; j < order.length; ++j) {
+				int xx = x + order[j].getFrontOffsetX();
+				int yy = y + order[j].getFrontOffsetY();
+				int zz = z + order[j].getFrontOffsetZ();
+				long key = new BlockPos(xx, yy, zz).toLong();
+				if (seen.add(key)) {
+					offsets.add(key);
+				}
+			}
+		}
+		NOTIFY_OFFSETS = new int[offsets.size() * 3];
+		for (int i = 0, l = offsets.size(); i < l; ++i) {
+			BlockPos pos = BlockPos.fromLong(offsets.get(i));
+			NOTIFY_OFFSETS[i * 3] = pos.getX();
+			NOTIFY_OFFSETS[i * 3 + 1] = pos.getY();
+			NOTIFY_OFFSETS[i * 3 + 2] = pos.getZ();
+		}
+	}
+
+	private final BlockRedstoneWire wire;
+	private World world;
+	private boolean running = false;
+
+	/**
+	 * working power of every position looked at, -1 if it isn't a wire
+	 */
+	private final LongIntHashMap levels = new LongIntHashMap();
+	private final LongIntHashMap originalLevels = new LongIntHashMap();
+	private final LongIntHashMap externalPower = new LongIntHashMap();
+	private final LongArrayList touched = new LongArrayList();
+	private final LongArrayList emitters = new LongArrayList();
+	private final LongArrayDeque removeQueue = new LongArrayDeque();
+	private final LongArrayDeque increaseQueue = new LongArrayDeque();
+	private final LongArrayList scratch = new LongArrayList();
+
+	RedstoneWireEngine(BlockRedstoneWire wire) {
+		this.wire = wire;
+	}
+
+	/**
+	 * Returns false if the engine is already busy working out another change,
+	 * the caller has to fall back to the vanilla calculation then
+	 */
+	boolean updatePower(World worldIn, BlockPos pos, IBlockState state) {
+		if (this.running) {
+			return false;
+		}
+		IBlockState current = worldIn.getBlockState(pos);
+		if (current.getBlock() != this.wire) {
+			// the wire was just broken, its neighbors recalculate themselves
+			// when breakBlock notifies them but the blocks it was powering
+			// still need to hear about it
+			if (state.getValue(BlockRedstoneWire.POWER).intValue() > 0) {
+				LongArrayList lst = new LongArrayList(1);
+				lst.add(pos.toLong());
+				this.notifyAround(worldIn, lst);
+			}
+			return true;
+		}
+		int oldPower = current.getValue(BlockRedstoneWire.POWER).intValue();
+		this.wire.canProvidePower = false;
+		int ext = worldIn.isBlockIndirectlyGettingPowered(pos);
+		this.wire.canProvidePower = true;
+		int target = ext;
+		this.collectReads(worldIn, pos, this.scratch);
+		for (int i = 0, l = this.scratch.size(); i < l; ++i) {
+			IBlockState iblockstate = worldIn.getBlockState(BlockPos.fromLong(this.scratch.get(i)));
+			if (iblockstate.getBlock() == this.wire) {
+				int j = iblockstate.getValue(BlockRedstoneWire.POWER).intValue() - 1;
+				if (j > target) {
+					target = j;
+				}
+			}
+		}
+		if (target == oldPower) {
+			return true;
+		}
+		LongArrayList changed;
+		this.running = true;
+		this.world = worldIn;
+		try {
+			this.wire.canProvidePower = false;
+			this.propagate(pos, oldPower, target, ext);
+			this.wire.canProvidePower = true;
+			changed = this.writeLevels();
+		} finally {
+			this.wire.canProvidePower = true;
+			this.reset();
+			this.running = false;
+		}
+		IWorldStatsListener stats = worldIn.getStatsListener();
+		stats.onWireEngineUpdate();
+		stats.onWirePowerChanged(changed.size());
+		this.notifyAround(worldIn, changed);
+		return true;
+	}
+
+	private void propagate(BlockPos origin, int oldPower, int target, int ext) {
+		long o = origin.toLong();
+		this.levels.put(o, oldPower);
+		this.originalLevels.put(o, oldPower);
+		this.externalPower.put(o, ext);
+		this.touched.add(o);
+
+		if (target > oldPower) {
+			this.levels.put(o, target);
+			this.increaseQueue.addLast(o);
+		} else {
+			this.levels.put(o, 0);
+			this.removeQueue.addLast(o);
+		}
+
+		while (!this.removeQueue.isEmpty()) {
+			long p = this.removeQueue.removeFirst();
+			int old = this.originalLevels.get(p);
+			BlockPos pos = BlockPos.fromLong(p);
+
+			// anything this wire was feeding with less power than it had may
+			// have been getting that power from here
+			this.collectReaders(pos, this.scratch);
+			for (int i = 0, l = this.scratch.size(); i < l; ++i) {
+				long q = this.scratch.get(i);
+				int lq = this.getLevel(q);
+				if (lq > 0 && lq < old) {
+					this.levels.put(q, 0);
+					this.removeQueue.addLast(q);
+				}
+			}
+
+			// and anything still powered that it reads from can refill it
+			this.collectReads(this.world, pos, this.scratch);
+			for (int i = 0, l = this.scratch.size(); i < l; ++i) {
+				long q = this.scratch.get(i);
+				if (this.getLevel(q) > 0) {
+					this.increaseQueue.addLast(q);
+				}
+			}
+
+			if (this.getExternalPower(p) > 0) {
+				this.emitters.add(p);
+			}
+		}
+
+		for (int i = 0, l = this.emitters.size(); i < l; ++i) {
+			long p = this.emitters.get(i);
+			int e = this.externalPower.get(p);
+			if (this.levels.get(p) < e) {
+				this.levels.put(p, e);
+				this.increaseQueue.addLast(p);
+			}
+		}
+
+		while (!this.increaseQueue.isEmpty()) {
+			long p = this.increaseQueue.removeFirst();
+			int lp = this.levels.get(p) - 1;
+			if (lp <= 0) {
+				continue;
+			}
+			this.collectReaders(BlockPos.fromLong(p), this.scratch);
+			for (int i = 0, l = this.scratch.size(); i < l; ++i) {
+				long q = this.scratch.get(i);
+				int lq = this.getLevel(q);
+				if (lq >= 0 && lq < lp) {
+					this.levels.put(q, lp);
+					this.increaseQueue.addLast(q);
+				}
+			}
+		}
+	}
+
+	private LongArrayList writeLevels() {
+		LongArrayList changed = new LongArrayList();
+		for (int i = 0, l = this.touched.size(); i < l; ++i) {
+			long p = this.touched.get(i);
+			int level = this.levels.get(p);
+			if (level != this.originalLevels.get(p)) {
+				BlockPos pos = BlockPos.fromLong(p);
+				IBlockState iblockstate = this.world.getBlockState(pos);
+				if (iblockstate.getBlock() == this.wire) {
+					this.world.setBlockState(pos, iblockstate.withProperty(BlockRedstoneWire.POWER, Integer.valueOf(level)),
+							2);
+					changed.add(p);
+				}
+			}
+		}
+		return changed;
+	}
+
+	private void notifyAround(World worldIn, LongArrayList changed) {
+		LongHashSet seen = new LongHashSet();
+		LongArrayList targets = new LongArrayList();
+		for (int i = 0, l = changed.size(); i < l; ++i) {
+			BlockPos pos = BlockPos.fromLong(changed.get(i));
+			for (int j = 0; j < NOTIFY_OFFSETS.length; j += 3) {
+				long t = new BlockPos(pos.getX() + NOTIFY_OFFSETS[j], pos.getY() + NOTIFY_OFFSETS[j + 1],
+						pos.getZ() + NOTIFY_OFFSETS[j + 2]).toLong();
+				if (seen.add(t)) {
+					targets.add(t);
+				}
+			}
+		}
+		for (int i = 0, l = targets.size(); i < l; ++i) {
+			BlockPos pos = BlockPos.fromLong(targets.get(i));
+			// other wires don't care, their power doesn't depend on the blocks
+			// around them being powered by wire and any wire connected to the
+			// ones that changed was already worked out above
+			if (worldIn.getBlockState(pos).getBlock() != this.wire) {
+				worldIn.notifyBlockOfStateChange(pos, this.wire);
+			}
+		}
+		worldIn.getStatsListener().onWireNotifies(targets.size());
+	}
+
+	private int getLevel(long p) {
+		if (this.levels.containsKey(p)) {
+			return this.levels.get(p);
+		}
+		IBlockState iblockstate = this.world.getBlockState(BlockPos.fromLong(p));
+		if (iblockstate.getBlock() != this.wire) {
+			this.levels.put(p, -1);
+			return -1;
+		}
+		int level = iblockstate.getValue(BlockRedstoneWire.POWER).intValue();
+		this.levels.put(p, level);
+		this.originalLevels.put(p, level);
+		this.touched.add(p);
+		return level;
+	}
+
+	private int getExternalPower(long p) {
+		if (this.externalPower.containsKey(p)) {
+			return this.externalPower.get(p);
+		}
+		int ext = this.world.isBlockIndirectlyGettingPowered(BlockPos.fromLong(p));
+		this.externalPower.put(p, ext);
+		return ext;
+	}
+
+	/**
+	 * Positions the wire at pos takes power from, the same ones
+	 * BlockRedstoneWire.calculateCurrentChanges looks at
+	 */
+	private void collectReads(World worldIn, BlockPos pos, LongArrayList out) {
+		out.clear();
+		boolean upSolid = worldIn.getBlockState(pos.up()).getBlock().isNormalCube();
+		EnumFacing[] facings = EnumFacing.Plane.HORIZONTAL.facingsArray;
+		for (int i = 0; i < facings.length; ++i) {
+			BlockPos blockpos = pos.offset(facings[i]);
+			out.add(blockpos.toLong());
+			if (worldIn.getBlockState(blockpos).getBlock().isNormalCube()) {
+				if (!upSolid) {
+					out.add(blockpos.up().toLong());
+				}
+			} else {
+				out.add(blockpos.down().toLong());
+			}
+		}
+	}
+
+	/**
+	 * Positions of any wires that take power from the wire at pos, the
+	 * reverse of collectReads
+	 */
+	private void collectReaders(BlockPos pos, LongArrayList out) {
+		out.clear();
+		boolean upSolid = this.world.getBlockState(pos.up()).getBlock().isNormalCube();
+		boolean downSolid = this.world.getBlockState(pos.down()).getBlock().isNormalCube();
+		EnumFacing[] facings = EnumFacing.Plane.HORIZONTAL.facingsArray;
+		for (int i = 0; i < facings.length; ++i) {
+			BlockPos blockpos = pos.offset(facings[i]);
+			out.add(blockpos.toLong());
+			if (!upSolid) {
+				out.add(blockpos.up().toLong());
+			}
+			if (downSolid && !this.world.getBlockState(blockpos).getBlock().isNormalCube()) {
+				out.add(blockpos.down().toLong());
+			}
+		}
+	}
+
+	private void reset() {
+		this.world = null;
+		if (this.levels.size() > 16384) {
+			this.levels.release();
+			this.originalLevels.release();
+			this.externalPower.release();
+			this.touched.release();
+			this.emitters.release();
+			this.removeQueue.release();
+			this.increaseQueue.release();
+		} else {
+			this.levels.clear();
+			this.originalLevels.clear();
+			this.externalPower.clear();
+			this.touched.clear();
+			this.emitters.clear();
+			this.removeQueue.clear();
+			this.increaseQueue.clear();
+		}
+	}
+
+}
\ No newline at end of file
@@ -48,6 +48,7 @@ import net.lax1dude.eaglercraft.v1_8.minecraft.GuiScreenVideoSettingsWarning;
 import net.lax1dude.eaglercraft.v1_8.notifications.ServerNotificationRenderer;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglerMeshLoader;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
+import net.lax1dude.eaglercraft.v1_8.opengl.FixedFunctionPipeline;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ImageData;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
@@ -476,6 +477,7 @@ public class Minecraft implements IThreadListener {
 		GlStateManager.loadIdentity();
 		GlStateManager.matrixMode(GL_MODELVIEW);
 		this.checkGLError("Startup");
+		FixedFunctionPipeline.precompileRecordedStates();
 		this.textureMapBlocks = new TextureMap("textures");
 		this.textureMapBlocks.setEnablePBREagler(gameSettings.shaders);
 		this.textureMapBlocks.setMipmapLevels(this.gameSettings.mipmapLevels);
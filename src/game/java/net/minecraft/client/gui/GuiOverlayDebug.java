@@ -20,6 +20,7 @@ import net.lax1dude.eaglercraft.v1_8.Display;
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.HString;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformType;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerFontRenderer;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.dynamiclights.DynamicLightsStateManager;
@@ -375,7 +376,7 @@ public class GuiOverlayDebug extends Gui {
 				s = "Towards positive X";
 			}
 
-			ArrayList arraylist = Lists.newArrayList(new String[] {
+			ArrayList<String> arraylist = Lists.newArrayList(new String[] {
 					"Minecraft 1.8.8 (" + this.mc.getVersion() + "/" + ClientBrandRetriever.getClientModName() + ")",
 					this.mc.debug, this.mc.renderGlobal.getDebugInfoRenders(),
 					this.mc.renderGlobal.getDebugInfoEntities(), "P: " + this.mc.effectRenderer.getStatistics()
@@ -399,6 +400,10 @@ public class GuiOverlayDebug extends Gui {
 			if (DynamicLightsStateManager.isDynamicLightsRender()) {
 				arraylist.add(6, DynamicLightsStateManager.getF3String());
 			}
+			String textCacheInfo = EaglerFontRenderer.getTextCacheDebugInfo(this.fontRenderer);
+			if (textCacheInfo != null) {
+				arraylist.add(5, textCacheInfo);
+			}
 			if (this.mc.theWorld != null && this.mc.theWorld.isBlockLoaded(blockpos)) {
 				Chunk chunk = this.mc.theWorld.getChunkFromBlockCoords(blockpos);
 				arraylist.add("Biome: " + chunk.getBiome(blockpos, null).biomeName);
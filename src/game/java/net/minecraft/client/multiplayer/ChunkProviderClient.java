@@ -18,6 +18,7 @@ import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.EmptyChunk;
 import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -161,7 +162,17 @@ public class ChunkProviderClient implements IChunkProvider {
 	 * Converts the instance data to a readable string.
 	 */
 	public String makeString() {
-		return "MultiplayerChunkCache: " + this.chunkMapping.size() + ", " + this.chunkListing.size();
+		long blockBytes = 0l;
+		for (int i = 0, l = this.chunkListing.size(); i < l; ++i) {
+			ExtendedBlockStorage[] storage = this.chunkListing.get(i).getBlockStorageArray();
+			for (int j = 0; j < storage.length; ++j) {
+				if (storage[j] != null) {
+					blockBytes += storage[j].getBlockStorageSize();
+				}
+			}
+		}
+		return "MultiplayerChunkCache: " + this.chunkMapping.size() + ", " + this.chunkListing.size() + ", blocks: "
+				+ (blockBytes >> 10) + "KB";
 	}
 
 	public List<BiomeGenBase.SpawnListEntry> getPossibleCreatures(EnumCreatureType var1, BlockPos var2) {
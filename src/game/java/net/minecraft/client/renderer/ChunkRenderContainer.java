@@ -33,9 +33,9 @@ import net.minecraft.util.MathHelper;
  * 
  */
 public abstract class ChunkRenderContainer {
-	private double viewEntityX;
-	private double viewEntityY;
-	private double viewEntityZ;
+	protected double viewEntityX;
+	protected double viewEntityY;
+	protected double viewEntityZ;
 	protected List<RenderChunk> renderChunks = Lists.newArrayListWithCapacity(17424);
 	protected boolean initialized;
 
@@ -8,6 +8,7 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.Vec3i;
 import net.minecraft.world.ChunkCache;
+import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
@@ -36,21 +37,105 @@ public class RegionRenderCache extends ChunkCache {
 	private final IBlockState DEFAULT_STATE = Blocks.air.getDefaultState();
 	private final BlockPos position;
 	private final BlockPos tmpStupid = new BlockPos();
-	private static final int[] combinedLights = new int[8000];
-	private static final IBlockState[] blockStates = new IBlockState[8000];
-	private static final int[] biomeColors = new int[1200];
-	private static final int[] biomeColorsBlended = new int[768];
+	private static final RegionRenderCache.Buffers sharedBuffers = new RegionRenderCache.Buffers();
+	private final int[] combinedLights;
+	private final IBlockState[] blockStates;
+	private final int[] biomeColors;
+	private final int[] biomeColorsBlended;
+	private final TileEntity[] tileEntities;
+	private boolean snapshot = false;
 
 	public RegionRenderCache(World worldIn, BlockPos posFromIn, BlockPos posToIn, int subIn) {
+		this(worldIn, posFromIn, posToIn, subIn, sharedBuffers);
+	}
+
+	/**
+	 * Each thread building chunks at the same time needs its own buffers
+	 */
+	public RegionRenderCache(World worldIn, BlockPos posFromIn, BlockPos posToIn, int subIn,
+			RegionRenderCache.Buffers buffers) {
 		super(worldIn, posFromIn, posToIn, subIn);
 		this.position = posFromIn.subtract(new Vec3i(subIn, subIn, subIn));
+		this.combinedLights = buffers.combinedLights;
+		this.blockStates = buffers.blockStates;
+		this.biomeColors = buffers.biomeColors;
+		this.biomeColorsBlended = buffers.biomeColorsBlended;
+		this.tileEntities = buffers.tileEntities;
 		Arrays.fill(combinedLights, -1);
 		Arrays.fill(blockStates, null);
 		Arrays.fill(biomeColors, 0);
 		Arrays.fill(biomeColorsBlended, 0);
 	}
 
+	/**
+	 * Copies every block state, tile entity, light value and biome color in the
+	 * region into the cache, so that the cache can be read from a worker thread
+	 * without touching the chunks' block storage, tile entity maps, biome
+	 * arrays or the lighting engine. Must be called on the thread that owns the
+	 * world, the light lookups here process any pending light updates first.
+	 */
+	public void snapshot() {
+		BlockPos pos = tmpStupid;
+		int x0 = position.x, y0 = position.y, z0 = position.z;
+		for (int i = 0; i < 20; ++i) {
+			pos.x = x0 + i;
+			for (int k = 0; k < 20; ++k) {
+				pos.z = z0 + k;
+				for (int j = 0; j < 20; ++j) {
+					pos.y = y0 + j;
+					IBlockState iblockstate = getBlockStateRawFaster(pos);
+					int idx = i * 400 + k * 20 + j;
+					blockStates[idx] = iblockstate;
+					if (iblockstate.getBlock().hasTileEntity() && pos.y >= 0 && pos.y < 256) {
+						tileEntities[idx] = this.chunkArray[(pos.x >> 4) - this.chunkX][(pos.z >> 4) - this.chunkZ]
+								.getTileEntity(pos, Chunk.EnumCreateEntityType.QUEUED);
+					} else {
+						tileEntities[idx] = null;
+					}
+				}
+			}
+		}
+		for (int i = 0; i < 20; ++i) {
+			pos.x = x0 + i;
+			for (int k = 0; k < 20; ++k) {
+				pos.z = z0 + k;
+				for (int j = 0; j < 20; ++j) {
+					pos.y = y0 + j;
+					combinedLights[i * 400 + k * 20 + j] = super.getCombinedLight(pos, 0);
+				}
+			}
+		}
+		pos.y = Math.max(Math.min(y0 + 2, 255), 0);
+		for (int i = 0; i < 20; ++i) {
+			pos.x = x0 + i;
+			for (int k = 0; k < 20; ++k) {
+				pos.z = z0 + k;
+				for (int c = 0; c < 3; ++c) {
+					getBiomeColorRaw(pos, c);
+				}
+			}
+		}
+		snapshot = true;
+	}
+
+	/**
+	 * Only valid for caches made by RenderChunk
+	 */
+	public BlockPos getRenderChunkPosition() {
+		return this.position.add(2, 2, 2);
+	}
+
 	public TileEntity getTileEntity(BlockPos blockpos) {
+		if (snapshot) {
+			int i = blockpos.getX() - this.position.getX();
+			int j = blockpos.getY() - this.position.getY();
+			int k = blockpos.getZ() - this.position.getZ();
+			if (i >= 0 && i < 20 && j >= 0 && j < 20 && k >= 0 && k < 20) {
+				return tileEntities[i * 400 + k * 20 + j];
+			} else {
+				return null;
+			}
+		}
 		int i = (blockpos.getX() >> 4) - this.chunkX;
 		int j = (blockpos.getZ() >> 4) - this.chunkZ;
 		return this.chunkArray[i][j].getTileEntity(blockpos, Chunk.EnumCreateEntityType.QUEUED);
@@ -59,6 +144,13 @@ public class RegionRenderCache extends ChunkCache {
 	public int getCombinedLight(BlockPos blockpos, int i) {
 		int j = this.getPositionIndex(blockpos);
 		int k = combinedLights[j];
+		if (snapshot) {
+			// the snapshot was taken with no minimum block light
+			if (((k >> 4) & 15) < i) {
+				k = (k & ~0xF0) | (i << 4);
+			}
+			return k;
+		}
 		if (k == -1) {
 			k = super.getCombinedLight(blockpos, i);
 			combinedLights[j] = k;
@@ -67,6 +159,22 @@ public class RegionRenderCache extends ChunkCache {
 		return k;
 	}
 
+	public int getLightFor(EnumSkyBlock type, BlockPos blockpos) {
+		if (snapshot) {
+			// never reach Chunk.getLightFor from a worker, it runs the lighting engine
+			int i = blockpos.getX() - this.position.getX();
+			int j = blockpos.getY() - this.position.getY();
+			int k = blockpos.getZ() - this.position.getZ();
+			if (i >= 0 && i < 20 && j >= 0 && j < 20 && k >= 0 && k < 20) {
+				int l = combinedLights[i * 400 + k * 20 + j];
+				return type == EnumSkyBlock.SKY ? (l >> 20) & 15 : (l >> 4) & 15;
+			} else {
+				return type.defaultLightValue;
+			}
+		}
+		return super.getLightFor(type, blockpos);
+	}
+
 	public IBlockState getBlockState(BlockPos blockpos) {
 		int i = this.getPositionIndex(blockpos);
 		IBlockState iblockstate = blockStates[i];
@@ -213,4 +321,12 @@ public class RegionRenderCache extends ChunkCache {
 		int k = parBlockPos.z - this.position.z;
 		return i * 20 + k;
 	}
+
+	public static class Buffers {
+		private final int[] combinedLights = new int[8000];
+		private final IBlockState[] blockStates = new IBlockState[8000];
+		private final int[] biomeColors = new int[1200];
+		private final int[] biomeColorsBlended = new int[768];
+		private final TileEntity[] tileEntities = new TileEntity[8000];
+	}
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package net.minecraft.client.renderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkRegionBuffers;
+import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
+import net.lax1dude.eaglercraft.v1_8.opengl.VertexArenaBuffer;
+import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
+import net.lax1dude.eaglercraft.v1_8.opengl.ext.dynamiclights.DynamicLightsStateManager;
+import net.minecraft.client.renderer.chunk.ListedRenderChunk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+
+/**+
+ * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
+ * 
+ * Minecraft 1.8.8 bytecode is (c) 2015 Mojang AB. "Do not distribute!"
+ * Mod Coder Pack v9.18 deobfuscation configs are (c) Copyright by the MCP Team
+ * 
+ * EaglercraftX 1.8 patch files (c) 2022-2025 lax1dude, ayunami2000. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+public class RegionRenderList extends ChunkRenderContainer {
+
+	private static final Comparator<VertexArenaBuffer.Allocation> ALLOCATION_ORDER = (a, b) -> {
+		return a.getFirstQuad() - b.getFirstQuad();
+	};
+
+	private final List<ChunkRegionBuffers.RegionLayer> regionsToDraw = new ArrayList<>();
+	private int frameTag = 0;
+
+	private int chunkLayersDrawn = 0;
+	private int drawCalls = 0;
+	private int chunkLayersDrawnLast = 0;
+	private int drawCallsLast = 0;
+
+	/**
+	 * RenderGlobal calls this once per frame before any layer is drawn, so the
+	 * counters from the last frame (shadow passes included) are kept for F3
+	 */
+	public void initialize(double viewEntityXIn, double viewEntityYIn, double viewEntityZIn) {
+		this.chunkLayersDrawnLast = this.chunkLayersDrawn;
+		this.drawCallsLast = this.drawCalls;
+		this.chunkLayersDrawn = 0;
+		this.drawCalls = 0;
+		super.initialize(viewEntityXIn, viewEntityYIn, viewEntityZIn);
+	}
+
+	public void renderChunkLayer(EnumWorldBlockLayer enumworldblocklayer) {
+		if (this.initialized) {
+			if (DeferredStateManager.isInForwardPass() || DynamicLightsStateManager.isInDynamicLightsPass()) {
+				this.renderChunksSeparately(enumworldblocklayer);
+			} else if (enumworldblocklayer == EnumWorldBlockLayer.SOLID
+					|| enumworldblocklayer == EnumWorldBlockLayer.CUTOUT
+					|| enumworldblocklayer == EnumWorldBlockLayer.CUTOUT_MIPPED) {
+				this.renderChunksByRegion(enumworldblocklayer);
+			} else {
+				this.renderChunksInOrder(enumworldblocklayer);
+			}
+
+			GlStateManager.resetColor();
+			this.renderChunks.clear();
+		}
+	}
+
+	/**
+	 * The forward passes need the position of each chunk for their light lists
+	 */
+	private void renderChunksSeparately(EnumWorldBlockLayer enumworldblocklayer) {
+		for (int i = 0, l = this.renderChunks.size(); i < l; ++i) {
+			ListedRenderChunk listedrenderchunk = (ListedRenderChunk) this.renderChunks.get(i);
+			VertexArenaBuffer.Allocation alloc = listedrenderchunk.getRegionAllocation(enumworldblocklayer);
+			if (alloc != null) {
+				ChunkRegionBuffers.RegionLayer region = (ChunkRegionBuffers.RegionLayer) alloc.getArena();
+				BlockPos blockpos = listedrenderchunk.getPosition();
+				GlStateManager.pushMatrix();
+				this.preRenderChunk(listedrenderchunk, enumworldblocklayer);
+				GlStateManager.translate((float) (region.originX - blockpos.getX()),
+						(float) (region.originY - blockpos.getY()), (float) (region.originZ - blockpos.getZ()));
+				region.drawQuads(alloc.getFirstQuad(), alloc.getQuadCount());
+				GlStateManager.popMatrix();
+				++this.chunkLayersDrawn;
+				++this.drawCalls;
+			}
+		}
+	}
+
+	/**
+	 * Blended layers have to be drawn in the order they were added, only chunks
+	 * that are next to each other in the list and in their region's buffer are
+	 * merged
+	 */
+	private void renderChunksInOrder(EnumWorldBlockLayer enumworldblocklayer) {
+		ChunkRegionBuffers.RegionLayer region = null;
+		int runStart = 0;
+		int runEnd = 0;
+		for (int i = 0, l = this.renderChunks.size(); i < l; ++i) {
+			ListedRenderChunk listedrenderchunk = (ListedRenderChunk) this.renderChunks.get(i);
+			VertexArenaBuffer.Allocation alloc = listedrenderchunk.getRegionAllocation(enumworldblocklayer);
+			if (alloc != null) {
+				++this.chunkLayersDrawn;
+				if (alloc.getArena() == region && alloc.getFirstQuad() == runEnd) {
+					runEnd += alloc.getQuadCount();
+				} else {
+					if (region != null) {
+						this.drawRegionRange(region, runStart, runEnd);
+					}
+					region = (ChunkRegionBuffers.RegionLayer) alloc.getArena();
+					runStart = alloc.getFirstQuad();
+					runEnd = runStart + alloc.getQuadCount();
+				}
+			}
+		}
+		if (region != null) {
+			this.drawRegionRange(region, runStart, runEnd);
+		}
+	}
+
+	/**
+	 * Opaque layers don't care about order, so every visible chunk in a region is
+	 * drawn at once with neighbouring ranges in the buffer merged together.
+	 * Regions are still drawn in the order they were first seen so the closest
+	 * ones usually go first
+	 */
+	private void renderChunksByRegion(EnumWorldBlockLayer enumworldblocklayer) {
+		int tag = ++this.frameTag;
+		for (int i = 0, l = this.renderChunks.size(); i < l; ++i) {
+			ListedRenderChunk listedrenderchunk = (ListedRenderChunk) this.renderChunks.get(i);
+			VertexArenaBuffer.Allocation alloc = listedrenderchunk.getRegionAllocation(enumworldblocklayer);
+			if (alloc != null) {
+				ChunkRegionBuffers.RegionLayer region = (ChunkRegionBuffers.RegionLayer) alloc.getArena();
+				if (region.frameTag != tag) {
+					region.frameTag = tag;
+					region.drawList.clear();
+					this.regionsToDraw.add(region);
+				}
+				region.drawList.add(alloc);
+				++this.chunkLayersDrawn;
+			}
+		}
+		for (int i = 0, l = this.regionsToDraw.size(); i < l; ++i) {
+			ChunkRegionBuffers.RegionLayer region = this.regionsToDraw.get(i);
+			List<VertexArenaBuffer.Allocation> lst = region.drawList;
+			if (lst.size() > 1) {
+				Collections.sort(lst, ALLOCATION_ORDER);
+			}
+			GlStateManager.pushMatrix();
+			this.translateToRegion(region);
+			VertexArenaBuffer.Allocation alloc = lst.get(0);
+			int runStart = alloc.getFirstQuad();
+			int runEnd = runStart + alloc.getQuadCount();
+			for (int j = 1, m = lst.size(); j < m; ++j) {
+				alloc = lst.get(j);
+				if (alloc.getFirstQuad() != runEnd) {
+					region.drawQuads(runStart, runEnd - runStart);
+					++this.drawCalls;
+					runStart = alloc.getFirstQuad();
+				}
+				runEnd = alloc.getFirstQuad() + alloc.getQuadCount();
+			}
+			region.drawQuads(runStart, runEnd - runStart);
+			++this.drawCalls;
+			GlStateManager.popMatrix();
+			lst.clear();
+		}
+		this.regionsToDraw.clear();
+	}
+
+	private void drawRegionRange(ChunkRegionBuffers.RegionLayer region, int runStart, int runEnd) {
+		GlStateManager.pushMatrix();
+		this.translateToRegion(region);
+		region.drawQuads(runStart, runEnd - runStart);
+		GlStateManager.popMatrix();
+		++this.drawCalls;
+	}
+
+	/**
+	 * Draw calls and chunk layers drawn in the last frame, with display lists
+	 * both numbers would be the same
+	 */
+	public String getDebugInfo() {
+		return "Dr: " + this.drawCallsLast + "/" + this.chunkLayersDrawnLast;
+	}
+
+	private void translateToRegion(ChunkRegionBuffers.RegionLayer region) {
+		GlStateManager.translate((float) ((double) region.originX - this.viewEntityX),
+				(float) ((double) region.originY - this.viewEntityY),
+				(float) ((double) region.originZ - this.viewEntityZ));
+	}
+}
\ No newline at end of file
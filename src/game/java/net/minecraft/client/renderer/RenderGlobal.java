@@ -24,6 +24,7 @@ import com.google.common.collect.Sets;
 import dev.redstudio.alfheim.utils.DeduplicatedLongQueue;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkRegionBuffers;
 import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkUpdateManager;
 import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerTextureAtlasSprite;
 import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerCloudRenderer;
@@ -205,7 +206,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		GlStateManager.bindTexture(0);
 		this.updateDestroyBlockIcons();
 		this.vboEnabled = false;
-		this.renderContainer = new RenderList();
+		this.renderContainer = ChunkRegionBuffers.isSupported() ? new RegionRenderList() : new RenderList();
 		this.renderChunkFactory = new ListChunkFactory();
 		this.cloudRenderer = new EaglerCloudRenderer(mcIn);
 		this.generateSun();
@@ -888,7 +889,11 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 
 		return HString.format("C: %d/%d %sD: %d, %s",
 				new Object[] { Integer.valueOf(j), Integer.valueOf(i), this.mc.renderChunksMany ? "(s) " : "",
-						Integer.valueOf(this.renderDistanceChunks), this.renderDispatcher.getDebugInfo() });
+						Integer.valueOf(this.renderDistanceChunks),
+						this.renderContainer instanceof RegionRenderList
+								? this.renderDispatcher.getDebugInfo() + " "
+										+ ((RegionRenderList) this.renderContainer).getDebugInfo()
+								: this.renderDispatcher.getDebugInfo() });
 	}
 
 	/**+
@@ -950,6 +955,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		boolean flag = this.debugFixedClippingHelper != null;
 		if (!flag && this.displayListEntitiesDirty) {
 			this.displayListEntitiesDirty = false;
+			this.renderDispatcher.setVisibleFrameIndex(frameCount);
 			this.renderInfos = Lists.newArrayList();
 			LinkedList linkedlist = Lists.newLinkedList();
 			boolean flag1 = this.mc.renderChunksMany;
@@ -1,11 +1,15 @@
 package net.minecraft.client.renderer.chunk;
 
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
 
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
+import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.RegionRenderCache;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumWorldBlockLayer;
 
 /**+
@@ -33,10 +37,14 @@ public class ChunkCompileTaskGenerator {
 	private final List<Runnable> listFinishRunnables = Lists.newArrayList();
 	private final ChunkCompileTaskGenerator.Type type;
 	private RegionRenderCacheBuilder regionRenderCacheBuilder;
+	private RegionRenderCache regionRenderCache;
+	private BlockRendererDispatcher blockRendererDispatcher;
+	private Set<TileEntity> globalTileEntities;
 	private CompiledChunk compiledChunk;
-	private ChunkCompileTaskGenerator.Status status = ChunkCompileTaskGenerator.Status.PENDING;
-	private boolean finished;
+	private volatile ChunkCompileTaskGenerator.Status status = ChunkCompileTaskGenerator.Status.PENDING;
+	private volatile boolean finished;
 	public long goddamnFuckingTimeout = 0l;
+	public float priority = 0.0f;
 	public long time = 0;
 
 	public ChunkCompileTaskGenerator(RenderChunk renderChunkIn, ChunkCompileTaskGenerator.Type typeIn) {
@@ -68,6 +76,38 @@ public class ChunkCompileTaskGenerator {
 		this.regionRenderCacheBuilder = regionRenderCacheBuilderIn;
 	}
 
+	public RegionRenderCache getRegionRenderCache() {
+		return this.regionRenderCache;
+	}
+
+	/**
+	 * Only set when the chunk is being built off the main thread, the cache must
+	 * be a snapshot taken from the main thread
+	 */
+	public void setRegionRenderCache(RegionRenderCache regionRenderCacheIn) {
+		this.regionRenderCache = regionRenderCacheIn;
+	}
+
+	public boolean isAsync() {
+		return this.regionRenderCache != null;
+	}
+
+	public BlockRendererDispatcher getBlockRendererDispatcher() {
+		return this.blockRendererDispatcher;
+	}
+
+	public void setBlockRendererDispatcher(BlockRendererDispatcher blockRendererDispatcherIn) {
+		this.blockRendererDispatcher = blockRendererDispatcherIn;
+	}
+
+	public Set<TileEntity> getGlobalTileEntities() {
+		return this.globalTileEntities;
+	}
+
+	public void setGlobalTileEntities(Set<TileEntity> globalTileEntitiesIn) {
+		this.globalTileEntities = globalTileEntitiesIn;
+	}
+
 	public void setStatus(ChunkCompileTaskGenerator.Status statusIn) {
 		this.status = statusIn;
 	}
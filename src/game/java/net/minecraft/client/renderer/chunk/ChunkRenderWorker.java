@@ -1,13 +1,10 @@
 package net.minecraft.client.renderer.chunk;
 
-import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
-import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkUpdateManager;
-import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.RegionRenderCache;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
-import net.minecraft.entity.Entity;
-import net.minecraft.util.EnumWorldBlockLayer;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -30,93 +27,63 @@ import net.minecraft.util.EnumWorldBlockLayer;
  * 
  */
 public class ChunkRenderWorker {
-	private static final Logger LOGGER = LogManager.getLogger();
 	private final ChunkUpdateManager chunkRenderDispatcher;
 	private final RegionRenderCacheBuilder regionRenderCacheBuilder;
-
-	public ChunkRenderWorker(ChunkUpdateManager parChunkRenderDispatcher) {
-		this(parChunkRenderDispatcher, (RegionRenderCacheBuilder) null);
+	private final BlockRendererDispatcher blockRendererDispatcher;
+	private final RegionRenderCache.Buffers regionRenderCacheBuffers;
+	private final int generation;
+
+	/**+
+	 * Must be constructed on the main thread, the block renderer grabs the
+	 * current fluid sprites from the texture map
+	 */
+	public ChunkRenderWorker(ChunkUpdateManager parChunkRenderDispatcher, int generation) {
+		this(parChunkRenderDispatcher, new RegionRenderCacheBuilder(), generation);
 	}
 
 	public ChunkRenderWorker(ChunkUpdateManager chunkRenderDispatcherIn,
-			RegionRenderCacheBuilder regionRenderCacheBuilderIn) {
+			RegionRenderCacheBuilder regionRenderCacheBuilderIn, int generation) {
 		this.chunkRenderDispatcher = chunkRenderDispatcherIn;
 		this.regionRenderCacheBuilder = regionRenderCacheBuilderIn;
+		Minecraft mc = Minecraft.getMinecraft();
+		this.blockRendererDispatcher = new BlockRendererDispatcher(
+				mc.getBlockRendererDispatcher().getBlockModelShapes(), mc.gameSettings);
+		this.regionRenderCacheBuffers = new RegionRenderCache.Buffers();
+		this.generation = generation;
 	}
 
-	protected void processTask(final ChunkCompileTaskGenerator generator) throws InterruptedException {
-		if (generator.getStatus() != ChunkCompileTaskGenerator.Status.PENDING) {
-			if (!generator.isFinished()) {
-				LOGGER.warn("Chunk render task was " + generator.getStatus()
-						+ " when I expected it to be pending; ignoring task");
-			}
-
-			return;
-		}
+	public int getGeneration() {
+		return this.generation;
+	}
 
-		generator.setStatus(ChunkCompileTaskGenerator.Status.COMPILING);
+	/**+
+	 * Called on the main thread, takes the snapshot of the world that the
+	 * worker thread will build from
+	 */
+	public void prepareTask(ChunkCompileTaskGenerator generator) {
+		generator.setRegionRenderCacheBuilder(this.regionRenderCacheBuilder);
+		generator.setBlockRendererDispatcher(this.blockRendererDispatcher);
+		generator.setRegionRenderCache(
+				generator.getRenderChunk().makeRegionRenderCacheSnapshot(this.regionRenderCacheBuffers));
+	}
 
-		Entity entity = Minecraft.getMinecraft().getRenderViewEntity();
-		if (entity == null) {
-			generator.finish();
-		} else {
-			generator.setRegionRenderCacheBuilder(this.getRegionRenderCacheBuilder());
-			float f = (float) entity.posX;
-			float f1 = (float) entity.posY + entity.getEyeHeight();
-			float f2 = (float) entity.posZ;
-			ChunkCompileTaskGenerator.Type chunkcompiletaskgenerator$type = generator.getType();
-			if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
-				generator.getRenderChunk().rebuildChunk(f, f1, f2, generator);
-			} else if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY) {
-				generator.getRenderChunk().resortTransparency(f, f1, f2, generator);
+	/**+
+	 * Called on the worker thread, the result is handed back to the main thread
+	 * for uploading through ChunkUpdateManager
+	 */
+	public void processTask(final ChunkCompileTaskGenerator generator, float x, float y, float z) {
+		Throwable error = null;
+		if (generator.getStatus() == ChunkCompileTaskGenerator.Status.PENDING) {
+			generator.setStatus(ChunkCompileTaskGenerator.Status.COMPILING);
+			try {
+				generator.getRenderChunk().rebuildChunk(x, y, z, generator);
+			} catch (Throwable t) {
+				error = t;
 			}
-
-			if (generator.getStatus() != ChunkCompileTaskGenerator.Status.COMPILING) {
-				if (!generator.isFinished()) {
-					LOGGER.warn("Chunk render task was " + generator.getStatus()
-							+ " when I expected it to be compiling; aborting task");
-				}
-
-				this.freeRenderBuilder(generator);
-				return;
+			if (error == null && generator.getStatus() == ChunkCompileTaskGenerator.Status.COMPILING) {
+				generator.setStatus(ChunkCompileTaskGenerator.Status.UPLOADING);
 			}
-
-			generator.setStatus(ChunkCompileTaskGenerator.Status.UPLOADING);
-
-			final CompiledChunk compiledchunk = generator.getCompiledChunk();
-			if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
-				EnumWorldBlockLayer[] layers = EnumWorldBlockLayer._VALUES;
-				for (int i = 0; i < layers.length; ++i) {
-					EnumWorldBlockLayer enumworldblocklayer = layers[i];
-					if (!compiledchunk.isLayerEmpty(enumworldblocklayer)) {
-						this.chunkRenderDispatcher.uploadChunk(enumworldblocklayer,
-								generator.getRegionRenderCacheBuilder().getWorldRendererByLayer(enumworldblocklayer),
-								generator.getRenderChunk(), compiledchunk);
-						generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
-					}
-				}
-			} else if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY) {
-				this.chunkRenderDispatcher.uploadChunk(
-						EnumWorldBlockLayer.TRANSLUCENT, generator.getRegionRenderCacheBuilder()
-								.getWorldRendererByLayer(EnumWorldBlockLayer.TRANSLUCENT),
-						generator.getRenderChunk(), compiledchunk);
-				if (DeferredStateManager.isRenderingRealisticWater()) {
-					this.chunkRenderDispatcher.uploadChunk(
-							EnumWorldBlockLayer.REALISTIC_WATER, generator.getRegionRenderCacheBuilder()
-									.getWorldRendererByLayer(EnumWorldBlockLayer.REALISTIC_WATER),
-							generator.getRenderChunk(), compiledchunk);
-				}
-				generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
-			}
-
 		}
-	}
-
-	private RegionRenderCacheBuilder getRegionRenderCacheBuilder() throws InterruptedException {
-		return this.regionRenderCacheBuilder;
-	}
-
-	private void freeRenderBuilder(ChunkCompileTaskGenerator taskGenerator) {
-
+		this.chunkRenderDispatcher.postCompileResult(this, generator, error);
 	}
 }
\ No newline at end of file
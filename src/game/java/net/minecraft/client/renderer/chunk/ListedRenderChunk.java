@@ -1,6 +1,8 @@
 package net.minecraft.client.renderer.chunk;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkRegionBuffers;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
+import net.lax1dude.eaglercraft.v1_8.opengl.VertexArenaBuffer;
 import net.minecraft.client.renderer.GLAllocation;
 import net.minecraft.client.renderer.RenderGlobal;
 import net.minecraft.util.BlockPos;
@@ -29,12 +31,19 @@ import net.minecraft.world.World;
  */
 public class ListedRenderChunk extends RenderChunk {
 	private final int[] baseDisplayList;
+	private final VertexArenaBuffer.Allocation[] regionAllocations;
 
 	public ListedRenderChunk(World worldIn, RenderGlobal renderGlobalIn, BlockPos pos, int indexIn) {
 		super(worldIn, renderGlobalIn, pos, indexIn);
-		this.baseDisplayList = new int[EnumWorldBlockLayer._VALUES.length];
-		for (int i = 0; i < this.baseDisplayList.length; ++i) {
-			this.baseDisplayList[i] = GLAllocation.generateDisplayLists();
+		if (ChunkRegionBuffers.isSupported()) {
+			this.baseDisplayList = null;
+			this.regionAllocations = new VertexArenaBuffer.Allocation[EnumWorldBlockLayer._VALUES.length];
+		} else {
+			this.baseDisplayList = new int[EnumWorldBlockLayer._VALUES.length];
+			for (int i = 0; i < this.baseDisplayList.length; ++i) {
+				this.baseDisplayList[i] = GLAllocation.generateDisplayLists();
+			}
+			this.regionAllocations = null;
 		}
 	}
 
@@ -42,19 +51,60 @@ public class ListedRenderChunk extends RenderChunk {
 		return !parCompiledChunk.isLayerEmpty(layer) ? this.baseDisplayList[layer.ordinal()] : -1;
 	}
 
+	public VertexArenaBuffer.Allocation getRegionAllocation(EnumWorldBlockLayer layer) {
+		return this.regionAllocations[layer.ordinal()];
+	}
+
+	public void setRegionAllocation(EnumWorldBlockLayer layer, VertexArenaBuffer.Allocation alloc) {
+		this.regionAllocations[layer.ordinal()] = alloc;
+	}
+
+	private void releaseRegionAllocation(int layer) {
+		if (this.regionAllocations[layer] != null) {
+			ChunkRegionBuffers.release(this.regionAllocations[layer]);
+			this.regionAllocations[layer] = null;
+		}
+	}
+
+	public void setPosition(BlockPos pos) {
+		super.setPosition(pos);
+		if (this.regionAllocations != null) {
+			// the chunk is probably in a different region now
+			for (int i = 0; i < this.regionAllocations.length; ++i) {
+				this.releaseRegionAllocation(i);
+			}
+		}
+	}
+
 	public void deleteGlResources() {
 		super.deleteGlResources();
-		for (int i = 0; i < this.baseDisplayList.length; ++i) {
-			GLAllocation.deleteDisplayLists(this.baseDisplayList[i]);
+		if (this.regionAllocations != null) {
+			for (int i = 0; i < this.regionAllocations.length; ++i) {
+				this.releaseRegionAllocation(i);
+			}
+		} else {
+			for (int i = 0; i < this.baseDisplayList.length; ++i) {
+				GLAllocation.deleteDisplayLists(this.baseDisplayList[i]);
+			}
 		}
 	}
 
 	public void rebuildChunk(float x, float y, float z, ChunkCompileTaskGenerator generator) {
 		super.rebuildChunk(x, y, z, generator);
+		if (!generator.isAsync()) {
+			this.flushEmptyLayers(generator.getCompiledChunk());
+		}
+	}
+
+	public void flushEmptyLayers(CompiledChunk compiledChunkIn) {
 		EnumWorldBlockLayer[] layers = EnumWorldBlockLayer._VALUES;
 		for (int i = 0; i < layers.length; ++i) {
-			if (generator.getCompiledChunk().isLayerEmpty(layers[i])) {
-				EaglercraftGPU.flushDisplayList(this.baseDisplayList[i]);
+			if (compiledChunkIn.isLayerEmpty(layers[i])) {
+				if (this.regionAllocations != null) {
+					this.releaseRegionAllocation(i);
+				} else {
+					EaglercraftGPU.flushDisplayList(this.baseDisplayList[i]);
+				}
 			}
 		}
 	}
@@ -7,6 +7,7 @@ import java.util.Set;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkRegionBuffers;
 import net.lax1dude.eaglercraft.v1_8.opengl.VertexFormat;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
 import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
@@ -81,6 +82,10 @@ public class RenderChunk {
 
 	}
 
+	public int getFrameIndex() {
+		return this.frameIndex;
+	}
+
 	public boolean setFrameIndex(int frameIndexIn) {
 		if (this.frameIndex == frameIndexIn) {
 			return false;
@@ -125,29 +130,41 @@ public class RenderChunk {
 	}
 
 	public void rebuildChunk(float x, float y, float z, ChunkCompileTaskGenerator generator) {
-		if (compiledChunk == CompiledChunk.DUMMY) {
+		RegionRenderCache regionrendercache = generator.getRegionRenderCache();
+		boolean async = regionrendercache != null;
+		CompiledChunk compiledChunk;
+		if (async) {
+			// the current one is still being drawn, it gets swapped out after upload
 			compiledChunk = new CompiledChunk(this);
 		} else {
-			compiledChunk.reset();
+			if (this.compiledChunk == CompiledChunk.DUMMY) {
+				this.compiledChunk = new CompiledChunk(this);
+			} else {
+				this.compiledChunk.reset();
+			}
+			compiledChunk = this.compiledChunk;
 		}
-		boolean flag = true;
-		BlockPos blockpos = this.position;
+		BlockPos blockpos = async ? regionrendercache.getRenderChunkPosition() : this.position;
 		BlockPos blockpos1 = blockpos.add(15, 15, 15);
 
-		RegionRenderCache regionrendercache;
 		if (generator.getStatus() != ChunkCompileTaskGenerator.Status.COMPILING) {
 			return;
 		}
 
-		regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1), blockpos1.add(1, 1, 1), 1);
+		if (!async) {
+			regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1), blockpos1.add(1, 1, 1), 1);
+		}
 		generator.setCompiledChunk(compiledChunk);
 
 		VisGraph visgraph = new VisGraph();
-		HashSet hashset = Sets.newHashSet();
+		HashSet<TileEntity> hashset = Sets.newHashSet();
 		if (!regionrendercache.extendedLevelsInChunkCache()) {
 			++renderChunksUpdated;
 			boolean[] aboolean = new boolean[EnumWorldBlockLayer._VALUES.length];
-			BlockRendererDispatcher blockrendererdispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
+			BlockRendererDispatcher blockrendererdispatcher = generator.getBlockRendererDispatcher();
+			if (blockrendererdispatcher == null) {
+				blockrendererdispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
+			}
 
 			for (BlockPos blockpos$mutableblockpos : BlockPos.getAllInBoxMutable(blockpos, blockpos1)) {
 				IBlockState iblockstate = regionrendercache.getBlockStateFaster(blockpos$mutableblockpos);
@@ -212,14 +229,58 @@ public class RenderChunk {
 
 		compiledChunk.setVisibility(visgraph.computeVisibility());
 
-		HashSet hashset1 = Sets.newHashSet(hashset);
-		HashSet hashset2 = Sets.newHashSet(this.field_181056_j);
+		if (async) {
+			generator.setGlobalTileEntities(hashset);
+		} else {
+			this.updateGlobalTileEntities(hashset);
+		}
+
+	}
+
+	/**
+	 * Must be called on the main thread
+	 */
+	public void updateGlobalTileEntities(Set<TileEntity> tileEntities) {
+		HashSet<TileEntity> hashset1 = Sets.newHashSet(tileEntities);
+		HashSet<TileEntity> hashset2 = Sets.newHashSet(this.field_181056_j);
 		hashset1.removeAll(this.field_181056_j);
-		hashset2.removeAll(hashset);
+		hashset2.removeAll(tileEntities);
 		this.field_181056_j.clear();
-		this.field_181056_j.addAll(hashset);
+		this.field_181056_j.addAll(tileEntities);
 		this.renderGlobal.func_181023_a(hashset2, hashset1);
+	}
 
+	/**
+	 * Snapshots the blocks around this chunk so it can be rebuilt on another
+	 * thread, must be called on the main thread
+	 */
+	public RegionRenderCache makeRegionRenderCacheSnapshot(RegionRenderCache.Buffers buffers) {
+		BlockPos blockpos = this.position;
+		RegionRenderCache regionrendercache = new RegionRenderCache(this.world, blockpos.add(-1, -1, -1),
+				blockpos.add(16, 16, 16), 1, buffers);
+		if (!regionrendercache.extendedLevelsInChunkCache()) {
+			regionrendercache.snapshot();
+		}
+		return regionrendercache;
+	}
+
+	/**
+	 * Swaps in a chunk that was compiled on another thread, must be called on the
+	 * main thread
+	 */
+	public void setCompiledChunk(CompiledChunk compiledChunkIn) {
+		if (this.compiledChunk != compiledChunkIn && this.compiledChunk != CompiledChunk.DUMMY) {
+			this.compiledChunk.setState(null);
+			this.compiledChunk.setStateRealisticWater(null);
+		}
+		this.compiledChunk = compiledChunkIn;
+	}
+
+	/**
+	 * Called on the main thread after a rebuild with the layers that were left
+	 * empty
+	 */
+	public void flushEmptyLayers(CompiledChunk compiledChunkIn) {
 	}
 
 	protected void finishCompileTask() {
@@ -237,7 +298,16 @@ public class RenderChunk {
 		return chunkcompiletaskgenerator;
 	}
 
+	/**
+	 * Returns null while a rebuild is still compiling on a worker, it sorts its
+	 * own translucent quads and must stay the chunk's compileTask so it can be
+	 * superseded by the next rebuild
+	 */
 	public ChunkCompileTaskGenerator makeCompileTaskTransparency() {
+		if (this.compileTask != null && this.compileTask.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK
+				&& this.compileTask.getStatus() != ChunkCompileTaskGenerator.Status.DONE) {
+			return null;
+		}
 		this.compileTask = new ChunkCompileTaskGenerator(this, ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY);
 		this.compileTask.setCompiledChunk(this.compiledChunk);
 		return this.compileTask;
@@ -248,7 +318,14 @@ public class RenderChunk {
 				(DeferredStateManager.isDeferredRenderer() || DynamicLightsStateManager.isDynamicLightsRender())
 						? VertexFormat.BLOCK_SHADERS
 						: DefaultVertexFormats.BLOCK);
-		worldRendererIn.setTranslation((double) (-pos.getX()), (double) (-pos.getY()), (double) (-pos.getZ()));
+		if (ChunkRegionBuffers.isSupported()) {
+			// the chunk shares a vertex buffer with the rest of its region
+			worldRendererIn.setTranslation((double) (-(pos.getX() & ChunkRegionBuffers.REGION_MASK)),
+					(double) (-(pos.getY() & ChunkRegionBuffers.REGION_MASK)),
+					(double) (-(pos.getZ() & ChunkRegionBuffers.REGION_MASK)));
+		} else {
+			worldRendererIn.setTranslation((double) (-pos.getX()), (double) (-pos.getY()), (double) (-pos.getZ()));
+		}
 	}
 
 	private void postRenderBlocks(EnumWorldBlockLayer layer, float x, float y, float z, WorldRenderer worldRendererIn,
@@ -3,6 +3,7 @@ package net.minecraft.client.renderer.texture;
 import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -15,11 +16,16 @@ import com.carrotsearch.hppc.cursors.IntCursor;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
 import net.lax1dude.eaglercraft.v1_8.HString;
+import net.lax1dude.eaglercraft.v1_8.IOUtils;
 import net.lax1dude.eaglercraft.v1_8.internal.IFramebufferGL;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerTextureAtlasSprite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.TextureAtlasCache;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.ImageData;
@@ -83,6 +89,9 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
 	private boolean isGLES2 = false;
 	private CounterInt counterIndexInMap;
 
+	private static IWorkerThreadPool decoderPool = null;
+	private static boolean decoderPoolCreated = false;
+
 	public static final int _GL_FRAMEBUFFER = 0x8D40;
 	public static final int _GL_COLOR_ATTACHMENT0 = 0x8CE0;
 
@@ -174,11 +183,8 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
 		CustomItems.updateIcons(this);
 		BetterGrass.updateIcons(this);
 		int i = Minecraft.getGLMaximumTextureSize();
-		Stitcher stitcher = new Stitcher(i, i, true, 0, this.mipmapLevels);
 		this.mapUploadedSprites.clear();
 		this.listAnimatedSprites.clear();
-		int j = Integer.MAX_VALUE;
-		int k = 1 << this.mipmapLevels;
 
 		if (copyColorFramebuffer != null) {
 			for (int l = 0; l < copyColorFramebuffer.length; ++l) {
@@ -216,6 +222,104 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
 			}
 		}
 
+		byte[] cacheKey = isEaglerPBRMode ? null
+				: TextureAtlasCache.createKey(this.basePath, this.mipmapLevels, i, this.mapRegisteredSprites);
+		TextureAtlasCache.CachedAtlas cachedAtlas = cacheKey != null
+				? TextureAtlasCache.load(this.basePath, cacheKey, this.mapRegisteredSprites)
+				: null;
+		List<EaglerTextureAtlasSprite> spriteList;
+		if (cachedAtlas != null) {
+			for (EaglerTextureAtlasSprite textureatlassprite : this.mapRegisteredSprites.values()) {
+				textureatlassprite.updateIndexInMap(this.counterIndexInMap);
+			}
+			this.mipmapLevels = cachedAtlas.mipmapLevels;
+			this.width = cachedAtlas.width;
+			this.height = cachedAtlas.height;
+			spriteList = cachedAtlas.apply(this.mapRegisteredSprites, this.missingImage);
+		} else {
+			spriteList = this.loadAndStitchSprites(resourceManager, i);
+		}
+
+		regenerateIfNotAllocated();
+		TextureUtil.allocateTextureImpl(this.getGlTextureId(), this.mipmapLevels, this.width, this.height);
+
+		if (isEaglerPBRMode) {
+			if (hasAllocatedEaglerPBRMaterialTexture) {
+				EaglercraftGPU.regenerateTexture(eaglerPBRMaterialTexture);
+			}
+			hasAllocatedEaglerPBRMaterialTexture = true;
+			TextureUtil.allocateTextureImpl(eaglerPBRMaterialTexture, this.mipmapLevels, this.width,
+					this.height * 2);
+		}
+
+		TextureUtil.bindTexture(this.glTextureId);
+
+		copyColorFramebuffer = new IFramebufferGL[this.mipmapLevels + 1];
+		for (int l = 0; l < copyColorFramebuffer.length; ++l) {
+			copyColorFramebuffer[l] = _wglCreateFramebuffer();
+			_wglBindFramebuffer(_GL_FRAMEBUFFER, copyColorFramebuffer[l]);
+			_wglFramebufferTexture2D(_GL_FRAMEBUFFER, _GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D,
+					EaglercraftGPU.getNativeTexture(this.glTextureId), l);
+		}
+
+		_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
+
+		HashMap hashmap = Maps.newHashMap(this.mapRegisteredSprites);
+
+		for (int l = 0, m = spriteList.size(); l < m; ++l) {
+			EaglerTextureAtlasSprite textureatlassprite2 = spriteList.get(l);
+			String s = textureatlassprite2.getIconName();
+			hashmap.remove(s);
+			this.mapUploadedSprites.put(s, textureatlassprite2);
+
+			try {
+				TextureUtil.bindTexture(this.glTextureId);
+				TextureUtil.uploadTextureMipmap(textureatlassprite2.getFrameTextureData(0),
+						textureatlassprite2.getIconWidth(), textureatlassprite2.getIconHeight(),
+						textureatlassprite2.getOriginX(), textureatlassprite2.getOriginY(), false, false);
+				if (isEaglerPBRMode) {
+					TextureUtil.bindTexture(eaglerPBRMaterialTexture);
+					int[][][] pixels = ((EaglerTextureAtlasSpritePBR) textureatlassprite2).getFramePBRTextureData(0);
+					TextureUtil.uploadTextureMipmap(pixels[1], textureatlassprite2.getIconWidth(),
+							textureatlassprite2.getIconHeight(), textureatlassprite2.getOriginX(),
+							textureatlassprite2.getOriginY(), false, false);
+					TextureUtil.uploadTextureMipmap(pixels[2], textureatlassprite2.getIconWidth(),
+							textureatlassprite2.getIconHeight(), textureatlassprite2.getOriginX(),
+							textureatlassprite2.getOriginY() + height, false, false);
+				}
+			} catch (Throwable throwable) {
+				CrashReport crashreport1 = CrashReport.makeCrashReport(throwable, "Stitching texture atlas");
+				CrashReportCategory crashreportcategory1 = crashreport1.makeCategory("Texture being stitched together");
+				crashreportcategory1.addCrashSection("Atlas path", this.basePath);
+				crashreportcategory1.addCrashSection("Sprite", textureatlassprite2);
+				throw new ReportedException(crashreport1);
+			}
+
+			if (textureatlassprite2.hasAnimationMetadata()) {
+				this.listAnimatedSprites.add(textureatlassprite2);
+			}
+		}
+
+		if (cacheKey != null && cachedAtlas == null) {
+			TextureAtlasCache.save(this.basePath, cacheKey, this.width, this.height, this.mipmapLevels,
+					this.mapRegisteredSprites, this.mapUploadedSprites, this.missingImage);
+		}
+
+		for (EaglerTextureAtlasSprite textureatlassprite3 : (Collection<EaglerTextureAtlasSprite>) hashmap.values()) {
+			textureatlassprite3.copyFrom(this.missingImage);
+		}
+
+		_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
+	}
+
+	private List<EaglerTextureAtlasSprite> loadAndStitchSprites(IResourceManager resourceManager,
+			int maxTextureSize) {
+		Stitcher stitcher = new Stitcher(maxTextureSize, maxTextureSize, true, 0, this.mipmapLevels);
+		int j = Integer.MAX_VALUE;
+		int k = 1 << this.mipmapLevels;
+		Map<String, SpriteDecodeTask> predecodedSprites = isEaglerPBRMode ? null
+				: this.decodeSpritesParallel(resourceManager);
+
 		for (Entry entry : this.mapRegisteredSprites.entrySet()) {
 			EaglerTextureAtlasSprite textureatlassprite = (EaglerTextureAtlasSprite) entry.getValue();
 			textureatlassprite.updateIndexInMap(this.counterIndexInMap);
@@ -326,9 +430,14 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
 			}
 
 			try {
-				IResource iresource = resourceManager.getResource(resourcelocation1);
+				SpriteDecodeTask predecoded = predecodedSprites != null
+						? predecodedSprites.remove(textureatlassprite.getIconName())
+						: null;
+				IResource iresource = predecoded != null ? predecoded.resource
+						: resourceManager.getResource(resourcelocation1);
 				ImageData[] abufferedimage = new ImageData[1 + this.mipmapLevels];
-				abufferedimage[0] = TextureUtil.readBufferedImage(iresource.getInputStream());
+				abufferedimage[0] = predecoded != null ? predecoded.getImage()
+						: TextureUtil.readBufferedImage(iresource.getInputStream());
 				TextureMetadataSection texturemetadatasection = (TextureMetadataSection) iresource
 						.getMetadata("texture");
 				if (texturemetadatasection != null) {
@@ -437,76 +546,103 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
 
 		logger.info("Created: {}x{} {}-atlas", new Object[] { Integer.valueOf(stitcher.getCurrentWidth()),
 				Integer.valueOf(stitcher.getCurrentHeight()), this.basePath });
-		regenerateIfNotAllocated();
-		TextureUtil.allocateTextureImpl(this.getGlTextureId(), this.mipmapLevels, stitcher.getCurrentWidth(),
-				stitcher.getCurrentHeight());
+		this.width = stitcher.getCurrentWidth();
+		this.height = stitcher.getCurrentHeight();
+		return stitcher.getStichSlots();
+	}
 
-		if (isEaglerPBRMode) {
-			if (hasAllocatedEaglerPBRMaterialTexture) {
-				EaglercraftGPU.regenerateTexture(eaglerPBRMaterialTexture);
+	/**
+	 * Reads the base image of every sprite and decodes them on the worker pool,
+	 * returns null on runtimes without threads
+	 */
+	private Map<String, SpriteDecodeTask> decodeSpritesParallel(IResourceManager resourceManager) {
+		IWorkerThreadPool pool = getDecoderPool();
+		if (pool == null) {
+			return null;
+		}
+		List<SpriteDecodeTask> tasks = Lists.newArrayList();
+		Map<String, SpriteDecodeTask> ret = Maps.newHashMap();
+		for (EaglerTextureAtlasSprite textureatlassprite : this.mapRegisteredSprites.values()) {
+			ResourceLocation resourcelocation = this.completeResourceLocation(
+					new ResourceLocation(textureatlassprite.getIconName()), 0);
+			IResource iresource;
+			try {
+				iresource = resourceManager.getResource(resourcelocation);
+			} catch (IOException ex) {
+				continue;
+			}
+			InputStream is = iresource.getInputStream();
+			byte[] data;
+			try {
+				data = EaglerInputStream.inputStreamToBytesQuiet(is);
+			} finally {
+				IOUtils.closeQuietly(is);
+			}
+			if (data != null) {
+				SpriteDecodeTask task = new SpriteDecodeTask(iresource, data);
+				tasks.add(task);
+				ret.put(textureatlassprite.getIconName(), task);
 			}
-			hasAllocatedEaglerPBRMaterialTexture = true;
-			TextureUtil.allocateTextureImpl(eaglerPBRMaterialTexture, this.mipmapLevels, stitcher.getCurrentWidth(),
-					stitcher.getCurrentHeight() * 2);
 		}
+		for (int l = 0, m = tasks.size(); l < m; ++l) {
+			pool.execute(tasks.get(l));
+		}
+		return ret;
+	}
 
-		TextureUtil.bindTexture(this.glTextureId);
-
-		copyColorFramebuffer = new IFramebufferGL[this.mipmapLevels + 1];
-		for (int l = 0; l < copyColorFramebuffer.length; ++l) {
-			copyColorFramebuffer[l] = _wglCreateFramebuffer();
-			_wglBindFramebuffer(_GL_FRAMEBUFFER, copyColorFramebuffer[l]);
-			_wglFramebufferTexture2D(_GL_FRAMEBUFFER, _GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D,
-					EaglercraftGPU.getNativeTexture(this.glTextureId), l);
+	private static IWorkerThreadPool getDecoderPool() {
+		if (!decoderPoolCreated) {
+			decoderPoolCreated = true;
+			decoderPool = EagRuntime.createWorkerThreadPool("Texture Decoder", 4);
 		}
+		return decoderPool;
+	}
 
-		_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
+	private static class SpriteDecodeTask implements Runnable {
 
-		HashMap hashmap = Maps.newHashMap(this.mapRegisteredSprites);
+		private static final int QUEUED = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
 
-		width = stitcher.getCurrentWidth();
-		height = stitcher.getCurrentHeight();
+		private final IResource resource;
+		private byte[] data;
+		private ImageData image = null;
+		private int state = QUEUED;
 
-		List<EaglerTextureAtlasSprite> spriteList = stitcher.getStichSlots();
-		for (int l = 0, m = spriteList.size(); l < m; ++l) {
-			EaglerTextureAtlasSprite textureatlassprite2 = spriteList.get(l);
-			String s = textureatlassprite2.getIconName();
-			hashmap.remove(s);
-			this.mapUploadedSprites.put(s, textureatlassprite2);
+		private SpriteDecodeTask(IResource resource, byte[] data) {
+			this.resource = resource;
+			this.data = data;
+		}
 
-			try {
-				TextureUtil.bindTexture(this.glTextureId);
-				TextureUtil.uploadTextureMipmap(textureatlassprite2.getFrameTextureData(0),
-						textureatlassprite2.getIconWidth(), textureatlassprite2.getIconHeight(),
-						textureatlassprite2.getOriginX(), textureatlassprite2.getOriginY(), false, false);
-				if (isEaglerPBRMode) {
-					TextureUtil.bindTexture(eaglerPBRMaterialTexture);
-					int[][][] pixels = ((EaglerTextureAtlasSpritePBR) textureatlassprite2).getFramePBRTextureData(0);
-					TextureUtil.uploadTextureMipmap(pixels[1], textureatlassprite2.getIconWidth(),
-							textureatlassprite2.getIconHeight(), textureatlassprite2.getOriginX(),
-							textureatlassprite2.getOriginY(), false, false);
-					TextureUtil.uploadTextureMipmap(pixels[2], textureatlassprite2.getIconWidth(),
-							textureatlassprite2.getIconHeight(), textureatlassprite2.getOriginX(),
-							textureatlassprite2.getOriginY() + height, false, false);
+		public void run() {
+			synchronized (this) {
+				if (state != QUEUED) {
+					return;
 				}
-			} catch (Throwable throwable) {
-				CrashReport crashreport1 = CrashReport.makeCrashReport(throwable, "Stitching texture atlas");
-				CrashReportCategory crashreportcategory1 = crashreport1.makeCategory("Texture being stitched together");
-				crashreportcategory1.addCrashSection("Atlas path", this.basePath);
-				crashreportcategory1.addCrashSection("Sprite", textureatlassprite2);
-				throw new ReportedException(crashreport1);
+				state = RUNNING;
 			}
-
-			if (textureatlassprite2.hasAnimationMetadata()) {
-				this.listAnimatedSprites.add(textureatlassprite2);
+			ImageData img = ImageData.loadImageFile(data);
+			synchronized (this) {
+				image = img;
+				data = null;
+				state = DONE;
+				notifyAll();
 			}
 		}
 
-		for (EaglerTextureAtlasSprite textureatlassprite3 : (Collection<EaglerTextureAtlasSprite>) hashmap.values()) {
-			textureatlassprite3.copyFrom(this.missingImage);
+		private ImageData getImage() {
+			synchronized (this) {
+				while (state == RUNNING) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+					}
+				}
+			}
+			run();
+			return image;
 		}
 
-		_wglBindFramebuffer(_GL_FRAMEBUFFER, null);
 	}
 
 	private ResourceLocation completeResourceLocation(ResourceLocation location, int parInt1) {
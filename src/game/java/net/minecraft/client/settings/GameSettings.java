@@ -202,6 +202,7 @@ public class GameSettings {
 	public boolean hudStats = false;
 	public boolean hud24h = false;
 	public boolean chunkFix = true;
+	public int chunkUpdateBudgetNanos = 0;
 	public boolean fog = true;
 	public int fxaa = 0;
 	public boolean shaders = false;
@@ -1024,6 +1025,10 @@ public class GameSettings {
 						this.chunkFix = astring[1].equals("true");
 					}
 
+					if (astring[0].equals("chunkUpdateBudgetNanos")) {
+						this.chunkUpdateBudgetNanos = Math.max(Integer.parseInt(astring[1]), 0);
+					}
+
 					if (astring[0].equals("fog")) {
 						this.fog = astring[1].equals("true");
 					}
@@ -1281,6 +1286,7 @@ public class GameSettings {
 			printwriter.println("hudStats:" + this.hudStats);
 			printwriter.println("hud24h:" + this.hud24h);
 			printwriter.println("chunkFix:" + this.chunkFix);
+			printwriter.println("chunkUpdateBudgetNanos:" + this.chunkUpdateBudgetNanos);
 			printwriter.println("fog:" + this.fog);
 			printwriter.println("fxaa:" + this.fxaa);
 			printwriter.println("shaders:" + this.shaders);
@@ -216,7 +216,7 @@ public abstract class Entity implements ICommandSender {
 		if (this.worldObj != null) {
 			while (this.posY > 0.0D && this.posY < 256.0D) {
 				this.setPosition(this.posX, this.posY, this.posZ);
-				if (this.worldObj.getCollidingBoundingBoxes(this, this.getEntityBoundingBox()).isEmpty()) {
+				if (this.worldObj.isCollisionBoxesEmpty(this, this.getEntityBoundingBox())) {
 					break;
 				}
 
@@ -444,7 +444,7 @@ public abstract class Entity implements ICommandSender {
 	 * AxisAlignedBB.
 	 */
 	private boolean isLiquidPresentInAABB(AxisAlignedBB bb) {
-		return this.worldObj.getCollidingBoundingBoxes(this, bb).isEmpty() && !this.worldObj.isAnyLiquid(bb);
+		return this.worldObj.isCollisionBoxesEmpty(this, bb) && !this.worldObj.isAnyLiquid(bb);
 	}
 
 	/**+
@@ -475,9 +475,8 @@ public abstract class Entity implements ICommandSender {
 			boolean flag = this.onGround && this.isSneaking() && this instanceof EntityPlayer;
 			if (flag) {
 				double d6;
-				for (d6 = 0.05D; x != 0.0D && this.worldObj
-						.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(x, -1.0D, 0.0D))
-						.isEmpty(); d3 = x) {
+				for (d6 = 0.05D; x != 0.0D && this.worldObj.isCollisionBoxesEmpty(this,
+						this.getEntityBoundingBox().offset(x, -1.0D, 0.0D)); d3 = x) {
 					if (x < d6 && x >= -d6) {
 						x = 0.0D;
 					} else if (x > 0.0D) {
@@ -487,9 +486,8 @@ public abstract class Entity implements ICommandSender {
 					}
 				}
 
-				for (; z != 0.0D && this.worldObj
-						.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(0.0D, -1.0D, z))
-						.isEmpty(); d5 = z) {
+				for (; z != 0.0D && this.worldObj.isCollisionBoxesEmpty(this,
+						this.getEntityBoundingBox().offset(0.0D, -1.0D, z)); d5 = z) {
 					if (z < d6 && z >= -d6) {
 						z = 0.0D;
 					} else if (z > 0.0D) {
@@ -499,10 +497,8 @@ public abstract class Entity implements ICommandSender {
 					}
 				}
 
-				for (; x != 0.0D && z != 0.0D
-						&& this.worldObj
-								.getCollidingBoundingBoxes(this, this.getEntityBoundingBox().offset(x, -1.0D, z))
-								.isEmpty(); d5 = z) {
+				for (; x != 0.0D && z != 0.0D && this.worldObj.isCollisionBoxesEmpty(this,
+						this.getEntityBoundingBox().offset(x, -1.0D, z)); d5 = z) {
 					if (x < d6 && x >= -d6) {
 						x = 0.0D;
 					} else if (x > 0.0D) {
@@ -523,7 +519,7 @@ public abstract class Entity implements ICommandSender {
 			}
 
 			List<AxisAlignedBB> list1 = this.worldObj.getCollidingBoundingBoxes(this,
-					this.getEntityBoundingBox().addCoord(x, y, z));
+					this.getEntityBoundingBox().addCoord(x, y, z), this.worldObj.borrowBoxList());
 			AxisAlignedBB axisalignedbb = this.getEntityBoundingBox();
 
 			for (int i = 0, l = list1.size(); i < l; ++i) {
@@ -543,6 +539,7 @@ public abstract class Entity implements ICommandSender {
 				z = list1.get(i).calculateZOffset(this.getEntityBoundingBox(), z);
 			}
 
+			this.worldObj.releaseBoxList(list1);
 			this.setEntityBoundingBox(this.getEntityBoundingBox().offset(0.0D, 0.0D, z));
 			if (this.stepHeight > 0.0F && flag1 && (d3 != x || d5 != z)) {
 				double d11 = x;
@@ -552,7 +549,7 @@ public abstract class Entity implements ICommandSender {
 				this.setEntityBoundingBox(axisalignedbb);
 				y = (double) this.stepHeight;
 				List<AxisAlignedBB> list = this.worldObj.getCollidingBoundingBoxes(this,
-						this.getEntityBoundingBox().addCoord(d3, y, d5));
+						this.getEntityBoundingBox().addCoord(d3, y, d5), this.worldObj.borrowBoxList());
 				AxisAlignedBB axisalignedbb4 = this.getEntityBoundingBox();
 				AxisAlignedBB axisalignedbb5 = axisalignedbb4.addCoord(d3, 0.0D, d5);
 				double d9 = y;
@@ -616,6 +613,7 @@ public abstract class Entity implements ICommandSender {
 					y = list.get(i).calculateYOffset(this.getEntityBoundingBox(), y);
 				}
 
+				this.worldObj.releaseBoxList(list);
 				this.setEntityBoundingBox(this.getEntityBoundingBox().offset(0.0D, y, 0.0D));
 				if (d11 * d11 + d8 * d8 >= x * x + z * z) {
 					x = d11;
@@ -1669,12 +1667,13 @@ public abstract class Entity implements ICommandSender {
 	public void setPositionAndRotation2(double d0, double d1, double d2, float f, float f1, int var9, boolean var10) {
 		this.setPosition(d0, d1, d2);
 		this.setRotation(f, f1);
-		List list = this.worldObj.getCollidingBoundingBoxes(this,
-				this.getEntityBoundingBox().contract(0.03125D, 0.0D, 0.03125D));
+		List<AxisAlignedBB> list = this.worldObj.getCollidingBoundingBoxes(this,
+				this.getEntityBoundingBox().contract(0.03125D, 0.0D, 0.03125D), this.worldObj.borrowBoxList());
 		if (!list.isEmpty()) {
 			double d3 = 0.0D;
 
-			for (AxisAlignedBB axisalignedbb : (List<AxisAlignedBB>) list) {
+			for (int i = 0, l = list.size(); i < l; ++i) {
+				AxisAlignedBB axisalignedbb = list.get(i);
 				if (axisalignedbb.maxY > d3) {
 					d3 = axisalignedbb.maxY;
 				}
@@ -1684,6 +1683,8 @@ public abstract class Entity implements ICommandSender {
 			this.setPosition(d0, d1, d2);
 		}
 
+		this.worldObj.releaseBoxList(list);
+
 	}
 
 	public float getCollisionBorderSize() {
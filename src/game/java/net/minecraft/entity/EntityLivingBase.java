@@ -12,6 +12,7 @@ import com.google.common.base.Predicates;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.minecraft.block.Block;
@@ -1684,21 +1685,19 @@ public abstract class EntityLivingBase extends Entity {
 	protected void updateEntityActionState() {
 	}
 
+	private final Consumer<Entity> collideWithEntityVisitor = this::collideWithEntity;
+
+	private static final Predicate<Entity> CAN_BE_PUSHED = Predicates.and(EntitySelectors.NOT_SPECTATING,
+			new Predicate<Entity>() {
+				public boolean apply(Entity entity1) {
+					return entity1.canBePushed();
+				}
+			});
+
 	protected void collideWithNearbyEntities() {
-		List list = this.worldObj.getEntitiesInAABBexcluding(this,
+		this.worldObj.forEachEntityInAABBexcluding(this,
 				this.getEntityBoundingBox().expand(0.20000000298023224D, 0.0D, 0.20000000298023224D),
-				Predicates.and(EntitySelectors.NOT_SPECTATING, new Predicate<Entity>() {
-					public boolean apply(Entity entity1) {
-						return entity1.canBePushed();
-					}
-				}));
-		if (!list.isEmpty()) {
-			for (int i = 0; i < list.size(); ++i) {
-				Entity entity = (Entity) list.get(i);
-				this.collideWithEntity(entity);
-			}
-		}
-
+				CAN_BE_PUSHED, this.collideWithEntityVisitor);
 	}
 
 	protected void collideWithEntity(Entity parEntity) {
@@ -2,9 +2,12 @@ package net.minecraft.entity;
 
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import net.minecraft.crash.CrashReport;
@@ -35,7 +38,9 @@ import net.minecraft.entity.projectile.EntityPotion;
 import net.minecraft.entity.projectile.EntitySmallFireball;
 import net.minecraft.entity.projectile.EntitySnowball;
 import net.minecraft.network.Packet;
+import net.minecraft.util.MathHelper;
 import net.minecraft.util.ReportedException;
+import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
@@ -73,6 +78,26 @@ public class EntityTracker {
 	 * Used for identity lookup of tracked entities.
 	 */
 	private IntObjectMap<EntityTrackerEntry> trackedEntityHashTable = new IntObjectHashMap<>();
+	/**
+	 * Tracker entries bucketed by the chunk column of their encoded position,
+	 * lets a moving player only visit the entries that could be in range
+	 * instead of every entity in the world
+	 */
+	private final LongObjectMap<List<EntityTrackerEntry>> trackedEntityGrid = new LongObjectHashMap<>();
+	/**
+	 * Tracker entries bucketed by the chunk the entity is actually in, the
+	 * encoded position of slow updating entries (arrows, items) can be several
+	 * chunks behind so it can't be used to find the entities of a sent chunk
+	 */
+	private final LongObjectMap<List<EntityTrackerEntry>> entityChunkGrid = new LongObjectHashMap<>();
+	/**
+	 * The cells each player was last checked against, grown by one chunk
+	 * because both the player and the entities can drift up to 4 blocks
+	 * before anything is checked again. Any entry still tracking the player
+	 * from its old position is inside these bounds
+	 */
+	private final IntObjectMap<int[]> playerTrackingBounds = new IntObjectHashMap<>();
+	private int maxEntryTrackingRange = 0;
 	private int maxTrackingDistanceThreshold;
 
 	public EntityTracker(WorldServer theWorldIn) {
@@ -88,13 +113,7 @@ public class EntityTracker {
 	public void trackEntity(Entity parEntity) {
 		if (parEntity instanceof EntityPlayerMP) {
 			this.trackEntity(parEntity, 512, 2);
-			EntityPlayerMP entityplayermp = (EntityPlayerMP) parEntity;
-
-			for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-				if (entitytrackerentry.trackedEntity != entityplayermp) {
-					entitytrackerentry.updatePlayerEntity(entityplayermp, maxTrackingDistanceThreshold);
-				}
-			}
+			this.updateNearbyEntries((EntityPlayerMP) parEntity);
 		} else if (parEntity instanceof EntityFishHook) {
 			this.addEntityToTracker(parEntity, 64, 5, true);
 		} else if (parEntity instanceof EntityArrow) {
@@ -168,6 +187,10 @@ public class EntityTracker {
 					sendVelocityUpdates);
 			this.trackedEntities.add(entitytrackerentry);
 			this.trackedEntityHashTable.put(entityIn.getEntityId(), entitytrackerentry);
+			this.addToGrid(entitytrackerentry);
+			if (trackingRange > this.maxEntryTrackingRange) {
+				this.maxEntryTrackingRange = trackingRange;
+			}
 			entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities, maxTrackingDistanceThreshold);
 		} catch (Throwable throwable) {
 			CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Adding entity to track");
@@ -204,11 +227,14 @@ public class EntityTracker {
 			for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
 				entitytrackerentry.removeFromTrackedPlayers(entityplayermp);
 			}
+
+			this.playerTrackingBounds.remove(entityplayermp.getEntityId());
 		}
 
 		EntityTrackerEntry entitytrackerentry1 = this.trackedEntityHashTable.remove(entityIn.getEntityId());
 		if (entitytrackerentry1 != null) {
 			this.trackedEntities.remove(entitytrackerentry1);
+			this.removeFromGrid(entitytrackerentry1);
 			entitytrackerentry1.sendDestroyEntityPacketToTrackedPlayers();
 		}
 
@@ -219,6 +245,14 @@ public class EntityTracker {
 
 		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
 			entitytrackerentry.updatePlayerList(this.theWorld.playerEntities, maxTrackingDistanceThreshold);
+			if (entitytrackerentry.getEncodedChunkX() != entitytrackerentry.trackerCellX
+					|| entitytrackerentry.getEncodedChunkZ() != entitytrackerentry.trackerCellZ
+					|| entitytrackerentry.trackedEntity.chunkCoordX != entitytrackerentry.entityCellX
+					|| entitytrackerentry.trackedEntity.chunkCoordZ != entitytrackerentry.entityCellZ) {
+				this.removeFromGrid(entitytrackerentry);
+				this.addToGrid(entitytrackerentry);
+			}
+
 			if (entitytrackerentry.playerEntitiesUpdated
 					&& entitytrackerentry.trackedEntity instanceof EntityPlayerMP) {
 				arraylist.add((EntityPlayerMP) entitytrackerentry.trackedEntity);
@@ -226,26 +260,19 @@ public class EntityTracker {
 		}
 
 		for (int i = 0; i < arraylist.size(); ++i) {
-			EntityPlayerMP entityplayermp = (EntityPlayerMP) arraylist.get(i);
-
-			for (EntityTrackerEntry entitytrackerentry1 : this.trackedEntities) {
-				if (entitytrackerentry1.trackedEntity != entityplayermp) {
-					entitytrackerentry1.updatePlayerEntity(entityplayermp, maxTrackingDistanceThreshold);
-				}
-			}
+			this.updateNearbyEntries((EntityPlayerMP) arraylist.get(i));
 		}
 
 	}
 
 	public void func_180245_a(EntityPlayerMP parEntityPlayerMP) {
-		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-			if (entitytrackerentry.trackedEntity == parEntityPlayerMP) {
-				entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities, maxTrackingDistanceThreshold);
-			} else {
-				entitytrackerentry.updatePlayerEntity(parEntityPlayerMP, maxTrackingDistanceThreshold);
-			}
+		EntityTrackerEntry entitytrackerentry = this.trackedEntityHashTable.get(parEntityPlayerMP.getEntityId());
+		if (entitytrackerentry != null) {
+			entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities, maxTrackingDistanceThreshold);
 		}
 
+		this.updateNearbyEntries(parEntityPlayerMP);
+
 	}
 
 	public void sendToAllTrackingEntity(Entity entityIn, Packet parPacket) {
@@ -272,13 +299,110 @@ public class EntityTracker {
 	}
 
 	public void func_85172_a(EntityPlayerMP parEntityPlayerMP, Chunk parChunk) {
-		for (EntityTrackerEntry entitytrackerentry : this.trackedEntities) {
-			if (entitytrackerentry.trackedEntity != parEntityPlayerMP
-					&& entitytrackerentry.trackedEntity.chunkCoordX == parChunk.xPosition
-					&& entitytrackerentry.trackedEntity.chunkCoordZ == parChunk.zPosition) {
-				entitytrackerentry.updatePlayerEntity(parEntityPlayerMP, maxTrackingDistanceThreshold);
+		// entities are re-bucketed once per tick, one that crossed into this chunk
+		// since then is still in a neighbouring cell. Anything that moved further
+		// in a single tick also moved more than 4 blocks, so the next
+		// updatePlayerList checks it against every player anyway
+		for (int x = parChunk.xPosition - 1; x <= parChunk.xPosition + 1; ++x) {
+			for (int z = parChunk.zPosition - 1; z <= parChunk.zPosition + 1; ++z) {
+				List<EntityTrackerEntry> cell = this.entityChunkGrid.get(ChunkCoordIntPair.chunkXZ2Int(x, z));
+				if (cell != null) {
+					for (int i = 0, l = cell.size(); i < l; ++i) {
+						EntityTrackerEntry entitytrackerentry = cell.get(i);
+						if (entitytrackerentry.trackedEntity != parEntityPlayerMP
+								&& entitytrackerentry.trackedEntity.chunkCoordX == parChunk.xPosition
+								&& entitytrackerentry.trackedEntity.chunkCoordZ == parChunk.zPosition) {
+							entitytrackerentry.updatePlayerEntity(parEntityPlayerMP, maxTrackingDistanceThreshold);
+						}
+					}
+				}
 			}
 		}
 
 	}
+
+	/**
+	 * Checks the player against every entry that is either in range of its
+	 * current position or might still be tracking it from the last position
+	 * it was checked at, replaces looping over all tracked entities
+	 */
+	private void updateNearbyEntries(EntityPlayerMP player) {
+		int range = Math.min(this.maxEntryTrackingRange, this.maxTrackingDistanceThreshold);
+		int minX = MathHelper.floor_double(player.posX - range) >> 4;
+		int minZ = MathHelper.floor_double(player.posZ - range) >> 4;
+		int maxX = MathHelper.floor_double(player.posX + range) >> 4;
+		int maxZ = MathHelper.floor_double(player.posZ + range) >> 4;
+		this.updatePlayerInCells(player, minX, minZ, maxX, maxZ, null);
+		int[] newBounds = new int[] { minX, minZ, maxX, maxZ };
+		int[] oldBounds = this.playerTrackingBounds.put(player.getEntityId(),
+				new int[] { minX - 1, minZ - 1, maxX + 1, maxZ + 1 });
+		if (oldBounds != null) {
+			this.updatePlayerInCells(player, oldBounds[0], oldBounds[1], oldBounds[2], oldBounds[3], newBounds);
+		}
+	}
+
+	private void updatePlayerInCells(EntityPlayerMP player, int minX, int minZ, int maxX, int maxZ, int[] exclude) {
+		for (int x = minX; x <= maxX; ++x) {
+			for (int z = minZ; z <= maxZ; ++z) {
+				if (exclude != null && x >= exclude[0] && z >= exclude[1] && x <= exclude[2] && z <= exclude[3]) {
+					continue;
+				}
+				List<EntityTrackerEntry> cell = this.trackedEntityGrid.get(ChunkCoordIntPair.chunkXZ2Int(x, z));
+				if (cell != null) {
+					for (int i = 0, l = cell.size(); i < l; ++i) {
+						EntityTrackerEntry entitytrackerentry = cell.get(i);
+						if (entitytrackerentry.trackedEntity != player) {
+							entitytrackerentry.updatePlayerEntity(player, maxTrackingDistanceThreshold);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void addToGrid(EntityTrackerEntry entry) {
+		entry.trackerCellX = entry.getEncodedChunkX();
+		entry.trackerCellZ = entry.getEncodedChunkZ();
+		entry.entityCellX = entry.trackedEntity.chunkCoordX;
+		entry.entityCellZ = entry.trackedEntity.chunkCoordZ;
+		addToCell(this.trackedEntityGrid, ChunkCoordIntPair.chunkXZ2Int(entry.trackerCellX, entry.trackerCellZ),
+				entry);
+		addToCell(this.entityChunkGrid, ChunkCoordIntPair.chunkXZ2Int(entry.entityCellX, entry.entityCellZ), entry);
+	}
+
+	private void removeFromGrid(EntityTrackerEntry entry) {
+		removeFromCell(this.trackedEntityGrid, ChunkCoordIntPair.chunkXZ2Int(entry.trackerCellX, entry.trackerCellZ),
+				entry);
+		removeFromCell(this.entityChunkGrid, ChunkCoordIntPair.chunkXZ2Int(entry.entityCellX, entry.entityCellZ),
+				entry);
+	}
+
+	private static void addToCell(LongObjectMap<List<EntityTrackerEntry>> grid, long key, EntityTrackerEntry entry) {
+		List<EntityTrackerEntry> cell = grid.get(key);
+		if (cell == null) {
+			cell = new ArrayList<>(4);
+			grid.put(key, cell);
+		}
+		cell.add(entry);
+	}
+
+	private static void removeFromCell(LongObjectMap<List<EntityTrackerEntry>> grid, long key,
+			EntityTrackerEntry entry) {
+		List<EntityTrackerEntry> cell = grid.get(key);
+		if (cell != null) {
+			for (int i = 0, l = cell.size(); i < l; ++i) {
+				if (cell.get(i) == entry) {
+					int last = l - 1;
+					if (i != last) {
+						cell.set(i, cell.get(last));
+					}
+					cell.remove(last);
+					break;
+				}
+			}
+			if (cell.isEmpty()) {
+				grid.remove(key);
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -59,6 +59,7 @@ import net.minecraft.util.MathHelper;
 import net.minecraft.world.storage.MapData;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -95,6 +96,16 @@ public class EntityTrackerEntry {
 	public double lastTrackedEntityMotionY;
 	public double motionZ;
 	public int updateCounter;
+	/**
+	 * Offset added to updateCounter before checking updateFrequency, spreads
+	 * the position updates of entities spawned on the same tick (item drops,
+	 * mob farms) across the whole interval instead of sending them in bursts
+	 */
+	public int updatePhase;
+	public int trackerCellX;
+	public int trackerCellZ;
+	public int entityCellX;
+	public int entityCellZ;
 	private double lastTrackedEntityPosX;
 	private double lastTrackedEntityPosY;
 	private double lastTrackedEntityPosZ;
@@ -116,6 +127,8 @@ public class EntityTrackerEntry {
 		this.trackedEntity = trackedEntityIn;
 		this.trackingDistanceThreshold = trackingDistanceThresholdIn;
 		this.updateFrequency = updateFrequencyIn;
+		this.updatePhase = updateFrequencyIn == Integer.MAX_VALUE ? 0
+				: (trackedEntityIn.getEntityId() & 0x7FFFFFFF) % updateFrequencyIn;
 		this.sendVelocityUpdates = sendVelocityUpdatesIn;
 		this.encodedPosX = MathHelper.floor_double(trackedEntityIn.posX * 32.0D);
 		this.encodedPosY = MathHelper.floor_double(trackedEntityIn.posY * 32.0D);
@@ -175,7 +188,7 @@ public class EntityTrackerEntry {
 			this.sendMetadataToAllAssociatedPlayers();
 		}
 
-		if (this.updateCounter % this.updateFrequency == 0 || this.trackedEntity.isAirBorne
+		if ((this.updateCounter + this.updatePhase) % this.updateFrequency == 0 || this.trackedEntity.isAirBorne
 				|| this.trackedEntity.getDataWatcher().hasObjectChanged()) {
 			if (this.trackedEntity.ridingEntity == null) {
 				++this.ticksSinceLastForcedTeleport;
@@ -313,16 +326,26 @@ public class EntityTrackerEntry {
 	 * Send the given packet to all players tracking this entity.
 	 */
 	public void sendPacketToTrackedPlayers(Packet packetIn) {
-		for (EntityPlayerMP entityplayermp : this.trackingPlayers) {
-			entityplayermp.playerNetServerHandler.sendPacket(packetIn);
+		IntegratedServerPlayerNetworkManager.beginBroadcast();
+		try {
+			for (EntityPlayerMP entityplayermp : this.trackingPlayers) {
+				entityplayermp.playerNetServerHandler.sendPacket(packetIn);
+			}
+		} finally {
+			IntegratedServerPlayerNetworkManager.endBroadcast();
 		}
 
 	}
 
 	public void func_151261_b(Packet packetIn) {
-		this.sendPacketToTrackedPlayers(packetIn);
-		if (this.trackedEntity instanceof EntityPlayerMP) {
-			((EntityPlayerMP) this.trackedEntity).playerNetServerHandler.sendPacket(packetIn);
+		IntegratedServerPlayerNetworkManager.beginBroadcast();
+		try {
+			this.sendPacketToTrackedPlayers(packetIn);
+			if (this.trackedEntity instanceof EntityPlayerMP) {
+				((EntityPlayerMP) this.trackedEntity).playerNetServerHandler.sendPacket(packetIn);
+			}
+		} finally {
+			IntegratedServerPlayerNetworkManager.endBroadcast();
 		}
 
 	}
@@ -439,6 +462,18 @@ public class EntityTrackerEntry {
 				&& this.trackedEntity.isSpectatedByPlayer(playerMP);
 	}
 
+	/**
+	 * The chunk column func_180233_c sees this entity in, the encoded position
+	 * can lag behind the real one between position updates
+	 */
+	public int getEncodedChunkX() {
+		return (this.encodedPosX / 32) >> 4;
+	}
+
+	public int getEncodedChunkZ() {
+		return (this.encodedPosZ / 32) >> 4;
+	}
+
 	private boolean isPlayerWatchingThisChunk(EntityPlayerMP playerMP) {
 		return playerMP.getServerForPlayer().getPlayerManager().isPlayerWatchingChunk(playerMP,
 				this.trackedEntity.chunkCoordX, this.trackedEntity.chunkCoordZ);
@@ -39,6 +39,11 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 	private double targetX;
 	private double targetY;
 	private double targetZ;
+	/**
+	 * The path search to the target ran out of node budget, the task runs
+	 * anyway and updateTask asks again every tick until the search is done
+	 */
+	private boolean searchPending;
 
 	public EntityAIAttackOnCollide(EntityCreature creature, Class<? extends Entity> targetClass, double speedIn,
 			boolean useLongMemory) {
@@ -67,7 +72,8 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 			return false;
 		} else {
 			this.entityPathEntity = this.attacker.getNavigator().getPathToEntityLiving(entitylivingbase);
-			return this.entityPathEntity != null;
+			this.searchPending = this.entityPathEntity == null && this.attacker.getNavigator().isSearchSuspended();
+			return this.entityPathEntity != null || this.searchPending;
 		}
 	}
 
@@ -79,7 +85,7 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 		EntityLivingBase entitylivingbase = this.attacker.getAttackTarget();
 		return entitylivingbase == null ? false
 				: (!entitylivingbase.isEntityAlive() ? false
-						: (!this.longMemory ? !this.attacker.getNavigator().noPath()
+						: (!this.longMemory ? this.searchPending || !this.attacker.getNavigator().noPath()
 								: this.attacker.isWithinHomeDistanceFromPosition(new BlockPos(entitylivingbase))));
 	}
 
@@ -95,6 +101,7 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 	 * Resets the task
 	 */
 	public void resetTask() {
+		this.searchPending = false;
 		this.attacker.getNavigator().clearPathEntity();
 	}
 
@@ -108,8 +115,8 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 				entitylivingbase.posZ);
 		double d1 = this.func_179512_a(entitylivingbase);
 		--this.delayCounter;
-		if ((this.longMemory || this.attacker.getEntitySenses().canSee(entitylivingbase)) && this.delayCounter <= 0
-				&& (this.targetX == 0.0D && this.targetY == 0.0D && this.targetZ == 0.0D
+		if (this.searchPending || (this.longMemory || this.attacker.getEntitySenses().canSee(entitylivingbase))
+				&& this.delayCounter <= 0 && (this.targetX == 0.0D && this.targetY == 0.0D && this.targetZ == 0.0D
 						|| entitylivingbase.getDistanceSq(this.targetX, this.targetY, this.targetZ) >= 1.0D
 						|| this.attacker.getRNG().nextFloat() < 0.05F)) {
 			this.targetX = entitylivingbase.posX;
@@ -122,7 +129,12 @@ public class EntityAIAttackOnCollide extends EntityAIBase {
 				this.delayCounter += 5;
 			}
 
-			if (!this.attacker.getNavigator().tryMoveToEntityLiving(entitylivingbase, this.speedTowardsTarget)) {
+			boolean flag = this.attacker.getNavigator().tryMoveToEntityLiving(entitylivingbase,
+					this.speedTowardsTarget);
+			this.searchPending = !flag && this.attacker.getNavigator().isSearchSuspended();
+			if (this.searchPending) {
+				this.delayCounter = 0;
+			} else if (!flag) {
 				this.delayCounter += 15;
 			}
 		}
@@ -39,6 +39,11 @@ public class EntityAIAvoidEntity<T extends Entity> extends EntityAIBase {
 	private float avoidDistance;
 	private PathEntity entityPathEntity;
 	private PathNavigate entityPathNavigate;
+	/**
+	 * Flee target of a path search that ran out of node budget, reused on the
+	 * next check so the search continues instead of starting over
+	 */
+	private Vec3 pendingTarget;
 	private Class<T> field_181064_i;
 	private Predicate<? super T> avoidTargetSelector;
 
@@ -77,8 +82,11 @@ public class EntityAIAvoidEntity<T extends Entity> extends EntityAIBase {
 			return false;
 		} else {
 			this.closestLivingEntity = (T) list.get(0);
-			Vec3 vec3 = RandomPositionGenerator.findRandomTargetBlockAwayFrom(this.theEntity, 16, 7, new Vec3(
-					this.closestLivingEntity.posX, this.closestLivingEntity.posY, this.closestLivingEntity.posZ));
+			Vec3 vec3 = this.pendingTarget != null ? this.pendingTarget
+					: RandomPositionGenerator.findRandomTargetBlockAwayFrom(this.theEntity, 16, 7,
+							new Vec3(this.closestLivingEntity.posX, this.closestLivingEntity.posY,
+									this.closestLivingEntity.posZ));
+			this.pendingTarget = null;
 			if (vec3 == null) {
 				return false;
 			} else if (this.closestLivingEntity.getDistanceSq(vec3.xCoord, vec3.yCoord,
@@ -86,6 +94,10 @@ public class EntityAIAvoidEntity<T extends Entity> extends EntityAIBase {
 				return false;
 			} else {
 				this.entityPathEntity = this.entityPathNavigate.getPathToXYZ(vec3.xCoord, vec3.yCoord, vec3.zCoord);
+				if (this.entityPathEntity == null && this.entityPathNavigate.isSearchSuspended()) {
+					this.pendingTarget = vec3;
+					return false;
+				}
 				return this.entityPathEntity == null ? false : this.entityPathEntity.isDestinationSame(vec3);
 			}
 		}
@@ -38,6 +38,11 @@ public class EntityAIMoveThroughVillage extends EntityAIBase {
 	private VillageDoorInfo doorInfo;
 	private boolean isNocturnal;
 	private List<VillageDoorInfo> doorList = Lists.newArrayList();
+	/**
+	 * Target of a path search that ran out of node budget, reused on the next
+	 * check so the search continues instead of starting over
+	 */
+	private Vec3 pendingTarget;
 
 	public EntityAIMoveThroughVillage(EntityCreature theEntityIn, double movementSpeedIn, boolean isNocturnalIn) {
 		this.theEntity = theEntityIn;
@@ -68,26 +73,38 @@ public class EntityAIMoveThroughVillage extends EntityAIBase {
 				} else {
 					PathNavigateGround pathnavigateground = (PathNavigateGround) this.theEntity.getNavigator();
 					boolean flag = pathnavigateground.getEnterDoors();
-					pathnavigateground.setBreakDoors(false);
-					this.entityPathNavigate = pathnavigateground.getPathToPos(this.doorInfo.getDoorBlockPos());
-					pathnavigateground.setBreakDoors(flag);
-					if (this.entityPathNavigate != null) {
-						return true;
-					} else {
-						Vec3 vec3 = RandomPositionGenerator.findRandomTargetBlockTowards(this.theEntity, 10, 7,
-								new Vec3((double) this.doorInfo.getDoorBlockPos().getX(),
-										(double) this.doorInfo.getDoorBlockPos().getY(),
-										(double) this.doorInfo.getDoorBlockPos().getZ()));
-						if (vec3 == null) {
+					if (this.pendingTarget == null) {
+						pathnavigateground.setBreakDoors(false);
+						this.entityPathNavigate = pathnavigateground.getPathToPos(this.doorInfo.getDoorBlockPos());
+						pathnavigateground.setBreakDoors(flag);
+						if (this.entityPathNavigate != null) {
+							return true;
+						} else if (pathnavigateground.isSearchSuspended()) {
+							// still searching for a path to the door, continue on the next check
 							return false;
-						} else {
-							pathnavigateground.setBreakDoors(false);
-							this.entityPathNavigate = this.theEntity.getNavigator().getPathToXYZ(vec3.xCoord,
-									vec3.yCoord, vec3.zCoord);
-							pathnavigateground.setBreakDoors(flag);
-							return this.entityPathNavigate != null;
 						}
 					}
+
+					// a pending target means the door search already failed, asking for the
+					// door again would throw away the suspended search to the target
+					Vec3 vec3 = this.pendingTarget != null ? this.pendingTarget
+							: RandomPositionGenerator.findRandomTargetBlockTowards(this.theEntity, 10, 7,
+									new Vec3((double) this.doorInfo.getDoorBlockPos().getX(),
+											(double) this.doorInfo.getDoorBlockPos().getY(),
+											(double) this.doorInfo.getDoorBlockPos().getZ()));
+					this.pendingTarget = null;
+					if (vec3 == null) {
+						return false;
+					} else {
+						pathnavigateground.setBreakDoors(false);
+						this.entityPathNavigate = this.theEntity.getNavigator().getPathToXYZ(vec3.xCoord, vec3.yCoord,
+								vec3.zCoord);
+						pathnavigateground.setBreakDoors(flag);
+						if (this.entityPathNavigate == null && pathnavigateground.isSearchSuspended()) {
+							this.pendingTarget = vec3;
+						}
+						return this.entityPathNavigate != null;
+					}
 				}
 			}
 		}
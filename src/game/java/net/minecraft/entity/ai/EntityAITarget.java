@@ -168,9 +168,14 @@ public abstract class EntityAITarget extends EntityAIBase {
 
 				if (this.targetSearchStatus == 0) {
 					this.targetSearchStatus = this.canEasilyReach(target) ? 1 : 2;
+					if (this.targetSearchStatus == 2 && this.taskOwner.getNavigator().isSearchSuspended()) {
+						// out of node budget, not unreachable, continue the search on the next check
+						this.targetSearchStatus = 0;
+						this.targetSearchDelay = 0;
+					}
 				}
 
-				if (this.targetSearchStatus == 2) {
+				if (this.targetSearchStatus != 1) {
 					return false;
 				}
 			}
@@ -99,6 +99,7 @@ import net.minecraft.world.WorldServer;
 import net.minecraft.world.WorldSettings;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
@@ -127,6 +128,7 @@ import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 
 	private static final Logger logger = LogManager.getLogger();
+	private static final int CHUNK_SEND_CONGESTION_MS = 150;
 	private String translator = "en_US";
 	public NetHandlerPlayServer playerNetServerHandler;
 	public final MinecraftServer mcServer;
@@ -137,6 +139,27 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 	 * LinkedList that holds the loaded chunks.
 	 */
 	public final LongSet loadedChunks = new LongHashSet();
+	/**
+	 * loadedChunks in the order they should be sent, nearest first with the
+	 * chunks in front of the player ahead of the ones behind it. Rebuilt when
+	 * the player crosses a chunk border, turns 45 degrees or loadedChunks is
+	 * changed by the PlayerManager
+	 */
+	private long[] chunkSendQueue = null;
+	private long[] chunkSendSortKeys = null;
+	private int chunkSendQueueLength = 0;
+	private int chunkSendQueuePos = 0;
+	private int chunkSendQueueRemaining = 0;
+	private int chunkSendQueueX;
+	private int chunkSendQueueZ;
+	private int chunkSendQueueYawSector;
+	/**
+	 * Chunks sent per tick, adjusted from the keep alive round trip time
+	 * since that is the only measure the server has of how far behind the
+	 * connection to the player is
+	 */
+	private int chunkSendBudget = -1;
+	private int chunkSendMinRTT = Integer.MAX_VALUE;
 	/**+
 	 * entities added to this list will be packet29'd to the player
 	 */
@@ -303,23 +326,42 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 
 		if (!this.loadedChunks.isEmpty()) {
 			ArrayList<Chunk> arraylist = Lists.newArrayList();
-			Iterator<LongCursor> iterator1 = this.loadedChunks.iterator();
 			ArrayList<TileEntity> arraylist1 = Lists.newArrayList();
+			int chunkX = MathHelper.floor_double(this.posX) >> 4;
+			int chunkZ = MathHelper.floor_double(this.posZ) >> 4;
+			int yawSector = MathHelper.floor_double((double) (this.rotationYaw * 8.0F / 360.0F) + 0.5D) & 7;
+			if (this.chunkSendQueuePos >= this.chunkSendQueueLength
+					|| this.loadedChunks.size() != this.chunkSendQueueRemaining || chunkX != this.chunkSendQueueX
+					|| chunkZ != this.chunkSendQueueZ || yawSector != this.chunkSendQueueYawSector) {
+				this.sortChunkSendQueue(chunkX, chunkZ, yawSector);
+			}
 
-			while (iterator1.hasNext() && arraylist.size() < 10) {
-				long l = iterator1.next().value;
+			int budget = this.getChunkSendBudget();
+			ChunkProviderServer chunkProvider = ((WorldServer) this.worldObj).theChunkProviderServer;
+			// chunks that are missing or not populated yet keep their place, the
+			// queue position only moves past the ones that were sent or dropped
+			int pos = this.chunkSendQueuePos;
+			int firstSkipped = -1;
+			while (pos < this.chunkSendQueueLength && arraylist.size() < budget) {
+				long l = this.chunkSendQueue[pos++];
+				if (!this.loadedChunks.contains(l)) {
+					continue;
+				}
 				int chunkXPos = (int) (l & 4294967295L);
 				int chunkZPos = (int) (l >>> 32);
-				if (this.worldObj.isBlockLoaded(new BlockPos(chunkXPos << 4, 0, chunkZPos << 4))) {
-					Chunk chunk = this.worldObj.getChunkFromChunkCoords(chunkXPos, chunkZPos);
-					if (chunk.isPopulated()) {
-						arraylist.add(chunk);
-						arraylist1.addAll(((WorldServer) this.worldObj).getTileEntitiesIn(chunkXPos * 16, 0,
-								chunkZPos * 16, chunkXPos * 16 + 16, 256, chunkZPos * 16 + 16));
-					}
+				Chunk chunk = chunkProvider.chunkExists(chunkXPos, chunkZPos)
+						? this.worldObj.getChunkFromChunkCoords(chunkXPos, chunkZPos)
+						: null;
+				if (chunk != null && chunk.isPopulated()) {
+					arraylist.add(chunk);
+					arraylist1.addAll(chunk.getTileEntityMap().values());
+				} else if (firstSkipped == -1) {
+					firstSkipped = pos - 1;
 				}
 			}
 
+			this.chunkSendQueuePos = firstSkipped != -1 ? firstSkipped : pos;
+
 			if (!arraylist.isEmpty()) {
 				if (arraylist.size() == 1) {
 					this.playerNetServerHandler.sendPacket(new S21PacketChunkData(arraylist.get(0), true, '\uffff'));
@@ -335,6 +377,7 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 					Chunk c = arraylist.get(i);
 					this.getServerForPlayer().getEntityTracker().func_85172_a(this, c);
 					this.loadedChunks.removeAll(c.getChunkCoordLong());
+					--this.chunkSendQueueRemaining;
 				}
 			}
 		}
@@ -355,6 +398,83 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting {
 
 	}
 
+	private void sortChunkSendQueue(int chunkX, int chunkZ, int yawSector) {
+		int n = this.loadedChunks.size();
+		if (this.chunkSendQueue == null || this.chunkSendQueue.length < n) {
+			this.chunkSendQueue = new long[n];
+			this.chunkSendSortKeys = new long[n];
+		}
+
+		float yaw = this.rotationYaw * 0.017453292F;
+		float lookX = -MathHelper.sin(yaw);
+		float lookZ = MathHelper.cos(yaw);
+		long[] keys = this.chunkSendSortKeys;
+		int i = 0;
+		for (LongCursor cursor : this.loadedChunks) {
+			long l = cursor.value;
+			int dx = (int) (l & 4294967295L) - chunkX;
+			int dz = (int) (l >>> 32) - chunkZ;
+			float score = (float) (dx * dx + dz * dz);
+			if (score > 2.0F) {
+				// chunks behind the player count as up to twice as far away
+				float dot = (dx * lookX + dz * lookZ) / MathHelper.sqrt_float(score);
+				score *= 1.5F - 0.5F * dot;
+			}
+			this.chunkSendQueue[i] = l;
+			keys[i] = ((long) (int) (score * 16.0F) << 32) | i;
+			++i;
+		}
+
+		Arrays.sort(keys, 0, n);
+		for (i = 0; i < n; ++i) {
+			keys[i] = this.chunkSendQueue[(int) keys[i]];
+		}
+
+		this.chunkSendSortKeys = this.chunkSendQueue;
+		this.chunkSendQueue = keys;
+		this.chunkSendQueueLength = n;
+		this.chunkSendQueuePos = 0;
+		this.chunkSendQueueRemaining = n;
+		this.chunkSendQueueX = chunkX;
+		this.chunkSendQueueZ = chunkZ;
+		this.chunkSendQueueYawSector = yawSector;
+	}
+
+	private int getChunkSendBudget() {
+		if (this.chunkSendBudget == -1) {
+			this.chunkSendBudget = this.playerNetServerHandler.netManager.isLocalChannel() ? 10 : 4;
+		}
+
+		if (this.chunkSendMinRTT != Integer.MAX_VALUE && this.playerNetServerHandler
+				.getKeepAliveWaitTime() > this.chunkSendMinRTT + CHUNK_SEND_CONGESTION_MS) {
+			// the last keep alive is stuck behind data that hasn't been delivered yet
+			return 1;
+		}
+
+		return this.chunkSendBudget;
+	}
+
+	/**
+	 * Called with every keep alive round trip, halves the chunk budget if the
+	 * round trip grew past the fastest one seen and otherwise slowly raises it
+	 * back up to the old fixed limit of 10 chunks per tick
+	 */
+	public void updateChunkSendBudget(int rtt) {
+		if (rtt < this.chunkSendMinRTT) {
+			this.chunkSendMinRTT = rtt;
+		}
+
+		if (this.chunkSendBudget == -1) {
+			return;
+		}
+
+		if (rtt > this.chunkSendMinRTT + CHUNK_SEND_CONGESTION_MS) {
+			this.chunkSendBudget = Math.max(this.chunkSendBudget >> 1, 1);
+		} else {
+			this.chunkSendBudget = Math.min(this.chunkSendBudget + 2, 10);
+		}
+	}
+
 	public void onUpdateEntity() {
 		try {
 			super.onUpdate();
@@ -132,6 +132,7 @@ public class NetHandlerPlayServer implements INetHandlerPlayServer, ITickable {
 	private boolean field_147366_g;
 	private int field_147378_h;
 	private long lastPingTime;
+	private boolean keepAlivePending;
 	private long lastSentPingPacket;
 	private int chatSpamThresholdCount;
 	private int itemDropThreshold;
@@ -183,6 +184,7 @@ public class NetHandlerPlayServer implements INetHandlerPlayServer, ITickable {
 			this.lastSentPingPacket = (long) this.networkTickCount;
 			this.lastPingTime = this.currentTimeMillis();
 			this.field_147378_h = (int) this.lastPingTime;
+			this.keepAlivePending = true;
 			this.sendPacket(new S00PacketKeepAlive(this.field_147378_h));
 		}
 
@@ -1071,10 +1073,20 @@ public class NetHandlerPlayServer implements INetHandlerPlayServer, ITickable {
 		if (c00packetkeepalive.getKey() == this.field_147378_h) {
 			int i = (int) (this.currentTimeMillis() - this.lastPingTime);
 			this.playerEntity.ping = (this.playerEntity.ping * 3 + i) / 4;
+			this.playerEntity.updateChunkSendBudget(i);
+			this.keepAlivePending = false;
 		}
 
 	}
 
+	/**
+	 * How long the last keep alive has been waiting for an answer, 0 if it
+	 * already got one
+	 */
+	public int getKeepAliveWaitTime() {
+		return this.keepAlivePending ? (int) (this.currentTimeMillis() - this.lastPingTime) : 0;
+	}
+
 	private long currentTimeMillis() {
 		return EagRuntime.steadyTimeMillis();
 	}
@@ -109,8 +109,9 @@ public class S21PacketChunkData implements Packet<INetHandlerPlayClient> {
 				Integer.bitCount(s21packetchunkdata$extracted.dataSize), parFlag2, parFlag)];
 		int j = 0;
 		int l = arraylist.size();
+		char[] achar = l > 0 ? new char[4096] : null;
 		for (int k = 0; k < l; ++k) {
-			char[] achar = arraylist.get(k).getData();
+			arraylist.get(k).getData(achar);
 
 			for (int m = 0; m < achar.length; ++m) {
 				char c0 = achar[m];
@@ -33,6 +33,14 @@ public class PathEntity {
 		this.pathLength = pathpoints.length;
 	}
 
+	/**
+	 * The points are never modified after the path is created so cached paths
+	 * can share the array
+	 */
+	public PathPoint[] getPoints() {
+		return this.points;
+	}
+
 	/**+
 	 * Directs this path to the next point in its array
 	 */
@@ -1,8 +1,16 @@
 package net.minecraft.pathfinding;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+import com.carrotsearch.hppc.predicates.LongObjectPredicate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.IWorldStatsListener;
+import net.minecraft.world.World;
 import net.minecraft.world.pathfinder.NodeProcessor;
 
 /**+
@@ -26,6 +34,40 @@ import net.minecraft.world.pathfinder.NodeProcessor;
  * 
  */
 public class PathFinder {
+	/**
+	 * Nodes all searches on the server may expand per tick together, a search
+	 * that runs out is suspended and continues the next time its navigator
+	 * asks for the same path
+	 */
+	private static final int NODES_PER_TICK = 2048;
+	/**
+	 * Every search gets this many nodes per call even when the tick budget is
+	 * gone, so short paths still finish immediately and nothing starves
+	 */
+	private static final int MIN_NODES_PER_SEARCH = 64;
+	private static final int SUSPENDED_SEARCH_TICKS = 40;
+	private static final int CACHED_PATH_TICKS = 20;
+	private static final int CACHED_PATHS_PER_TARGET = 4;
+
+	private static int nodeBudget = NODES_PER_TICK;
+	private static boolean schedulerEnabled = true;
+	private static int tickCounter = 0;
+	private static final LongObjectMap<List<CachedPath>> pathCache = new LongObjectHashMap<>();
+
+	private static class CachedPath {
+
+		private final World world;
+		private final PathPoint[] points;
+		private final int createdTick;
+
+		private CachedPath(World world, PathPoint[] points, int createdTick) {
+			this.world = world;
+			this.points = points;
+			this.createdTick = createdTick;
+		}
+
+	}
+
 	/**+
 	 * The path being generated
 	 */
@@ -35,11 +77,64 @@ public class PathFinder {
 	 */
 	private PathPoint[] pathOptions = new PathPoint[32];
 	private NodeProcessor nodeProcessor;
+	private boolean searchSuspended;
+	private Entity searchEntity;
+	private PathPoint searchStart;
+	private PathPoint searchEnd;
+	private PathPoint searchClosest;
+	private float searchDistance;
+	private int searchSuspendedTick;
 
 	public PathFinder(NodeProcessor nodeProcessorIn) {
 		this.nodeProcessor = nodeProcessorIn;
 	}
 
+	/**
+	 * Called at the start of every server tick, refills the node budget and
+	 * expires old cached paths. With the scheduler disabled (the
+	 * scheduledPathfinding game rule) every search runs to completion and
+	 * no paths are shared, like vanilla, so tick times can be compared
+	 */
+	public static void resetTickBudget(boolean enableScheduler) {
+		schedulerEnabled = enableScheduler;
+		nodeBudget = enableScheduler ? NODES_PER_TICK : Integer.MAX_VALUE;
+		if (!enableScheduler && !pathCache.isEmpty()) {
+			pathCache.clear();
+		}
+		if (++tickCounter % CACHED_PATH_TICKS == 0 && !pathCache.isEmpty()) {
+			pathCache.removeAll(new LongObjectPredicate<List<CachedPath>>() {
+				public boolean apply(long key, List<CachedPath> value) {
+					for (int i = value.size() - 1; i >= 0; --i) {
+						if (tickCounter - value.get(i).createdTick > CACHED_PATH_TICKS) {
+							value.remove(i);
+						}
+					}
+					return value.isEmpty();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Drops the cached paths and pooled points, called when the server stops
+	 * so nothing keeps the old worlds alive after resetTickBudget stops
+	 * being called
+	 */
+	public static void clearCaches() {
+		pathCache.clear();
+		NodeProcessor.clearPointPool();
+		nodeBudget = NODES_PER_TICK;
+		tickCounter = 0;
+	}
+
+	/**
+	 * True if the last request ran out of node budget and returned null
+	 * without actually failing
+	 */
+	public boolean isSearchSuspended() {
+		return this.searchSuspended;
+	}
+
 	/**+
 	 * Internal implementation of creating a path from an entity to
 	 * a point
@@ -64,12 +159,39 @@ public class PathFinder {
 	 */
 	private PathEntity createEntityPathTo(IBlockAccess blockaccess, Entity entityIn, double x, double y, double z,
 			float distance) {
+		if (this.searchSuspended) {
+			this.nodeProcessor.resumeProcessor(blockaccess);
+			PathPoint pathpoint = this.nodeProcessor.getPathPointTo(entityIn);
+			PathPoint pathpoint1 = this.nodeProcessor.getPathPointToCoords(entityIn, x, y, z);
+			this.searchSuspended = false;
+			if (entityIn == this.searchEntity && pathpoint1.equals(this.searchEnd)
+					&& Math.abs(pathpoint.xCoord - this.searchStart.xCoord) <= 1
+					&& Math.abs(pathpoint.yCoord - this.searchStart.yCoord) <= 1
+					&& Math.abs(pathpoint.zCoord - this.searchStart.zCoord) <= 1
+					&& tickCounter - this.searchSuspendedTick <= SUSPENDED_SEARCH_TICKS) {
+				PathEntity pathentity = this.continueSearch();
+				if (!this.searchSuspended) {
+					this.nodeProcessor.postProcess();
+				}
+				return pathentity;
+			}
+		}
+
 		this.path.clearPath();
 		this.nodeProcessor.initProcessor(blockaccess, entityIn);
 		PathPoint pathpoint = this.nodeProcessor.getPathPointTo(entityIn);
 		PathPoint pathpoint1 = this.nodeProcessor.getPathPointToCoords(entityIn, x, y, z);
-		PathEntity pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
-		this.nodeProcessor.postProcess();
+		PathEntity pathentity = this.getCachedPath(entityIn.worldObj, pathpoint, pathpoint1, distance);
+		if (pathentity == null) {
+			pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
+		} else {
+			entityIn.worldObj.getStatsListener().onPathCacheHit();
+		}
+
+		if (!this.searchSuspended) {
+			this.nodeProcessor.postProcess();
+		}
+
 		return pathentity;
 	}
 
@@ -82,12 +204,48 @@ public class PathFinder {
 		pathpointStart.distanceToTarget = pathpointStart.distanceToNext;
 		this.path.clearPath();
 		this.path.addPoint(pathpointStart);
-		PathPoint pathpoint = pathpointStart;
+		this.searchEntity = entityIn;
+		this.searchStart = pathpointStart;
+		this.searchEnd = pathpointEnd;
+		this.searchClosest = pathpointStart;
+		this.searchDistance = maxDistance;
+		entityIn.worldObj.getStatsListener().onPathSearch();
+		return this.continueSearch();
+	}
+
+	/**
+	 * Runs the A* loop of addToPath until it finishes or the node budget is
+	 * used up, everything it needs to pick up where it left off is kept in
+	 * the search fields and the node processor's point map
+	 */
+	private PathEntity continueSearch() {
+		Entity entityIn = this.searchEntity;
+		PathPoint pathpointStart = this.searchStart;
+		PathPoint pathpointEnd = this.searchEnd;
+		PathPoint pathpoint = this.searchClosest;
+		float maxDistance = this.searchDistance;
+		int nodes = 0;
 
 		while (!this.path.isPathEmpty()) {
+			if (nodes >= MIN_NODES_PER_SEARCH && nodeBudget <= 0) {
+				this.searchClosest = pathpoint;
+				this.searchSuspended = true;
+				this.searchSuspendedTick = tickCounter;
+				IWorldStatsListener stats = entityIn.worldObj.getStatsListener();
+				stats.onPathNodes(nodes);
+				stats.onPathSuspended();
+				return null;
+			}
+
+			++nodes;
+			--nodeBudget;
 			PathPoint pathpoint1 = this.path.dequeue();
 			if (pathpoint1.equals(pathpointEnd)) {
-				return this.createEntityPath(pathpointStart, pathpointEnd);
+				entityIn.worldObj.getStatsListener().onPathNodes(nodes);
+				PathEntity pathentity = this.createEntityPath(pathpointStart, pathpointEnd);
+				this.cachePath(entityIn.worldObj, pathpointEnd, pathentity);
+				this.finishSearch();
+				return pathentity;
 			}
 
 			if (pathpoint1.distanceToSquared(pathpointEnd) < pathpoint.distanceToSquared(pathpointEnd)) {
@@ -115,11 +273,76 @@ public class PathFinder {
 			}
 		}
 
-		if (pathpoint == pathpointStart) {
-			return null;
-		} else {
-			return this.createEntityPath(pathpointStart, pathpoint);
+		entityIn.worldObj.getStatsListener().onPathNodes(nodes);
+		PathEntity pathentity = pathpoint == pathpointStart ? null
+				: this.createEntityPath(pathpointStart, pathpoint);
+		this.finishSearch();
+		return pathentity;
+	}
+
+	private void finishSearch() {
+		this.searchEntity = null;
+		this.searchStart = null;
+		this.searchEnd = null;
+		this.searchClosest = null;
+		this.path.clearPath();
+		this.nodeProcessor.releasePoints();
+	}
+
+	private long getCacheKey(PathPoint end) {
+		return ((long) end.hashCode() << 32) | ((long) this.nodeProcessor.getPathSignature() & 4294967295L);
+	}
+
+	/**
+	 * Looks for a recent complete path to the same target, made by a mob that
+	 * moves the same way, that passes through the start point. Mobs chasing
+	 * the same player usually end up walking along each other's paths. The
+	 * cache key is only a hash so the end point is checked again, and the
+	 * rest of the path has to be short enough that addToPath could have
+	 * found it with this distance
+	 */
+	private PathEntity getCachedPath(World world, PathPoint start, PathPoint end, float maxDistance) {
+		List<CachedPath> lst = schedulerEnabled ? pathCache.get(this.getCacheKey(end)) : null;
+		if (lst != null) {
+			for (int i = lst.size() - 1; i >= 0; --i) {
+				CachedPath cached = lst.get(i);
+				if (cached.world != world || tickCounter - cached.createdTick > CACHED_PATH_TICKS) {
+					continue;
+				}
+				PathPoint[] points = cached.points;
+				if (!points[points.length - 1].equals(end)) {
+					continue;
+				}
+				float f = 0.0F;
+				for (int j = points.length - 1; j >= 0; --j) {
+					if (j < points.length - 1) {
+						f += points[j].distanceToSquared(points[j + 1]);
+						if (f >= maxDistance * 2.0F) {
+							break;
+						}
+					}
+					if (points[j].equals(start)) {
+						return new PathEntity(j == 0 ? points : Arrays.copyOfRange(points, j, points.length));
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private void cachePath(World world, PathPoint end, PathEntity pathentity) {
+		if (!schedulerEnabled) {
+			return;
+		}
+		long key = this.getCacheKey(end);
+		List<CachedPath> lst = pathCache.get(key);
+		if (lst == null) {
+			lst = new ArrayList<>(CACHED_PATHS_PER_TARGET);
+			pathCache.put(key, lst);
+		} else if (lst.size() >= CACHED_PATHS_PER_TARGET) {
+			lst.remove(0);
 		}
+		lst.add(new CachedPath(world, pathentity.getPoints(), tickCounter));
 	}
 
 	/**+
@@ -132,11 +355,12 @@ public class PathFinder {
 			++i;
 		}
 
+		// the search's points go back into the node processor's pool, the path gets copies
 		PathPoint[] apathpoint = new PathPoint[i];
 		PathPoint pathpoint1 = end;
 		--i;
 
-		for (apathpoint[i] = end; pathpoint1.previous != null; apathpoint[i] = pathpoint1) {
+		for (apathpoint[i] = end.copy(); pathpoint1.previous != null; apathpoint[i] = pathpoint1.copy()) {
 			pathpoint1 = pathpoint1.previous;
 			--i;
 		}
@@ -50,6 +50,17 @@ public abstract class PathNavigate {
 	private Vec3 lastPosCheck = new Vec3(0.0D, 0.0D, 0.0D);
 	private float heightRequirement = 1.0F;
 	private final PathFinder pathFinder;
+	private boolean searchSuspended;
+	/**
+	 * Target of a tryMoveToXYZ or tryMoveToEntityLiving whose search ran out
+	 * of node budget, onUpdateNavigation keeps asking for it on the following
+	 * ticks so callers that only ask once, like EntityAIWander, still get
+	 * their path. It is skipped on ticks the caller already asked itself
+	 */
+	private BlockPos pendingPos;
+	private Entity pendingEntity;
+	private double pendingSpeed;
+	private boolean pendingAskedThisTick;
 
 	public PathNavigate(EntityLiving entitylivingIn, World worldIn) {
 		this.theEntity = entitylivingIn;
@@ -86,6 +97,7 @@ public abstract class PathNavigate {
 	 * Returns path to given BlockPos
 	 */
 	public PathEntity getPathToPos(BlockPos pos) {
+		this.searchSuspended = false;
 		if (!this.canNavigate()) {
 			return null;
 		} else {
@@ -94,6 +106,7 @@ public abstract class PathNavigate {
 			int i = (int) (f + 8.0F);
 			ChunkCache chunkcache = new ChunkCache(this.worldObj, blockpos.add(-i, -i, -i), blockpos.add(i, i, i), 0);
 			PathEntity pathentity = this.pathFinder.createEntityPathTo(chunkcache, this.theEntity, (BlockPos) pos, f);
+			this.searchSuspended = this.pathFinder.isSearchSuspended();
 			return pathentity;
 		}
 	}
@@ -105,9 +118,23 @@ public abstract class PathNavigate {
 	public boolean tryMoveToXYZ(double x, double y, double z, double speedIn) {
 		PathEntity pathentity = this.getPathToXYZ((double) MathHelper.floor_double(x), (double) ((int) y),
 				(double) MathHelper.floor_double(z));
+		if (pathentity == null && this.searchSuspended) {
+			this.setPending(new BlockPos(MathHelper.floor_double(x), (int) y, MathHelper.floor_double(z)), null,
+					speedIn);
+			return this.currentPath != null;
+		}
 		return this.setPath(pathentity, speedIn);
 	}
 
+	/**
+	 * True if the last getPathToPos or getPathToEntityLiving returned null
+	 * only because the search ran out of node budget. It is not a failure,
+	 * asking again for the same target on a later tick continues the search
+	 */
+	public boolean isSearchSuspended() {
+		return this.searchSuspended;
+	}
+
 	/**+
 	 * Sets vertical space requirement for path
 	 */
@@ -119,6 +146,7 @@ public abstract class PathNavigate {
 	 * Returns the path to the given EntityLiving. Args : entity
 	 */
 	public PathEntity getPathToEntityLiving(Entity entityIn) {
+		this.searchSuspended = false;
 		if (!this.canNavigate()) {
 			return null;
 		} else {
@@ -128,6 +156,7 @@ public abstract class PathNavigate {
 			ChunkCache chunkcache = new ChunkCache(this.worldObj, blockpos.add(-i, -i, -i), blockpos.add(i, i, i), 0);
 			PathEntity pathentity = this.pathFinder.createEntityPathTo(chunkcache, this.theEntity, (Entity) entityIn,
 					f);
+			this.searchSuspended = this.pathFinder.isSearchSuspended();
 			return pathentity;
 		}
 	}
@@ -140,10 +169,16 @@ public abstract class PathNavigate {
 		int i = -1;
 		if (this.pathfindFailures > 10 && this.currentPath == null
 				&& (i = (int) (MinecraftServer.getCurrentTimeMillis() / 50l)) < this.lastFailure + 40) {
+			this.searchSuspended = false;
 			return false;
 		}
 
 		PathEntity pathentity = this.getPathToEntityLiving(entityIn);
+		if (pathentity == null && this.searchSuspended) {
+			// out of node budget this tick, keep following the old path until the new one is done
+			this.setPending(null, entityIn, speedIn);
+			return this.currentPath != null;
+		}
 
 		if (pathentity != null && this.setPath(pathentity, speedIn)) {
 			this.lastFailure = 0;
@@ -162,6 +197,7 @@ public abstract class PathNavigate {
 	 * Args : path, speed
 	 */
 	public boolean setPath(PathEntity pathentityIn, double speedIn) {
+		this.setPending(null, null, 0.0D);
 		if (pathentityIn == null) {
 			this.currentPath = null;
 			return false;
@@ -190,8 +226,46 @@ public abstract class PathNavigate {
 		return this.currentPath;
 	}
 
+	private void setPending(BlockPos pos, Entity entity, double speedIn) {
+		this.pendingPos = pos;
+		this.pendingEntity = entity;
+		this.pendingSpeed = speedIn;
+		this.pendingAskedThisTick = true;
+	}
+
+	/**
+	 * Continues the search left suspended by the last tryMoveToXYZ or
+	 * tryMoveToEntityLiving, until it finishes or something else sets or
+	 * clears the path
+	 */
+	protected void resumePendingSearch() {
+		BlockPos pos = this.pendingPos;
+		Entity entity = this.pendingEntity;
+		double speedIn = this.pendingSpeed;
+		if (pos == null && entity == null) {
+			return;
+		}
+		if (this.pendingAskedThisTick) {
+			this.pendingAskedThisTick = false;
+			return;
+		}
+		if (entity != null && entity.isDead) {
+			this.setPending(null, null, 0.0D);
+			return;
+		}
+		PathEntity pathentity = entity != null ? this.getPathToEntityLiving(entity) : this.getPathToPos(pos);
+		if (pathentity == null && this.searchSuspended) {
+			return;
+		}
+		this.setPending(null, null, 0.0D);
+		if (pathentity != null) {
+			this.setPath(pathentity, speedIn);
+		}
+	}
+
 	public void onUpdateNavigation() {
 		++this.totalTicks;
+		this.resumePendingSearch();
 		if (!this.noPath()) {
 			if (this.canNavigate()) {
 				this.pathFollow();
@@ -291,6 +365,7 @@ public abstract class PathNavigate {
 	 * sets active PathEntity to null
 	 */
 	public void clearPathEntity() {
+		this.setPending(null, null, 0.0D);
 		this.pathfindFailures = 0;
 		this.lastFailure = 0;
 		this.currentPath = null;
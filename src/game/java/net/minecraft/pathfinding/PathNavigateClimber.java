@@ -65,6 +65,10 @@ public class PathNavigateClimber extends PathNavigateGround {
 	}
 
 	public void onUpdateNavigation() {
+		if (this.noPath()) {
+			this.resumePendingSearch();
+		}
+
 		if (!this.noPath()) {
 			super.onUpdateNavigation();
 		} else {
@@ -23,10 +23,10 @@ import net.minecraft.util.MathHelper;
  * 
  */
 public class PathPoint {
-	public final int xCoord;
-	public final int yCoord;
-	public final int zCoord;
-	private final int hash;
+	public int xCoord;
+	public int yCoord;
+	public int zCoord;
+	private int hash;
 	int index = -1;
 	float totalPathDistance;
 	float distanceToNext;
@@ -41,6 +41,31 @@ public class PathPoint {
 		this.hash = makeHash(x, y, z);
 	}
 
+	/**
+	 * Turns a pooled point back into a fresh one at a new position, only the
+	 * node processor's pool may call this since the coordinates are the key
+	 * of its point map
+	 */
+	public PathPoint reinit(int x, int y, int z) {
+		this.xCoord = x;
+		this.yCoord = y;
+		this.zCoord = z;
+		this.hash = makeHash(x, y, z);
+		this.index = -1;
+		this.totalPathDistance = 0.0F;
+		this.distanceToNext = 0.0F;
+		this.distanceToTarget = 0.0F;
+		this.previous = null;
+		this.visited = false;
+		return this;
+	}
+
+	public PathPoint copy() {
+		PathPoint pathpoint = new PathPoint(this.xCoord, this.yCoord, this.zCoord);
+		pathpoint.visited = this.visited;
+		return pathpoint;
+	}
+
 	public static int makeHash(int x, int y, int z) {
 		return y & 255 | (x & 32767) << 8 | (z & 32767) << 24 | (x < 0 ? Integer.MIN_VALUE : 0)
 				| (z < 0 ? '\u8000' : 0);
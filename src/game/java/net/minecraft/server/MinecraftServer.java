@@ -223,6 +223,8 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 		WorldServer worldserver = this.worldServers[b0];
 		BlockPos blockpos = worldserver.getSpawnPoint();
 		long j = getCurrentTimeMillis();
+		worldserver.theChunkProviderServer.prefetchChunks(blockpos.getX() - 192 >> 4, blockpos.getZ() - 192 >> 4,
+				blockpos.getX() + 192 >> 4, blockpos.getZ() + 192 >> 4);
 
 		for (int k = -192; k <= 192; k += 16) {
 			for (int l = -192; l <= 192; l += 16) {
@@ -297,6 +299,15 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 	 * par1 indicates if a log message should be output.
 	 */
 	public void saveAllWorlds(boolean dontLog) {
+		this.saveAllWorlds(dontLog, true);
+	}
+
+	/**+
+	 * par2 indicates if queued chunk writes should be flushed before
+	 * returning, the periodic autosave leaves them to be written over
+	 * the next few ticks
+	 */
+	public void saveAllWorlds(boolean dontLog, boolean flushChunks) {
 		if (!this.worldIsBeingDeleted) {
 			for (int i = 0; i < this.worldServers.length; ++i) {
 				WorldServer worldserver = this.worldServers[i];
@@ -307,6 +318,9 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 					}
 
 					worldserver.saveAllChunks(true, (IProgressUpdate) null);
+					if (flushChunks) {
+						worldserver.saveChunkData();
+					}
 				}
 			}
 
@@ -472,7 +486,7 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 
 		if (this.tickCounter % 900 == 0) {
 			this.serverConfigManager.saveAllPlayerData();
-			this.saveAllWorlds(true);
+			this.saveAllWorlds(true, false);
 		}
 
 		this.tickTimeArray[this.tickCounter % 100] = EagRuntime.nanoTime() - i;
@@ -513,6 +527,7 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 					throw new ReportedException(crashreport1);
 				}
 
+				worldserver.sendQueuedExplosions();
 				worldserver.getEntityTracker().updateTrackedEntities();
 			}
 
@@ -20,6 +20,7 @@ import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -152,6 +153,8 @@ public class PlayerManager {
 		int j = (int) player.posZ >> 4;
 		player.managedPosX = player.posX;
 		player.managedPosZ = player.posZ;
+		this.theWorldServer.theChunkProviderServer.prefetchChunks(i - this.playerViewRadius, j - this.playerViewRadius,
+				i + this.playerViewRadius, j + this.playerViewRadius);
 
 		for (int k = i - this.playerViewRadius; k <= i + this.playerViewRadius; ++k) {
 			for (int l = j - this.playerViewRadius; l <= j + this.playerViewRadius; ++l) {
@@ -256,6 +259,7 @@ public class PlayerManager {
 			int j1 = i - k;
 			int k1 = j - l;
 			if (j1 != 0 || k1 != 0) {
+				this.theWorldServer.theChunkProviderServer.prefetchChunks(i - i1, j - i1, i + i1, j + i1);
 				for (int l1 = i - i1; l1 <= i + i1; ++l1) {
 					for (int i2 = j - i1; i2 <= j + i1; ++i2) {
 						if (!this.overlaps(l1, i2, k, l, i1)) {
@@ -297,6 +301,8 @@ public class PlayerManager {
 				int j = (int) entityplayermp.posX >> 4;
 				int k = (int) entityplayermp.posZ >> 4;
 				if (i > 0) {
+					this.theWorldServer.theChunkProviderServer.prefetchChunks(j - radius, k - radius, j + radius,
+							k + radius);
 					for (int j1 = j - radius; j1 <= j + radius; ++j1) {
 						for (int k1 = k - radius; k1 <= k + radius; ++k1) {
 							PlayerManager.PlayerInstance playermanager$playerinstance = this.getPlayerInstance(j1, k1,
@@ -424,11 +430,16 @@ public class PlayerManager {
 		}
 
 		public void sendToAllPlayersWatchingChunk(Packet thePacket) {
-			for (int i = 0; i < this.playersWatchingChunk.size(); ++i) {
-				EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playersWatchingChunk.get(i);
-				if (!entityplayermp.loadedChunks.contains(this.chunkCoordsHash)) {
-					entityplayermp.playerNetServerHandler.sendPacket(thePacket);
+			IntegratedServerPlayerNetworkManager.beginBroadcast();
+			try {
+				for (int i = 0; i < this.playersWatchingChunk.size(); ++i) {
+					EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playersWatchingChunk.get(i);
+					if (!entityplayermp.loadedChunks.contains(this.chunkCoordsHash)) {
+						entityplayermp.playerNetServerHandler.sendPacket(thePacket);
+					}
 				}
+			} finally {
+				IntegratedServerPlayerNetworkManager.endBroadcast();
 			}
 
 		}
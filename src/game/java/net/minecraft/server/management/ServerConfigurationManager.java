@@ -592,18 +592,28 @@ public abstract class ServerConfigurationManager {
 	}
 
 	public void sendPacketToAllPlayers(Packet packetIn) {
-		for (int i = 0; i < this.playerEntityList.size(); ++i) {
-			((EntityPlayerMP) this.playerEntityList.get(i)).playerNetServerHandler.sendPacket(packetIn);
+		IntegratedServerPlayerNetworkManager.beginBroadcast();
+		try {
+			for (int i = 0; i < this.playerEntityList.size(); ++i) {
+				((EntityPlayerMP) this.playerEntityList.get(i)).playerNetServerHandler.sendPacket(packetIn);
+			}
+		} finally {
+			IntegratedServerPlayerNetworkManager.endBroadcast();
 		}
 
 	}
 
 	public void sendPacketToAllPlayersInDimension(Packet packetIn, int dimension) {
-		for (int i = 0; i < this.playerEntityList.size(); ++i) {
-			EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playerEntityList.get(i);
-			if (entityplayermp.dimension == dimension) {
-				entityplayermp.playerNetServerHandler.sendPacket(packetIn);
+		IntegratedServerPlayerNetworkManager.beginBroadcast();
+		try {
+			for (int i = 0; i < this.playerEntityList.size(); ++i) {
+				EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playerEntityList.get(i);
+				if (entityplayermp.dimension == dimension) {
+					entityplayermp.playerNetServerHandler.sendPacket(packetIn);
+				}
 			}
+		} finally {
+			IntegratedServerPlayerNetworkManager.endBroadcast();
 		}
 
 	}
@@ -714,16 +724,21 @@ public abstract class ServerConfigurationManager {
 	 */
 	public void sendToAllNearExcept(EntityPlayer x, double y, double z, double radius, double dimension, int parInt1,
 			Packet parPacket) {
-		for (int i = 0, l = this.playerEntityList.size(); i < l; ++i) {
-			EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playerEntityList.get(i);
-			if (entityplayermp != x && entityplayermp.dimension == parInt1) {
-				double d0 = y - entityplayermp.posX;
-				double d1 = z - entityplayermp.posY;
-				double d2 = radius - entityplayermp.posZ;
-				if (d0 * d0 + d1 * d1 + d2 * d2 < dimension * dimension) {
-					entityplayermp.playerNetServerHandler.sendPacket(parPacket);
+		IntegratedServerPlayerNetworkManager.beginBroadcast();
+		try {
+			for (int i = 0, l = this.playerEntityList.size(); i < l; ++i) {
+				EntityPlayerMP entityplayermp = (EntityPlayerMP) this.playerEntityList.get(i);
+				if (entityplayermp != x && entityplayermp.dimension == parInt1) {
+					double d0 = y - entityplayermp.posX;
+					double d1 = z - entityplayermp.posY;
+					double d2 = radius - entityplayermp.posZ;
+					if (d0 * d0 + d1 * d1 + d2 * d2 < dimension * dimension) {
+						entityplayermp.playerNetServerHandler.sendPacket(parPacket);
+					}
 				}
 			}
+		} finally {
+			IntegratedServerPlayerNetworkManager.endBroadcast();
 		}
 
 	}
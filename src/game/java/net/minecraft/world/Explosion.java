@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -89,7 +90,8 @@ public class Explosion {
 	 * Does the first part of the explosion (destroy blocks)
 	 */
 	public void doExplosionA() {
-		HashSet hashset = Sets.newHashSet();
+		ExplosionCache cache = ExplosionCache.get(this.worldObj);
+		HashSet<BlockPos> hashset = Sets.newHashSet();
 		boolean flag = true;
 
 		for (int i = 0; i < 16; ++i) {
@@ -107,15 +109,31 @@ public class Explosion {
 						double d4 = this.explosionX;
 						double d6 = this.explosionY;
 						double d8 = this.explosionZ;
+						BlockPos blockpos = null;
+						IBlockState iblockstate = null;
+						float f2 = -1.0F;
 
 						for (float f1 = 0.3F; f > 0.0F; f -= 0.22500001F) {
-							BlockPos blockpos = new BlockPos(d4, d6, d8);
-							IBlockState iblockstate = this.worldObj.getBlockState(blockpos);
-							if (iblockstate.getBlock().getMaterial() != Material.air) {
-								float f2 = this.exploder != null
-										? this.exploder.getExplosionResistance(this, this.worldObj, blockpos,
-												iblockstate)
-										: iblockstate.getBlock().getExplosionResistance((Entity) null);
+							int bx = MathHelper.floor_double(d4);
+							int by = MathHelper.floor_double(d6);
+							int bz = MathHelper.floor_double(d8);
+							if (blockpos == null || blockpos.getX() != bx || blockpos.getY() != by
+									|| blockpos.getZ() != bz) {
+								// a step is shorter than a block, so most steps land in the block the
+								// previous step already looked up
+								blockpos = new BlockPos(bx, by, bz);
+								iblockstate = cache.getBlockState(this.worldObj, blockpos);
+								if (iblockstate.getBlock().getMaterial() != Material.air) {
+									f2 = this.exploder != null
+											? this.exploder.getExplosionResistance(this, this.worldObj, blockpos,
+													iblockstate)
+											: iblockstate.getBlock().getExplosionResistance((Entity) null);
+								} else {
+									f2 = -1.0F;
+								}
+							}
+
+							if (f2 >= 0.0F) {
 								f -= (f2 + 0.3F) * 0.3F;
 							}
 
@@ -158,7 +176,8 @@ public class Explosion {
 						d5 = d5 / d13;
 						d7 = d7 / d13;
 						d9 = d9 / d13;
-						double d14 = (double) this.worldObj.getBlockDensity(vec3, entity.getEntityBoundingBox());
+						double d14 = (double) cache.getBlockDensity(this.worldObj, vec3,
+								entity.getEntityBoundingBox());
 						double d10 = (1.0D - d12) * d14;
 						entity.attackEntityFrom(DamageSource.setExplosionSource(this),
 								(float) ((int) ((d10 * d10 + d10) / 2.0D * 8.0D * (double) f3 + 1.0D)));
@@ -181,6 +200,8 @@ public class Explosion {
 	 * spawn)
 	 */
 	public void doExplosionB(boolean spawnParticles) {
+		int changesBefore = this.worldObj.getBlockChangeCounter();
+		int changesOwn = 0;
 		this.worldObj.playSoundEffect(this.explosionX, this.explosionY, this.explosionZ, "random.explode", 4.0F,
 				(1.0F + (this.worldObj.rand.nextFloat() - this.worldObj.rand.nextFloat()) * 0.2F) * 0.7F);
 		if (this.explosionSize >= 2.0F && this.isSmoking) {
@@ -223,7 +244,9 @@ public class Explosion {
 								1.0F / this.explosionSize, 0);
 					}
 
-					this.worldObj.setBlockState(blockpos, Blocks.air.getDefaultState(), 3);
+					if (this.worldObj.setBlockState(blockpos, Blocks.air.getDefaultState(), 3)) {
+						++changesOwn;
+					}
 					block.onBlockDestroyedByExplosion(this.worldObj, blockpos, this);
 				}
 			}
@@ -236,11 +259,16 @@ public class Explosion {
 				if (this.worldObj.getBlockState(blockpos1).getBlock().getMaterial() == Material.air && this.worldObj
 						.getBlockState(blockpos1.offsetEvenFaster(EnumFacing.DOWN, tmp)).getBlock().isFullBlock()
 						&& this.explosionRNG.nextInt(3) == 0) {
-					this.worldObj.setBlockState(blockpos1, Blocks.fire.getDefaultState());
+					if (this.worldObj.setBlockState(blockpos1, Blocks.fire.getDefaultState())) {
+						++changesOwn;
+					}
 				}
 			}
 		}
 
+		if (!this.worldObj.isRemote) {
+			this.worldObj.getExplosionCache().afterExplosion(this.worldObj, this, changesBefore, changesOwn);
+		}
 	}
 
 	public Map<EntityPlayer, Vec3> getPlayerKnockbackMap() {
@@ -264,4 +292,151 @@ public class Explosion {
 	public List<BlockPos> getAffectedBlockPositions() {
 		return this.affectedBlockPositions;
 	}
+
+	public double getExplosionX() {
+		return this.explosionX;
+	}
+
+	public double getExplosionY() {
+		return this.explosionY;
+	}
+
+	public double getExplosionZ() {
+		return this.explosionZ;
+	}
+
+	public float getExplosionSize() {
+		return this.explosionSize;
+	}
+
+	/**
+	 * True if both explosions went off at exactly the same spot with the same
+	 * size, which is what stacked TNT in a cannon does every time it fires
+	 */
+	public boolean isCoincident(Explosion other) {
+		return this.explosionX == other.explosionX && this.explosionY == other.explosionY
+				&& this.explosionZ == other.explosionZ && this.explosionSize == other.explosionSize;
+	}
+
+	/**
+	 * Block states and entity exposures shared by every explosion in a world
+	 * during one tick. Anything that changes a block behind its back bumps
+	 * World.getBlockChangeCounter() and the whole cache is dropped on next use, the
+	 * only block changes it survives are the ones an explosion made itself
+	 * and recorded through afterExplosion
+	 */
+	public static class ExplosionCache {
+
+		private long worldTime = -1l;
+		private int blockChanges = 0;
+		private final LongObjectHashMap<IBlockState> blockStates = new LongObjectHashMap<>();
+		private final Map<DensityKey, Float> densities = Maps.newHashMap();
+
+		public static ExplosionCache get(World world) {
+			ExplosionCache cache = world.getExplosionCache();
+			long time = world.getTotalWorldTime();
+			if (cache.worldTime != time || cache.blockChanges != world.getBlockChangeCounter()) {
+				cache.worldTime = time;
+				cache.blockChanges = world.getBlockChangeCounter();
+				if (cache.blockStates.size() > 65536) {
+					cache.blockStates.release();
+				} else {
+					cache.blockStates.clear();
+				}
+				cache.densities.clear();
+			}
+			return cache;
+		}
+
+		public IBlockState getBlockState(World world, BlockPos pos) {
+			long key = pos.toLong();
+			IBlockState state = this.blockStates.get(key);
+			if (state == null) {
+				state = world.getBlockState(pos);
+				this.blockStates.put(key, state);
+			}
+			return state;
+		}
+
+		public float getBlockDensity(World world, Vec3 vec, AxisAlignedBB bb) {
+			DensityKey key = new DensityKey(vec, bb);
+			Float f = this.densities.get(key);
+			if (f != null) {
+				world.getStatsListener().onExplosionCacheHit();
+				return f.floatValue();
+			}
+			float density = world.getBlockDensity(vec, bb);
+			this.densities.put(key, density);
+			return density;
+		}
+
+		/**
+		 * Called once an explosion has removed its blocks, if the only changes
+		 * since the cache was validated are the ones the explosion counted then
+		 * its affected positions are refreshed and the cache stays valid
+		 */
+		void afterExplosion(World world, Explosion explosion, int changesBefore, int changesOwn) {
+			if (changesOwn == 0 || this.worldTime != world.getTotalWorldTime()
+					|| this.blockChanges != changesBefore
+					|| world.getBlockChangeCounter() - changesBefore != changesOwn) {
+				return;
+			}
+			List<BlockPos> lst = explosion.affectedBlockPositions;
+			for (int i = 0, l = lst.size(); i < l; ++i) {
+				BlockPos pos = lst.get(i);
+				this.blockStates.put(pos.toLong(), world.getBlockState(pos));
+			}
+			this.densities.clear();
+			this.blockChanges = world.getBlockChangeCounter();
+		}
+
+	}
+
+	private static class DensityKey {
+
+		private final double x, y, z;
+		private final double minX, minY, minZ, maxX, maxY, maxZ;
+		private final int hash;
+
+		private DensityKey(Vec3 vec, AxisAlignedBB bb) {
+			this.x = vec.xCoord;
+			this.y = vec.yCoord;
+			this.z = vec.zCoord;
+			this.minX = bb.minX;
+			this.minY = bb.minY;
+			this.minZ = bb.minZ;
+			this.maxX = bb.maxX;
+			this.maxY = bb.maxY;
+			this.maxZ = bb.maxZ;
+			int h = hashDouble(x);
+			h = 31 * h + hashDouble(y);
+			h = 31 * h + hashDouble(z);
+			h = 31 * h + hashDouble(minX);
+			h = 31 * h + hashDouble(minY);
+			h = 31 * h + hashDouble(minZ);
+			h = 31 * h + hashDouble(maxX);
+			h = 31 * h + hashDouble(maxY);
+			h = 31 * h + hashDouble(maxZ);
+			this.hash = h;
+		}
+
+		private static int hashDouble(double d) {
+			long l = Double.doubleToLongBits(d);
+			return (int) (l ^ l >>> 32);
+		}
+
+		public int hashCode() {
+			return this.hash;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof DensityKey)) {
+				return false;
+			}
+			DensityKey k = (DensityKey) o;
+			return x == k.x && y == k.y && z == k.z && minX == k.minX && minY == k.minY && minZ == k.minZ
+					&& maxX == k.maxX && maxY == k.maxY && maxZ == k.maxZ;
+		}
+
+	}
 }
\ No newline at end of file
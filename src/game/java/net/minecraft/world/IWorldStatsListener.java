@@ -0,0 +1,94 @@
+package net.minecraft.world;
+
+/**+
+ * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
+ * 
+ * Minecraft 1.8.8 bytecode is (c) 2015 Mojang AB. "Do not distribute!"
+ * Mod Coder Pack v9.18 deobfuscation configs are (c) Copyright by the MCP Team
+ * 
+ * EaglercraftX 1.8 patch files (c) 2022-2025 lax1dude, ayunami2000. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+/**
+ * Receives the performance counters of the game logic. The integrated server
+ * installs one on each of its worlds and reports the totals with the TPS, a
+ * world without one (client worlds, the headless checks) counts nothing
+ */
+public interface IWorldStatsListener {
+
+	public static final IWorldStatsListener NONE = new IWorldStatsListener() {
+	};
+
+	/**
+	 * A server side explosion went off
+	 */
+	default void onExplosion() {
+	}
+
+	/**
+	 * An explosion was sent to the players in the packet of an earlier one at
+	 * the same spot instead of its own
+	 */
+	default void onExplosionMerged() {
+	}
+
+	/**
+	 * An entity exposure lookup was answered by the explosion cache
+	 */
+	default void onExplosionCacheHit() {
+	}
+
+	/**
+	 * PathFinder started a new search
+	 */
+	default void onPathSearch() {
+	}
+
+	/**
+	 * PathFinder expanded this many nodes in one slice of a search
+	 */
+	default void onPathNodes(int nodes) {
+	}
+
+	/**
+	 * A path search ran out of node budget and will continue on a later tick
+	 */
+	default void onPathSuspended() {
+	}
+
+	/**
+	 * A path was taken from the recent paths of other mobs instead of searched
+	 */
+	default void onPathCacheHit() {
+	}
+
+	/**
+	 * The fastRedstoneWire engine recalculated the power around a wire
+	 */
+	default void onWireEngineUpdate() {
+	}
+
+	/**
+	 * This many redstone wires were written with a new power level
+	 */
+	default void onWirePowerChanged(int wires) {
+	}
+
+	/**
+	 * Redstone wire sent this many neighbor updates to the blocks around it
+	 */
+	default void onWireNotifies(int blocks) {
+	}
+
+}
\ No newline at end of file
@@ -22,6 +22,7 @@ import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
 import net.lax1dude.eaglercraft.v1_8.HString;
 
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockHopper;
@@ -154,6 +155,22 @@ public abstract class World implements IBlockAccess {
 
 	private LightingEngine alfheim$lightingEngine;
 
+	/**
+	 * Lists lent out by the collision and entity queries so that they don't
+	 * allocate a new one on every call, a World is only ever used from the
+	 * thread ticking it so these need no locking
+	 */
+	private final List<List<AxisAlignedBB>> boxListPool = new ArrayList<>();
+	private final List<List<Entity>> entityListPool = new ArrayList<>();
+
+	/**
+	 * Incremented by every setBlockState call that actually changes a block,
+	 * used by the explosion cache to tell when its block states went stale
+	 */
+	private int blockChangeCounter = 0;
+	private Explosion.ExplosionCache explosionCache = null;
+	private IWorldStatsListener statsListener = IWorldStatsListener.NONE;
+
 	protected World(ISaveHandler saveHandlerIn, WorldInfo info, WorldProvider providerIn, boolean client) {
 		this.ambientTickCountdown = this.rand.nextInt(12000);
 		this.spawnHostileMobs = true;
@@ -338,6 +355,7 @@ public abstract class World implements IBlockAccess {
 			if (iblockstate == null) {
 				return false;
 			} else {
+				++this.blockChangeCounter;
 				Block block1 = iblockstate.getBlock();
 				if (block.getLightOpacity() != block1.getLightOpacity()
 						|| block.getLightValue() != block1.getLightValue()) {
@@ -1017,7 +1035,27 @@ public abstract class World implements IBlockAccess {
 	 * aabb
 	 */
 	public List<AxisAlignedBB> getCollidingBoundingBoxes(Entity entityIn, AxisAlignedBB bb) {
-		ArrayList arraylist = Lists.newArrayList();
+		return this.getCollidingBoundingBoxes(entityIn, bb, Lists.newArrayList());
+	}
+
+	/**
+	 * Same as getCollidingBoundingBoxes(...).isEmpty() but the boxes are
+	 * collected into a pooled list instead of a new one
+	 */
+	public boolean isCollisionBoxesEmpty(Entity entityIn, AxisAlignedBB bb) {
+		List<AxisAlignedBB> list = this.getCollidingBoundingBoxes(entityIn, bb, this.borrowBoxList());
+		boolean flag = list.isEmpty();
+		this.releaseBoxList(list);
+		return flag;
+	}
+
+	/**
+	 * Adds the bounding boxes that collide with bb to arraylist and returns
+	 * it, use with borrowBoxList and releaseBoxList to avoid allocating a new
+	 * list every time an entity moves
+	 */
+	public List<AxisAlignedBB> getCollidingBoundingBoxes(Entity entityIn, AxisAlignedBB bb,
+			List<AxisAlignedBB> arraylist) {
 		int i = MathHelper.floor_double(bb.minX);
 		int j = MathHelper.floor_double(bb.maxX + 1.0D);
 		int k = MathHelper.floor_double(bb.minY);
@@ -1054,25 +1092,51 @@ public abstract class World implements IBlockAccess {
 		}
 
 		double d0 = 0.25D;
-		List list = this.getEntitiesWithinAABBExcludingEntity(entityIn, bb.expand(d0, d0, d0));
+		List<Entity> list = this.getEntitiesInAABBexcluding(entityIn, bb.expand(d0, d0, d0),
+				EntitySelectors.NOT_SPECTATING, this.borrowEntityList());
 
 		for (int j2 = 0; j2 < list.size(); ++j2) {
 			if (entityIn.riddenByEntity != list && entityIn.ridingEntity != list) {
-				AxisAlignedBB axisalignedbb = ((Entity) list.get(j2)).getCollisionBoundingBox();
+				AxisAlignedBB axisalignedbb = list.get(j2).getCollisionBoundingBox();
 				if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
 					arraylist.add(axisalignedbb);
 				}
 
-				axisalignedbb = entityIn.getCollisionBox((Entity) list.get(j2));
+				axisalignedbb = entityIn.getCollisionBox(list.get(j2));
 				if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
 					arraylist.add(axisalignedbb);
 				}
 			}
 		}
 
+		this.releaseEntityList(list);
 		return arraylist;
 	}
 
+	public List<AxisAlignedBB> borrowBoxList() {
+		int i = this.boxListPool.size();
+		return i > 0 ? this.boxListPool.remove(i - 1) : new ArrayList<>();
+	}
+
+	public void releaseBoxList(List<AxisAlignedBB> list) {
+		list.clear();
+		if (this.boxListPool.size() < 8) {
+			this.boxListPool.add(list);
+		}
+	}
+
+	public List<Entity> borrowEntityList() {
+		int i = this.entityListPool.size();
+		return i > 0 ? this.entityListPool.remove(i - 1) : new ArrayList<>();
+	}
+
+	public void releaseEntityList(List<Entity> list) {
+		list.clear();
+		if (this.entityListPool.size() < 8) {
+			this.entityListPool.add(list);
+		}
+	}
+
 	public boolean isInsideBorder(WorldBorder worldBorderIn, Entity entityIn) {
 		double d0 = worldBorderIn.minX();
 		double d1 = worldBorderIn.minZ();
@@ -2309,7 +2373,28 @@ public abstract class World implements IBlockAccess {
 	 */
 	public List<Entity> getEntitiesInAABBexcluding(Entity entityIn, AxisAlignedBB boundingBox,
 			Predicate<? super Entity> predicate) {
-		ArrayList arraylist = Lists.newArrayList();
+		return this.getEntitiesInAABBexcluding(entityIn, boundingBox, predicate, Lists.newArrayList());
+	}
+
+	/**
+	 * Calls visitor for every entity within the AABB excluding the one passed
+	 * into it, the entities are gathered into a pooled list first so the
+	 * visitor can safely move or remove them
+	 */
+	public void forEachEntityInAABBexcluding(Entity entityIn, AxisAlignedBB boundingBox,
+			Predicate<? super Entity> predicate, Consumer<? super Entity> visitor) {
+		List<Entity> list = this.getEntitiesInAABBexcluding(entityIn, boundingBox, predicate, this.borrowEntityList());
+		try {
+			for (int i = 0, l = list.size(); i < l; ++i) {
+				visitor.accept(list.get(i));
+			}
+		} finally {
+			this.releaseEntityList(list);
+		}
+	}
+
+	public List<Entity> getEntitiesInAABBexcluding(Entity entityIn, AxisAlignedBB boundingBox,
+			Predicate<? super Entity> predicate, List<Entity> arraylist) {
 		int i = MathHelper.floor_double((boundingBox.minX - 2.0D) / 16.0D);
 		int j = MathHelper.floor_double((boundingBox.maxX + 2.0D) / 16.0D);
 		int k = MathHelper.floor_double((boundingBox.minZ - 2.0D) / 16.0D);
@@ -2744,6 +2829,25 @@ public abstract class World implements IBlockAccess {
 		return this.worldInfo.getGameRulesInstance();
 	}
 
+	public int getBlockChangeCounter() {
+		return this.blockChangeCounter;
+	}
+
+	public Explosion.ExplosionCache getExplosionCache() {
+		if (this.explosionCache == null) {
+			this.explosionCache = new Explosion.ExplosionCache();
+		}
+		return this.explosionCache;
+	}
+
+	public IWorldStatsListener getStatsListener() {
+		return this.statsListener;
+	}
+
+	public void setStatsListener(IWorldStatsListener listener) {
+		this.statsListener = listener != null ? listener : IWorldStatsListener.NONE;
+	}
+
 	/**+
 	 * Updates the flag that indicates whether or not all players in
 	 * the world are sleeping.
@@ -1,11 +1,16 @@
 package net.minecraft.world;
 
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
 import com.carrotsearch.hppc.cursors.LongCursor;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -100,6 +105,12 @@ public class WorldServer extends World implements IThreadListener {
 	 * All work to do in future ticks.
 	 */
 	private final TreeSet<NextTickListEntry> pendingTickListEntriesTreeSet = new TreeSet();
+	/**+
+	 * The same entries as pendingTickListEntriesTreeSet grouped by
+	 * chunk, so saving or unloading a chunk doesn't have to go
+	 * through every pending tick in the world
+	 */
+	private final LongObjectMap<Set<NextTickListEntry>> pendingTickListEntriesByChunk = new LongObjectHashMap<>();
 	private final Map<EaglercraftUUID, Entity> entitiesByUuid = Maps.newHashMap();
 	public ChunkProviderServer theChunkProviderServer;
 	public boolean disableLevelSaving;
@@ -111,6 +122,7 @@ public class WorldServer extends World implements IThreadListener {
 	private WorldServer.ServerBlockEventList[] field_147490_S = new WorldServer.ServerBlockEventList[] {
 			new WorldServer.ServerBlockEventList(), new WorldServer.ServerBlockEventList() };
 	private int blockEventCacheIndex;
+	private final List<Explosion> pendingExplosions = Lists.newArrayList();
 	private static final List<WeightedRandomChestContent> bonusChestContent = Lists
 			.newArrayList(new WeightedRandomChestContent[] { new WeightedRandomChestContent(Items.stick, 0, 1, 3, 10),
 					new WeightedRandomChestContent(Item.getItemFromBlock(Blocks.planks), 0, 1, 3, 10),
@@ -178,6 +190,7 @@ public class WorldServer extends World implements IThreadListener {
 	 * Runs a single tick for the world
 	 */
 	public void tick() {
+		this.sendQueuedExplosions();
 		super.tick();
 		if (this.getWorldInfo().isHardcoreModeEnabled() && this.getDifficulty() != EnumDifficulty.HARD) {
 			this.getWorldInfo().setDifficulty(EnumDifficulty.HARD);
@@ -450,10 +463,7 @@ public class WorldServer extends World implements IThreadListener {
 				nextticklistentry.setPriority(j);
 			}
 
-			if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry)) {
-				this.pendingTickListEntriesHashSet.add(nextticklistentry);
-				this.pendingTickListEntriesTreeSet.add(nextticklistentry);
-			}
+			this.addPendingTick(nextticklistentry);
 		}
 
 	}
@@ -465,11 +475,30 @@ public class WorldServer extends World implements IThreadListener {
 			nextticklistentry.setScheduledTime((long) i + this.worldInfo.getWorldTotalTime());
 		}
 
-		if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry)) {
-			this.pendingTickListEntriesHashSet.add(nextticklistentry);
+		this.addPendingTick(nextticklistentry);
+	}
+
+	private void addPendingTick(NextTickListEntry nextticklistentry) {
+		if (this.pendingTickListEntriesHashSet.add(nextticklistentry)) {
 			this.pendingTickListEntriesTreeSet.add(nextticklistentry);
+			long i = ChunkCoordIntPair.chunkXZ2Int(nextticklistentry.position.getX() >> 4,
+					nextticklistentry.position.getZ() >> 4);
+			Set<NextTickListEntry> set = this.pendingTickListEntriesByChunk.get(i);
+			if (set == null) {
+				set = Sets.newHashSet();
+				this.pendingTickListEntriesByChunk.put(i, set);
+			}
+			set.add(nextticklistentry);
 		}
+	}
 
+	private void removePendingTickFromChunk(NextTickListEntry nextticklistentry) {
+		long i = ChunkCoordIntPair.chunkXZ2Int(nextticklistentry.position.getX() >> 4,
+				nextticklistentry.position.getZ() >> 4);
+		Set<NextTickListEntry> set = this.pendingTickListEntriesByChunk.get(i);
+		if (set != null && set.remove(nextticklistentry) && set.isEmpty()) {
+			this.pendingTickListEntriesByChunk.remove(i);
+		}
 	}
 
 	/**+
@@ -518,6 +547,7 @@ public class WorldServer extends World implements IThreadListener {
 
 					this.pendingTickListEntriesTreeSet.remove(nextticklistentry);
 					this.pendingTickListEntriesHashSet.remove(nextticklistentry);
+					this.removePendingTickFromChunk(nextticklistentry);
 					this.pendingTickListEntriesThisTick.add(nextticklistentry);
 				}
 
@@ -567,39 +597,87 @@ public class WorldServer extends World implements IThreadListener {
 	}
 
 	public List<NextTickListEntry> func_175712_a(StructureBoundingBox structureboundingbox, boolean flag) {
-		ArrayList arraylist = null;
-
-		for (int i = 0; i < 2; ++i) {
-			Iterator iterator;
-			if (i == 0) {
-				iterator = this.pendingTickListEntriesTreeSet.iterator();
+		ArrayList<NextTickListEntry> arraylist = null;
+
+		int minChunkX = structureboundingbox.minX >> 4;
+		int maxChunkX = (structureboundingbox.maxX - 1) >> 4;
+		int minChunkZ = structureboundingbox.minZ >> 4;
+		int maxChunkZ = (structureboundingbox.maxZ - 1) >> 4;
+		if (minChunkX <= maxChunkX && minChunkZ <= maxChunkZ) {
+			long chunkCount = (long) (maxChunkX - minChunkX + 1) * (long) (maxChunkZ - minChunkZ + 1);
+			if (chunkCount > this.pendingTickListEntriesByChunk.size()) {
+				for (ObjectCursor<Set<NextTickListEntry>> cursor : this.pendingTickListEntriesByChunk.values()) {
+					arraylist = this.func_175712_a_chunk(cursor.value, structureboundingbox, flag, arraylist);
+				}
+				if (flag) {
+					this.pendingTickListEntriesByChunk.removeAll((long i, Set<NextTickListEntry> set) -> set.isEmpty());
+				}
 			} else {
-				iterator = this.pendingTickListEntriesThisTick.iterator();
-			}
-
-			while (iterator.hasNext()) {
-				NextTickListEntry nextticklistentry = (NextTickListEntry) iterator.next();
-				BlockPos blockpos = nextticklistentry.position;
-				if (blockpos.getX() >= structureboundingbox.minX && blockpos.getX() < structureboundingbox.maxX
-						&& blockpos.getZ() >= structureboundingbox.minZ
-						&& blockpos.getZ() < structureboundingbox.maxZ) {
-					if (flag) {
-						this.pendingTickListEntriesHashSet.remove(nextticklistentry);
-						iterator.remove();
+				for (int cx = minChunkX; cx <= maxChunkX; ++cx) {
+					for (int cz = minChunkZ; cz <= maxChunkZ; ++cz) {
+						long i = ChunkCoordIntPair.chunkXZ2Int(cx, cz);
+						Set<NextTickListEntry> set = this.pendingTickListEntriesByChunk.get(i);
+						if (set != null) {
+							arraylist = this.func_175712_a_chunk(set, structureboundingbox, flag, arraylist);
+							if (flag && set.isEmpty()) {
+								this.pendingTickListEntriesByChunk.remove(i);
+							}
+						}
 					}
+				}
+			}
+			if (arraylist != null) {
+				// keep the order the old scan of the tree set returned them in
+				Collections.sort(arraylist);
+			}
+		}
 
-					if (arraylist == null) {
-						arraylist = Lists.newArrayList();
-					}
+		Iterator<NextTickListEntry> iterator = this.pendingTickListEntriesThisTick.iterator();
+		while (iterator.hasNext()) {
+			NextTickListEntry nextticklistentry = iterator.next();
+			BlockPos blockpos = nextticklistentry.position;
+			if (blockpos.getX() >= structureboundingbox.minX && blockpos.getX() < structureboundingbox.maxX
+					&& blockpos.getZ() >= structureboundingbox.minZ && blockpos.getZ() < structureboundingbox.maxZ) {
+				if (flag) {
+					this.pendingTickListEntriesHashSet.remove(nextticklistentry);
+					iterator.remove();
+				}
 
-					arraylist.add(nextticklistentry);
+				if (arraylist == null) {
+					arraylist = Lists.newArrayList();
 				}
+
+				arraylist.add(nextticklistentry);
 			}
 		}
 
 		return arraylist;
 	}
 
+	private ArrayList<NextTickListEntry> func_175712_a_chunk(Set<NextTickListEntry> set,
+			StructureBoundingBox structureboundingbox, boolean flag, ArrayList<NextTickListEntry> arraylist) {
+		Iterator<NextTickListEntry> iterator = set.iterator();
+		while (iterator.hasNext()) {
+			NextTickListEntry nextticklistentry = iterator.next();
+			BlockPos blockpos = nextticklistentry.position;
+			if (blockpos.getX() >= structureboundingbox.minX && blockpos.getX() < structureboundingbox.maxX
+					&& blockpos.getZ() >= structureboundingbox.minZ && blockpos.getZ() < structureboundingbox.maxZ) {
+				if (flag) {
+					this.pendingTickListEntriesHashSet.remove(nextticklistentry);
+					this.pendingTickListEntriesTreeSet.remove(nextticklistentry);
+					iterator.remove();
+				}
+
+				if (arraylist == null) {
+					arraylist = Lists.newArrayList();
+				}
+
+				arraylist.add(nextticklistentry);
+			}
+		}
+		return arraylist;
+	}
+
 	/**+
 	 * Will update the entity in the world if the chunk the entity
 	 * is in is currently loaded or its forced to update. Args:
@@ -891,17 +969,70 @@ public class WorldServer extends World implements IThreadListener {
 			explosion.func_180342_d();
 		}
 
-		List<EntityPlayer> lst = this.playerEntities;
-		for (int i = 0, l = lst.size(); i < l; ++i) {
-			EntityPlayer entityplayer = lst.get(i);
-			if (entityplayer.getDistanceSq(d0, d1, d2) < 4096.0D) {
-				((EntityPlayerMP) entityplayer).playerNetServerHandler
-						.sendPacket(new S27PacketExplosion(d0, d1, d2, f, explosion.getAffectedBlockPositions(),
-								(Vec3) explosion.getPlayerKnockbackMap().get(entityplayer)));
+		this.getStatsListener().onExplosion();
+		this.pendingExplosions.add(explosion);
+		return explosion;
+	}
+
+	/**
+	 * Sends the S27PacketExplosion for every explosion queued since the last
+	 * call, explosions at the same position and size get merged into a single
+	 * packet per player with the affected blocks combined and the knockback
+	 * summed, the client ends up in the same state either way
+	 */
+	public void sendQueuedExplosions() {
+		int cnt = this.pendingExplosions.size();
+		if (cnt == 0) {
+			return;
+		}
+		List<EntityPlayer> players = this.playerEntities;
+		for (int i = 0; i < cnt; ++i) {
+			Explosion explosion = this.pendingExplosions.get(i);
+			if (explosion == null) {
+				continue;
+			}
+			List<BlockPos> blocks = explosion.getAffectedBlockPositions();
+			Map<EntityPlayer, Vec3> knockback = explosion.getPlayerKnockbackMap();
+			LongHashSet blockSet = null;
+			for (int j = i + 1; j < cnt; ++j) {
+				Explosion explosion2 = this.pendingExplosions.get(j);
+				if (explosion2 == null || !explosion.isCoincident(explosion2)) {
+					continue;
+				}
+				if (blockSet == null) {
+					blockSet = new LongHashSet(blocks.size() * 2);
+					for (int k = 0, l = blocks.size(); k < l; ++k) {
+						blockSet.add(blocks.get(k).toLong());
+					}
+					blocks = Lists.newArrayList(blocks);
+					knockback = Maps.newHashMap(knockback);
+				}
+				List<BlockPos> blocks2 = explosion2.getAffectedBlockPositions();
+				for (int k = 0, l = blocks2.size(); k < l; ++k) {
+					BlockPos pos = blocks2.get(k);
+					if (blockSet.add(pos.toLong())) {
+						blocks.add(pos);
+					}
+				}
+				for (Map.Entry<EntityPlayer, Vec3> etr : explosion2.getPlayerKnockbackMap().entrySet()) {
+					Vec3 vec = knockback.get(etr.getKey());
+					knockback.put(etr.getKey(), vec == null ? etr.getValue() : vec.add(etr.getValue()));
+				}
+				this.pendingExplosions.set(j, null);
+				this.getStatsListener().onExplosionMerged();
+			}
+			double d0 = explosion.getExplosionX();
+			double d1 = explosion.getExplosionY();
+			double d2 = explosion.getExplosionZ();
+			for (int k = 0, l = players.size(); k < l; ++k) {
+				EntityPlayer entityplayer = players.get(k);
+				if (entityplayer.getDistanceSq(d0, d1, d2) < 4096.0D) {
+					((EntityPlayerMP) entityplayer).playerNetServerHandler.sendPacket(new S27PacketExplosion(d0, d1,
+							d2, explosion.getExplosionSize(), blocks, knockback.get(entityplayer)));
+				}
 			}
 		}
-
-		return explosion;
+		this.pendingExplosions.clear();
 	}
 
 	public void addBlockEvent(BlockPos blockpos, Block block, int i, int j) {
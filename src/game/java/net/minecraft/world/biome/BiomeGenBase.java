@@ -399,9 +399,20 @@ public abstract class BiomeGenBase {
 
 	public final void generateBiomeTerrain(World worldIn, EaglercraftRandom rand, ChunkPrimer chunkPrimerIn,
 			int parInt1, int parInt2, double parDouble1) {
+		this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, parInt1, parInt2, parDouble1, this.topBlock,
+				this.fillerBlock);
+	}
+
+	/**
+	 * Same as above with the surface blocks passed in, biomes that pick them per
+	 * column must not store them in their fields because the generator may be
+	 * running on more than one thread
+	 */
+	public final void generateBiomeTerrain(World worldIn, EaglercraftRandom rand, ChunkPrimer chunkPrimerIn,
+			int parInt1, int parInt2, double parDouble1, IBlockState topBlock, IBlockState fillerBlock) {
 		int i = worldIn.func_181545_F();
-		IBlockState iblockstate = this.topBlock;
-		IBlockState iblockstate1 = this.fillerBlock;
+		IBlockState iblockstate = topBlock;
+		IBlockState iblockstate1 = fillerBlock;
 		int j = -1;
 		int k = (int) (parDouble1 / 3.0D + 3.0D + rand.nextDouble() * 0.25D);
 		int l = parInt1 & 15;
@@ -421,8 +432,8 @@ public abstract class BiomeGenBase {
 							iblockstate = null;
 							iblockstate1 = Blocks.stone.getDefaultState();
 						} else if (j1 >= i - 4 && j1 <= i + 1) {
-							iblockstate = this.topBlock;
-							iblockstate1 = this.fillerBlock;
+							iblockstate = topBlock;
+							iblockstate1 = fillerBlock;
 						}
 
 						if (j1 < i && (iblockstate == null || iblockstate.getBlock().getMaterial() == Material.air)) {
@@ -2,6 +2,7 @@ package net.minecraft.world.biome;
 
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.minecraft.block.BlockSilverfish;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.World;
@@ -81,17 +82,18 @@ public class BiomeGenHills extends BiomeGenBase {
 
 	public void genTerrainBlocks(World world, EaglercraftRandom random, ChunkPrimer chunkprimer, int i, int j,
 			double d0) {
-		this.topBlock = Blocks.grass.getDefaultState();
-		this.fillerBlock = Blocks.dirt.getDefaultState();
+		IBlockState top = Blocks.grass.getDefaultState();
+		IBlockState filler = Blocks.dirt.getDefaultState();
 		if ((d0 < -1.0D || d0 > 2.0D) && this.field_150638_aH == this.field_150637_aG) {
-			this.topBlock = Blocks.gravel.getDefaultState();
-			this.fillerBlock = Blocks.gravel.getDefaultState();
+			top = Blocks.gravel.getDefaultState();
+			filler = Blocks.gravel.getDefaultState();
 		} else if (d0 > 1.0D && this.field_150638_aH != this.field_150636_aF) {
-			this.topBlock = Blocks.stone.getDefaultState();
-			this.fillerBlock = Blocks.stone.getDefaultState();
+			top = Blocks.stone.getDefaultState();
+			filler = Blocks.stone.getDefaultState();
 		}
 
-		this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0);
+		chunkprimer.setTopBlock(this, top);
+		this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0, top, filler);
 	}
 
 	/**+
@@ -83,18 +83,7 @@ public class BiomeGenMesa extends BiomeGenBase {
 
 	public void genTerrainBlocks(World world, EaglercraftRandom random, ChunkPrimer chunkprimer, int i, int j,
 			double d0) {
-		if (this.field_150621_aC == null || this.field_150622_aD != world.getSeed()) {
-			this.func_150619_a(world.getSeed(), !world.getWorldInfo().isOldEaglercraftRandom());
-		}
-
-		if (this.field_150623_aE == null || this.field_150624_aF == null || this.field_150622_aD != world.getSeed()) {
-			EaglercraftRandom random1 = new EaglercraftRandom(this.field_150622_aD,
-					!world.getWorldInfo().isOldEaglercraftRandom());
-			this.field_150623_aE = new NoiseGeneratorPerlin(random1, 4);
-			this.field_150624_aF = new NoiseGeneratorPerlin(random1, 1);
-		}
-
-		this.field_150622_aD = world.getSeed();
+		this.initNoiseForSeed(world);
 		double d5 = 0.0D;
 		if (this.field_150626_aH) {
 			int k = (i & -16) + (j & 15);
@@ -198,6 +187,25 @@ public class BiomeGenMesa extends BiomeGenBase {
 
 	}
 
+	/**
+	 * Lazily builds the clay bands and noise for the world seed, synchronized
+	 * since terrain can be generated on several threads at once
+	 */
+	private synchronized void initNoiseForSeed(World world) {
+		if (this.field_150621_aC == null || this.field_150622_aD != world.getSeed()) {
+			this.func_150619_a(world.getSeed(), !world.getWorldInfo().isOldEaglercraftRandom());
+		}
+
+		if (this.field_150623_aE == null || this.field_150624_aF == null || this.field_150622_aD != world.getSeed()) {
+			EaglercraftRandom random1 = new EaglercraftRandom(this.field_150622_aD,
+					!world.getWorldInfo().isOldEaglercraftRandom());
+			this.field_150623_aE = new NoiseGeneratorPerlin(random1, 4);
+			this.field_150624_aF = new NoiseGeneratorPerlin(random1, 1);
+		}
+
+		this.field_150622_aD = world.getSeed();
+	}
+
 	private void func_150619_a(long parLong1, boolean scrambleRNG) {
 		this.field_150621_aC = new IBlockState[64];
 		Arrays.fill(this.field_150621_aC, Blocks.hardened_clay.getDefaultState());
@@ -3,6 +3,7 @@ package net.minecraft.world.biome;
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.minecraft.block.BlockDirt;
 import net.minecraft.block.BlockDoublePlant;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.passive.EntityHorse;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
@@ -78,17 +79,17 @@ public class BiomeGenSavanna extends BiomeGenBase {
 
 		public void genTerrainBlocks(World world, EaglercraftRandom random, ChunkPrimer chunkprimer, int i, int j,
 				double d0) {
-			this.topBlock = Blocks.grass.getDefaultState();
-			this.fillerBlock = Blocks.dirt.getDefaultState();
+			IBlockState top = Blocks.grass.getDefaultState();
+			IBlockState filler = Blocks.dirt.getDefaultState();
 			if (d0 > 1.75D) {
-				this.topBlock = Blocks.stone.getDefaultState();
-				this.fillerBlock = Blocks.stone.getDefaultState();
+				top = Blocks.stone.getDefaultState();
+				filler = Blocks.stone.getDefaultState();
 			} else if (d0 > -0.5D) {
-				this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT,
-						BlockDirt.DirtType.COARSE_DIRT);
+				top = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
 			}
 
-			this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0);
+			chunkprimer.setTopBlock(this, top);
+			this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0, top, filler);
 		}
 
 		public void decorate(World world, EaglercraftRandom random, BlockPos blockpos) {
@@ -4,6 +4,7 @@ import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
 import net.minecraft.block.BlockDirt;
 import net.minecraft.block.BlockDoublePlant;
 import net.minecraft.block.BlockTallGrass;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.passive.EntityWolf;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
@@ -104,18 +105,19 @@ public class BiomeGenTaiga extends BiomeGenBase {
 	public void genTerrainBlocks(World world, EaglercraftRandom random, ChunkPrimer chunkprimer, int i, int j,
 			double d0) {
 		if (this.field_150644_aH == 1 || this.field_150644_aH == 2) {
-			this.topBlock = Blocks.grass.getDefaultState();
-			this.fillerBlock = Blocks.dirt.getDefaultState();
+			IBlockState top = Blocks.grass.getDefaultState();
+			IBlockState filler = Blocks.dirt.getDefaultState();
 			if (d0 > 1.75D) {
-				this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT,
-						BlockDirt.DirtType.COARSE_DIRT);
+				top = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
 			} else if (d0 > -0.95D) {
-				this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT,
-						BlockDirt.DirtType.PODZOL);
+				top = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.PODZOL);
 			}
-		}
 
-		this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0);
+			chunkprimer.setTopBlock(this, top);
+			this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0, top, filler);
+		} else {
+			this.generateBiomeTerrain(world, random, chunkprimer, i, j, d0);
+		}
 	}
 
 	protected BiomeGenBase createMutatedBiome(int i) {
@@ -980,12 +980,14 @@ public class Chunk {
 					this.storageArrays[j] = new ExtendedBlockStorage(j << 4, flag);
 				}
 
-				char[] achar = this.storageArrays[j].getData();
+				char[] achar = new char[4096];
 
 				for (int k = 0; k < achar.length; ++k) {
 					achar[k] = (char) ((parArrayOfByte[i + 1] & 255) << 8 | parArrayOfByte[i] & 255);
 					i += 2;
 				}
+
+				this.storageArrays[j].setData(achar);
 			} else if (parFlag && this.storageArrays[j] != null) {
 				this.storageArrays[j] = null;
 			}
@@ -3,6 +3,7 @@ package net.minecraft.world.chunk;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
+import net.minecraft.world.biome.BiomeGenBase;
 
 /**+
  * This portion of EaglercraftX contains deobfuscated Minecraft 1.8 source code.
@@ -27,6 +28,8 @@ import net.minecraft.init.Blocks;
 public class ChunkPrimer {
 	private final short[] data = new short[65536];
 	private final IBlockState defaultState = Blocks.air.getDefaultState();
+	private BiomeGenBase[] biomes = null;
+	private IBlockState[] topBlocks = null;
 
 	public IBlockState getBlockState(int x, int y, int z) {
 		int i = x << 12 | z << 8 | y;
@@ -54,4 +57,32 @@ public class ChunkPrimer {
 			throw new IndexOutOfBoundsException("The coordinate is out of range");
 		}
 	}
+
+	/**
+	 * Biomes of the columns being generated, indexed x | z << 4, so the carvers
+	 * don't need to look them up through the world
+	 */
+	public void setBiomes(BiomeGenBase[] biomes) {
+		this.biomes = biomes;
+	}
+
+	public BiomeGenBase getBiome(int x, int z) {
+		return this.biomes != null ? this.biomes[x | z << 4] : null;
+	}
+
+	/**
+	 * Records the top block a biome picked for the last column it generated in
+	 * this chunk, replaces writing it to the shared biome instance
+	 */
+	public void setTopBlock(BiomeGenBase biome, IBlockState state) {
+		if (this.topBlocks == null) {
+			this.topBlocks = new IBlockState[256];
+		}
+		this.topBlocks[biome.biomeID & 255] = state;
+	}
+
+	public IBlockState getTopBlock(BiomeGenBase biome) {
+		IBlockState state = this.topBlocks != null ? this.topBlocks[biome.biomeID & 255] : null;
+		return state != null ? state : biome.topBlock;
+	}
 }
\ No newline at end of file
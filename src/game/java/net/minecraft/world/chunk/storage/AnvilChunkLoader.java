@@ -93,12 +93,13 @@ public abstract class AnvilChunkLoader implements IChunkLoader {
 			if (extendedblockstorage != null) {
 				NBTTagCompound nbttagcompound = new NBTTagCompound();
 				nbttagcompound.setByte("Y", (byte) (extendedblockstorage.getYLocation() >> 4 & 255));
-				byte[] abyte = new byte[extendedblockstorage.getData().length];
+				char[] achar = extendedblockstorage.getData();
+				byte[] abyte = new byte[achar.length];
 				NibbleArray nibblearray = new NibbleArray();
 				NibbleArray nibblearray1 = null;
 
-				for (int i = 0; i < extendedblockstorage.getData().length; ++i) {
-					char c0 = extendedblockstorage.getData()[i];
+				for (int i = 0; i < achar.length; ++i) {
+					char c0 = achar[i];
 					int j = i & 15;
 					int k = i >> 8 & 15;
 					int l = i >> 4 & 15;
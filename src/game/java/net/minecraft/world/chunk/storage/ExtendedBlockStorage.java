@@ -1,5 +1,7 @@
 package net.minecraft.world.chunk.storage;
 
+import java.util.Arrays;
+
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
@@ -29,7 +31,21 @@ public class ExtendedBlockStorage {
 	private int yBase;
 	private int blockRefCount;
 	private int tickRefCount;
+
+	/**
+	 * Block state ids are kept as indices into a palette, packed 1, 2, 4 or 8
+	 * bits each depending on the palette size, a section made of a single state
+	 * has no packed array at all. Sections with more than 256 different states
+	 * fall back to a plain char array in data.
+	 */
 	private char[] data;
+	private char[] palette;
+	private int paletteSize;
+	private int[] packedIndices;
+	private int bitsLog2;
+	private int bitsMask;
+	private int lastPaletteIndex;
+
 	private NibbleArray blocklightArray;
 	private NibbleArray skylightArray;
 
@@ -37,7 +53,8 @@ public class ExtendedBlockStorage {
 
 	public ExtendedBlockStorage(int y, boolean storeSkylight) {
 		this.yBase = y;
-		this.data = new char[4096];
+		this.palette = new char[4];
+		this.paletteSize = 1;
 		this.blocklightArray = new NibbleArray();
 		if (storeSkylight) {
 			this.skylightArray = new NibbleArray();
@@ -46,7 +63,7 @@ public class ExtendedBlockStorage {
 	}
 
 	public IBlockState get(int x, int y, int z) {
-		IBlockState iblockstate = (IBlockState) Block.BLOCK_STATE_IDS.getByValue(this.data[y << 8 | z << 4 | x]);
+		IBlockState iblockstate = Block.BLOCK_STATE_IDS.getByValue(this.getStateId(y << 8 | z << 4 | x));
 		return iblockstate != null ? iblockstate : Blocks.air.getDefaultState();
 	}
 
@@ -68,7 +85,62 @@ public class ExtendedBlockStorage {
 			}
 		}
 
-		this.data[y << 8 | z << 4 | x] = (char) Block.BLOCK_STATE_IDS.get(state);
+		this.setStateId(y << 8 | z << 4 | x, Block.BLOCK_STATE_IDS.get(state));
+	}
+
+	private int getStateId(int index) {
+		if (this.data != null) {
+			return this.data[index];
+		}
+		if (this.packedIndices == null) {
+			return this.palette[0];
+		}
+		int i = index << this.bitsLog2;
+		return this.palette[this.packedIndices[i >>> 5] >>> (i & 31) & this.bitsMask];
+	}
+
+	private void setStateId(int index, int id) {
+		if (this.data != null) {
+			this.data[index] = (char) id;
+			return;
+		}
+		int p = this.findPaletteIndex(id);
+		if (p == -1) {
+			if (this.paletteSize == (this.packedIndices != null ? this.bitsMask + 1 : 1)) {
+				// the packed width is used up, rebuild the section from scratch which
+				// also drops states that aren't in it anymore
+				char[] achar = this.getData();
+				achar[index] = (char) id;
+				this.setData(achar);
+				return;
+			}
+			p = this.paletteSize++;
+			if (p == this.palette.length) {
+				this.palette = Arrays.copyOf(this.palette, p << 1);
+			}
+			this.palette[p] = (char) id;
+			this.lastPaletteIndex = p;
+		}
+		if (this.packedIndices != null) {
+			int i = index << this.bitsLog2;
+			int j = i >>> 5;
+			int k = i & 31;
+			this.packedIndices[j] = this.packedIndices[j] & ~(this.bitsMask << k) | p << k;
+		}
+	}
+
+	private int findPaletteIndex(int id) {
+		int i = this.lastPaletteIndex;
+		if (this.palette[i] == id) {
+			return i;
+		}
+		for (i = 0; i < this.paletteSize; ++i) {
+			if (this.palette[i] == id) {
+				this.lastPaletteIndex = i;
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**+
@@ -180,12 +252,98 @@ public class ExtendedBlockStorage {
 
 	}
 
+	/**
+	 * Decodes every block state id in this section into a new array in the
+	 * same order the old char[4096] storage used, writes to the array are not
+	 * seen by the section until it is passed back to setData
+	 */
 	public char[] getData() {
-		return this.data;
+		return this.getData(new char[4096]);
+	}
+
+	public char[] getData(char[] dst) {
+		if (this.data != null) {
+			System.arraycopy(this.data, 0, dst, 0, 4096);
+		} else if (this.packedIndices == null) {
+			Arrays.fill(dst, 0, 4096, this.palette[0]);
+		} else {
+			int[] packed = this.packedIndices;
+			char[] pal = this.palette;
+			int log2 = this.bitsLog2;
+			int mask = this.bitsMask;
+			for (int i = 0; i < 4096; ++i) {
+				int j = i << log2;
+				dst[i] = pal[packed[j >>> 5] >>> (j & 31) & mask];
+			}
+		}
+		return dst;
 	}
 
+	/**
+	 * Replaces every block state id in this section, the array is kept as the
+	 * storage if the section turns out to have more than 256 different states
+	 * so it must not be reused by the caller
+	 */
 	public void setData(char[] dataArray) {
-		this.data = dataArray;
+		char[] pal = new char[16];
+		byte[] indices = new byte[4096];
+		int n = 0;
+		int last = 0;
+		for (int i = 0; i < 4096; ++i) {
+			char c = dataArray[i];
+			int j = last;
+			if (n == 0 || pal[j] != c) {
+				for (j = 0; j < n; ++j) {
+					if (pal[j] == c) {
+						break;
+					}
+				}
+				if (j == n) {
+					if (n == 256) {
+						this.data = dataArray;
+						this.palette = null;
+						this.paletteSize = 0;
+						this.packedIndices = null;
+						this.lastPaletteIndex = 0;
+						return;
+					}
+					if (n == pal.length) {
+						pal = Arrays.copyOf(pal, n << 1);
+					}
+					pal[n++] = c;
+				}
+				last = j;
+			}
+			indices[i] = (byte) j;
+		}
+		this.data = null;
+		this.palette = pal;
+		this.paletteSize = n;
+		this.lastPaletteIndex = 0;
+		if (n == 1) {
+			this.packedIndices = null;
+			return;
+		}
+		int log2 = n <= 2 ? 0 : (n <= 4 ? 1 : (n <= 16 ? 2 : 3));
+		int[] packed = new int[128 << log2];
+		for (int i = 0; i < 4096; ++i) {
+			int j = i << log2;
+			packed[j >>> 5] |= (indices[i] & 255) << (j & 31);
+		}
+		this.packedIndices = packed;
+		this.bitsLog2 = log2;
+		this.bitsMask = (1 << (1 << log2)) - 1;
+	}
+
+	/**
+	 * Approximate number of bytes used to store the block states in this
+	 * section, not counting the light arrays
+	 */
+	public int getBlockStorageSize() {
+		if (this.data != null) {
+			return this.data.length << 1;
+		}
+		return (this.palette.length << 1) + (this.packedIndices != null ? this.packedIndices.length << 2 : 0);
 	}
 
 	/**+
@@ -154,18 +154,30 @@ public class RegionFile {
 	/**+
 	 * args: x, z, data, length - write chunk data at (x, z) to disk
 	 */
-	protected synchronized void write(int x, int z, byte[] data, int length) {
+	protected void write(int x, int z, byte[] data, int length) {
+		this.writeChunk(x, z, data, length, 2);
+	}
+
+	/**+
+	 * args: x, z, data, length, compressionType - writes an already
+	 * compressed chunk (1 = gzip, 2 = zlib), returns false if the
+	 * chunk is too large to fit in a region file
+	 */
+	public synchronized boolean writeChunk(int x, int z, byte[] data, int length, int compressionType) {
+		if (this.outOfBounds(x, z)) {
+			return false;
+		}
 		try {
 			int i = this.getOffset(x, z);
 			int j = i >> 8;
 			int k = i & 255;
 			int l = (length + 5) / 4096 + 1;
 			if (l >= 256) {
-				return;
+				return false;
 			}
 
 			if (j != 0 && k == l) {
-				this.write(j, data, length);
+				this.write(j, data, length, compressionType);
 			} else {
 				for (int i1 = 0; i1 < k; ++i1) {
 					this.sectorFree.set(j + i1, Boolean.valueOf(true));
@@ -200,7 +212,7 @@ public class RegionFile {
 						this.sectorFree.set(j + j2, Boolean.valueOf(false));
 					}
 
-					this.write(j, data, length);
+					this.write(j, data, length, compressionType);
 				} else {
 					this.dataFile.seek(this.dataFile.getLength());
 					j = this.sectorFree.size();
@@ -211,25 +223,50 @@ public class RegionFile {
 					}
 
 					this.sizeDelta += 4096 * l;
-					this.write(j, data, length);
+					this.write(j, data, length, compressionType);
 					this.setOffset(x, z, j << 8 | l);
 				}
 			}
 
 			this.setChunkTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
+			return true;
 		} catch (IOException ioexception) {
 			throw new RuntimeException("Could not write chunk to RegionFile!", ioexception);
 		}
 
 	}
 
+	/**+
+	 * args: x, z - frees the sectors used by a chunk so it is no
+	 * longer saved in this region file
+	 */
+	public synchronized void removeChunk(int x, int z) {
+		if (this.outOfBounds(x, z)) {
+			return;
+		}
+		try {
+			int i = this.getOffset(x, z);
+			if (i != 0) {
+				int j = i >> 8;
+				int k = i & 255;
+				for (int l = 0; l < k && j + l < this.sectorFree.size(); ++l) {
+					this.sectorFree.set(j + l, Boolean.valueOf(true));
+				}
+				this.setOffset(x, z, 0);
+				this.setChunkTimestamp(x, z, 0);
+			}
+		} catch (IOException ioexception) {
+			throw new RuntimeException("Could not remove chunk from RegionFile!", ioexception);
+		}
+	}
+
 	/**+
 	 * args: x, z, data, length - write chunk data at (x, z) to disk
 	 */
-	private void write(int sectorNumber, byte[] data, int length) throws IOException {
+	private void write(int sectorNumber, byte[] data, int length, int compressionType) throws IOException {
 		this.dataFile.seek(sectorNumber * 4096);
 		this.dataFile.writeInt(length + 1);
-		this.dataFile.writeByte(2);
+		this.dataFile.writeByte(compressionType);
 		this.dataFile.write(data, 0, length);
 	}
 
@@ -14,6 +14,7 @@ import net.minecraft.world.SpawnerAnimals;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldType;
 import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.IChunkProvider;
@@ -55,7 +56,14 @@ public class ChunkProviderGenerate implements IChunkProvider {
 	public NoiseGeneratorOctaves noiseGen6;
 	public NoiseGeneratorOctaves mobSpawnerNoise;
 	private World worldObj;
+	private final long seed;
 	private final boolean mapFeaturesEnabled;
+	private final String generatorOptions;
+	/**
+	 * Biome layers used for the terrain pass, only set on worker copies, the
+	 * world's own WorldChunkManager is used otherwise
+	 */
+	private final WorldChunkManager chunkManager;
 	private WorldType field_177475_o;
 	private final double[] field_147434_q;
 	private final float[] parabolicField;
@@ -76,8 +84,16 @@ public class ChunkProviderGenerate implements IChunkProvider {
 	double[] field_147426_g;
 
 	public ChunkProviderGenerate(World worldIn, long parLong1, boolean parFlag, String parString1) {
+		this(worldIn, parLong1, parFlag, parString1, null);
+	}
+
+	private ChunkProviderGenerate(World worldIn, long parLong1, boolean parFlag, String parString1,
+			WorldChunkManager chunkManager) {
 		this.worldObj = worldIn;
+		this.seed = parLong1;
 		this.mapFeaturesEnabled = parFlag;
+		this.generatorOptions = parString1;
+		this.chunkManager = chunkManager;
 		this.field_177475_o = worldIn.getWorldInfo().getTerrainType();
 		boolean scramble = !worldIn.getWorldInfo().isOldEaglercraftRandom();
 		this.rand = new EaglercraftRandom(parLong1, scramble);
@@ -113,8 +129,25 @@ public class ChunkProviderGenerate implements IChunkProvider {
 
 	}
 
+	/**
+	 * Returns a generator with its own noise, carvers and biome layers that can
+	 * run {@link #generateTerrain} on another thread while this one is in use,
+	 * or null if the world's biome source can't be copied
+	 */
+	public ChunkProviderGenerate createWorkerCopy() {
+		if (this.worldObj.getWorldChunkManager().getClass() != WorldChunkManager.class) {
+			return null;
+		}
+		return new ChunkProviderGenerate(this.worldObj, this.seed, this.mapFeaturesEnabled, this.generatorOptions,
+				new WorldChunkManager(this.worldObj));
+	}
+
+	private WorldChunkManager getChunkManager() {
+		return this.chunkManager != null ? this.chunkManager : this.worldObj.getWorldChunkManager();
+	}
+
 	public void setBlocksInChunk(int parInt1, int parInt2, ChunkPrimer parChunkPrimer) {
-		this.biomesForGeneration = this.worldObj.getWorldChunkManager().getBiomesForGeneration(this.biomesForGeneration,
+		this.biomesForGeneration = this.getChunkManager().getBiomesForGeneration(this.biomesForGeneration,
 				parInt1 * 4 - 2, parInt2 * 4 - 2, 10, 10);
 		this.func_147423_a(parInt1 * 4, 0, parInt2 * 4);
 
@@ -198,11 +231,23 @@ public class ChunkProviderGenerate implements IChunkProvider {
 	 * chunk from the map seed and chunk seed
 	 */
 	public Chunk provideChunk(int i, int j) {
-		this.rand.setSeed((long) i * 341873128712L + (long) j * 132897987541L);
 		ChunkPrimer chunkprimer = new ChunkPrimer();
+		byte[] abyte = new byte[256];
+		this.generateTerrain(i, j, chunkprimer, abyte);
+		return this.createChunk(i, j, chunkprimer, abyte);
+	}
+
+	/**
+	 * Noise, biome surface, caves and ravines, everything in provideChunk that
+	 * only depends on the seed and the chunk position. Safe to call on a worker
+	 * copy from another thread, structures are left for createChunk
+	 */
+	public void generateTerrain(int i, int j, ChunkPrimer chunkprimer, byte[] biomeIds) {
+		this.rand.setSeed((long) i * 341873128712L + (long) j * 132897987541L);
 		this.setBlocksInChunk(i, j, chunkprimer);
-		this.biomesForGeneration = this.worldObj.getWorldChunkManager().loadBlockGeneratorData(this.biomesForGeneration,
-				i * 16, j * 16, 16, 16);
+		this.biomesForGeneration = this.getChunkManager().loadBlockGeneratorData(this.biomesForGeneration, i * 16,
+				j * 16, 16, 16);
+		chunkprimer.setBiomes(this.biomesForGeneration);
 		this.replaceBlocksForBiome(i, j, chunkprimer, this.biomesForGeneration);
 		if (this.settings.useCaves) {
 			this.caveGenerator.generate(this, this.worldObj, i, j, chunkprimer);
@@ -212,33 +257,24 @@ public class ChunkProviderGenerate implements IChunkProvider {
 			this.ravineGenerator.generate(this, this.worldObj, i, j, chunkprimer);
 		}
 
-		if (this.settings.useMineShafts && this.mapFeaturesEnabled) {
-			this.mineshaftGenerator.generate(this, this.worldObj, i, j, chunkprimer);
-		}
-
-		if (this.settings.useVillages && this.mapFeaturesEnabled) {
-			this.villageGenerator.generate(this, this.worldObj, i, j, chunkprimer);
-		}
-
-		if (this.settings.useStrongholds && this.mapFeaturesEnabled) {
-			this.strongholdGenerator.generate(this, this.worldObj, i, j, chunkprimer);
+		chunkprimer.setBiomes(null);
+		for (int k = 0; k < biomeIds.length; ++k) {
+			biomeIds[k] = (byte) this.biomesForGeneration[k].biomeID;
 		}
 
-		if (this.settings.useTemples && this.mapFeaturesEnabled) {
-			this.scatteredFeatureGenerator.generate(this, this.worldObj, i, j, chunkprimer);
-		}
-
-		if (this.settings.useMonuments && this.mapFeaturesEnabled) {
-			this.oceanMonumentGenerator.generate(this, this.worldObj, i, j, chunkprimer);
+		if (this.chunkManager != null) {
+			this.chunkManager.cleanupCache();
 		}
+	}
 
+	/**
+	 * Registers the structures starting in this chunk and builds the chunk from
+	 * the output of generateTerrain, must be called on the world's thread
+	 */
+	public Chunk createChunk(int i, int j, ChunkPrimer chunkprimer, byte[] biomeIds) {
+		this.recreateStructures((Chunk) null, i, j);
 		Chunk chunk = new Chunk(this.worldObj, chunkprimer, i, j);
-		byte[] abyte = chunk.getBiomeArray();
-
-		for (int k = 0; k < abyte.length; ++k) {
-			abyte[k] = (byte) this.biomesForGeneration[k].biomeID;
-		}
-
+		System.arraycopy(biomeIds, 0, chunk.getBiomeArray(), 0, biomeIds.length);
 		chunk.generateSkylightMap();
 		return chunk;
 	}
@@ -1,15 +1,18 @@
 package net.minecraft.world.gen;
 
+import com.carrotsearch.hppc.LongArrayDeque;
 import com.carrotsearch.hppc.LongHashSet;
 import com.carrotsearch.hppc.LongObjectHashMap;
 import com.carrotsearch.hppc.LongObjectMap;
 import com.carrotsearch.hppc.LongSet;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkLoader;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
 import net.minecraft.entity.EnumCreatureType;
 import net.minecraft.util.BlockPos;
@@ -20,10 +23,13 @@ import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.EmptyChunk;
 import net.minecraft.world.chunk.IChunkProvider;
 import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.HString;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 
@@ -65,6 +71,28 @@ public class ChunkProviderServer implements IChunkProvider {
 	private List<Chunk> loadedChunks = Lists.newLinkedList();
 	private WorldServer worldObj;
 
+	/**
+	 * Most terrain that is allowed to be generated ahead of loadChunk at once,
+	 * each finished one holds a 128KB ChunkPrimer until it is used
+	 */
+	private static final int MAX_PENDING_TERRAIN = 64;
+
+	private static IWorkerThreadPool generatorPool = null;
+	private static boolean generatorPoolCreated = false;
+
+	private static IWorkerThreadPool getGeneratorPool() {
+		if (!generatorPoolCreated) {
+			generatorPoolCreated = true;
+			generatorPool = EagRuntime.createWorkerThreadPool("Chunk Generator", 3);
+		}
+		return generatorPool;
+	}
+
+	private final LongObjectMap<ChunkProviderServer.PendingTerrain> pendingTerrain = new LongObjectHashMap<>();
+	private final LongArrayDeque prefetchQueue = new LongArrayDeque();
+	private List<ChunkProviderGenerate> idleGenerators = null;
+	private boolean prefetchUnsupported = false;
+
 	public ChunkProviderServer(WorldServer parWorldServer, IChunkLoader parIChunkLoader,
 			IChunkProvider parIChunkProvider) {
 		this.dummyChunk = new EmptyChunk(parWorldServer, Integer.MIN_VALUE, Integer.MIN_VALUE);
@@ -119,7 +147,10 @@ public class ChunkProviderServer implements IChunkProvider {
 					chunk = this.dummyChunk;
 				} else {
 					try {
-						chunk = this.serverChunkGenerator.provideChunk(i, j);
+						chunk = this.takePrefetchedChunk(i, j, k);
+						if (chunk == null) {
+							chunk = this.serverChunkGenerator.provideChunk(i, j);
+						}
 						++EaglerMinecraftServer.counterChunkGenerate;
 					} catch (Throwable throwable) {
 						CrashReport crashreport = CrashReport.makeCrashReport(throwable,
@@ -145,6 +176,174 @@ public class ChunkProviderServer implements IChunkProvider {
 		return chunk;
 	}
 
+	/**
+	 * Starts generating the terrain of every chunk in the area that is neither
+	 * loaded nor saved on the generator pool, so the loadChunk calls that follow
+	 * only have to place structures and populate. Does nothing on runtimes
+	 * without worker threads or for worlds not using ChunkProviderGenerate
+	 */
+	public void prefetchChunks(int minX, int minZ, int maxX, int maxZ) {
+		if (this.prefetchUnsupported) {
+			return;
+		}
+		IWorkerThreadPool pool = getGeneratorPool();
+		if (pool == null || !(this.serverChunkGenerator instanceof ChunkProviderGenerate)
+				|| (this.chunkLoader != null && !(this.chunkLoader instanceof EaglerChunkLoader))) {
+			this.prefetchUnsupported = true;
+			return;
+		}
+		if (this.idleGenerators == null) {
+			this.idleGenerators = Lists.newArrayList();
+			for (int i = 0, l = pool.getThreadCount(); i < l; ++i) {
+				ChunkProviderGenerate generator = ((ChunkProviderGenerate) this.serverChunkGenerator)
+						.createWorkerCopy();
+				if (generator == null) {
+					this.prefetchUnsupported = true;
+					return;
+				}
+				this.idleGenerators.add(generator);
+			}
+		}
+		EaglerChunkLoader loader = (EaglerChunkLoader) this.chunkLoader;
+		for (int x = minX; x <= maxX; ++x) {
+			for (int z = minZ; z <= maxZ; ++z) {
+				long k = ChunkCoordIntPair.chunkXZ2Int(x, z);
+				if (!this.id2ChunkMap.containsKey(k) && !this.pendingTerrain.containsKey(k)
+						&& (loader == null || !loader.chunkMayExist(x, z))) {
+					this.prefetchQueue.addLast(k);
+				}
+			}
+		}
+		this.submitPrefetches();
+	}
+
+	private void submitPrefetches() {
+		IWorkerThreadPool pool = getGeneratorPool();
+		while (this.pendingTerrain.size() < MAX_PENDING_TERRAIN && !this.prefetchQueue.isEmpty()) {
+			long k = this.prefetchQueue.removeFirst();
+			if (!this.id2ChunkMap.containsKey(k) && !this.pendingTerrain.containsKey(k)) {
+				ChunkProviderServer.PendingTerrain pending = new ChunkProviderServer.PendingTerrain((int) k,
+						(int) (k >>> 32));
+				this.pendingTerrain.put(k, pending);
+				pool.execute(pending);
+			}
+		}
+	}
+
+	/**
+	 * Returns the chunk built from terrain generated by prefetchChunks, waiting
+	 * for the worker if it is still running. Returns null if the chunk was not
+	 * prefetched or its task has not started yet, in that case the caller
+	 * generates it the normal way
+	 */
+	private Chunk takePrefetchedChunk(int x, int z, long k) {
+		ChunkProviderServer.PendingTerrain pending = this.pendingTerrain.remove(k);
+		if (pending == null) {
+			return null;
+		}
+		boolean done;
+		synchronized (pending) {
+			if (pending.state == PendingTerrain.QUEUED) {
+				pending.state = PendingTerrain.CANCELLED;
+			} else {
+				while (pending.state != PendingTerrain.DONE) {
+					try {
+						pending.wait();
+					} catch (InterruptedException e) {
+					}
+				}
+			}
+			done = pending.state == PendingTerrain.DONE;
+		}
+		this.submitPrefetches();
+		if (!done) {
+			return null;
+		}
+		if (pending.error != null) {
+			logger.error("Failed to generate terrain for chunk {}, {} on the generator pool", x, z);
+			logger.error(pending.error);
+			return null;
+		}
+		return ((ChunkProviderGenerate) this.serverChunkGenerator).createChunk(x, z, pending.primer,
+				pending.biomeIds);
+	}
+
+	private void cancelPrefetches() {
+		this.prefetchQueue.clear();
+		for (ObjectCursor<ChunkProviderServer.PendingTerrain> cursor : this.pendingTerrain.values()) {
+			ChunkProviderServer.PendingTerrain pending = cursor.value;
+			synchronized (pending) {
+				if (pending.state == PendingTerrain.QUEUED) {
+					pending.state = PendingTerrain.CANCELLED;
+				}
+			}
+		}
+		this.pendingTerrain.clear();
+	}
+
+	private ChunkProviderGenerate borrowGenerator() {
+		synchronized (this.idleGenerators) {
+			if (!this.idleGenerators.isEmpty()) {
+				return this.idleGenerators.remove(this.idleGenerators.size() - 1);
+			}
+		}
+		return ((ChunkProviderGenerate) this.serverChunkGenerator).createWorkerCopy();
+	}
+
+	private void releaseGenerator(ChunkProviderGenerate generator) {
+		synchronized (this.idleGenerators) {
+			this.idleGenerators.add(generator);
+		}
+	}
+
+	private class PendingTerrain implements Runnable {
+
+		private static final int QUEUED = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
+		private static final int CANCELLED = 3;
+
+		private final int x;
+		private final int z;
+		private int state = QUEUED;
+		private ChunkPrimer primer;
+		private byte[] biomeIds;
+		private Throwable error;
+
+		private PendingTerrain(int x, int z) {
+			this.x = x;
+			this.z = z;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (this.state != QUEUED) {
+					return;
+				}
+				this.state = RUNNING;
+			}
+			ChunkPrimer chunkprimer = new ChunkPrimer();
+			byte[] abyte = new byte[256];
+			Throwable err = null;
+			ChunkProviderGenerate generator = ChunkProviderServer.this.borrowGenerator();
+			try {
+				generator.generateTerrain(this.x, this.z, chunkprimer, abyte);
+			} catch (Throwable t) {
+				err = t;
+			} finally {
+				ChunkProviderServer.this.releaseGenerator(generator);
+			}
+			synchronized (this) {
+				this.primer = chunkprimer;
+				this.biomeIds = abyte;
+				this.error = err;
+				this.state = DONE;
+				this.notifyAll();
+			}
+		}
+	}
+
 	/**+
 	 * Will return back a chunk, if it doesn't exist and its not a
 	 * MP client it will generates all the blocks for the specified
@@ -295,6 +494,11 @@ public class ChunkProviderServer implements IChunkProvider {
 			}
 		}
 
+		if (!this.pendingTerrain.isEmpty() || !this.prefetchQueue.isEmpty()) {
+			// everything prefetched is expected to be loaded in the same tick
+			this.cancelPrefetches();
+		}
+
 		return this.serverChunkGenerator.unloadQueuedChunks();
 	}
 
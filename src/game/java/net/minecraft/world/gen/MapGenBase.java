@@ -1,6 +1,9 @@
 package net.minecraft.world.gen;
 
 import net.lax1dude.eaglercraft.v1_8.EaglercraftRandom;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.IChunkProvider;
@@ -64,4 +67,16 @@ public class MapGenBase {
 	 */
 	protected void recursiveGenerate(World var1, int var2, int var3, int var4, int var5, ChunkPrimer var6) {
 	}
+
+	/**
+	 * Top block of the biome at a column of the chunk being carved, taken from
+	 * the primer when the chunk provider filled it in
+	 */
+	protected IBlockState getBiomeTopBlock(ChunkPrimer primer, BlockPos pos) {
+		BiomeGenBase biome = primer.getBiome(pos.getX() & 15, pos.getZ() & 15);
+		if (biome == null) {
+			biome = this.worldObj.getBiomeGenForCoords(pos);
+		}
+		return primer.getTopBlock(biome);
+	}
 }
\ No newline at end of file
@@ -176,8 +176,8 @@ public class MapGenRavine extends MapGenBase {
 														blockpos$mutableblockpos.func_181079_c(j3 + parInt1 * 16, 0,
 																i2 + parInt2 * 16);
 														parChunkPrimer.setBlockState(j3, j2 - 1, i2,
-																this.worldObj.getBiomeGenForCoords(
-																		blockpos$mutableblockpos).topBlock);
+																this.getBiomeTopBlock(parChunkPrimer,
+																		blockpos$mutableblockpos));
 													}
 												}
 											}
@@ -24,31 +24,47 @@ import java.util.List;
  * 
  */
 public class IntCache {
-	private static int intCacheSize = 256;
+
+	/**
+	 * Every thread generating terrain gets its own pool, the arrays handed out
+	 * are only valid until that same thread calls resetIntCache()
+	 */
+	private static final ThreadLocal<IntCache> threadCache = new ThreadLocal<IntCache>() {
+		@Override
+		protected IntCache initialValue() {
+			return new IntCache();
+		}
+	};
+
+	private int intCacheSize = 256;
 	/**+
 	 * A list of pre-allocated int[256] arrays that are currently
 	 * unused and can be returned by getIntCache()
 	 */
-	private static List<int[]> freeSmallArrays = Lists.newArrayList();
+	private final List<int[]> freeSmallArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[256] arrays that were previously
 	 * returned by getIntCache() and which will not be re-used again
 	 * until resetIntCache() is called.
 	 */
-	private static List<int[]> inUseSmallArrays = Lists.newArrayList();
+	private final List<int[]> inUseSmallArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[cacheSize] arrays that are
 	 * currently unused and can be returned by getIntCache()
 	 */
-	private static List<int[]> freeLargeArrays = Lists.newArrayList();
+	private final List<int[]> freeLargeArrays = Lists.newArrayList();
 	/**+
 	 * A list of pre-allocated int[cacheSize] arrays that were
 	 * previously returned by getIntCache() and which will not be
 	 * re-used again until resetIntCache() is called.
 	 */
-	private static List<int[]> inUseLargeArrays = Lists.newArrayList();
+	private final List<int[]> inUseLargeArrays = Lists.newArrayList();
 
-	public static synchronized int[] getIntCache(int parInt1) {
+	public static int[] getIntCache(int parInt1) {
+		return threadCache.get().getArray(parInt1);
+	}
+
+	private int[] getArray(int parInt1) {
 		if (parInt1 <= 256) {
 			if (freeSmallArrays.isEmpty()) {
 				int[] aint4 = new int[256];
@@ -81,7 +97,11 @@ public class IntCache {
 	 * Mark all pre-allocated arrays as available for re-use by
 	 * moving them to the appropriate free lists.
 	 */
-	public static synchronized void resetIntCache() {
+	public static void resetIntCache() {
+		threadCache.get().reset();
+	}
+
+	private void reset() {
 		if (!freeLargeArrays.isEmpty()) {
 			freeLargeArrays.remove(freeLargeArrays.size() - 1);
 		}
@@ -100,8 +120,9 @@ public class IntCache {
 	 * Gets a human-readable string that indicates the sizes of all
 	 * the cache fields. Basically a synchronized static toString.
 	 */
-	public static synchronized String getCacheSizes() {
-		return "cache: " + freeLargeArrays.size() + ", tcache: " + freeSmallArrays.size() + ", allocated: "
-				+ inUseLargeArrays.size() + ", tallocated: " + inUseSmallArrays.size();
+	public static String getCacheSizes() {
+		IntCache cache = threadCache.get();
+		return "cache: " + cache.freeLargeArrays.size() + ", tcache: " + cache.freeSmallArrays.size()
+				+ ", allocated: " + cache.inUseLargeArrays.size() + ", tallocated: " + cache.inUseSmallArrays.size();
 	}
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package net.minecraft.world.pathfinder;
 
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import java.util.Arrays;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.pathfinding.PathPoint;
@@ -35,14 +37,59 @@ public abstract class NodeProcessor {
 	protected int entitySizeY;
 	protected int entitySizeZ;
 
+	/**
+	 * Points from finished searches, shared by every node processor since
+	 * pathfinding only runs on the server thread. Nothing outside a search
+	 * holds on to them, PathFinder copies the ones that end up in a path
+	 */
+	private static final PathPoint[] pointPool = new PathPoint[8192];
+	private static int pointPoolSize = 0;
+
+	public static void clearPointPool() {
+		Arrays.fill(pointPool, 0, pointPoolSize, null);
+		pointPoolSize = 0;
+	}
+
 	public void initProcessor(IBlockAccess iblockaccessIn, Entity entityIn) {
 		this.blockaccess = iblockaccessIn;
-		this.pointMap.clear();
+		this.releasePoints();
 		this.entitySizeX = MathHelper.floor_float(entityIn.width + 1.0F);
 		this.entitySizeY = MathHelper.floor_float(entityIn.height + 1.0F);
 		this.entitySizeZ = MathHelper.floor_float(entityIn.width + 1.0F);
 	}
 
+	/**
+	 * Swaps in a new block access for a search that was suspended on an
+	 * earlier tick without dropping the points it already opened
+	 */
+	public void resumeProcessor(IBlockAccess iblockaccessIn) {
+		this.blockaccess = iblockaccessIn;
+	}
+
+	/**
+	 * Returns the points of the last search to the pool
+	 */
+	public void releasePoints() {
+		if (!this.pointMap.isEmpty()) {
+			for (ObjectCursor<PathPoint> cursor : this.pointMap.values()) {
+				if (pointPoolSize == pointPool.length) {
+					break;
+				}
+				pointPool[pointPoolSize++] = cursor.value;
+			}
+			this.pointMap.clear();
+		}
+	}
+
+	/**
+	 * Identifies processors that would find the same paths, for sharing
+	 * cached paths between mobs
+	 */
+	public int getPathSignature() {
+		return ((this.getClass().hashCode() * 31 + this.entitySizeX) * 31 + this.entitySizeY) * 31
+				+ this.entitySizeZ;
+	}
+
 	/**+
 	 * This method is called when all nodes have been processed and
 	 * PathEntity is created.\n {@link
@@ -61,7 +108,7 @@ public abstract class NodeProcessor {
 		int i = PathPoint.makeHash(x, y, z);
 		PathPoint pathpoint = this.pointMap.get(i);
 		if (pathpoint == null) {
-			pathpoint = new PathPoint(x, y, z);
+			pathpoint = pointPoolSize > 0 ? pointPool[--pointPoolSize].reinit(x, y, z) : new PathPoint(x, y, z);
 			this.pointMap.put(i, pathpoint);
 		}
 
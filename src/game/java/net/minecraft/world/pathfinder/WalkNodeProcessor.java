@@ -46,6 +46,11 @@ public class WalkNodeProcessor extends NodeProcessor {
 		this.shouldAvoidWater = this.avoidsWater;
 	}
 
+	public int getPathSignature() {
+		return super.getPathSignature() * 31 + ((this.canEnterDoors ? 1 : 0) | (this.canBreakDoors ? 2 : 0)
+				| (this.shouldAvoidWater ? 4 : 0) | (this.canSwim ? 8 : 0));
+	}
+
 	/**+
 	 * This method is called when all nodes have been processed and
 	 * PathEntity is created.\n {@link
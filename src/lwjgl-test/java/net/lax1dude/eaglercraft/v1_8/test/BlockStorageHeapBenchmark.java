@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.gen.ChunkProviderGenerate;
+
+/**
+ * Heap benchmark for the palette block storage in ExtendedBlockStorage,
+ * generates a square of overworld chunks and measures the heap they use, then
+ * keeps a char[4096] copy of every section's block state ids, which is what
+ * each section used to store, and measures how much that adds. Also times a
+ * full read of every block through get() against reading the plain arrays.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.BlockStorageHeapBenchmark [seed] [radius]
+ */
+public class BlockStorageHeapBenchmark {
+
+	private static int sink = 0;
+
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 8675309l;
+		int radius = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		Bootstrap.register();
+
+		HeadlessWorld world = new HeadlessWorld("BlockStorageHeapBenchmark", seed, WorldType.DEFAULT);
+		ChunkProviderGenerate generator = (ChunkProviderGenerate) world.provider.createChunkGenerator();
+
+		long before = usedHeap();
+		List<Chunk> chunks = new ArrayList<>();
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				chunks.add(generator.provideChunk(x, z));
+			}
+		}
+		long withChunks = usedHeap();
+
+		List<ExtendedBlockStorage> sections = new ArrayList<>();
+		int single = 0;
+		long storageBytes = 0l;
+		for (int i = 0, l = chunks.size(); i < l; ++i) {
+			for (ExtendedBlockStorage storage : chunks.get(i).getBlockStorageArray()) {
+				if (storage != null) {
+					sections.add(storage);
+					storageBytes += storage.getBlockStorageSize();
+					if (storage.getBlockStorageSize() < 256) {
+						++single;
+					}
+				}
+			}
+		}
+
+		List<char[]> arrays = new ArrayList<>(sections.size());
+		for (int i = 0, l = sections.size(); i < l; ++i) {
+			arrays.add(sections.get(i).getData());
+		}
+		long withArrays = usedHeap();
+
+		int n = sections.size();
+		System.out.println(chunks.size() + " chunks, " + n + " sections, " + single + " of them single state");
+		System.out.println("chunks on the heap: " + kb(withChunks - before) + "KB");
+		System.out.println("block states, palette: " + kb(storageBytes) + "KB (" + (storageBytes / n)
+				+ " bytes/section)");
+		System.out.println("block states, char[4096]: " + kb(withArrays - withChunks) + "KB measured, "
+				+ kb(n * 8192l) + "KB expected");
+
+		for (int pass = 0; pass < 3; ++pass) {
+			long palette = readAll(sections, null);
+			long plain = readAll(sections, arrays);
+			if (pass == 2) {
+				System.out.println("read every block: palette " + palette + "ms, char[4096] " + plain + "ms");
+			}
+		}
+		System.out.println("(" + sink + ", " + arrays.size() + ")");
+	}
+
+	private static long readAll(List<ExtendedBlockStorage> sections, List<char[]> arrays) {
+		long start = System.nanoTime();
+		for (int i = 0, l = sections.size(); i < l; ++i) {
+			ExtendedBlockStorage storage = sections.get(i);
+			char[] data = arrays != null ? arrays.get(i) : null;
+			for (int y = 0; y < 16; ++y) {
+				for (int z = 0; z < 16; ++z) {
+					for (int x = 0; x < 16; ++x) {
+						IBlockState state = data != null ? Block.BLOCK_STATE_IDS.getByValue(data[y << 8 | z << 4 | x])
+								: storage.get(x, y, z);
+						sink += state != null ? 1 : 0;
+					}
+				}
+			}
+		}
+		return (System.nanoTime() - start) / 1000000l;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; ++i) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long kb(long bytes) {
+		return bytes / 1024l;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import net.lax1dude.eaglercraft.v1_8.minecraft.ChunkUpdateManager;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.chunk.ChunkCompileTaskGenerator;
+import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Benchmark for the order chunk rebuilds are handed out in after a large
+ * edit, marks every chunk in the render distance dirty the way a fill from
+ * the server does, then blows a crater next to the player while the queue is
+ * still draining. Each frame feeds RenderGlobal's dirty set into the queue,
+ * asks 15 times if a chunk is already queued like the translucency resorts
+ * do and then takes a fixed number of rebuilds off the queue. The old
+ * LinkedList queue capped at 100 is compared with ChunkUpdateManager, the
+ * rebuilds themselves aren't run since they need a world and a GL context.
+ * Reports how many frames after the crater it takes until the visible chunks
+ * near the player are meshed again, how many until every chunk is meshed and
+ * the time spent in the queue.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.ChunkRebuildQueueBenchmark [radius] [rebuilds per frame]
+ */
+public class ChunkRebuildQueueBenchmark {
+
+	private static final int NEAR = 48;
+
+	private static Entity camera;
+
+	public static void main(String[] args) throws ReflectiveOperationException {
+		int radius = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int perFrame = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		Bootstrap.register();
+		installCamera();
+
+		// the first round only warms up the JIT
+		for (int round = 0; round < 2; ++round) {
+			for (int j = 0; j < 2; ++j) {
+				Queue queue = j == 0 ? new LegacyQueue() : new ManagerQueue();
+				long[] res = run(queue, radius, perFrame);
+				if (round == 1) {
+					System.out.println((j == 0 ? "LinkedList queue:   " : "ChunkUpdateManager: ") + "near crater: "
+							+ res[0] + " frames, everything: " + res[1] + " frames, queue: "
+							+ String.format("%.1f", res[2] / 1000.0D / res[1]) + "us per frame");
+				}
+			}
+		}
+	}
+
+	private static long[] run(Queue queue, int radius, int perFrame) {
+		List<RenderChunk> chunks = new ArrayList<>();
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				for (int y = 0; y < 16; ++y) {
+					RenderChunk chunk = new RenderChunk(null, null, new BlockPos(x << 4, y << 4, z << 4), chunks.size());
+					// the camera looks along +X with a 90 degree field of view
+					if (x >= 0 && Math.abs(z) <= x + 1) {
+						chunk.setFrameIndex(1);
+					}
+					chunks.add(chunk);
+				}
+			}
+		}
+		queue.setVisibleFrameIndex(1);
+		Set<RenderChunk> chunksToUpdate = new LinkedHashSet<>(chunks);
+		Set<RenderChunk> meshed = new LinkedHashSet<>();
+		Set<RenderChunk> nearVisible = new LinkedHashSet<>();
+		List<RenderChunk> visible = new ArrayList<>();
+		for (int i = 0, l = chunks.size(); i < l; ++i) {
+			RenderChunk chunk = chunks.get(i);
+			if (chunk.getFrameIndex() == 1) {
+				visible.add(chunk);
+			}
+		}
+		visible.sort((a, b) -> Double.compare(distanceSq(a), distanceSq(b)));
+
+		long queueTime = 0l;
+		long nearFrame = -1l;
+		int frame = 0;
+		while (meshed.size() < chunks.size() || !chunksToUpdate.isEmpty()) {
+			++frame;
+			camera.posX = frame * 0.05;
+			if (frame == 20) {
+				// a crater around the player while the queue is still full
+				for (int i = 0, l = chunks.size(); i < l; ++i) {
+					RenderChunk chunk = chunks.get(i);
+					if (distanceSq(chunk) < 24 * 24) {
+						chunksToUpdate.add(chunk);
+						meshed.remove(chunk);
+					}
+					if (chunk.getFrameIndex() == 1 && distanceSq(chunk) < NEAR * NEAR) {
+						nearVisible.add(chunk);
+					}
+				}
+			}
+
+			long start = System.nanoTime();
+			Iterator<RenderChunk> itr = chunksToUpdate.iterator();
+			while (itr.hasNext()) {
+				RenderChunk chunk = itr.next();
+				if (!queue.updateChunkLater(chunk)) {
+					break;
+				}
+				chunk.setNeedsUpdate(false);
+				itr.remove();
+			}
+			for (int i = 0; i < 15; ++i) {
+				queue.isAlreadyQueued(visible.get(i));
+			}
+			for (int i = 0; i < perFrame; ++i) {
+				ChunkCompileTaskGenerator generator = queue.poll();
+				if (generator == null) {
+					break;
+				}
+				generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
+				meshed.add(generator.getRenderChunk());
+			}
+			queueTime += System.nanoTime() - start;
+
+			if (nearFrame == -1l && frame >= 20 && meshed.containsAll(nearVisible)) {
+				nearFrame = frame - 20;
+			}
+		}
+		return new long[] { nearFrame, frame, queueTime };
+	}
+
+	private static double distanceSq(RenderChunk chunk) {
+		BlockPos pos = chunk.getPosition();
+		double dx = pos.getX() + 8.0 - camera.posX;
+		double dy = pos.getY() + 8.0 - camera.posY;
+		double dz = pos.getZ() + 8.0 - camera.posZ;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * ChunkUpdateManager only reads the render view entity and its position
+	 * from Minecraft, so an instance that never ran its constructor is enough
+	 */
+	private static void installCamera() throws ReflectiveOperationException {
+		Field theUnsafe = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+		theUnsafe.setAccessible(true);
+		Object unsafe = theUnsafe.get(null);
+		Method allocateInstance = unsafe.getClass().getMethod("allocateInstance", Class.class);
+		Minecraft mc = (Minecraft) allocateInstance.invoke(unsafe, Minecraft.class);
+		camera = (Entity) allocateInstance.invoke(unsafe, EntityPig.class);
+		camera.posY = 72.0;
+		Field renderViewEntity = Minecraft.class.getDeclaredField("renderViewEntity");
+		renderViewEntity.setAccessible(true);
+		renderViewEntity.set(mc, camera);
+		Field theMinecraft = Minecraft.class.getDeclaredField("theMinecraft");
+		theMinecraft.setAccessible(true);
+		theMinecraft.set(null, mc);
+	}
+
+	private static interface Queue {
+
+		void setVisibleFrameIndex(int frameIndex);
+
+		boolean updateChunkLater(RenderChunk chunk);
+
+		boolean isAlreadyQueued(RenderChunk chunk);
+
+		ChunkCompileTaskGenerator poll();
+
+	}
+
+	/**
+	 * ChunkUpdateManager's queue, poll mirrors the loop in updateChunks up to
+	 * the point where it runs the generator
+	 */
+	private static class ManagerQueue implements Queue {
+
+		private static final Field rebuildQueue;
+		private static final Field queuedTasks;
+		private static final Method reprioritize;
+		private static final Method pollLive;
+
+		static {
+			try {
+				rebuildQueue = ChunkUpdateManager.class.getDeclaredField("rebuildQueue");
+				rebuildQueue.setAccessible(true);
+				queuedTasks = ChunkUpdateManager.class.getDeclaredField("queuedTasks");
+				queuedTasks.setAccessible(true);
+				reprioritize = ChunkUpdateManager.class.getDeclaredMethod("reprioritize", long.class);
+				reprioritize.setAccessible(true);
+				pollLive = ChunkUpdateManager.class.getDeclaredMethod("pollLive", PriorityQueue.class);
+				pollLive.setAccessible(true);
+			} catch (ReflectiveOperationException ex) {
+				throw new ExceptionInInitializerError(ex);
+			}
+		}
+
+		private final ChunkUpdateManager manager = new ChunkUpdateManager();
+		private boolean polled = false;
+
+		@Override
+		public void setVisibleFrameIndex(int frameIndex) {
+			manager.setVisibleFrameIndex(frameIndex);
+		}
+
+		@Override
+		public boolean updateChunkLater(RenderChunk chunk) {
+			return manager.updateChunkLater(chunk);
+		}
+
+		@Override
+		public boolean isAlreadyQueued(RenderChunk chunk) {
+			return manager.isAlreadyQueued(chunk);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public ChunkCompileTaskGenerator poll() {
+			try {
+				if (!polled) {
+					// updateChunks moves the camera and reprioritizes once per frame
+					polled = true;
+					Field posX = ChunkUpdateManager.class.getDeclaredField("cameraX");
+					posX.setAccessible(true);
+					posX.setDouble(manager, camera.posX);
+					Field posY = ChunkUpdateManager.class.getDeclaredField("cameraY");
+					posY.setAccessible(true);
+					posY.setDouble(manager, camera.posY);
+					reprioritize.invoke(manager, System.currentTimeMillis());
+				}
+				PriorityQueue<ChunkCompileTaskGenerator> queue = (PriorityQueue<ChunkCompileTaskGenerator>) rebuildQueue
+						.get(manager);
+				if (pollLive.invoke(manager, queue) == null) {
+					polled = false;
+					return null;
+				}
+				ChunkCompileTaskGenerator generator = queue.poll();
+				((Map<RenderChunk, ChunkCompileTaskGenerator>) queuedTasks.get(manager))
+						.remove(generator.getRenderChunk());
+				return generator;
+			} catch (ReflectiveOperationException ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+
+	}
+
+	/**
+	 * ChunkUpdateManager's queue before the priority queues
+	 */
+	private static class LegacyQueue implements Queue {
+
+		private final List<ChunkCompileTaskGenerator> queue = new LinkedList<>();
+
+		@Override
+		public void setVisibleFrameIndex(int frameIndex) {
+		}
+
+		@Override
+		public boolean updateChunkLater(RenderChunk chunkRenderer) {
+			final ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskChunk();
+			boolean flag = queue.size() < 100;
+			if (!flag) {
+				chunkcompiletaskgenerator.finish();
+			} else {
+				chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
+					@Override
+					public void run() {
+						queue.remove(chunkcompiletaskgenerator);
+					}
+				});
+				queue.add(chunkcompiletaskgenerator);
+			}
+			return flag;
+		}
+
+		@Override
+		public boolean isAlreadyQueued(RenderChunk update) {
+			for (int i = 0, l = queue.size(); i < l; ++i) {
+				if (queue.get(i).getRenderChunk() == update) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public ChunkCompileTaskGenerator poll() {
+			return queue.isEmpty() ? null : queue.remove(0);
+		}
+
+	}
+
+}
\ No newline at end of file
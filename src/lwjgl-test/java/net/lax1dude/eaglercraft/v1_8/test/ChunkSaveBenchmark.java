@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkLoader;
+import net.lax1dude.eaglercraft.v1_8.sp.server.WorldsDB;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+
+/**
+ * Autosave benchmark for the write-behind queue and the region files in
+ * EaglerChunkLoader, saves every chunk in a square of generated terrain like
+ * a full save does and measures how long the server thread is stuck in
+ * saveChunk, then how many ticks chunkTick needs to empty the queue and the
+ * longest of them, and how long the full flush at the end takes. The old loader wrote each chunk to its own file from
+ * saveChunk. Every chunk is read back with a fresh loader afterwards, which
+ * is timed too and checks nothing was lost. The worlds database is a
+ * DebugFilesystem in a temporary directory unless another directory or - for
+ * a ramdisk is given.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if a chunk
+ * is missing:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.ChunkSaveBenchmark [radius] [directory|-]
+ */
+public class ChunkSaveBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int radius = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		String directory = args.length > 1 ? args[1] : null;
+		boolean tempDirectory = directory == null;
+		if (tempDirectory) {
+			directory = Files.createTempDirectory("ChunkSaveBenchmark").toString();
+		}
+		Bootstrap.register();
+
+		CountingFilesystem fs = CountingFilesystem.create("ChunkSaveBenchmark", directory);
+		fs.install();
+
+		HeadlessServer server = new HeadlessServer("ChunkSaveBenchmark", 1l, WorldType.DEFAULT);
+		WorldServer world = server.world;
+		int side = radius * 2 + 1;
+		Chunk[] chunks = new Chunk[side * side];
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				chunks[(x + radius) * side + z + radius] = world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+
+		boolean ok = true;
+		// the first rounds only warm up the JIT
+		for (int i = 0; i < 3; ++i) {
+			ok &= run("old synchronous", i, world, chunks, fs, new LegacyChunkLoader(dir("legacy", i)), i == 2);
+			ok &= run("write-behind   ", i, world, chunks, fs, new EaglerChunkLoader(dir("queue", i), false), i == 2);
+			ok &= run("region files   ", i, world, chunks, fs, new EaglerChunkLoader(dir("regions", i), true), i == 2);
+		}
+
+		if (tempDirectory) {
+			fs.delegate.eaglerIterate("", (path) -> fs.delegate.eaglerDelete(path), true);
+		}
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	private static VFile2 dir(String name, int round) {
+		return WorldsDB.newVFile("ChunkSaveBenchmark", name + round, "region");
+	}
+
+	private static boolean run(String name, int round, World world, Chunk[] chunks, CountingFilesystem fs,
+			AnvilChunkLoader loader, boolean print) throws IOException {
+		fs.reset();
+		long start = System.nanoTime();
+		for (int i = 0; i < chunks.length; ++i) {
+			loader.saveChunk(world, chunks[i]);
+		}
+		long saveTime = System.nanoTime() - start;
+
+		int ticks = 0;
+		long maxTick = 0l;
+		String before = fs.stats();
+		Map<?, ?> pendingWrites = getPendingWrites((EaglerChunkLoader) loader);
+		while (!pendingWrites.isEmpty() && ticks < 10000) {
+			start = System.nanoTime();
+			loader.chunkTick();
+			maxTick = Math.max(maxTick, System.nanoTime() - start);
+			++ticks;
+		}
+		start = System.nanoTime();
+		loader.saveExtraData();
+		long flushTime = System.nanoTime() - start;
+		String stats = fs.stats();
+
+		fs.reset();
+		start = System.nanoTime();
+		VFile2 directory = ((EaglerChunkLoader) loader).chunkDirectory;
+		EaglerChunkLoader reader = new EaglerChunkLoader(directory, ((EaglerChunkLoader) loader).regionStorage);
+		int missing = 0;
+		for (int i = 0; i < chunks.length; ++i) {
+			if (reader.loadChunk(world, chunks[i].xPosition, chunks[i].zPosition) == null) {
+				++missing;
+			}
+		}
+		long readTime = System.nanoTime() - start;
+
+		if (print) {
+			System.out.println(name + ": " + chunks.length + " chunks, saveChunk "
+					+ String.format("%.1f", saveTime / 1000000.0D) + "ms, then " + ticks + " chunkTicks (longest "
+					+ String.format("%.1f", maxTick / 1000000.0D) + "ms) and "
+					+ String.format("%.1f", flushTime / 1000000.0D) + "ms to flush the rest");
+			System.out.println("    after saveChunk: " + before);
+			System.out.println("    after flushing:  " + stats);
+			System.out.println("    read back in " + String.format("%.1f", readTime / 1000000.0D) + "ms: " + fs.stats());
+		}
+		if (missing > 0) {
+			System.out.println(name + ": " + missing + " of " + chunks.length + " chunks are missing in round " + round);
+			return false;
+		}
+		return true;
+	}
+
+	private static Map<?, ?> getPendingWrites(EaglerChunkLoader loader) {
+		try {
+			Field f = EaglerChunkLoader.class.getDeclaredField("pendingWrites");
+			f.setAccessible(true);
+			return (Map<?, ?>) f.get(loader);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * EaglerChunkLoader before the write-behind queue, saveChunk compressed and
+	 * wrote each chunk to its own file right away
+	 */
+	private static class LegacyChunkLoader extends EaglerChunkLoader {
+
+		private LegacyChunkLoader(VFile2 chunkDirectory) {
+			super(chunkDirectory, false);
+		}
+
+		@Override
+		public void saveChunk(World var1, Chunk var2) throws IOException {
+			var1.alfheim$getLightingEngine().processLightUpdates();
+			NBTTagCompound chunkData = new NBTTagCompound();
+			this.writeChunkToNBT(var2, var1, chunkData);
+			NBTTagCompound fileData = new NBTTagCompound();
+			fileData.setTag("Level", chunkData);
+			VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2.xPosition, var2.zPosition) + ".dat");
+			try (OutputStream os = file.getOutputStream()) {
+				CompressedStreamTools.writeCompressed(fileData, os);
+			}
+		}
+
+		@Override
+		public void chunkTick() {
+		}
+
+		@Override
+		public void saveExtraData() {
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.mojang.authlib.GameProfile;
+import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.network.Packet;
+import net.minecraft.server.management.ItemInWorldManager;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * First visible terrain benchmark for the chunk send queue in EntityPlayerMP,
+ * counts the ticks a player that just joined or teleported waits for the
+ * chunks around it. Compares the nearest first queue, for the player that
+ * owns the world and for a LAN peer, with the old loop that sent the first
+ * 10 chunks of loadedChunks in hash order. The client can only render a
+ * chunk once its neighbours have arrived, so the squares right around the
+ * player are what it sees first. Only the chunks the world ticks around the
+ * player are counted, the ones further out aren't populated until the
+ * player moves closer.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.ChunkSendBenchmark [view distance]
+ */
+public class ChunkSendBenchmark {
+
+	private static final int GROUND = 4;
+	private static final int MAX_TICKS = 2000;
+
+	public static void main(String[] args) {
+		int viewDistance = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		Bootstrap.register();
+
+		run("hash order, 10 per tick", null, viewDistance);
+		run("nearest first, owner   ", SingleplayerServerController.PLAYER_CHANNEL, viewDistance);
+		run("nearest first, LAN peer", "ChunkSendBenchmark", viewDistance);
+	}
+
+	/**
+	 * Runs the old loop if channel is null, otherwise EntityPlayerMP.onUpdate
+	 * with a network manager on that channel
+	 */
+	private static void run(String name, String channel, int viewDistance) {
+		HeadlessServer server = new HeadlessServer("ChunkSendBenchmark");
+		server.getConfigurationManager().setViewDistance(viewDistance);
+		WorldServer world = server.world;
+		EntityPlayerMP player = new EntityPlayerMP(server, world,
+				new GameProfile(new EaglercraftUUID(0l, 0l), "ChunkSendBenchmark"), new ItemInWorldManager(world));
+		new NetHandlerPlayServer(server,
+				new NullNetworkManager(channel != null ? channel : "ChunkSendBenchmark"), player);
+		player.setLocationAndAngles(8.5D, GROUND, 8.5D, 0.0F, 0.0F);
+		world.getPlayerManager().addPlayer(player);
+		world.spawnEntityInWorld(player);
+		String join = measure(world, player, channel == null, viewDistance);
+
+		player.setLocationAndAngles(8.5D + 640.0D, GROUND, 8.5D, 0.0F, 0.0F);
+		world.getPlayerManager().updateMountedMovingPlayer(player);
+		String teleport = measure(world, player, channel == null, viewDistance);
+
+		System.out.println(name + ": join " + join + ", teleport " + teleport);
+	}
+
+	/**
+	 * Ticks until every chunk within 1, 2 and viewDistance - 1 chunks of the
+	 * player has been sent, at most 7 since that is as far as
+	 * World.setActivePlayerChunksAndCheckLight ticks chunks
+	 */
+	private static String measure(WorldServer world, EntityPlayerMP player, boolean legacy, int viewDistance) {
+		int cx = MathHelper.floor_double(player.posX) >> 4;
+		int cz = MathHelper.floor_double(player.posZ) >> 4;
+		int r = Math.min(viewDistance - 1, 7);
+		int[] done = new int[r + 1];
+		int[] pending = new int[r + 1];
+		for (int x = -r; x <= r; ++x) {
+			for (int z = -r; z <= r; ++z) {
+				++pending[Math.max(Math.abs(x), Math.abs(z))];
+			}
+		}
+		boolean[] sent = new boolean[(r * 2 + 1) * (r * 2 + 1)];
+		LongArrayList batch = new LongArrayList();
+		int tick = 0;
+		int left = sent.length;
+		while (left > 0 && tick < MAX_TICKS) {
+			++tick;
+			// chunks are only populated, and can only be sent, once the world
+			// has ticked them
+			world.tick();
+			if (legacy) {
+				legacySendChunks(world, player, batch);
+			} else {
+				player.onUpdate();
+			}
+			for (int x = -r; x <= r; ++x) {
+				for (int z = -r; z <= r; ++z) {
+					int i = (x + r) * (r * 2 + 1) + z + r;
+					if (!sent[i] && !player.loadedChunks.contains(ChunkCoordIntPair.chunkXZ2Int(cx + x, cz + z))) {
+						sent[i] = true;
+						--left;
+						--pending[Math.max(Math.abs(x), Math.abs(z))];
+					}
+				}
+			}
+			int d = 0;
+			for (int i = 0; i <= r; ++i) {
+				d += pending[i];
+				if (d == 0 && done[i] == 0) {
+					done[i] = tick;
+				}
+			}
+		}
+		return "3x3 " + done[1] + ", 5x5 " + done[2] + ", " + (r * 2 + 1) + "x" + (r * 2 + 1) + " " + done[r]
+				+ " ticks";
+	}
+
+	/**
+	 * The chunk sending in EntityPlayerMP.onUpdate before the send queue, the
+	 * packets and func_85172_a are left out since only the order matters here
+	 */
+	private static void legacySendChunks(WorldServer world, EntityPlayerMP player, LongArrayList batch) {
+		batch.clear();
+		for (LongCursor cursor : player.loadedChunks) {
+			if (batch.size() >= 10) {
+				break;
+			}
+			long l = cursor.value;
+			int chunkXPos = (int) (l & 4294967295L);
+			int chunkZPos = (int) (l >>> 32);
+			if (world.isBlockLoaded(new BlockPos(chunkXPos << 4, 0, chunkZPos << 4))) {
+				Chunk chunk = world.getChunkFromChunkCoords(chunkXPos, chunkZPos);
+				if (chunk.isPopulated()) {
+					batch.add(l);
+				}
+			}
+		}
+		for (int i = 0, l = batch.size(); i < l; ++i) {
+			player.loadedChunks.removeAll(batch.get(i));
+		}
+	}
+
+	/**
+	 * Drops every packet, nothing is encoded or sent anywhere
+	 */
+	private static class NullNetworkManager extends IntegratedServerPlayerNetworkManager {
+
+		private NullNetworkManager(String playerChannel) {
+			super(playerChannel);
+		}
+
+		@Override
+		public void sendPacket(Packet pkt) {
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.pathfinding.PathFinder;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EntitySelectors;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * Benchmark for the pooled collision and entity queries in World, fills a
+ * fenced 4x4 chunk pen with 500 pigs and runs the per entity queries of a
+ * movement and push step two ways: the way World did them before, with a new
+ * list for every query, and through the pooled overloads that Entity and
+ * EntityLivingBase use now. Then ticks the whole pen and reports the time and
+ * the bytes allocated per tick.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.CollisionBenchmark [rounds]
+ */
+public class CollisionBenchmark {
+
+	private static final int ENTITIES = 500;
+	private static final int PEN_SIZE = 64;
+
+	private static int sink = 0;
+
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Bootstrap.register();
+
+		HeadlessWorld world = new HeadlessWorld("CollisionBenchmark");
+		for (int x = -1; x <= PEN_SIZE; ++x) {
+			for (int z = -1; z <= PEN_SIZE; ++z) {
+				world.setBlockState(new BlockPos(x, 0, z), Blocks.grass.getDefaultState(), 2);
+				if (x == -1 || z == -1 || x == PEN_SIZE || z == PEN_SIZE) {
+					world.setBlockState(new BlockPos(x, 1, z), Blocks.oak_fence.getDefaultState(), 2);
+				}
+			}
+		}
+
+		Random random = new Random(1l);
+		List<Entity> entities = new ArrayList<>(ENTITIES);
+		for (int i = 0; i < ENTITIES; ++i) {
+			EntityPig pig = new EntityPig(world);
+			pig.setLocationAndAngles(1.0D + random.nextDouble() * (PEN_SIZE - 2), 1.0D,
+					1.0D + random.nextDouble() * (PEN_SIZE - 2), random.nextFloat() * 360.0F, 0.0F);
+			world.spawnEntityInWorld(pig);
+			entities.add(pig);
+		}
+		System.out.println(ENTITIES + " pigs in a " + PEN_SIZE + "x" + PEN_SIZE + " pen, " + rounds + " rounds");
+
+		// alternate the two paths so neither one gets all of the warm up, only
+		// the last pass is reported
+		for (int pass = 0; pass < 3; ++pass) {
+			long[] legacy = queries(world, entities, rounds, true);
+			long[] pooled = queries(world, entities, rounds, false);
+			if (pass == 2) {
+				report("new lists   ", legacy, rounds * ENTITIES);
+				report("pooled lists", pooled, rounds * ENTITIES);
+			}
+		}
+
+		for (int i = 0; i < 40; ++i) {
+			tick(world);
+		}
+		long[] total = new long[2];
+		for (int i = 0; i < rounds; ++i) {
+			long[] t = tick(world);
+			total[0] += t[0];
+			total[1] += t[1];
+		}
+		System.out.println("world tick: " + String.format("%.2f", total[0] / 1000000.0D / rounds) + "ms/tick, "
+				+ (total[1] / rounds / 1024l) + "KB allocated/tick, " + world.loadedEntityList.size()
+				+ " entities left");
+		System.out.println("(" + sink + ")");
+	}
+
+	private static long[] tick(World world) {
+		PathFinder.resetTickBudget(true);
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		world.updateEntities();
+		return new long[] { System.nanoTime() - start, allocatedBytes() - bytes };
+	}
+
+	/**
+	 * One moveEntity collision query and one collideWithNearbyEntities query
+	 * per entity per round, returns the elapsed nanoseconds and the allocated
+	 * bytes
+	 */
+	private static long[] queries(World world, List<Entity> entities, int rounds, boolean newLists) {
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		for (int r = 0; r < rounds; ++r) {
+			for (int i = 0, l = entities.size(); i < l; ++i) {
+				Entity entity = entities.get(i);
+				AxisAlignedBB move = entity.getEntityBoundingBox().addCoord(0.1D, -0.08D, 0.1D);
+				AxisAlignedBB push = entity.getEntityBoundingBox().expand(0.20000000298023224D, 0.0D,
+						0.20000000298023224D);
+				if (newLists) {
+					sink += legacyCollidingBoundingBoxes(world, entity, move).size();
+					sink += world.getEntitiesWithinAABBExcludingEntity(entity, push).size();
+				} else {
+					List<AxisAlignedBB> boxes = world.getCollidingBoundingBoxes(entity, move,
+							world.borrowBoxList());
+					sink += boxes.size();
+					world.releaseBoxList(boxes);
+					world.forEachEntityInAABBexcluding(entity, push, EntitySelectors.NOT_SPECTATING,
+							(e) -> ++sink);
+				}
+			}
+		}
+		return new long[] { System.nanoTime() - start, allocatedBytes() - bytes };
+	}
+
+	/**
+	 * World.getCollidingBoundingBoxes as it was before the pooled lists,
+	 * without the world border handling which never applies inside the pen
+	 */
+	private static List<AxisAlignedBB> legacyCollidingBoundingBoxes(World world, Entity entityIn,
+			AxisAlignedBB bb) {
+		List<AxisAlignedBB> arraylist = Lists.newArrayList();
+		int i = MathHelper.floor_double(bb.minX);
+		int j = MathHelper.floor_double(bb.maxX + 1.0D);
+		int k = MathHelper.floor_double(bb.minY);
+		int l = MathHelper.floor_double(bb.maxY + 1.0D);
+		int i1 = MathHelper.floor_double(bb.minZ);
+		int j1 = MathHelper.floor_double(bb.maxZ + 1.0D);
+		BlockPos blockpos$mutableblockpos = new BlockPos();
+		for (int k1 = i; k1 < j; ++k1) {
+			for (int l1 = i1; l1 < j1; ++l1) {
+				if (world.isBlockLoaded(blockpos$mutableblockpos.func_181079_c(k1, 64, l1))) {
+					for (int i2 = k - 1; i2 < l; ++i2) {
+						blockpos$mutableblockpos.func_181079_c(k1, i2, l1);
+						IBlockState iblockstate = world.getBlockState(blockpos$mutableblockpos);
+						iblockstate.getBlock().addCollisionBoxesToList(world, blockpos$mutableblockpos, iblockstate,
+								bb, arraylist, entityIn);
+					}
+				}
+			}
+		}
+		List<Entity> list = world.getEntitiesWithinAABBExcludingEntity(entityIn, bb.expand(0.25D, 0.25D, 0.25D));
+		for (int j2 = 0; j2 < list.size(); ++j2) {
+			Entity entity = list.get(j2);
+			if (entityIn.riddenByEntity != entity && entityIn.ridingEntity != entity) {
+				AxisAlignedBB axisalignedbb = entity.getCollisionBoundingBox();
+				if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
+					arraylist.add(axisalignedbb);
+				}
+				axisalignedbb = entityIn.getCollisionBox(entity);
+				if (axisalignedbb != null && axisalignedbb.intersectsWith(bb)) {
+					arraylist.add(axisalignedbb);
+				}
+			}
+		}
+		return arraylist;
+	}
+
+	private static void report(String name, long[] result, int queries) {
+		System.out.println(name + ": " + String.format("%.1f", result[0] / (double) queries) + "ns, "
+				+ (result[1] / queries) + " bytes allocated per entity");
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getCurrentThreadAllocatedBytes();
+	}
+
+}
\ No newline at end of file
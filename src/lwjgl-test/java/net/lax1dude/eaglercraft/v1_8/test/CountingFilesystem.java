@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.function.Consumer;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IEaglerFilesystem;
+import net.lax1dude.eaglercraft.v1_8.internal.RamdiskFilesystemImpl;
+import net.lax1dude.eaglercraft.v1_8.internal.VFSFilenameIterator;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.DebugFilesystem;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.ServerPlatformSingleplayer;
+
+/**
+ * Worlds database for the storage benchmarks, counts the operations that
+ * reach the filesystem it wraps. That is either a ramdisk or a
+ * DebugFilesystem in a directory, which stores every VFS file as a file on
+ * disk so each operation costs about what a store transaction would. Call
+ * install() to make it the one WorldsDB.newVFile uses
+ */
+public class CountingFilesystem implements IEaglerFilesystem {
+
+	public final IEaglerFilesystem delegate;
+
+	public int reads = 0;
+	public int writes = 0;
+	public int deletes = 0;
+	public int others = 0;
+	public long bytesRead = 0l;
+	public long bytesWritten = 0l;
+	public int largestWrite = 0;
+
+	/**
+	 * Called with the path of every file that is written, if not null
+	 */
+	public Consumer<String> writeListener = null;
+
+	public CountingFilesystem(IEaglerFilesystem delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * A ramdisk if directory is null or "-", otherwise a DebugFilesystem in
+	 * that directory
+	 */
+	public static CountingFilesystem create(String name, String directory) {
+		return new CountingFilesystem(directory == null || directory.equals("-") ? new RamdiskFilesystemImpl(name)
+				: DebugFilesystem.initialize(name, new File(directory)));
+	}
+
+	public void install() {
+		try {
+			Field f = ServerPlatformSingleplayer.class.getDeclaredField("filesystem");
+			f.setAccessible(true);
+			f.set(null, this);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Could not replace the worlds database", ex);
+		}
+	}
+
+	public void reset() {
+		reads = writes = deletes = others = 0;
+		bytesRead = bytesWritten = 0l;
+		largestWrite = 0;
+	}
+
+	public String stats() {
+		return reads + " reads (" + (bytesRead / 1024l) + "KB), " + writes + " writes (" + (bytesWritten / 1024l)
+				+ "KB), " + deletes + " deletes, " + others + " other";
+	}
+
+	@Override
+	public String getFilesystemName() {
+		return delegate.getFilesystemName();
+	}
+
+	@Override
+	public String getInternalDBName() {
+		return delegate.getInternalDBName();
+	}
+
+	@Override
+	public boolean isRamdisk() {
+		return delegate.isRamdisk();
+	}
+
+	@Override
+	public boolean eaglerDelete(String pathName) {
+		++deletes;
+		return delegate.eaglerDelete(pathName);
+	}
+
+	@Override
+	public ByteBuffer eaglerRead(String pathName) {
+		++reads;
+		ByteBuffer ret = delegate.eaglerRead(pathName);
+		if (ret != null) {
+			bytesRead += ret.remaining();
+		}
+		return ret;
+	}
+
+	@Override
+	public void eaglerWrite(String pathName, ByteBuffer data) {
+		++writes;
+		bytesWritten += data.remaining();
+		largestWrite = Math.max(largestWrite, data.remaining());
+		delegate.eaglerWrite(pathName, data);
+		if (writeListener != null) {
+			writeListener.accept(pathName);
+		}
+	}
+
+	@Override
+	public boolean eaglerExists(String pathName) {
+		++others;
+		return delegate.eaglerExists(pathName);
+	}
+
+	@Override
+	public boolean eaglerMove(String pathNameOld, String pathNameNew) {
+		++others;
+		return delegate.eaglerMove(pathNameOld, pathNameNew);
+	}
+
+	@Override
+	public int eaglerCopy(String pathNameOld, String pathNameNew) {
+		++others;
+		return delegate.eaglerCopy(pathNameOld, pathNameNew);
+	}
+
+	@Override
+	public int eaglerSize(String pathName) {
+		++others;
+		return delegate.eaglerSize(pathName);
+	}
+
+	@Override
+	public void eaglerIterate(String pathName, VFSFilenameIterator itr, boolean recursive) {
+		++others;
+		delegate.eaglerIterate(pathName, itr, recursive);
+	}
+
+	@Override
+	public void closeHandle() {
+		delegate.closeHandle();
+	}
+
+}
\ No newline at end of file
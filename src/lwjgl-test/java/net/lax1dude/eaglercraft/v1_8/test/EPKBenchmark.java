@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKCompiler;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKDecompiler;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKIndexedCompiler;
+
+/**
+ * Load time and heap benchmark for the "ver3" indexed EPK, packs the same
+ * files as a gzipped "ver2" EPK like the asset build does and as a "ver3"
+ * EPK, then compares unpacking every file at startup against only reading
+ * the directory and inflating the files that are actually asked for into a
+ * small LRU cache, which is what the WASM-GC runtime's PlatformAssets does
+ * with a "ver3" EPK. That EPKLoader isn't on the desktop classpath, the
+ * directory is read here the same way from the layout in
+ * EPKIndexedCompiler. The files are packed from a directory if one is given,
+ * otherwise a generated set with the mix of sizes and compressibility of the
+ * game assets is used.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.EPKBenchmark [assets dir|-] [percent loaded]
+ */
+public class EPKBenchmark {
+
+	private static final int PASSES = 5;
+	private static final int CACHE_MAX_BYTES = 8 * 1024 * 1024;
+
+	public static void main(String[] args) throws IOException {
+		File dir = args.length > 0 && !"-".equals(args[0]) ? new File(args[0]) : null;
+		int percent = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+		Map<String, byte[]> files = new HashMap<>();
+		if (dir != null) {
+			readDirectory(dir, "", files);
+		} else {
+			generateFiles(files);
+		}
+		List<String> names = new ArrayList<>(files.keySet());
+		Collections.sort(names);
+		long totalBytes = 0l;
+		EPKCompiler ver2 = new EPKCompiler("assets", null, "epk/resources", true, false, "EPKBenchmark");
+		EPKIndexedCompiler ver3 = new EPKIndexedCompiler("assets", "epk/resources", "EPKBenchmark");
+		for (int i = 0, l = names.size(); i < l; ++i) {
+			byte[] data = files.get(names.get(i));
+			ver2.append(names.get(i), data);
+			ver3.append(names.get(i), data);
+			totalBytes += data.length;
+		}
+		files = null;
+		byte[] ver2File = ver2.complete();
+		byte[] ver3File = ver3.complete();
+		System.out.println(names.size() + " files, " + kb(totalBytes) + "KB, ver2 EPK " + kb(ver2File.length)
+				+ "KB, ver3 EPK " + kb(ver3File.length) + "KB");
+
+		// the files a session asks for, the same ones for every pass
+		List<String> loaded = new ArrayList<>(names);
+		Collections.shuffle(loaded, new Random(1l));
+		loaded = loaded.subList(0, loaded.size() * percent / 100);
+
+		long[] unpack2 = new long[PASSES];
+		long[] unpack3 = new long[PASSES];
+		long[] index3 = new long[PASSES];
+		long[] lazy3 = new long[PASSES];
+		long heapUnpack2 = 0l, heapUnpack3 = 0l, heapIndex3 = 0l, heapLazy3 = 0l;
+		for (int pass = 0; pass < PASSES; ++pass) {
+			long before = usedHeap();
+			long start = System.nanoTime();
+			Map<String, byte[]> all2 = unpack(ver2File.clone());
+			unpack2[pass] = System.nanoTime() - start;
+			heapUnpack2 = usedHeap() - before;
+			check(all2.size() == names.size(), "ver2 EPK unpacked " + all2.size() + " files");
+			all2 = null;
+
+			before = usedHeap();
+			start = System.nanoTime();
+			Map<String, byte[]> all3 = unpack(ver3File.clone());
+			unpack3[pass] = System.nanoTime() - start;
+			heapUnpack3 = usedHeap() - before;
+			check(all3.size() == names.size(), "ver3 EPK unpacked " + all3.size() + " files");
+
+			before = usedHeap();
+			byte[] archive = ver3File.clone();
+			start = System.nanoTime();
+			Map<String, Entry> index = index(archive);
+			index3[pass] = System.nanoTime() - start;
+			heapIndex3 = usedHeap() - before;
+			check(index.size() == names.size(), "ver3 EPK indexed " + index.size() + " files");
+
+			LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+			byte[][] data = new byte[loaded.size()][];
+			start = System.nanoTime();
+			int cacheBytes = 0;
+			for (int i = 0, l = loaded.size(); i < l; ++i) {
+				String name = loaded.get(i);
+				data[i] = index.get(name).load(archive);
+				// the same LRU as PlatformAssets.getIndexedResource
+				if (data[i].length <= (CACHE_MAX_BYTES >> 2)) {
+					cache.put(name, data[i]);
+					cacheBytes += data[i].length;
+					Iterator<byte[]> itr = cache.values().iterator();
+					while (cacheBytes > CACHE_MAX_BYTES && itr.hasNext()) {
+						cacheBytes -= itr.next().length;
+						itr.remove();
+					}
+				}
+			}
+			lazy3[pass] = System.nanoTime() - start;
+			for (int i = 0, l = loaded.size(); i < l; ++i) {
+				check(Arrays.equals(data[i], all3.get(loaded.get(i))), "'" + loaded.get(i) + "' differs");
+			}
+			data = null;
+			heapLazy3 = usedHeap() - before;
+			all3 = null;
+			index = null;
+			cache = null;
+			archive = null;
+		}
+
+		System.out.println("ver2, unpack everything: " + ms(best(unpack2)) + "ms, " + kb(heapUnpack2) + "KB heap");
+		System.out.println("ver3, unpack everything: " + ms(best(unpack3)) + "ms, " + kb(heapUnpack3) + "KB heap");
+		System.out.println("ver3, directory only: " + ms(best(index3)) + "ms, " + kb(heapIndex3)
+				+ "KB heap with the archive");
+		System.out.println("ver3, directory and " + loaded.size() + " files (" + percent + "%) inflated: "
+				+ ms(best(index3) + best(lazy3)) + "ms, " + kb(heapLazy3) + "KB heap with the archive and "
+				+ (CACHE_MAX_BYTES >> 20) + "MB cache");
+	}
+
+	private static Map<String, byte[]> unpack(byte[] epk) throws IOException {
+		Map<String, byte[]> ret = new HashMap<>();
+		try (EPKDecompiler dec = new EPKDecompiler(epk)) {
+			EPKDecompiler.FileEntry etr;
+			while ((etr = dec.readFile()) != null) {
+				if ("FILE".equals(etr.type)) {
+					ret.put(etr.name, etr.data);
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Reads the "ver3" directory, see EPKIndexedCompiler for the layout
+	 */
+	private static Map<String, Entry> index(byte[] epk) throws IOException {
+		int pos = 8;
+		pos += 1 + (epk[pos] & 0xFF); // version
+		pos += 1 + (epk[pos] & 0xFF); // filename
+		pos += 2 + (((epk[pos] & 0xFF) << 8) | (epk[pos + 1] & 0xFF)); // comment
+		pos += 8; // date
+		int numFiles = readInt(epk, pos);
+		pos += 4;
+		check(epk[pos++] == 'I', "not a ver3 EPK");
+		Map<String, Entry> ret = new HashMap<>(numFiles * 2);
+		for (int i = 0; i < numFiles; ++i) {
+			boolean file = epk[pos] == 'F';
+			pos += 4;
+			int nameLen = epk[pos++] & 0xFF;
+			char[] name = new char[nameLen];
+			for (int j = 0; j < nameLen; ++j) {
+				name[j] = (char) (epk[pos++] & 0xFF);
+			}
+			Entry etr = new Entry(new String(name), (char) epk[pos], readInt(epk, pos + 1), readInt(epk, pos + 5),
+					readInt(epk, pos + 9), readInt(epk, pos + 13));
+			pos += 17;
+			if (file) {
+				ret.put(etr.name, etr);
+			}
+		}
+		return ret;
+	}
+
+	private static class Entry {
+
+		private final String name;
+		private final char method;
+		private final int offset;
+		private final int storedLength;
+		private final int length;
+		private final int crc;
+
+		private Entry(String name, char method, int offset, int storedLength, int length, int crc) {
+			this.name = name;
+			this.method = method;
+			this.offset = offset;
+			this.storedLength = storedLength;
+			this.length = length;
+			this.crc = crc;
+		}
+
+		private byte[] load(byte[] epk) throws IOException {
+			byte[] data = new byte[length];
+			if (method == 'Z') {
+				check(EaglerZLIB.inflateFull(epk, offset, storedLength, data, 0, length) == length,
+						"'" + name + "' is incomplete");
+			} else {
+				System.arraycopy(epk, offset, data, 0, length);
+			}
+			CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, data.length);
+			check((int) crc32.getValue() == crc, "'" + name + "' has an invalid checksum");
+			return data;
+		}
+
+	}
+
+	private static void readDirectory(File dir, String prefix, Map<String, byte[]> files) throws IOException {
+		File[] list = dir.listFiles();
+		if (list == null) {
+			throw new IOException("Not a directory: " + dir);
+		}
+		for (File f : list) {
+			if (f.isDirectory()) {
+				readDirectory(f, prefix + f.getName() + "/", files);
+			} else {
+				files.put(prefix + f.getName(), Files.readAllBytes(f.toPath()));
+			}
+		}
+	}
+
+	/**
+	 * Roughly the asset EPK: lots of small PNG textures and JSON models and
+	 * blockstates, fewer but larger OGG sounds and language files. PNG and OGG
+	 * data is already compressed so it is random bytes here
+	 */
+	private static void generateFiles(Map<String, byte[]> files) {
+		Random random = new Random(8675309l);
+		for (int i = 0; i < 1800; ++i) {
+			files.put("assets/minecraft/textures/blocks/texture_" + i + ".png", randomBytes(random, 200, 6000));
+		}
+		for (int i = 0; i < 1600; ++i) {
+			files.put("assets/minecraft/models/block/model_" + i + ".json", text(random, 150, 2500));
+		}
+		for (int i = 0; i < 700; ++i) {
+			files.put("assets/minecraft/blockstates/state_" + i + ".json", text(random, 100, 1500));
+		}
+		for (int i = 0; i < 400; ++i) {
+			files.put("assets/minecraft/sounds/sound_" + i + ".ogg", randomBytes(random, 8000, 60000));
+		}
+		for (int i = 0; i < 20; ++i) {
+			files.put("assets/minecraft/lang/lang_" + i + ".lang", text(random, 60000, 140000));
+		}
+	}
+
+	private static byte[] randomBytes(Random random, int min, int max) {
+		byte[] ret = new byte[min + random.nextInt(max - min)];
+		random.nextBytes(ret);
+		return ret;
+	}
+
+	private static final String[] WORDS = new String[] { "{", "}", "\"parent\":", "\"textures\":", "\"elements\":",
+			"\"from\":", "\"to\":", "\"faces\":", "\"uv\":", "\"texture\":", "\"#all\"", "\"block/cube\"", "[ 0, 0, 0 ]",
+			"[ 16, 16, 16 ]", "\"north\"", "\"south\"", "\"variants\":", "\"model\":", "\"normal\"", "tile.", "item.",
+			"=", "\n", "\t" };
+
+	private static byte[] text(Random random, int min, int max) {
+		int len = min + random.nextInt(max - min);
+		StringBuilder sb = new StringBuilder(len + 16);
+		while (sb.length() < len) {
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+			if (random.nextInt(4) == 0) {
+				sb.append(random.nextInt(1000));
+			}
+			sb.append(' ');
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int readInt(byte[] b, int pos) {
+		return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+	}
+
+	private static void check(boolean ok, String message) throws IOException {
+		if (!ok) {
+			throw new IOException(message);
+		}
+	}
+
+	private static long best(long[] times) {
+		long ret = Long.MAX_VALUE;
+		for (int i = 0; i < times.length; ++i) {
+			ret = Math.min(ret, times[i]);
+		}
+		return ret;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; ++i) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long kb(long bytes) {
+		return bytes / 1024l;
+	}
+
+	private static String ms(long nanos) {
+		return String.format("%.2f", nanos / 1000000.0D);
+	}
+
+}
\ No newline at end of file
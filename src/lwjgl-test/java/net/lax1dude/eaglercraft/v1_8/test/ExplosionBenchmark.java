@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityTNTPrimed;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.Explosion;
+import net.minecraft.world.IWorldStatsListener;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Benchmark for the explosion caches in Explosion and the packet merging in
+ * WorldServer. First compares the block ray pass of doExplosionA against a
+ * copy of the vanilla ray pass on the same explosions, with the world random
+ * reseeded so both have to affect exactly the same blocks, once with every
+ * explosion in its own tick and once with all of them in the same tick.
+ * Then ticks two TNT setups through the whole pipeline and reports the tick
+ * times with the counters the server prints with its TPS: a 8x8x8 block of
+ * primed TNT going off in the ground, and a cannon firing 32 stacked TNT in
+ * water inside obsidian.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if the two
+ * ray passes ever disagree:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.ExplosionBenchmark [explosions]
+ */
+public class ExplosionBenchmark {
+
+	private static int explosions = 0;
+	private static int merged = 0;
+	private static int cacheHits = 0;
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Bootstrap.register();
+
+		boolean ok = true;
+		for (int pass = 0; pass < 3; ++pass) {
+			ok &= compareRays(count, pass == 2);
+		}
+		tntBlock();
+		cannon();
+
+		if (!ok) {
+			System.out.println("The ray passes affected different blocks");
+			System.exit(1);
+		}
+	}
+
+	private static boolean compareRays(int count, boolean print) {
+		WorldServer world = newWorld();
+		Random random = new Random(1l);
+		for (int x = 0; x < 48; ++x) {
+			for (int z = 0; z < 48; ++z) {
+				for (int y = 4; y < 28; ++y) {
+					int r = random.nextInt(10);
+					world.setBlockState(new BlockPos(x, y, z), r < 2 ? Blocks.air.getDefaultState()
+							: (r < 6 ? Blocks.dirt.getDefaultState() : Blocks.stone.getDefaultState()), 2);
+				}
+			}
+		}
+		double[][] points = new double[count][];
+		for (int i = 0; i < count; ++i) {
+			points[i] = new double[] { 8.0D + random.nextDouble() * 32.0D, 8.0D + random.nextDouble() * 16.0D,
+					8.0D + random.nextDouble() * 32.0D };
+		}
+
+		boolean ok = true;
+		long vanilla = 0l;
+		long cold = 0l;
+		long warm = 0l;
+		long time = world.getTotalWorldTime();
+		for (int i = 0; i < count; ++i) {
+			double[] p = points[i];
+			world.rand.setSeed(i);
+			long start = System.nanoTime();
+			Set<BlockPos> expected = vanillaRays(world, p[0], p[1], p[2], 4.0F);
+			vanilla += System.nanoTime() - start;
+
+			// a new tick before every explosion, nothing is left in the cache
+			world.getWorldInfo().setWorldTotalTime(++time);
+			world.rand.setSeed(i);
+			Explosion explosion = new Explosion(world, null, p[0], p[1], p[2], 4.0F, false, true);
+			start = System.nanoTime();
+			explosion.doExplosionA();
+			cold += System.nanoTime() - start;
+			ok &= expected.equals(new HashSet<>(explosion.getAffectedBlockPositions()));
+		}
+		world.getWorldInfo().setWorldTotalTime(++time);
+		for (int i = 0; i < count; ++i) {
+			double[] p = points[i];
+			world.rand.setSeed(i);
+			Explosion explosion = new Explosion(world, null, p[0], p[1], p[2], 4.0F, false, true);
+			long start = System.nanoTime();
+			explosion.doExplosionA();
+			warm += System.nanoTime() - start;
+		}
+		if (print) {
+			System.out.println(count + " explosions, block rays only: vanilla " + ms(vanilla / count)
+					+ "ms, cached " + ms(cold / count) + "ms with one explosion per tick, " + ms(warm / count)
+					+ "ms all in one tick");
+		}
+		return ok;
+	}
+
+	private static void tntBlock() {
+		WorldServer world = newWorld();
+		for (int x = -8; x < 16; ++x) {
+			for (int z = -8; z < 16; ++z) {
+				for (int y = 1; y < 4; ++y) {
+					world.setBlockState(new BlockPos(x, y, z), Blocks.dirt.getDefaultState(), 2);
+				}
+			}
+		}
+		for (int x = 0; x < 8; ++x) {
+			for (int z = 0; z < 8; ++z) {
+				for (int y = 0; y < 8; ++y) {
+					EntityTNTPrimed tnt = new EntityTNTPrimed(world, x + 0.5D, 4.0D + y, z + 0.5D, null);
+					tnt.fuse = 20;
+					world.spawnEntityInWorld(tnt);
+				}
+			}
+		}
+		run("8x8x8 primed TNT", world);
+	}
+
+	private static void cannon() {
+		WorldServer world = newWorld();
+		for (int x = -1; x <= 1; ++x) {
+			for (int z = -1; z <= 1; ++z) {
+				for (int y = 3; y <= 6; ++y) {
+					world.setBlockState(new BlockPos(x, y, z), Blocks.obsidian.getDefaultState(), 2);
+				}
+			}
+		}
+		world.setBlockState(new BlockPos(0, 4, 0), Blocks.water.getDefaultState(), 2);
+		world.setBlockState(new BlockPos(0, 5, 0), Blocks.water.getDefaultState(), 2);
+		explosions = 0;
+		merged = 0;
+		cacheHits = 0;
+		long total = 0l;
+		long max = 0l;
+		for (int shot = 0; shot < 20; ++shot) {
+			for (int i = 0; i < 32; ++i) {
+				EntityTNTPrimed tnt = new EntityTNTPrimed(world, 0.5D, 4.0D, 0.5D, null);
+				tnt.motionX = 0.0D;
+				tnt.motionZ = 0.0D;
+				tnt.fuse = 10;
+				world.spawnEntityInWorld(tnt);
+			}
+			long[] t = run(null, world);
+			total += t[0];
+			max = Math.max(max, t[1]);
+		}
+		System.out.println("cannon, 20 shots of 32 stacked TNT: " + ms(total) + "ms, worst tick " + ms(max)
+				+ "ms, " + explosions + " explosions, " + merged + " merged into another's packet, " + cacheHits
+				+ " exposure cache hits");
+	}
+
+	/**
+	 * Ticks the world until no primed TNT is left, returns the total and the
+	 * worst tick time, prints them with the counters if a name is given
+	 */
+	private static long[] run(String name, WorldServer world) {
+		if (name != null) {
+			explosions = 0;
+			merged = 0;
+			cacheHits = 0;
+		}
+		long total = 0l;
+		long max = 0l;
+		int ticks = 0;
+		while (hasTNT(world) && ticks < 400) {
+			world.resetUpdateEntityTick();
+			world.getWorldInfo().setWorldTotalTime(world.getTotalWorldTime() + 1l);
+			long start = System.nanoTime();
+			world.updateEntities();
+			world.sendQueuedExplosions();
+			long t = System.nanoTime() - start;
+			total += t;
+			max = Math.max(max, t);
+			++ticks;
+		}
+		if (name != null) {
+			System.out.println(name + ": " + ms(total) + "ms, worst tick " + ms(max) + "ms, " + explosions
+					+ " explosions, " + merged + " merged into another's packet, " + cacheHits
+					+ " exposure cache hits");
+		}
+		return new long[] { total, max };
+	}
+
+	private static boolean hasTNT(WorldServer world) {
+		for (int i = 0, l = world.loadedEntityList.size(); i < l; ++i) {
+			Entity entity = world.loadedEntityList.get(i);
+			if (entity instanceof EntityTNTPrimed && !entity.isDead) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static WorldServer newWorld() {
+		WorldServer world = new HeadlessServer("ExplosionBenchmark").world;
+		for (int x = -4; x <= 4; ++x) {
+			for (int z = -4; z <= 4; ++z) {
+				world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+		world.setStatsListener(new IWorldStatsListener() {
+			@Override
+			public void onExplosion() {
+				++explosions;
+			}
+
+			@Override
+			public void onExplosionMerged() {
+				++merged;
+			}
+
+			@Override
+			public void onExplosionCacheHit() {
+				++cacheHits;
+			}
+		});
+		return world;
+	}
+
+	/**
+	 * The block ray pass of Explosion.doExplosionA as it was before the
+	 * caches, for an explosion with no exploder entity
+	 */
+	private static Set<BlockPos> vanillaRays(WorldServer world, double x, double y, double z, float size) {
+		Set<BlockPos> hashset = new HashSet<>();
+		for (int i = 0; i < 16; ++i) {
+			for (int j = 0; j < 16; ++j) {
+				for (int k = 0; k < 16; ++k) {
+					if (i == 0 || i == 15 || j == 0 || j == 15 || k == 0 || k == 15) {
+						double d0 = (double) ((float) i / 15.0F * 2.0F - 1.0F);
+						double d1 = (double) ((float) j / 15.0F * 2.0F - 1.0F);
+						double d2 = (double) ((float) k / 15.0F * 2.0F - 1.0F);
+						double d3 = Math.sqrt(d0 * d0 + d1 * d1 + d2 * d2);
+						d0 = d0 / d3;
+						d1 = d1 / d3;
+						d2 = d2 / d3;
+						float f = size * (0.7F + world.rand.nextFloat() * 0.6F);
+						double d4 = x;
+						double d6 = y;
+						double d8 = z;
+						for (float f1 = 0.3F; f > 0.0F; f -= 0.22500001F) {
+							BlockPos blockpos = new BlockPos(d4, d6, d8);
+							IBlockState iblockstate = world.getBlockState(blockpos);
+							if (iblockstate.getBlock().getMaterial() != Material.air) {
+								float f2 = iblockstate.getBlock().getExplosionResistance((Entity) null);
+								f -= (f2 + 0.3F) * 0.3F;
+							}
+							if (f > 0.0F) {
+								hashset.add(blockpos);
+							}
+							d4 += d0 * 0.30000001192092896D;
+							d6 += d1 * 0.30000001192092896D;
+							d8 += d2 * 0.30000001192092896D;
+						}
+					}
+				}
+			}
+		}
+		return hashset;
+	}
+
+	private static String ms(long nanos) {
+		return String.format("%.2f", nanos / 1000000.0D);
+	}
+
+}
\ No newline at end of file
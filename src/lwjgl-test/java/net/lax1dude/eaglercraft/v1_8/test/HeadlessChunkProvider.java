@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.List;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+
+import net.minecraft.entity.EnumCreatureType;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.IProgressUpdate;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+
+/**
+ * Chunk provider for HeadlessWorld, every chunk exists and starts out empty
+ * and already populated
+ */
+public class HeadlessChunkProvider implements IChunkProvider {
+
+	private final World world;
+	final LongObjectHashMap<Chunk> chunks = new LongObjectHashMap<>();
+
+	public HeadlessChunkProvider(World world) {
+		this.world = world;
+	}
+
+	public boolean chunkExists(int x, int z) {
+		return true;
+	}
+
+	public Chunk provideChunk(int x, int z) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(x, z);
+		Chunk chunk = this.chunks.get(key);
+		if (chunk == null) {
+			chunk = new Chunk(this.world, x, z);
+			chunk.setTerrainPopulated(true);
+			// in the map before onChunkLoad, it looks the chunk up again
+			this.chunks.put(key, chunk);
+			chunk.onChunkLoad();
+		}
+		return chunk;
+	}
+
+	public Chunk provideChunk(BlockPos pos) {
+		return this.provideChunk(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	public void populate(IChunkProvider provider, int x, int z) {
+	}
+
+	public boolean func_177460_a(IChunkProvider provider, Chunk chunk, int x, int z) {
+		return false;
+	}
+
+	public boolean saveChunks(boolean all, IProgressUpdate progress) {
+		return true;
+	}
+
+	public boolean unloadQueuedChunks() {
+		return false;
+	}
+
+	public boolean canSave() {
+		return false;
+	}
+
+	public String makeString() {
+		return "HeadlessChunkProvider: " + this.chunks.size();
+	}
+
+	public List<BiomeGenBase.SpawnListEntry> getPossibleCreatures(EnumCreatureType type, BlockPos pos) {
+		return null;
+	}
+
+	public BlockPos getStrongholdGen(World world, String name, BlockPos pos) {
+		return null;
+	}
+
+	public int getLoadedChunkCount() {
+		return this.chunks.size();
+	}
+
+	public void recreateStructures(Chunk chunk, int x, int z) {
+	}
+
+	public void saveExtraData() {
+	}
+
+	public Chunk getLoadedChunk(int x, int z) {
+		return this.chunks.get(ChunkCoordIntPair.chunkXZ2Int(x, z));
+	}
+
+}
\ No newline at end of file
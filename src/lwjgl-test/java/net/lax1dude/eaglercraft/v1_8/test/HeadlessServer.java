@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerPlayerList;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.stats.StatisticsFile;
+import net.minecraft.world.EnumDifficulty;
+import net.minecraft.world.WorldManager;
+import net.minecraft.world.WorldProvider;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.minecraft.world.storage.IPlayerFileData;
+import net.minecraft.world.storage.ISaveHandler;
+import net.minecraft.world.storage.WorldInfo;
+
+/**
+ * MinecraftServer with a single in-memory overworld for the headless checks
+ * and benchmarks that need a real WorldServer, with its entity tracker,
+ * scheduled block ticks and explosions. Nothing is ever saved, chunks come
+ * straight from the world type's generator. The server thread is never
+ * started, tick the world from the caller. Call
+ * net.minecraft.init.Bootstrap.register() before making one
+ */
+public class HeadlessServer extends MinecraftServer {
+
+	public final WorldServer world;
+
+	public HeadlessServer(String name) {
+		this(name, 0l, WorldType.FLAT);
+	}
+
+	public HeadlessServer(String name, long seed, WorldType type) {
+		super(name);
+		this.setCanSpawnAnimals(true);
+		this.setCanSpawnNPCs(true);
+		this.setConfigManager(new PlayerList(this));
+		this.world = (WorldServer) (new WorldServer(this, new SaveHandler(name),
+				new WorldInfo(new WorldSettings(seed, WorldSettings.GameType.SURVIVAL, false, false, type), name), 0))
+						.init();
+		this.world.addWorldAccess(new WorldManager(this, this.world));
+		this.worldServers = new WorldServer[] { this.world };
+		this.getConfigurationManager().setPlayerManager(this.worldServers);
+	}
+
+	protected boolean startServer() {
+		return true;
+	}
+
+	public boolean canStructuresSpawn() {
+		return false;
+	}
+
+	public WorldSettings.GameType getGameType() {
+		return WorldSettings.GameType.SURVIVAL;
+	}
+
+	public EnumDifficulty getDifficulty() {
+		return EnumDifficulty.NORMAL;
+	}
+
+	public boolean isHardcore() {
+		return false;
+	}
+
+	public int getOpPermissionLevel() {
+		return 4;
+	}
+
+	public boolean func_181034_q() {
+		return false;
+	}
+
+	public boolean func_183002_r() {
+		return false;
+	}
+
+	public boolean isDedicatedServer() {
+		return false;
+	}
+
+	public boolean func_181035_ah() {
+		return false;
+	}
+
+	public boolean isCommandBlockEnabled() {
+		return false;
+	}
+
+	public String shareToLAN(WorldSettings.GameType type, boolean allowCheats) {
+		return null;
+	}
+
+	public void addScheduledTask(Runnable task) {
+		task.run();
+	}
+
+	/**
+	 * Player list that keeps player stats in memory, the fake players of the
+	 * benchmarks would otherwise try to read them from the filesystem
+	 */
+	private static class PlayerList extends EaglerPlayerList {
+
+		private PlayerList(MinecraftServer server) {
+			super(server, 4);
+		}
+
+		public StatisticsFile getPlayerStatsFile(EntityPlayer player) {
+			return new StatisticsFile(this.getServerInstance(), null);
+		}
+
+	}
+
+	/**
+	 * Save handler that has no directory and never writes anything, a null
+	 * chunk loader makes ChunkProviderServer generate every chunk it is asked
+	 * for
+	 */
+	private static class SaveHandler implements ISaveHandler {
+
+		private final String name;
+
+		private SaveHandler(String name) {
+			this.name = name;
+		}
+
+		public WorldInfo loadWorldInfo() {
+			return null;
+		}
+
+		public IChunkLoader getChunkLoader(WorldProvider provider) {
+			return null;
+		}
+
+		public void saveWorldInfoWithPlayer(WorldInfo info, NBTTagCompound player) {
+		}
+
+		public void saveWorldInfo(WorldInfo info) {
+		}
+
+		public IPlayerFileData getPlayerNBTManager() {
+			return null;
+		}
+
+		public void flush() {
+		}
+
+		public VFile2 getWorldDirectory() {
+			return null;
+		}
+
+		public VFile2 getMapFileFromName(String name) {
+			return null;
+		}
+
+		public String getWorldDirectoryName() {
+			return this.name;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+import net.minecraft.block.Block;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProvider;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.MapStorage;
+import net.minecraft.world.storage.WorldInfo;
+
+/**
+ * Flat, empty in-memory World for the headless checks and benchmarks, chunks
+ * are created on demand and never unloaded or saved. Call
+ * net.minecraft.init.Bootstrap.register() before making one
+ */
+public class HeadlessWorld extends World {
+
+	public HeadlessWorld(String name) {
+		this(name, 0l, WorldType.FLAT);
+	}
+
+	/**
+	 * The seed and type only matter to code that asks the world's provider for
+	 * a chunk generator, the world itself stays empty
+	 */
+	public HeadlessWorld(String name, long seed, WorldType type) {
+		super(null, new WorldInfo(new WorldSettings(seed, WorldSettings.GameType.CREATIVE, true, false, type), name),
+				WorldProvider.getProviderForDimension(0), false);
+		this.provider.registerWorld(this);
+		this.chunkProvider = this.createChunkProvider();
+		this.mapStorage = new MapStorage(null);
+	}
+
+	protected IChunkProvider createChunkProvider() {
+		return new HeadlessChunkProvider(this);
+	}
+
+	protected int getRenderDistanceChunks() {
+		return 2;
+	}
+
+	/**
+	 * Positions of every block of the given type in the loaded chunks, below
+	 * maxY, in no particular order
+	 */
+	public List<BlockPos> findBlocks(Block block, int maxY) {
+		List<BlockPos> ret = new ArrayList<>();
+		for (ObjectCursor<Chunk> cur : ((HeadlessChunkProvider) this.chunkProvider).chunks.values()) {
+			Chunk chunk = cur.value;
+			for (int x = 0; x < 16; ++x) {
+				for (int z = 0; z < 16; ++z) {
+					for (int y = 0; y < maxY; ++y) {
+						BlockPos pos = new BlockPos(chunk.xPosition * 16 + x, y, chunk.zPosition * 16 + z);
+						if (chunk.getBlockState(pos).getBlock() == block) {
+							ret.add(pos);
+						}
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IEaglerFilesystem;
+import net.lax1dude.eaglercraft.v1_8.internal.PlatformRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.JDBCFilesystem;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKCompiler;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKDecompiler;
+
+/**
+ * World import benchmark for JDBCFilesystem, unpacks a generated world EPK
+ * the way WorldConverterEPK.importWorld does and writes every file into the
+ * database. Runs once through JDBCFilesystem's batched writes and once the
+ * way it used to write, an exists query followed by an autocommitted UPDATE
+ * or INSERT per file on a single connection, and reports files/sec including
+ * the final commit. The rows are written under JDBCImportBenchmark/ and
+ * deleted again before and after, point it at a scratch database anyway.
+ * Takes the same driver class and URI as eagler.jdbc.worlds.driver and
+ * eagler.jdbc.worlds.uri, the driver has to be on the classpath.
+ * 
+ * Run with the desktop runtime's classpath and a JDBC driver:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.JDBCImportBenchmark driver uri [files]
+ */
+public class JDBCImportBenchmark {
+
+	private static final String PREFIX = "JDBCImportBenchmark/";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("usage: JDBCImportBenchmark driver uri [files]");
+			System.exit(1);
+			return;
+		}
+		String driver = args[0];
+		String uri = args[1];
+		int files = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		// every connection to an in-memory database gets its own empty database,
+		// the rows JDBCFilesystem wrote can't be counted from another connection
+		boolean memory = uri.contains(":memory:") || uri.contains(":mem:");
+
+		Class.forName(driver);
+		byte[] epk = generateWorld(files);
+		try (Connection conn = DriverManager.getConnection(uri)) {
+			createTable(conn);
+			deleteRows(conn);
+
+			// run each mode twice, the first runs only warm up the JIT
+			for (int pass = 0; pass < 2; ++pass) {
+				long legacy = importLegacy(conn, epk, PREFIX + "legacy" + pass + "/");
+				long batched = importBatched(driver, uri, epk, PREFIX + "batched" + pass + "/", pass);
+				if (!memory) {
+					check(countRows(conn, PREFIX + "batched" + pass + "/") == files, "batched import lost files");
+				}
+				check(countRows(conn, PREFIX + "legacy" + pass + "/") == files, "legacy import lost files");
+				if (pass == 1) {
+					System.out.println(files + " files, " + (epk.length / 1024) + "KB EPK");
+					System.out.println("autocommit per file: " + (legacy / 1000000l) + "ms, "
+							+ (files * 1000000000l / legacy) + " files/sec");
+					System.out.println("batched:             " + (batched / 1000000l) + "ms, "
+							+ (files * 1000000000l / batched) + " files/sec");
+				}
+			}
+
+			deleteRows(conn);
+		}
+	}
+
+	/**
+	 * Writes through JDBCFilesystem like VFile2.setAllBytes, the time includes
+	 * closeHandle which commits whatever is still queued
+	 */
+	private static long importBatched(String driver, String uri, byte[] epk, String prefix, int pass)
+			throws IOException {
+		IEaglerFilesystem fs = JDBCFilesystem.initialize("JDBCImportBenchmark" + pass, uri, driver);
+		long start = System.nanoTime();
+		try (EPKDecompiler dc = new EPKDecompiler(epk)) {
+			EPKDecompiler.FileEntry f;
+			while ((f = dc.readFile()) != null) {
+				if (f.type.equals("FILE")) {
+					ByteBuffer buf = PlatformRuntime.allocateByteBuffer(f.data.length);
+					try {
+						buf.put(f.data);
+						buf.flip();
+						fs.eaglerWrite(prefix + f.name, buf);
+					} finally {
+						PlatformRuntime.freeByteBuffer(buf);
+					}
+				}
+			}
+		}
+		fs.closeHandle();
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * JDBCFilesystem.eaglerWrite before writes were batched
+	 */
+	private static long importLegacy(Connection conn, byte[] epk, String prefix) throws IOException, SQLException {
+		try (PreparedStatement exists = conn.prepareStatement(
+				"SELECT COUNT(FileName) AS has_object FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+				PreparedStatement update = conn.prepareStatement(
+						"UPDATE eaglercraft_desktop_runtime_filesystem SET FileSize = ?, FileData = ? WHERE FileName = ?");
+				PreparedStatement create = conn.prepareStatement(
+						"INSERT INTO eaglercraft_desktop_runtime_filesystem (FileName, FileSize, FileData) VALUES(?,?,?)")) {
+			long start = System.nanoTime();
+			try (EPKDecompiler dc = new EPKDecompiler(epk)) {
+				EPKDecompiler.FileEntry f;
+				while ((f = dc.readFile()) != null) {
+					if (f.type.equals("FILE")) {
+						String name = prefix + f.name;
+						exists.setString(1, name);
+						boolean has;
+						try (ResultSet resultSet = exists.executeQuery()) {
+							has = resultSet.next() && resultSet.getInt(1) > 0;
+						}
+						if (has) {
+							update.setInt(1, f.data.length);
+							update.setBytes(2, f.data);
+							update.setString(3, name);
+							update.executeUpdate();
+						} else {
+							create.setString(1, name);
+							create.setInt(2, f.data.length);
+							create.setBytes(3, f.data);
+							create.executeUpdate();
+						}
+					}
+				}
+			}
+			return System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * A world EPK with a level.dat and chunk files of a few KB each, half
+	 * random and half zeros so they compress about as well as real chunks
+	 */
+	private static byte[] generateWorld(int files) {
+		Random random = new Random(8675309l);
+		EPKCompiler epk = new EPKCompiler("JDBCImportBenchmark", "JDBCImportBenchmark", "epk/world188");
+		byte[] levelDat = new byte[1024];
+		random.nextBytes(levelDat);
+		epk.append("level.dat", levelDat);
+		int side = (int) Math.ceil(Math.sqrt(files - 1));
+		for (int i = 0; i < files - 1; ++i) {
+			byte[] data = new byte[1024 + random.nextInt(11 * 1024)];
+			for (int j = 0; j < data.length; j += 2) {
+				data[j] = (byte) random.nextInt(256);
+			}
+			epk.append("level0/c" + (i % side) + "." + (i / side) + ".dat", data);
+		}
+		return epk.complete();
+	}
+
+	private static void createTable(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE IF NOT EXISTS "
+					+ "\"eaglercraft_desktop_runtime_filesystem\" ("
+					+ "\"FileName\" VARCHAR(1024) NOT NULL,"
+					+ "\"FileSize\" INT NOT NULL,"
+					+ "\"FileData\" BLOB NOT NULL,"
+					+ "PRIMARY KEY(\"FileName\"))");
+		}
+	}
+
+	private static void deleteRows(Connection conn) throws SQLException {
+		try (PreparedStatement stmt = conn
+				.prepareStatement("DELETE FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ?")) {
+			stmt.setString(1, PREFIX + "%");
+			stmt.executeUpdate();
+		}
+	}
+
+	private static int countRows(Connection conn, String prefix) throws SQLException {
+		try (PreparedStatement stmt = conn
+				.prepareStatement("SELECT COUNT(*) FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ?")) {
+			stmt.setString(1, prefix + "%");
+			try (ResultSet resultSet = stmt.executeQuery()) {
+				return resultSet.next() ? resultSet.getInt(1) : 0;
+			}
+		}
+	}
+
+	private static void check(boolean ok, String message) throws IOException {
+		if (!ok) {
+			throw new IOException(message);
+		}
+	}
+
+}
\ No newline at end of file
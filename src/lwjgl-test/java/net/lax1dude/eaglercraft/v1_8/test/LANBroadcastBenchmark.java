@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.Random;
+
+import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.lax1dude.eaglercraft.v1_8.mojang.authlib.GameProfile;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl.MemoryConnection;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.network.EnumConnectionState;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.server.management.ItemInWorldManager;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Benchmark for the shared encoding of packets broadcast to LAN peers, a
+ * herd of pigs wanders around a group of LAN peers standing close together
+ * so they all track the same entities. Runs with a single peer and then with
+ * several, and reports the time the entity tracker takes per tick along with
+ * the packets sent to peers against the packets actually encoded, the same
+ * counters the server shows on the F3 screen. With one peer every packet is
+ * encoded, the extra peers should mostly reuse the frames of the first one.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.LANBroadcastBenchmark [peers] [entities] [ticks]
+ */
+public class LANBroadcastBenchmark {
+
+	private static final int GROUND = 4;
+
+	public static void main(String[] args) {
+		int peers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int entities = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 400;
+		Bootstrap.register();
+
+		// the first runs only warm up the JIT
+		run(1, entities, ticks / 4, false);
+		run(peers, entities, ticks / 4, false);
+		run(1, entities, ticks, true);
+		run(peers, entities, ticks, true);
+	}
+
+	private static void run(int peers, int entities, int ticks, boolean print) {
+		HeadlessServer server = new HeadlessServer("LANBroadcastBenchmark");
+		WorldServer world = server.world;
+		for (int x = -6; x <= 6; ++x) {
+			for (int z = -6; z <= 6; ++z) {
+				world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+
+		Random random = new Random(1l);
+		for (int i = 0; i < entities; ++i) {
+			EntityPig pig = new EntityPig(world);
+			pig.setLocationAndAngles(random.nextDouble() * 96.0D - 48.0D, GROUND, random.nextDouble() * 96.0D - 48.0D,
+					random.nextFloat() * 360.0F, 0.0F);
+			world.spawnEntityInWorld(pig);
+		}
+		for (int i = 0; i < peers; ++i) {
+			EntityPlayerMP player = new EntityPlayerMP(server, world,
+					new GameProfile(new EaglercraftUUID(0l, i), "LANBroadcastBenchmark" + i),
+					new ItemInWorldManager(world));
+			PeerNetworkManager net = new PeerNetworkManager("LANBroadcastBenchmark" + i);
+			net.setConnectionState(EnumConnectionState.PLAY);
+			new NetHandlerPlayServer(server, net, player);
+			player.setLocationAndAngles(random.nextDouble() * 16.0D - 8.0D, GROUND + 2,
+					random.nextDouble() * 16.0D - 8.0D, 0.0F, 0.0F);
+			world.getPlayerManager().addPlayer(player);
+			// pretend the chunks were sent already, the tracker only spawns
+			// entities in chunks the player has
+			player.loadedChunks.clear();
+			world.spawnEntityInWorld(player);
+		}
+		MemoryConnection.serverToClientQueue.clear();
+		EaglerMinecraftServer.counterLANPacketsSent = 0;
+		EaglerMinecraftServer.counterLANPacketsEncoded = 0;
+
+		long time = 0l;
+		long bytes = 0l;
+		for (int i = 0; i < ticks; ++i) {
+			world.resetUpdateEntityTick();
+			world.updateEntities();
+			long start = System.nanoTime();
+			world.getEntityTracker().updateTrackedEntities();
+			time += System.nanoTime() - start;
+			IPCPacketData pkt;
+			while ((pkt = MemoryConnection.serverToClientQueue.poll()) != null) {
+				bytes += pkt.contents.length;
+			}
+		}
+
+		if (print) {
+			int sent = EaglerMinecraftServer.counterLANPacketsSent;
+			int encoded = EaglerMinecraftServer.counterLANPacketsEncoded;
+			System.out.println(peers + " peers, " + entities + " entities, " + ticks + " ticks: tracker "
+					+ String.format("%.3f", time / 1000000.0D / ticks) + "ms/tick, " + sent + " packets sent, "
+					+ encoded + " encoded (" + String.format("%.2f", encoded > 0 ? (double) sent / encoded : 0.0D)
+					+ " sends per encode), "
+					+ (bytes / 1024l / ticks) + "KB/tick to the peers");
+		}
+	}
+
+	/**
+	 * A LAN peer's network manager with an open channel, the frames end up in
+	 * MemoryConnection's queue which is emptied every tick
+	 */
+	private static class PeerNetworkManager extends IntegratedServerPlayerNetworkManager {
+
+		private PeerNetworkManager(String playerChannel) {
+			super(playerChannel);
+		}
+
+		@Override
+		public boolean isChannelOpen() {
+			return true;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.lax1dude.eaglercraft.v1_8.mojang.authlib.GameProfile;
+import net.lax1dude.eaglercraft.v1_8.netty.ByteBuf;
+import net.lax1dude.eaglercraft.v1_8.netty.Unpooled;
+import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl.MemoryConnection;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.IPCLocalPacketData;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.network.EnumConnectionState;
+import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.ItemInWorldManager;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Benchmark for handing packet objects to the local player instead of
+ * serializing them, records the packets the server sends to the player that
+ * owns the world while it joins and walks through a field of pigs, then
+ * replays them through IntegratedServerPlayerNetworkManager with the local
+ * transport on and off. Reports the time the server thread spends sending,
+ * the time the client takes to turn what it receives back into packets and
+ * the bytes both allocate. Processing the packets is the same either way so
+ * it is left out. The packets that share live server state are still
+ * serialized with the local transport on.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.LocalTransportBenchmark [view distance] [ticks]
+ */
+public class LocalTransportBenchmark {
+
+	private static final int GROUND = 4;
+
+	public static void main(String[] args) throws ReflectiveOperationException {
+		int viewDistance = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		Bootstrap.register();
+
+		List<Packet> packets = record(viewDistance, ticks);
+		System.out.println("Recorded " + packets.size() + " packets in " + ticks + " ticks");
+
+		Field localPacketTransport = IntegratedServerPlayerNetworkManager.class
+				.getDeclaredField("localPacketTransport");
+		localPacketTransport.setAccessible(true);
+		long[][] best = new long[2][];
+		for (int i = 0; i < 6; ++i) {
+			for (int j = 0; j < 2; ++j) {
+				OwnerNetworkManager net = new OwnerNetworkManager();
+				net.setConnectionState(EnumConnectionState.PLAY);
+				localPacketTransport.setBoolean(net, j == 1);
+				long[] res = replay(net, packets);
+				// the first round only warms up the JIT
+				if (i > 0 && (best[j] == null || res[0] + res[1] < best[j][0] + best[j][1])) {
+					best[j] = res;
+				}
+			}
+		}
+		for (int j = 0; j < 2; ++j) {
+			System.out.println((j == 1 ? "local transport: " : "serialized:      ") + "server "
+					+ String.format("%.2f", best[j][0] / 1000000.0D) + "ms, client "
+					+ String.format("%.2f", best[j][1] / 1000000.0D) + "ms, " + best[j][2] + " serialized, "
+					+ (best[j][3] / 1024l) + "KB serialized, " + (best[j][4] / 1024l) + "KB allocated");
+		}
+	}
+
+	/**
+	 * Runs a world with a player joining at the origin and walking east, and
+	 * returns every packet the server sent to it
+	 */
+	private static List<Packet> record(int viewDistance, int ticks) {
+		HeadlessServer server = new HeadlessServer("LocalTransportBenchmark");
+		server.getConfigurationManager().setViewDistance(viewDistance);
+		WorldServer world = server.world;
+		Random random = new Random(1l);
+		for (int i = 0; i < 500; ++i) {
+			EntityPig pig = new EntityPig(world);
+			pig.setLocationAndAngles(random.nextDouble() * 192.0D - 64.0D, GROUND, random.nextDouble() * 96.0D - 48.0D,
+					random.nextFloat() * 360.0F, 0.0F);
+			world.spawnEntityInWorld(pig);
+		}
+
+		EntityPlayerMP player = new EntityPlayerMP(server, world,
+				new GameProfile(new EaglercraftUUID(0l, 0l), "LocalTransportBenchmark"),
+				new ItemInWorldManager(world));
+		RecordingNetworkManager net = new RecordingNetworkManager();
+		new NetHandlerPlayServer(server, net, player);
+		player.setLocationAndAngles(0.5D, GROUND, 0.5D, 0.0F, 0.0F);
+		world.getPlayerManager().addPlayer(player);
+		world.spawnEntityInWorld(player);
+
+		for (int i = 0; i < ticks; ++i) {
+			world.tick();
+			world.resetUpdateEntityTick();
+			world.updateEntities();
+			player.setPosition(player.posX + 0.4D, player.posY, player.posZ);
+			world.getPlayerManager().updateMountedMovingPlayer(player);
+			world.getEntityTracker().updateTrackedEntities();
+		}
+		return net.packets;
+	}
+
+	/**
+	 * Sends the packets and then receives them like the client does, returns
+	 * the server and client nanoseconds, the number of serialized packets,
+	 * their bytes and the bytes allocated
+	 */
+	private static long[] replay(OwnerNetworkManager net, List<Packet> packets) {
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		MemoryConnection.serverToClientQueue.clear();
+		long alloc = mx.getThreadAllocatedBytes(thread);
+
+		long start = System.nanoTime();
+		for (int i = 0, l = packets.size(); i < l; ++i) {
+			net.sendPacket(packets.get(i));
+		}
+		long serverTime = System.nanoTime() - start;
+
+		long serialized = 0l;
+		long bytes = 0l;
+		int received = 0;
+		start = System.nanoTime();
+		IPCPacketData pkt;
+		while ((pkt = MemoryConnection.serverToClientQueue.poll()) != null) {
+			Packet next;
+			if (pkt instanceof IPCLocalPacketData) {
+				next = ((IPCLocalPacketData) pkt).packet;
+			} else {
+				++serialized;
+				bytes += pkt.contents.length;
+				next = decode(pkt.contents);
+			}
+			if (next != null) {
+				++received;
+			}
+		}
+		long clientTime = System.nanoTime() - start;
+		alloc = mx.getThreadAllocatedBytes(thread) - alloc;
+
+		if (received != packets.size()) {
+			throw new IllegalStateException("Sent " + packets.size() + " packets but received " + received);
+		}
+		return new long[] { serverTime, clientTime, serialized, bytes, alloc };
+	}
+
+	/**
+	 * The parsing in ClientIntegratedServerNetworkManager.processReceivedPackets
+	 */
+	private static Packet decode(byte[] next) {
+		ByteBuf nettyBuffer = Unpooled.buffer(next, next.length);
+		nettyBuffer.writerIndex(next.length);
+		PacketBuffer input = new PacketBuffer(nettyBuffer);
+		int pktId = input.readVarIntFromBuffer();
+		try {
+			Packet pkt = EnumConnectionState.PLAY.getPacket(EnumPacketDirection.CLIENTBOUND, pktId);
+			pkt.readPacketData(input);
+			return pkt;
+		} catch (Exception ex) {
+			throw new IllegalStateException("Failed to read packet type " + pktId, ex);
+		}
+	}
+
+	/**
+	 * Keeps every packet sent to it
+	 */
+	private static class RecordingNetworkManager extends IntegratedServerPlayerNetworkManager {
+
+		private final List<Packet> packets = new ArrayList<>();
+
+		private RecordingNetworkManager() {
+			super(SingleplayerServerController.PLAYER_CHANNEL);
+		}
+
+		@Override
+		public void sendPacket(Packet pkt) {
+			packets.add(pkt);
+		}
+
+	}
+
+	/**
+	 * The local player's network manager with an open channel, what it sends
+	 * ends up in MemoryConnection's queue
+	 */
+	private static class OwnerNetworkManager extends IntegratedServerPlayerNetworkManager {
+
+		private OwnerNetworkManager() {
+			super(SingleplayerServerController.PLAYER_CHANNEL);
+		}
+
+		@Override
+		public boolean isChannelOpen() {
+			return true;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.minecraft.entity.monster.EntityZombie;
+import net.minecraft.entity.passive.EntityVillager;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.pathfinding.PathFinder;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.IWorldStatsListener;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Tick time benchmark for the pathfinding scheduler, runs the same zombie
+ * siege twice, once with the scheduledPathfinding behaviour and once with
+ * every search running to completion like vanilla. The zombies surround a
+ * villager in a glass house they can't get into, between pillars, so they
+ * keep searching for paths the whole time. Reports the time world entity
+ * updates take per tick and the counters that the server prints with its
+ * TPS.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.PathfindingBenchmark [zombies] [ticks]
+ */
+public class PathfindingBenchmark {
+
+	private static final int GROUND = 4;
+
+	private static int searches = 0;
+	private static long nodes = 0l;
+	private static int suspended = 0;
+	private static int cacheHits = 0;
+
+	public static void main(String[] args) {
+		int zombies = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+		Bootstrap.register();
+
+		// run each mode twice, the first runs only warm up the JIT
+		run(false, zombies, ticks / 4, false);
+		run(true, zombies, ticks / 4, false);
+		run(false, zombies, ticks, true);
+		run(true, zombies, ticks, true);
+	}
+
+	private static void run(boolean scheduler, int zombies, int ticks, boolean print) {
+		HeadlessServer server = new HeadlessServer("PathfindingBenchmark");
+		WorldServer world = server.world;
+		for (int x = -4; x <= 4; ++x) {
+			for (int z = -4; z <= 4; ++z) {
+				world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+		world.setWorldTime(18000l);
+		world.calculateInitialSkylight();
+
+		Random random = new Random(1l);
+		for (int i = 0; i < 120; ++i) {
+			int x = random.nextInt(56) - 28;
+			int z = random.nextInt(56) - 28;
+			if (Math.abs(x) > 4 || Math.abs(z) > 4) {
+				for (int y = 0; y < 3; ++y) {
+					world.setBlockState(new BlockPos(x, GROUND + y, z), Blocks.cobblestone.getDefaultState(), 2);
+				}
+			}
+		}
+		// walls two blocks thick, zombies can hit through one
+		for (int x = -3; x <= 3; ++x) {
+			for (int z = -3; z <= 3; ++z) {
+				for (int y = 0; y < 4; ++y) {
+					if (y == 3 || Math.abs(x) >= 2 || Math.abs(z) >= 2) {
+						world.setBlockState(new BlockPos(x, GROUND + y, z), Blocks.glass.getDefaultState(), 2);
+					}
+				}
+			}
+		}
+		EntityVillager villager = new EntityVillager(world);
+		villager.setLocationAndAngles(0.5D, GROUND, 0.5D, 0.0F, 0.0F);
+		world.spawnEntityInWorld(villager);
+		for (int i = 0; i < zombies; ++i) {
+			BlockPos pos;
+			do {
+				double a = random.nextDouble() * Math.PI * 2.0D;
+				double d = 12.0D + random.nextDouble() * 16.0D;
+				pos = new BlockPos(Math.cos(a) * d, GROUND, Math.sin(a) * d);
+			} while (!world.isAirBlock(pos));
+			EntityZombie zombie = new EntityZombie(world);
+			zombie.setLocationAndAngles(pos.getX() + 0.5D, GROUND, pos.getZ() + 0.5D, random.nextFloat() * 360.0F,
+					0.0F);
+			zombie.enablePersistence();
+			world.spawnEntityInWorld(zombie);
+		}
+
+		searches = 0;
+		nodes = 0l;
+		suspended = 0;
+		cacheHits = 0;
+		world.setStatsListener(new IWorldStatsListener() {
+			@Override
+			public void onPathSearch() {
+				++searches;
+			}
+
+			@Override
+			public void onPathNodes(int count) {
+				nodes += count;
+			}
+
+			@Override
+			public void onPathSuspended() {
+				++suspended;
+			}
+
+			@Override
+			public void onPathCacheHit() {
+				++cacheHits;
+			}
+		});
+
+		long[] times = new long[ticks];
+		for (int i = 0; i < ticks; ++i) {
+			PathFinder.resetTickBudget(scheduler);
+			world.resetUpdateEntityTick();
+			long start = System.nanoTime();
+			world.updateEntities();
+			times[i] = System.nanoTime() - start;
+		}
+		// what EaglerMinecraftServer.stopServer does, so the next run starts
+		// without this one's cached paths
+		PathFinder.clearCaches();
+
+		if (print) {
+			long total = 0l;
+			for (int i = 0; i < ticks; ++i) {
+				total += times[i];
+			}
+			Arrays.sort(times);
+			System.out.println((scheduler ? "scheduler on " : "scheduler off") + ": " + zombies + " zombies, "
+					+ ticks + " ticks, mean " + ms(total / ticks) + "ms, p95 " + ms(times[ticks * 95 / 100])
+					+ "ms, max " + ms(times[ticks - 1]) + "ms");
+			System.out.println("  per tick: " + (searches * 100 / ticks / 100.0f) + " searches, "
+					+ (nodes / ticks) + " nodes, " + (suspended * 100 / ticks / 100.0f) + " suspended, "
+					+ (cacheHits * 100 / ticks / 100.0f) + " cache hits");
+		}
+	}
+
+	private static String ms(long nanos) {
+		return String.format("%.2f", nanos / 1000000.0D);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.NextTickListEntry;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Microbenchmark for the chunk index of pending block ticks in WorldServer,
+ * schedules 100k ticks spread over a square of chunks and then asks for every
+ * chunk's ticks, first without and then with removing them like a chunk save
+ * followed by an unload does. A copy of the same entries in a TreeSet is
+ * scanned the way getPendingBlockUpdates did before the index, as the
+ * baseline, and both have to return the same ticks in the same order.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if the
+ * results differ:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.PendingTickBenchmark [ticks] [chunks across]
+ */
+public class PendingTickBenchmark {
+
+	public static void main(String[] args) {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+		Bootstrap.register();
+
+		WorldServer world = new HeadlessServer("PendingTickBenchmark").world;
+		Block block = Blocks.unpowered_repeater;
+		TreeSet<NextTickListEntry> reference = new TreeSet<>();
+		Set<BlockPos> used = new HashSet<>();
+		Random random = new Random(1l);
+		while (used.size() < ticks) {
+			BlockPos pos = new BlockPos(random.nextInt(size << 4), 1 + random.nextInt(254), random.nextInt(size << 4));
+			if (used.add(pos)) {
+				int delay = 1 + random.nextInt(1000);
+				int priority = random.nextInt(3) - 1;
+				NextTickListEntry entry = new NextTickListEntry(pos, block);
+				entry.setScheduledTime(delay + world.getTotalWorldTime());
+				entry.setPriority(priority);
+				reference.add(entry);
+				world.scheduleBlockUpdate(pos, block, delay, priority);
+			}
+		}
+
+		List<Chunk> chunks = new ArrayList<>();
+		for (int x = 0; x < size; ++x) {
+			for (int z = 0; z < size; ++z) {
+				chunks.add(new Chunk(world, x, z));
+			}
+		}
+		System.out.println(ticks + " pending ticks in " + chunks.size() + " chunks");
+
+		boolean ok = true;
+		long indexed = 0l;
+		long scanned = 0l;
+		for (int pass = 0; pass < 3; ++pass) {
+			indexed = 0l;
+			scanned = 0l;
+			for (int i = 0, l = chunks.size(); i < l; ++i) {
+				Chunk chunk = chunks.get(i);
+				long start = System.nanoTime();
+				List<NextTickListEntry> a = world.getPendingBlockUpdates(chunk, false);
+				long mid = System.nanoTime();
+				List<NextTickListEntry> b = scan(reference, chunk, false);
+				scanned += System.nanoTime() - mid;
+				indexed += mid - start;
+				ok &= same(chunk, a, b);
+			}
+		}
+		System.out.println("get every chunk's ticks: index " + (indexed / 1000000l) + "ms, full scan "
+				+ (scanned / 1000000l) + "ms");
+
+		indexed = 0l;
+		scanned = 0l;
+		int removed = 0;
+		for (int i = 0, l = chunks.size(); i < l; ++i) {
+			Chunk chunk = chunks.get(i);
+			long start = System.nanoTime();
+			List<NextTickListEntry> a = world.getPendingBlockUpdates(chunk, true);
+			long mid = System.nanoTime();
+			List<NextTickListEntry> b = scan(reference, chunk, true);
+			scanned += System.nanoTime() - mid;
+			indexed += mid - start;
+			ok &= same(chunk, a, b);
+			removed += a != null ? a.size() : 0;
+		}
+		System.out.println("save and unload every chunk: index " + (indexed / 1000000l) + "ms, full scan "
+				+ (scanned / 1000000l) + "ms, " + removed + " ticks removed");
+
+		if (!ok) {
+			System.out.println("The index and the full scan returned different ticks");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * getPendingBlockUpdates as it was before the chunk index, with the same
+	 * 2 block overlap into the neighbouring chunks
+	 */
+	private static List<NextTickListEntry> scan(TreeSet<NextTickListEntry> set, Chunk chunk, boolean remove) {
+		int minX = (chunk.xPosition << 4) - 2;
+		int maxX = minX + 16 + 2;
+		int minZ = (chunk.zPosition << 4) - 2;
+		int maxZ = minZ + 16 + 2;
+		List<NextTickListEntry> ret = null;
+		Iterator<NextTickListEntry> itr = set.iterator();
+		while (itr.hasNext()) {
+			NextTickListEntry entry = itr.next();
+			BlockPos pos = entry.position;
+			if (pos.getX() >= minX && pos.getX() < maxX && pos.getZ() >= minZ && pos.getZ() < maxZ) {
+				if (remove) {
+					itr.remove();
+				}
+				if (ret == null) {
+					ret = new ArrayList<>();
+				}
+				ret.add(entry);
+			}
+		}
+		return ret;
+	}
+
+	private static boolean same(Chunk chunk, List<NextTickListEntry> a, List<NextTickListEntry> b) {
+		int na = a != null ? a.size() : 0;
+		int nb = b != null ? b.size() : 0;
+		boolean ret = na == nb;
+		for (int i = 0; ret && i < na; ++i) {
+			ret = a.get(i).position.equals(b.get(i).position) && a.get(i).scheduledTime == b.get(i).scheduledTime;
+		}
+		if (!ret) {
+			System.out.println("chunk " + chunk.xPosition + ", " + chunk.zPosition + ": index returned " + na
+					+ " ticks, full scan returned " + nb);
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
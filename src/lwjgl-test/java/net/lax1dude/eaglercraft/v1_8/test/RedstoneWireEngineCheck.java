@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.List;
+
+import net.minecraft.block.BlockRedstoneRepeater;
+import net.minecraft.block.BlockRedstoneWire;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.IWorldStatsListener;
+import net.minecraft.world.World;
+
+/**
+ * Headless check for the fastRedstoneWire game rule, builds the same circuits
+ * in two in-memory worlds, one with the rule off and one with it on, then
+ * toggles their power sources and compares the power level of every wire
+ * after each step. Ends with a timing run on a large dust grid.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if the two
+ * engines ever disagree:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.RedstoneWireEngineCheck
+ */
+public class RedstoneWireEngineCheck {
+
+	private static int failures = 0;
+	private static int notifies = 0;
+
+	public static void main(String[] args) {
+		Bootstrap.register();
+
+		checkCircuit("line", (world) -> {
+			floor(world, -1, 0, 24, 0);
+			for (int x = 0; x < 24; ++x) {
+				wire(world, x, 1, 0);
+			}
+			return new BlockPos(-1, 1, 0);
+		});
+
+		checkCircuit("loop", (world) -> {
+			floor(world, 0, 0, 10, 10);
+			for (int i = 0; i < 10; ++i) {
+				wire(world, i, 1, 0);
+				wire(world, i, 1, 9);
+				wire(world, 0, 1, i);
+				wire(world, 9, 1, i);
+			}
+			return new BlockPos(-1, 1, 0);
+		});
+
+		checkCircuit("staircase up", (world) -> {
+			floor(world, -1, 0, 16, 0);
+			for (int x = 0; x < 16; ++x) {
+				for (int y = 1; y <= x; ++y) {
+					world.setBlockState(new BlockPos(x, y, 0), Blocks.stone.getDefaultState(), 2);
+				}
+			}
+			for (int x = 0; x < 16; ++x) {
+				wire(world, x, x + 1, 0);
+			}
+			return new BlockPos(-1, 1, 0);
+		});
+
+		checkCircuit("staircase down", (world) -> {
+			for (int x = 0; x < 16; ++x) {
+				for (int y = 0; y <= 16 - x; ++y) {
+					world.setBlockState(new BlockPos(x, y, 0), Blocks.stone.getDefaultState(), 2);
+				}
+			}
+			world.setBlockState(new BlockPos(-1, 16, 0), Blocks.stone.getDefaultState(), 2);
+			for (int x = 0; x < 16; ++x) {
+				wire(world, x, 17 - x, 0);
+			}
+			return new BlockPos(-1, 17, 0);
+		});
+
+		IBlockState repeater = Blocks.powered_repeater.getDefaultState().withProperty(BlockRedstoneRepeater.FACING,
+				EnumFacing.WEST);
+		checkCircuit("repeater fed grid", repeater, (world) -> {
+			floor(world, -2, -1, 16, 16);
+			for (int x = 0; x < 16; ++x) {
+				for (int z = 0; z < 16; ++z) {
+					if ((x % 4 != 3 || z % 3 == 0)) {
+						wire(world, x, 1, z);
+					}
+				}
+			}
+			wire(world, 16, 1, 5);
+			world.setBlockState(new BlockPos(16, 0, 5), Blocks.stone.getDefaultState(), 2);
+			// the repeater pointing into the grid is the source, there are no
+			// scheduled ticks here so it is placed already powered
+			return new BlockPos(-1, 1, 5);
+		});
+
+		long vanilla = benchmarkGrid(false);
+		long fast = benchmarkGrid(true);
+		System.out.println("64x64 dust grid, 20 toggles: vanilla " + vanilla + "ms, fastRedstoneWire " + fast + "ms");
+
+		if (failures > 0) {
+			System.out.println(failures + " check(s) failed");
+			System.exit(1);
+		} else {
+			System.out.println("All checks passed");
+		}
+	}
+
+	private interface Circuit {
+		/**
+		 * Builds the circuit and returns where its source goes
+		 */
+		BlockPos build(World world);
+	}
+
+	private static void checkCircuit(String name, Circuit circuit) {
+		checkCircuit(name, Blocks.redstone_block.getDefaultState(), circuit);
+	}
+
+	private static void checkCircuit(String name, IBlockState source, Circuit circuit) {
+		HeadlessWorld vanilla = newWorld(false);
+		HeadlessWorld fast = newWorld(true);
+		BlockPos src = circuit.build(vanilla);
+		circuit.build(fast);
+		List<BlockPos> wires = vanilla.findBlocks(Blocks.redstone_wire, 32);
+		compare(name + ", built", vanilla, fast, wires);
+		for (int i = 0; i < 3; ++i) {
+			vanilla.setBlockState(src, source, 3);
+			fast.setBlockState(src, source, 3);
+			compare(name + ", powered #" + i, vanilla, fast, wires);
+			vanilla.setBlockToAir(src);
+			fast.setBlockToAir(src);
+			compare(name + ", unpowered #" + i, vanilla, fast, wires);
+		}
+		// break a wire in the middle of a powered circuit and put it back
+		BlockPos mid = wires.get(wires.size() / 2);
+		vanilla.setBlockState(src, source, 3);
+		fast.setBlockState(src, source, 3);
+		vanilla.setBlockToAir(mid);
+		fast.setBlockToAir(mid);
+		compare(name + ", wire broken", vanilla, fast, wires);
+		wire(vanilla, mid.getX(), mid.getY(), mid.getZ());
+		wire(fast, mid.getX(), mid.getY(), mid.getZ());
+		compare(name + ", wire replaced", vanilla, fast, wires);
+	}
+
+	private static void compare(String step, World vanilla, World fast, List<BlockPos> wires) {
+		int mismatched = 0;
+		int powered = 0;
+		for (int i = 0, l = wires.size(); i < l; ++i) {
+			BlockPos pos = wires.get(i);
+			int a = power(vanilla, pos);
+			int b = power(fast, pos);
+			if (a != b) {
+				if (mismatched++ < 5) {
+					System.out.println("  " + step + ": " + pos + " is " + b + ", vanilla has " + a);
+				}
+			}
+			if (a > 0) {
+				++powered;
+			}
+		}
+		if (mismatched > 0) {
+			System.out.println("FAIL " + step + ": " + mismatched + " of " + wires.size() + " wires differ");
+			++failures;
+		} else {
+			System.out.println("ok   " + step + " (" + powered + "/" + wires.size() + " powered)");
+		}
+	}
+
+	private static long benchmarkGrid(boolean fastWire) {
+		HeadlessWorld world = newWorld(fastWire);
+		floor(world, -1, 0, 64, 64);
+		for (int x = 0; x < 64; ++x) {
+			for (int z = 0; z < 64; ++z) {
+				wire(world, x, 1, z);
+			}
+		}
+		BlockPos src = new BlockPos(-1, 1, 32);
+		notifies = 0;
+		world.setStatsListener(new IWorldStatsListener() {
+			@Override
+			public void onWireNotifies(int blocks) {
+				notifies += blocks;
+			}
+		});
+		long start = System.nanoTime();
+		for (int i = 0; i < 20; ++i) {
+			world.setBlockState(src, Blocks.redstone_block.getDefaultState(), 3);
+			world.setBlockToAir(src);
+		}
+		long ms = (System.nanoTime() - start) / 1000000l;
+		System.out.println("  " + (fastWire ? "fastRedstoneWire" : "vanilla") + ": "
+				+ notifies + " neighbor updates");
+		return ms;
+	}
+
+	private static HeadlessWorld newWorld(boolean fastWire) {
+		HeadlessWorld world = new HeadlessWorld("RedstoneWireEngineCheck");
+		world.getGameRules().setOrCreateGameRule("fastRedstoneWire", fastWire ? "true" : "false");
+		return world;
+	}
+
+	private static void floor(World world, int x0, int z0, int x1, int z1) {
+		for (int x = x0; x <= x1; ++x) {
+			for (int z = z0; z <= z1; ++z) {
+				world.setBlockState(new BlockPos(x, 0, z), Blocks.stone.getDefaultState(), 2);
+			}
+		}
+	}
+
+	private static void wire(World world, int x, int y, int z) {
+		world.setBlockState(new BlockPos(x, y, z), Blocks.redstone_wire.getDefaultState(), 3);
+	}
+
+	private static int power(World world, BlockPos pos) {
+		IBlockState state = world.getBlockState(pos);
+		return state.getBlock() == Blocks.redstone_wire ? state.getValue(BlockRedstoneWire.POWER).intValue()
+				: -1;
+	}
+
+}
\ No newline at end of file
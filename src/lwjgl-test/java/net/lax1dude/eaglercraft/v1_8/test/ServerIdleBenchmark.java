@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.lax1dude.eaglercraft.v1_8.sp.internal.ClientPlatformSingleplayer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.ServerPlatformSingleplayer;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl.MemoryConnection;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Benchmark for the integrated server worker waiting between ticks, runs a
+ * worker thread with the scheduling of EaglerMinecraftServer.mainLoop either
+ * parking in ServerPlatformSingleplayer.waitForPackets until the next tick is
+ * due or calling the loop again right away like it used to. A client thread
+ * sends a packet through ClientPlatformSingleplayer every frame. Reports the
+ * CPU time the worker thread uses per second, the ticks it ran and how long
+ * the packets waited before the worker picked them up. The ticks update a
+ * small world with some pigs so they take a realistic amount of time.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.ServerIdleBenchmark [seconds]
+ */
+public class ServerIdleBenchmark {
+
+	private static final int MAX_CATCHUP_TICKS = 4;
+
+	public static void main(String[] args) throws InterruptedException {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		Bootstrap.register();
+
+		HeadlessServer server = new HeadlessServer("ServerIdleBenchmark");
+		WorldServer world = server.world;
+		for (int x = -4; x <= 4; ++x) {
+			for (int z = -4; z <= 4; ++z) {
+				world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+		Random random = new Random(1l);
+		for (int i = 0; i < 200; ++i) {
+			EntityPig pig = new EntityPig(world);
+			pig.setLocationAndAngles(random.nextDouble() * 96.0D - 48.0D, 4.0D, random.nextDouble() * 96.0D - 48.0D,
+					random.nextFloat() * 360.0F, 0.0F);
+			world.spawnEntityInWorld(pig);
+		}
+
+		// the first runs only warm up the JIT
+		run(world, false, 2, false);
+		run(world, true, 2, false);
+		run(world, false, seconds, true);
+		run(world, true, seconds, true);
+	}
+
+	private static void run(final WorldServer world, final boolean park, int seconds, boolean print)
+			throws InterruptedException {
+		final long[] latencies = new long[seconds * 100];
+		final int[] latencyCount = new int[1];
+		final long[] cpuTime = new long[1];
+		final int[] ticks = new int[1];
+		final long end = System.currentTimeMillis() + seconds * 1000l;
+		MemoryConnection.clientToServerQueue.clear();
+		MemoryConnection.serverThread = null;
+
+		Thread worker = new Thread(() -> {
+			ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+			long cpuStart = mx.getCurrentThreadCpuTime();
+			long currentTime = System.currentTimeMillis();
+			long k;
+			while ((k = System.currentTimeMillis()) < end) {
+				List<IPCPacketData> pkts = ServerPlatformSingleplayer.recieveAllPacket();
+				if (pkts != null) {
+					long now = System.nanoTime();
+					for (int i = 0, l = pkts.size(); i < l; ++i) {
+						if (latencyCount[0] < latencies.length) {
+							latencies[latencyCount[0]++] = now - readLong(pkts.get(i).contents);
+						}
+					}
+				}
+				long j = k - currentTime;
+				if (park) {
+					for (int i = 0; i < MAX_CATCHUP_TICKS && j >= 50L; ++i) {
+						currentTime += 50l;
+						tick(world);
+						++ticks[0];
+						j = System.currentTimeMillis() - currentTime;
+					}
+					if (j < 50L) {
+						ServerPlatformSingleplayer.waitForPackets((int) (50L - j));
+					}
+				} else {
+					if (j > 50L) {
+						currentTime += 50l;
+						tick(world);
+						++ticks[0];
+					}
+					ServerPlatformSingleplayer.immediateContinue();
+				}
+			}
+			cpuTime[0] = mx.getCurrentThreadCpuTime() - cpuStart;
+		}, "ServerIdleBenchmark worker");
+		worker.start();
+
+		while (System.currentTimeMillis() < end) {
+			byte[] pkt = new byte[8];
+			writeLong(pkt, System.nanoTime());
+			ClientPlatformSingleplayer.sendPacket(new IPCPacketData("~!LOCAL", pkt));
+			Thread.sleep(16l);
+		}
+		worker.join();
+		MemoryConnection.serverThread = null;
+
+		if (print) {
+			int cnt = latencyCount[0];
+			long[] sorted = Arrays.copyOf(latencies, cnt);
+			Arrays.sort(sorted);
+			long total = 0l;
+			for (int i = 0; i < cnt; ++i) {
+				total += sorted[i];
+			}
+			System.out.println((park ? "park" : "spin") + ": worker CPU "
+					+ (cpuTime[0] / 1000000l / seconds) + "ms/s, " + ticks[0] + " ticks in " + seconds
+					+ "s, packet wait " + String.format("%.3f", total / 1000000.0D / cnt) + "ms avg, "
+					+ String.format("%.3f", sorted[(cnt * 95 - 1) / 100] / 1000000.0D) + "ms p95, "
+					+ String.format("%.3f", sorted[cnt - 1] / 1000000.0D) + "ms max");
+		}
+	}
+
+	private static void tick(WorldServer world) {
+		world.tick();
+		world.resetUpdateEntityTick();
+		world.updateEntities();
+	}
+
+	private static void writeLong(byte[] b, long l) {
+		for (int i = 0; i < 8; ++i) {
+			b[i] = (byte) (l >>> (i << 3));
+		}
+	}
+
+	private static long readLong(byte[] b) {
+		long l = 0l;
+		for (int i = 0; i < 8; ++i) {
+			l |= (b[i] & 0xFFl) << (i << 3);
+		}
+		return l;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.collect.Lists;
+
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.minecraft.EaglerTextureAtlasSprite;
+import net.lax1dude.eaglercraft.v1_8.minecraft.TextureAtlasCache;
+import net.lax1dude.eaglercraft.v1_8.opengl.ImageData;
+import net.minecraft.client.renderer.texture.Stitcher;
+
+/**
+ * Benchmark for loading the block atlas from the texture cache instead of
+ * decoding and stitching every sprite, builds a resource pack's worth of
+ * pixel art PNGs in memory and then times the sequential path of
+ * TextureMap.loadAndStitchSprites (PNG decode, loadSprite and the stitcher)
+ * against TextureAtlasCache.load on the file that TextureAtlasCache.save
+ * wrote for the same atlas. Generating the mipmaps is left out of the cold
+ * path because TextureUtil allocates a GL texture when it is loaded, so the
+ * cold time is a lower bound, the harness fills in the mip levels itself so
+ * the cache file still has them. Animated sprites are left out for the same
+ * reason, their animation cache is a GL texture.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if the cache
+ * could not be read back:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.TextureAtlasCacheBenchmark [sprites] [sprite size] [mipmap levels]
+ */
+public class TextureAtlasCacheBenchmark {
+
+	private static final String BASE_PATH = "textures";
+
+	public static void main(String[] args) throws IOException {
+		int spriteCount = args.length > 0 ? Integer.parseInt(args[0]) : 450;
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		int mipmapLevels = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+		CountingFilesystem fs = CountingFilesystem.create("texturecache", null);
+		VFile2.setPrimaryFilesystem(fs);
+
+		Random random = new Random(1l);
+		String[] names = new String[spriteCount];
+		byte[][] pngs = new byte[spriteCount][];
+		long pngBytes = 0l;
+		for (int i = 0; i < spriteCount; ++i) {
+			names[i] = "minecraft:blocks/sprite_" + i;
+			pngs[i] = makePNG(random, size, i % 10 == 0);
+			pngBytes += pngs[i].length;
+		}
+		System.out.println(spriteCount + " sprites, " + size + "x" + size + ", " + (pngBytes / 1024l) + "KB of PNGs");
+
+		byte[] key = new byte[20];
+		random.nextBytes(key);
+
+		long decodeTime = 0l;
+		long stitchTime = 0l;
+		Map<String, EaglerTextureAtlasSprite> registered = null;
+		Map<String, EaglerTextureAtlasSprite> uploaded = null;
+		EaglerTextureAtlasSprite missingImage = null;
+		int width = 0, height = 0;
+		// the first round only warms up the JIT
+		for (int round = 0; round < 3; ++round) {
+			registered = new HashMap<>();
+			for (int i = 0; i < spriteCount; ++i) {
+				registered.put(names[i], new EaglerTextureAtlasSprite(names[i]));
+			}
+			missingImage = makeMissingImage(mipmapLevels);
+
+			long start = System.nanoTime();
+			Stitcher stitcher = new Stitcher(16384, 16384, true, 0, mipmapLevels);
+			for (int i = 0; i < spriteCount; ++i) {
+				EaglerTextureAtlasSprite sprite = registered.get(names[i]);
+				ImageData[] images = new ImageData[1 + mipmapLevels];
+				images[0] = ImageData.loadImageFile(new EaglerInputStream(pngs[i]));
+				sprite.loadSprite(images, null);
+				stitcher.addSprite(sprite);
+			}
+			long decoded = System.nanoTime();
+			stitcher.addSprite(missingImage);
+			stitcher.doStitch();
+			List<EaglerTextureAtlasSprite> slots = stitcher.getStichSlots();
+			long end = System.nanoTime();
+			if (round > 0) {
+				decodeTime += decoded - start;
+				stitchTime += end - decoded;
+			}
+
+			uploaded = new HashMap<>();
+			for (int i = 0, l = slots.size(); i < l; ++i) {
+				EaglerTextureAtlasSprite sprite = slots.get(i);
+				if (sprite != missingImage) {
+					sprite.setFramesTextureData(Lists.newArrayList(new int[][][] {
+							mipmaps(sprite.getFrameTextureData(0)[0], sprite.getIconWidth(), mipmapLevels) }));
+				}
+				uploaded.put(sprite.getIconName(), sprite);
+			}
+			width = stitcher.getCurrentWidth();
+			height = stitcher.getCurrentHeight();
+		}
+
+		long start = System.nanoTime();
+		TextureAtlasCache.save(BASE_PATH, key, width, height, mipmapLevels, registered, uploaded, missingImage);
+		long saveTime = System.nanoTime() - start;
+
+		long loadTime = 0l;
+		for (int round = 0; round < 3; ++round) {
+			fs.reset();
+			start = System.nanoTime();
+			TextureAtlasCache.CachedAtlas atlas = TextureAtlasCache.load(BASE_PATH, key, registered);
+			long end = System.nanoTime();
+			if (atlas == null) {
+				System.err.println("The texture cache was not loaded!");
+				System.exit(1);
+			}
+			if (round > 0) {
+				loadTime += end - start;
+			}
+		}
+
+		System.out.println(width + "x" + height + " atlas, cache file is " + (fs.bytesRead / 1024l) + "KB");
+		System.out.println("decode and stitch: " + String.format("%.1f", (decodeTime + stitchTime) / 2000000.0D)
+				+ "ms (decode " + String.format("%.1f", decodeTime / 2000000.0D) + "ms, stitch "
+				+ String.format("%.1f", stitchTime / 2000000.0D) + "ms), mipmaps not included");
+		System.out.println("texture cache:     " + String.format("%.1f", loadTime / 2000000.0D) + "ms, writing it took "
+				+ String.format("%.1f", saveTime / 1000000.0D) + "ms once");
+	}
+
+	/**
+	 * Pixel art from a 16 color palette with some noise, cutout sprites get
+ * transparent pixels
+	 */
+	private static byte[] makePNG(Random random, int size, boolean cutout) throws IOException {
+		int[] palette = new int[16];
+		int base = random.nextInt(0x1000000);
+		for (int i = 0; i < palette.length; ++i) {
+			int shade = random.nextInt(64) - 32;
+			int r = Math.max(0, Math.min(255, ((base >> 16) & 0xFF) + shade));
+			int g = Math.max(0, Math.min(255, ((base >> 8) & 0xFF) + shade));
+			int b = Math.max(0, Math.min(255, (base & 0xFF) + shade));
+			palette[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+		}
+		BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+		int scale = Math.max(size / 16, 1);
+		for (int y = 0; y < size; ++y) {
+			for (int x = 0; x < size; ++x) {
+				Random cell = new Random(((long) (x / scale) << 32) ^ (y / scale) ^ base);
+				int c = palette[cell.nextInt(palette.length)];
+				if (cutout && cell.nextInt(3) == 0) {
+					c = 0;
+				} else {
+					// HD packs shade every pixel a little differently
+					c += random.nextInt(8) * 0x010101;
+				}
+				img.setRGB(x, y, c);
+			}
+		}
+		ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		ImageIO.write(img, "png", bao);
+		return bao.toByteArray();
+	}
+
+	private static EaglerTextureAtlasSprite makeMissingImage(int mipmapLevels) {
+		EaglerTextureAtlasSprite ret = new EaglerTextureAtlasSprite("missingno");
+		ret.setIconWidth(16);
+		ret.setIconHeight(16);
+		int[] pixels = new int[256];
+		for (int i = 0; i < pixels.length; ++i) {
+			pixels[i] = ((i >> 3) & 1) == ((i >> 7) & 1) ? 0xFFF800F8 : 0xFF000000;
+		}
+		ret.setFramesTextureData(Lists.newArrayList(new int[][][] { mipmaps(pixels, 16, mipmapLevels) }));
+		return ret;
+	}
+
+	/**
+	 * Box filtered mip levels, only so the cache file is the size it would be
+	 */
+	private static int[][] mipmaps(int[] pixels, int size, int levels) {
+		int[][] ret = new int[levels + 1][];
+		ret[0] = pixels;
+		for (int l = 1; l <= levels; ++l) {
+			int[] src = ret[l - 1];
+			int s = size >> l;
+			int[] dst = new int[s * s];
+			for (int y = 0; y < s; ++y) {
+				for (int x = 0; x < s; ++x) {
+					int i = (y * 2) * (s * 2) + x * 2;
+					dst[y * s + x] = (src[i] & 0xFEFEFEFE) >>> 1 | (src[i + s * 2 + 1] & 0xFEFEFEFE) >>> 1;
+				}
+			}
+			ret[l] = dst;
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
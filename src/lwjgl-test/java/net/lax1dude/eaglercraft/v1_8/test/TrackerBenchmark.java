@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+import net.lax1dude.eaglercraft.v1_8.EaglercraftUUID;
+import net.lax1dude.eaglercraft.v1_8.mojang.authlib.GameProfile;
+import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityTracker;
+import net.minecraft.entity.EntityTrackerEntry;
+import net.minecraft.entity.passive.EntityPig;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.network.Packet;
+import net.minecraft.server.management.ItemInWorldManager;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Tick time benchmark for the entity tracker, compares the chunk grid in
+ * EntityTracker against the old loop that checked a player against every
+ * tracked entity in the world whenever it moved 4 blocks or was sent a
+ * chunk. Both runs use the same world: pigs scattered over a large area and
+ * a few players flying across it, the chunks they are sent go through
+ * func_85172_a like EntityPlayerMP.onUpdate does. The old loop is run over
+ * the real tracker's entries so the packets sent have to come out the same,
+ * the run fails if the players end up tracking different entities.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if the runs
+ * don't agree:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.TrackerBenchmark [entities] [players] [ticks]
+ */
+public class TrackerBenchmark {
+
+	private static final int GROUND = 4;
+	private static final int AREA = 12;
+
+	private static final Field trackedEntities;
+	private static final Field maxTrackingDistanceThreshold;
+	private static final Field nextEntityID;
+
+	static {
+		try {
+			trackedEntities = EntityTracker.class.getDeclaredField("trackedEntities");
+			trackedEntities.setAccessible(true);
+			maxTrackingDistanceThreshold = EntityTracker.class.getDeclaredField("maxTrackingDistanceThreshold");
+			maxTrackingDistanceThreshold.setAccessible(true);
+			nextEntityID = Entity.class.getDeclaredField("nextEntityID");
+			nextEntityID.setAccessible(true);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int entities = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int players = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+		Bootstrap.register();
+
+		// run each mode twice, the first runs only warm up the JIT
+		run(true, entities, players, ticks / 4);
+		run(false, entities, players, ticks / 4);
+		Result legacy = run(true, entities, players, ticks);
+		Result grid = run(false, entities, players, ticks);
+		legacy.print("all entries", entities, players, ticks);
+		grid.print("chunk grid ", entities, players, ticks);
+
+		if (!Arrays.equals(legacy.trackedPerTick, grid.trackedPerTick) || !legacy.tracked.equals(grid.tracked)
+				|| legacy.packets != grid.packets) {
+			System.out.println("FAILED: the players don't track the same entities in both runs");
+			System.exit(1);
+		}
+	}
+
+	private static Result run(boolean legacy, int entities, int players, int ticks) throws Exception {
+		HeadlessServer server = new HeadlessServer("TrackerBenchmark");
+		WorldServer world = server.world;
+		int radius = AREA + server.getConfigurationManager().getViewDistance() + 1;
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				world.theChunkProviderServer.loadChunk(x, z);
+			}
+		}
+
+		// the update interval of a tracker entry is phased by entity id, both
+		// runs have to hand out the same ids to send the same packets
+		nextEntityID.setInt(null, 1000000);
+		Random random = new Random(1l);
+		int area = AREA * 16;
+		EntityPig[] pigs = new EntityPig[entities];
+		float[] headings = new float[entities];
+		for (int i = 0; i < entities; ++i) {
+			EntityPig pig = new EntityPig(world);
+			pig.setLocationAndAngles(random.nextDouble() * area * 2 - area, GROUND, random.nextDouble() * area * 2 - area,
+					0.0F, 0.0F);
+			world.spawnEntityInWorld(pig);
+			pigs[i] = pig;
+			headings[i] = random.nextFloat() * (float) Math.PI * 2.0F;
+		}
+
+		CountingNetworkManager[] net = new CountingNetworkManager[players];
+		EntityPlayerMP[] player = new EntityPlayerMP[players];
+		for (int i = 0; i < players; ++i) {
+			EntityPlayerMP p = new EntityPlayerMP(server, world,
+					new GameProfile(new EaglercraftUUID(0l, i), "TrackerBenchmark" + i), new ItemInWorldManager(world));
+			net[i] = new CountingNetworkManager("TrackerBenchmark" + i);
+			new NetHandlerPlayServer(server, net[i], p);
+			movePlayer(p, i, players, 0, area);
+			world.getPlayerManager().addPlayer(p);
+			world.spawnEntityInWorld(p);
+			player[i] = p;
+		}
+
+		EntityTracker tracker = world.getEntityTracker();
+		@SuppressWarnings("unchecked")
+		Set<EntityTrackerEntry> entries = (Set<EntityTrackerEntry>) trackedEntities.get(tracker);
+		int threshold = maxTrackingDistanceThreshold.getInt(tracker);
+		List<EntityPlayerMP> updated = new ArrayList<>();
+		LongArrayList sent = new LongArrayList();
+
+		long[] times = new long[ticks];
+		int[] trackedPerTick = new int[ticks];
+		long chunksSent = 0l;
+		long chunkTime = 0l;
+		for (int i = 0; i < ticks; ++i) {
+			for (int j = 0; j < entities; ++j) {
+				EntityPig pig = pigs[j];
+				if (random.nextInt(8) == 0) {
+					headings[j] += random.nextFloat() - 0.5F;
+				}
+				pig.setPosition(pig.posX + Math.cos(headings[j]) * 0.15D, GROUND,
+						pig.posZ + Math.sin(headings[j]) * 0.15D);
+				world.updateEntityWithOptionalForce(pig, false);
+			}
+			for (int j = 0; j < players; ++j) {
+				movePlayer(player[j], j, players, i + 1, area);
+				world.updateEntityWithOptionalForce(player[j], false);
+				world.getPlayerManager().updateMountedMovingPlayer(player[j]);
+			}
+
+			long start = System.nanoTime();
+			if (legacy) {
+				legacyUpdateTrackedEntities(entries, world.playerEntities, threshold, updated);
+			} else {
+				tracker.updateTrackedEntities();
+			}
+			long chunkStart = System.nanoTime();
+			for (int j = 0; j < players; ++j) {
+				EntityPlayerMP p = player[j];
+				sent.clear();
+				for (LongCursor cursor : p.loadedChunks) {
+					sent.add(cursor.value);
+				}
+				// chunks are sent 10 at a time, the same order for both runs
+				Arrays.sort(sent.buffer, 0, sent.size());
+				for (int k = 0, l = Math.min(sent.size(), 10); k < l; ++k) {
+					long key = sent.get(k);
+					Chunk chunk = world.getChunkFromChunkCoords((int) (key & 4294967295L), (int) (key >>> 32));
+					if (legacy) {
+						legacyFunc85172a(entries, p, chunk, threshold);
+					} else {
+						tracker.func_85172_a(p, chunk);
+					}
+					p.loadedChunks.removeAll(key);
+					++chunksSent;
+				}
+			}
+			long end = System.nanoTime();
+			times[i] = end - start;
+			chunkTime += end - chunkStart;
+
+			int tracked = 0;
+			for (EntityTrackerEntry entry : entries) {
+				tracked += entry.trackingPlayers.size();
+			}
+			trackedPerTick[i] = tracked;
+		}
+
+		Result result = new Result();
+		result.times = times;
+		result.trackedPerTick = trackedPerTick;
+		result.chunksSent = chunksSent;
+		result.chunkTime = chunkTime;
+		for (int i = 0; i < players; ++i) {
+			result.packets += net[i].packets;
+		}
+		List<String> tracked = new ArrayList<>();
+		for (EntityTrackerEntry entry : entries) {
+			for (int i = 0; i < players; ++i) {
+				if (entry.trackingPlayers.contains(player[i])) {
+					tracked.add(i + ":" + entry.trackedEntity.getEntityId());
+				}
+			}
+		}
+		tracked.sort(null);
+		result.tracked = tracked;
+		return result;
+	}
+
+	/**
+	 * Flies the players around circles of different sizes at sprinting speed,
+	 * each one crosses into a new chunk every few ticks
+	 */
+	private static void movePlayer(EntityPlayerMP player, int index, int players, int tick, int area) {
+		double r = area * (0.3D + 0.6D * index / players);
+		double a = tick * 0.28D / r + index * Math.PI * 2.0D / players;
+		player.setPosition(Math.cos(a) * r, GROUND + 8, Math.sin(a) * r);
+	}
+
+	/**
+	 * EntityTracker.updateTrackedEntities before the chunk grid
+	 */
+	private static void legacyUpdateTrackedEntities(Set<EntityTrackerEntry> entries, List playerEntities,
+			int threshold, List<EntityPlayerMP> updated) {
+		updated.clear();
+		for (EntityTrackerEntry entry : entries) {
+			entry.updatePlayerList(playerEntities, threshold);
+			if (entry.playerEntitiesUpdated && entry.trackedEntity instanceof EntityPlayerMP) {
+				updated.add((EntityPlayerMP) entry.trackedEntity);
+			}
+		}
+
+		for (int i = 0; i < updated.size(); ++i) {
+			EntityPlayerMP player = updated.get(i);
+			for (EntityTrackerEntry entry : entries) {
+				if (entry.trackedEntity != player) {
+					entry.updatePlayerEntity(player, threshold);
+				}
+			}
+		}
+	}
+
+	/**
+	 * EntityTracker.func_85172_a before the chunk grid
+	 */
+	private static void legacyFunc85172a(Set<EntityTrackerEntry> entries, EntityPlayerMP player, Chunk chunk,
+			int threshold) {
+		for (EntityTrackerEntry entry : entries) {
+			if (entry.trackedEntity != player && entry.trackedEntity.chunkCoordX == chunk.xPosition
+					&& entry.trackedEntity.chunkCoordZ == chunk.zPosition) {
+				entry.updatePlayerEntity(player, threshold);
+			}
+		}
+	}
+
+	private static class Result {
+
+		private long[] times;
+		private int[] trackedPerTick;
+		private List<String> tracked;
+		private long chunksSent;
+		private long chunkTime;
+		private long packets;
+
+		private void print(String name, int entities, int players, int ticks) {
+			long total = 0l;
+			for (int i = 0; i < ticks; ++i) {
+				total += times[i];
+			}
+			long[] sorted = times.clone();
+			Arrays.sort(sorted);
+			System.out.println(name + ": " + entities + " entities, " + players + " players, " + ticks
+					+ " ticks, mean " + ms(total / ticks) + "ms, p95 " + ms(sorted[ticks * 95 / 100]) + "ms, max "
+					+ ms(sorted[ticks - 1]) + "ms");
+			System.out.println("  " + chunksSent + " chunks sent taking " + ms(chunkTime) + "ms in total, " + packets
+					+ " packets, " + tracked.size() + " entities tracked at the end");
+		}
+
+	}
+
+	/**
+	 * Only counts the packets, nothing is encoded or sent anywhere
+	 */
+	private static class CountingNetworkManager extends IntegratedServerPlayerNetworkManager {
+
+		private long packets = 0l;
+
+		private CountingNetworkManager(String playerChannel) {
+			super(playerChannel);
+		}
+
+		@Override
+		public void sendPacket(Packet pkt) {
+			++packets;
+		}
+
+	}
+
+	private static String ms(long nanos) {
+		return String.format("%.3f", nanos / 1000000.0D);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import com.carrotsearch.hppc.sorting.QuickSort;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.IntBuffer;
+import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+
+/**
+ * Benchmark for the CPU side of resorting a translucent chunk layer as the
+ * camera walks past it. Compares the old resort, QuickSort with comparator
+ * lambdas and then moving the vertices into the new order, with the current
+ * full resort that the display list path still does, and with the region
+ * buffer path that only calculates the new quad order and writes indices
+ * when it changed. Reports the time per resort and the bytes each one would
+ * upload, the GL calls themselves are left out. The layer is every exposed
+ * face of randomly placed stained glass in a 16x16x16 chunk.
+ * 
+ * Run with the desktop runtime's classpath:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.TranslucentResortBenchmark [fill percent] [steps]
+ */
+public class TranslucentResortBenchmark {
+
+	public static void main(String[] args) {
+		int fill = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+		WorldRenderer wr = new WorldRenderer(0x200000);
+		buildLayer(wr, fill);
+		WorldRenderer.State state = wr.func_181672_a();
+		int quads = state.getVertexCount() >> 2;
+		int stride = state.getVertexFormat().attribStride;
+		System.out.println(quads + " quads, " + stride + " bytes per vertex");
+
+		LegacySort legacy = new LegacySort(wr);
+		int[] current = new int[quads];
+		for (int i = 0; i < quads; ++i) {
+			current[i] = i;
+		}
+
+		// the first round only warms up the JIT
+		for (int round = 0; round < 2; ++round) {
+			long legacyTime = 0l;
+			long fullTime = 0l;
+			long indexTime = 0l;
+			int uploads = 0;
+			for (int step = 0; step < steps; ++step) {
+				// walking past the chunk at 0.1 blocks per frame
+				float x = -20.0f + step * 0.1f;
+				float y = 10.0f;
+				float z = -4.0f + (float) Math.sin(step * 0.01f) * 2.0f;
+
+				long start = System.nanoTime();
+				wr.setVertexState(state);
+				legacy.sort(x, y, z);
+				legacyTime += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				wr.setVertexState(state);
+				wr.func_181674_a(x, y, z);
+				fullTime += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				int[] order = wr.sortQuadOrder(state, x, y, z);
+				if (writeQuadOrder(order, current, quads)) {
+					++uploads;
+				}
+				indexTime += System.nanoTime() - start;
+			}
+			if (round == 1) {
+				long vertexBytes = (long) quads * 4 * stride;
+				System.out.println("old resort:     " + String.format("%.1f", legacyTime / 1000.0D / steps)
+						+ "us per resort, " + (vertexBytes / 1024l) + "KB uploaded every resort");
+				System.out.println("full resort:    " + String.format("%.1f", fullTime / 1000.0D / steps)
+						+ "us per resort, " + (vertexBytes / 1024l) + "KB uploaded every resort");
+				System.out.println("index rewrite:  " + String.format("%.1f", indexTime / 1000.0D / steps)
+						+ "us per resort, " + (quads * 24 / 1024) + "KB uploaded in " + uploads + " of " + steps
+						+ " resorts, the order was unchanged in the rest");
+			}
+		}
+	}
+
+	/**
+	 * Every face of a glass block that doesn't touch another glass block, in
+	 * the BLOCK vertex format
+	 */
+	private static void buildLayer(WorldRenderer wr, int fill) {
+		Random random = new Random(1l);
+		boolean[] glass = new boolean[16 * 16 * 16];
+		for (int i = 0; i < glass.length; ++i) {
+			glass[i] = random.nextInt(100) < fill;
+		}
+		wr.begin(7, DefaultVertexFormats.BLOCK);
+		for (int x = 0; x < 16; ++x) {
+			for (int y = 0; y < 16; ++y) {
+				for (int z = 0; z < 16; ++z) {
+					if (!glass[(x * 16 + y) * 16 + z]) {
+						continue;
+					}
+					for (int f = 0; f < 6; ++f) {
+						int dx = f == 0 ? -1 : (f == 1 ? 1 : 0);
+						int dy = f == 2 ? -1 : (f == 3 ? 1 : 0);
+						int dz = f == 4 ? -1 : (f == 5 ? 1 : 0);
+						int nx = x + dx, ny = y + dy, nz = z + dz;
+						if (nx >= 0 && nx < 16 && ny >= 0 && ny < 16 && nz >= 0 && nz < 16
+								&& glass[(nx * 16 + ny) * 16 + nz]) {
+							continue;
+						}
+						face(wr, x, y, z, f);
+					}
+				}
+			}
+		}
+		wr.finishDrawing();
+	}
+
+	private static void face(WorldRenderer wr, int x, int y, int z, int f) {
+		int axis = f >> 1;
+		double o = (f & 1) == 0 ? 0.0D : 1.0D;
+		for (int v = 0; v < 4; ++v) {
+			double a = (v == 1 || v == 2) ? 1.0D : 0.0D;
+			double b = v >= 2 ? 1.0D : 0.0D;
+			double px = axis == 0 ? o : a;
+			double py = axis == 1 ? o : (axis == 0 ? a : b);
+			double pz = axis == 2 ? o : b;
+			wr.pos(x + px, y + py, z + pz).color(255, 255, 255, 128).tex(a, b).lightmap(240, 240).endVertex();
+		}
+	}
+
+	/**
+	 * The CPU side of VertexArenaBuffer.uploadQuadOrder, returns false without
+	 * writing anything if the order didn't change
+	 */
+	private static boolean writeQuadOrder(int[] order, int[] current, int quadCount) {
+		int i = 0;
+		while (i < quadCount && order[i] == current[i]) {
+			++i;
+		}
+		if (i == quadCount) {
+			return false;
+		}
+		System.arraycopy(order, 0, current, 0, quadCount);
+		IntBuffer buf = EagRuntime.allocateIntBuffer(quadCount * 6);
+		for (i = 0; i < quadCount; ++i) {
+			int v1 = current[i] << 2;
+			buf.put(v1);
+			buf.put(v1 + 1);
+			buf.put(v1 + 3);
+			buf.put(v1 + 1);
+			buf.put(v1 + 2);
+			buf.put(v1 + 3);
+		}
+		buf.flip();
+		EagRuntime.freeIntBuffer(buf);
+		return true;
+	}
+
+	/**
+	 * WorldRenderer.func_181674_a before the radix sort, working on views of
+	 * the renderer's buffer
+	 */
+	private static class LegacySort {
+
+		private final WorldRenderer wr;
+		private final IntBuffer intBuffer;
+		private final FloatBuffer floatBuffer;
+		private float[] sortArrayCacheA = null;
+		private int[] sortArrayCacheB = null;
+		private final BitSet sortBitSetCache = new BitSet();
+
+		private LegacySort(WorldRenderer wr) {
+			this.wr = wr;
+			this.intBuffer = wr.getByteBuffer().asIntBuffer();
+			this.floatBuffer = wr.getByteBuffer().asFloatBuffer();
+		}
+
+		private void sort(float parFloat1, float parFloat2, float parFloat3) {
+			int i = wr.getVertexCount() / 4;
+			int stride = wr.getVertexFormat().attribStride;
+			float[] afloat = sortArrayCacheA;
+			if (afloat == null || afloat.length < i) {
+				afloat = sortArrayCacheA = new float[i];
+			}
+			for (int j = 0; j < i; ++j) {
+				afloat[j] = distance(floatBuffer, parFloat1, parFloat2, parFloat3, stride >> 2, j * stride);
+			}
+			int[] ainteger = sortArrayCacheB;
+			if (ainteger == null || ainteger.length < i) {
+				ainteger = sortArrayCacheB = new int[i];
+			}
+			for (int k = 0; k < i; ++k) {
+				ainteger[k] = k;
+			}
+			final float[] dist = afloat;
+			final int[] idx = ainteger;
+			QuickSort.sort(0, i, (a, b) -> Float.compare(dist[idx[b]], dist[idx[a]]), (a, b) -> {
+				int swap = idx[a];
+				idx[a] = idx[b];
+				idx[b] = swap;
+				return 0;
+			});
+
+			BitSet bitset = sortBitSetCache;
+			bitset.clear();
+			int l = stride;
+			int[] aint = new int[l];
+			intBuffer.clear();
+			for (int l1 = 0; (l1 = bitset.nextClearBit(l1)) < i; ++l1) {
+				int i1 = ainteger[l1];
+				if (i1 != l1) {
+					this.intBuffer.limit(i1 * l + l);
+					this.intBuffer.position(i1 * l);
+					this.intBuffer.get(aint);
+					int j1 = i1;
+					for (int k1 = ainteger[i1]; j1 != l1; k1 = ainteger[k1]) {
+						this.intBuffer.limit(k1 * l + l);
+						this.intBuffer.position(k1 * l);
+						IntBuffer intbuffer = this.intBuffer.duplicate();
+						this.intBuffer.limit(j1 * l + l);
+						this.intBuffer.position(j1 * l);
+						this.intBuffer.put(intbuffer);
+						bitset.set(j1);
+						j1 = k1;
+					}
+					this.intBuffer.limit(l1 * l + l);
+					this.intBuffer.position(l1 * l);
+					this.intBuffer.put(aint);
+				}
+				bitset.set(l1);
+				this.intBuffer.clear();
+			}
+		}
+
+		private static float distance(FloatBuffer buf, float x, float y, float z, int stride, int base) {
+			float cx = 0.0f, cy = 0.0f, cz = 0.0f;
+			for (int v = 0; v < 4; ++v) {
+				cx += buf.get(base + stride * v);
+				cy += buf.get(base + stride * v + 1);
+				cz += buf.get(base + stride * v + 2);
+			}
+			cx = cx * 0.25F - x;
+			cy = cy * 0.25F - y;
+			cz = cz * 0.25F - z;
+			return cx * cx + cy * cy + cz * cz;
+		}
+
+	}
+
+}
\ No newline at end of file
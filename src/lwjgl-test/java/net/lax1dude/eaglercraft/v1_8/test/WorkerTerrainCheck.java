@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.gen.ChunkProviderGenerate;
+
+/**
+ * Determinism check for ChunkProviderServer.prefetchChunks, generates the
+ * same chunks once serially with provideChunk, the way the tick thread does
+ * without a generator pool, and once with worker copies running
+ * generateTerrain on a thread pool in shuffled order followed by createChunk,
+ * the way prefetched chunks are built. Every chunk's blocks, biomes, height
+ * map and sky light have to hash the same.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 on any
+ * difference:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.WorkerTerrainCheck [seed] [threads]
+ */
+public class WorkerTerrainCheck {
+
+	private static final int[][] AREAS = new int[][] { { -6, -6 }, { 60, -200 }, { -1900, 1200 } };
+	private static final int AREA_SIZE = 12;
+
+	public static void main(String[] args) throws Exception {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 8675309l;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		Bootstrap.register();
+
+		List<long[]> positions = new ArrayList<>();
+		for (int[] area : AREAS) {
+			for (int x = 0; x < AREA_SIZE; ++x) {
+				for (int z = 0; z < AREA_SIZE; ++z) {
+					positions.add(new long[] { area[0] + x, area[1] + z });
+				}
+			}
+		}
+		int n = positions.size();
+
+		HeadlessWorld serialWorld = new HeadlessWorld("WorkerTerrainCheck", seed, WorldType.DEFAULT);
+		ChunkProviderGenerate serial = (ChunkProviderGenerate) serialWorld.provider.createChunkGenerator();
+		long[] expected = new long[n];
+		long start = System.nanoTime();
+		for (int i = 0; i < n; ++i) {
+			long[] pos = positions.get(i);
+			expected[i] = hashChunk(serial.provideChunk((int) pos[0], (int) pos[1]));
+		}
+		long serialMs = (System.nanoTime() - start) / 1000000l;
+
+		HeadlessWorld workerWorld = new HeadlessWorld("WorkerTerrainCheck", seed, WorldType.DEFAULT);
+		ChunkProviderGenerate main = (ChunkProviderGenerate) workerWorld.provider.createChunkGenerator();
+		BlockingQueue<ChunkProviderGenerate> generators = new ArrayBlockingQueue<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			ChunkProviderGenerate copy = main.createWorkerCopy();
+			if (copy == null) {
+				System.out.println("FAIL createWorkerCopy returned null for a default world");
+				System.exit(1);
+				return;
+			}
+			generators.add(copy);
+		}
+		List<Integer> order = new ArrayList<>(n);
+		for (int i = 0; i < n; ++i) {
+			order.add(i);
+		}
+		Collections.shuffle(order, new Random(seed));
+		ChunkPrimer[] primers = new ChunkPrimer[n];
+		byte[][] biomes = new byte[n][];
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		start = System.nanoTime();
+		List<Future<?>> futures = new ArrayList<>(n);
+		for (final int i : order) {
+			final long[] pos = positions.get(i);
+			futures.add(pool.submit(() -> {
+				ChunkProviderGenerate gen = generators.take();
+				try {
+					ChunkPrimer primer = new ChunkPrimer();
+					byte[] biomeIds = new byte[256];
+					gen.generateTerrain((int) pos[0], (int) pos[1], primer, biomeIds);
+					primers[i] = primer;
+					biomes[i] = biomeIds;
+				} finally {
+					generators.add(gen);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		pool.shutdown();
+		int failures = 0;
+		for (int i : order) {
+			long[] pos = positions.get(i);
+			Chunk chunk = main.createChunk((int) pos[0], (int) pos[1], primers[i], biomes[i]);
+			long hash = hashChunk(chunk);
+			if (hash != expected[i]) {
+				if (failures++ < 10) {
+					System.out.println("FAIL chunk " + pos[0] + ", " + pos[1] + " differs from serial generation");
+				}
+			}
+		}
+		long workerMs = (System.nanoTime() - start) / 1000000l;
+
+		System.out.println(n + " chunks, seed " + seed + ": serial " + serialMs + "ms, " + threads + " workers "
+				+ workerMs + "ms");
+		if (failures > 0) {
+			System.out.println(failures + " of " + n + " chunks differ");
+			System.exit(1);
+		} else {
+			System.out.println("All chunks match");
+		}
+	}
+
+	private static long hashChunk(Chunk chunk) {
+		long h = 0xcbf29ce484222325l;
+		ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+		for (int i = 0; i < sections.length; ++i) {
+			ExtendedBlockStorage section = sections[i];
+			if (section == null) {
+				h = mix(h, -1);
+				continue;
+			}
+			char[] data = section.getData();
+			for (int j = 0; j < data.length; ++j) {
+				h = mix(h, data[j]);
+			}
+			if (section.getSkylightArray() != null) {
+				byte[] sky = section.getSkylightArray().getData();
+				for (int j = 0; j < sky.length; ++j) {
+					h = mix(h, sky[j]);
+				}
+			}
+		}
+		byte[] biomeArray = chunk.getBiomeArray();
+		for (int i = 0; i < biomeArray.length; ++i) {
+			h = mix(h, biomeArray[i]);
+		}
+		int[] heightMap = chunk.getHeightMap();
+		for (int i = 0; i < heightMap.length; ++i) {
+			h = mix(h, heightMap[i]);
+		}
+		return h;
+	}
+
+	private static long mix(long h, int v) {
+		return (h ^ v) * 0x100000001b3l;
+	}
+
+}
\ No newline at end of file
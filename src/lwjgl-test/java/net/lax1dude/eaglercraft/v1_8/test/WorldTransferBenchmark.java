@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
+import net.lax1dude.eaglercraft.v1_8.sp.internal.ClientPlatformSingleplayer;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket09RequestResponse;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket1DWorldDataChunk;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket1EWorldDataAck;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacketBase;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacketManager;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerChunkLoader;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
+import net.lax1dude.eaglercraft.v1_8.sp.server.WorldsDB;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterEPK;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterMCA;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldDataInputStream;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldDataOutputStream;
+import net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl.MemoryConnection;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.storage.ISaveHandler;
+
+/**
+ * Benchmark for streaming world exports and imports between the integrated
+ * server and the client in IPCPacket1DWorldDataChunk pieces, saves a square
+ * of generated terrain as a world and exports it as EPK and as MCA through
+ * WorldDataOutputStream, then imports each archive again through
+ * WorldDataInputStream with a client thread that keeps a few pieces in
+ * flight like SingleplayerServerController does. Reports the largest IPC
+ * message next to the archive size, which is what the whole world used to be
+ * sent as, and for imports the largest store write and how far into the
+ * archive each region was written. Every chunk of the imported worlds is
+ * loaded again to check nothing was lost. The worlds database is a
+ * DebugFilesystem in a temporary directory unless another directory or - for
+ * a ramdisk is given.
+ * 
+ * Run with the desktop runtime's classpath, exits with status 1 if a chunk
+ * is missing:
+ * java -cp ... net.lax1dude.eaglercraft.v1_8.test.WorldTransferBenchmark [radius] [directory|-]
+ */
+public class WorldTransferBenchmark {
+
+	private static final int MAX_CHUNKS_IN_FLIGHT = 4;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int radius = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		String directory = args.length > 1 ? args[1] : null;
+		boolean tempDirectory = directory == null;
+		if (tempDirectory) {
+			directory = Files.createTempDirectory("WorldTransferBenchmark").toString();
+		}
+		Bootstrap.register();
+
+		CountingFilesystem fs = CountingFilesystem.create("WorldTransferBenchmark", directory);
+		fs.install();
+
+		HeadlessServer server = new HeadlessServer("WorldTransferBenchmark", 1l, WorldType.DEFAULT);
+		WorldServer world = server.world;
+		ISaveHandler save = EaglerIntegratedServerWorker.saveFormat.getSaveLoader("WorldTransferBenchmark", false);
+		save.saveWorldInfo(world.getWorldInfo());
+		EaglerChunkLoader loader = (EaglerChunkLoader) save.getChunkLoader(world.provider);
+		int side = radius * 2 + 1;
+		Chunk[] chunks = new Chunk[side * side];
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				Chunk chunk = world.theChunkProviderServer.loadChunk(x, z);
+				chunks[(x + radius) * side + z + radius] = chunk;
+				loader.saveChunk(world, chunk);
+			}
+		}
+		loader.saveExtraData();
+		System.out.println("Saved " + chunks.length + " chunks: " + fs.stats());
+
+		boolean ok = true;
+		byte[] epk = export("EPK", fs, (os) -> WorldConverterEPK.exportWorld("WorldTransferBenchmark", os));
+		byte[] mca = export("MCA", fs, (os) -> WorldConverterMCA.exportWorld("WorldTransferBenchmark", os));
+		ok &= importArchive("EPK", epk, fs, world, chunks,
+				() -> WorldConverterEPK.importWorld(new WorldDataInputStream(epk.length, null), "ImportedEPK"), "ImportedEPK");
+		ok &= importArchive("MCA", mca, fs, world, chunks,
+				() -> WorldConverterMCA.importWorld(new WorldDataInputStream(mca.length, null), "ImportedMCA", (byte) 0), "ImportedMCA");
+
+		if (tempDirectory) {
+			fs.delegate.eaglerIterate("", (path) -> fs.delegate.eaglerDelete(path), true);
+		}
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs an export like the worker does and puts the archive back together
+	 * from the IPC messages it sent to the client
+	 */
+	private static byte[] export(String name, CountingFilesystem fs, ExportTask task) throws IOException {
+		MemoryConnection.serverToClientQueue.clear();
+		fs.reset();
+		long start = System.nanoTime();
+		WorldDataOutputStream os = new WorldDataOutputStream();
+		task.run(os);
+		os.finish();
+		long time = System.nanoTime() - start;
+
+		IPCPacketManager packetManager = new IPCPacketManager();
+		EaglerOutputStream archive = new EaglerOutputStream();
+		int messages = 0;
+		int largest = 0;
+		IPCPacketData pkt;
+		while ((pkt = MemoryConnection.serverToClientQueue.poll()) != null) {
+			++messages;
+			largest = Math.max(largest, pkt.contents.length);
+			IPCPacketBase ipc = packetManager.IPCDeserialize(pkt.contents);
+			if (ipc instanceof IPCPacket1DWorldDataChunk) {
+				IPCPacket1DWorldDataChunk chunk = (IPCPacket1DWorldDataChunk) ipc;
+				archive.write(chunk.data);
+			} else if (ipc instanceof IPCPacket09RequestResponse) {
+				archive.write(((IPCPacket09RequestResponse) ipc).response);
+			}
+		}
+		byte[] ret = archive.toByteArray();
+		System.out.println(name + " export: " + (ret.length / 1024) + "KB archive in "
+				+ String.format("%.1f", time / 1000000.0D) + "ms, " + messages + " IPC messages, largest "
+				+ (largest / 1024) + "KB, " + fs.stats());
+		return ret;
+	}
+
+	/**
+	 * Runs an import while a client thread sends the archive in pieces, keeping
+	 * at most MAX_CHUNKS_IN_FLIGHT that the worker hasn't acknowledged yet, then
+	 * loads every chunk of the imported world
+	 */
+	private static boolean importArchive(String name, byte[] archive, CountingFilesystem fs, WorldServer world,
+			Chunk[] chunks, IOTask task, String folderName) throws IOException, InterruptedException {
+		MemoryConnection.serverToClientQueue.clear();
+		MemoryConnection.clientToServerQueue.clear();
+		fs.reset();
+		final int[] acked = new int[1];
+		final int[] maxInFlight = new int[1];
+		List<Integer> regionWrites = new ArrayList<>();
+		fs.writeListener = (path) -> {
+			if (EaglerChunkLoader.isRegionFileName(VFile2.getNameFromPath(path))) {
+				regionWrites.add((int) (acked[0] * 100l / archive.length));
+			}
+		};
+
+		Thread client = new Thread(() -> {
+			IPCPacketManager packetManager = new IPCPacketManager();
+			int sent = 0;
+			try {
+				while (sent < archive.length) {
+					while (sent < archive.length
+							&& sent - acked[0] < MAX_CHUNKS_IN_FLIGHT * IPCPacket1DWorldDataChunk.CHUNK_SIZE) {
+						int len = Math.min(archive.length - sent, IPCPacket1DWorldDataChunk.CHUNK_SIZE);
+						ClientPlatformSingleplayer.sendPacket(new IPCPacketData(SingleplayerServerController.IPC_CHANNEL,
+								packetManager.IPCSerialize(new IPCPacket1DWorldDataChunk(sent,
+										Arrays.copyOfRange(archive, sent, sent + len)))));
+						sent += len;
+						maxInFlight[0] = Math.max(maxInFlight[0], sent - acked[0]);
+					}
+					IPCPacketData pkt = MemoryConnection.serverToClientQueue.poll();
+					if (pkt == null) {
+						Thread.sleep(1l);
+						continue;
+					}
+					IPCPacketBase ipc = packetManager.IPCDeserialize(pkt.contents);
+					if (ipc instanceof IPCPacket1EWorldDataAck) {
+						acked[0] = Math.max(acked[0], ((IPCPacket1EWorldDataAck) ipc).offset);
+					}
+				}
+			} catch (IOException | InterruptedException ex) {
+				throw new RuntimeException(ex);
+			}
+		}, "WorldTransferBenchmark client");
+		client.start();
+
+		long start = System.nanoTime();
+		task.run();
+		long time = System.nanoTime() - start;
+		client.join();
+		fs.writeListener = null;
+		String stats = fs.stats();
+		int largestWrite = fs.largestWrite;
+
+		EaglerChunkLoader reader = new EaglerChunkLoader(WorldsDB.newVFile(
+				EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory(), "level0"));
+		int missing = 0;
+		for (int i = 0; i < chunks.length; ++i) {
+			if (reader.loadChunk(world, chunks[i].xPosition, chunks[i].zPosition) == null) {
+				++missing;
+			}
+		}
+
+		System.out.println(name + " import: " + (archive.length / 1024) + "KB archive in "
+				+ String.format("%.1f", time / 1000000.0D) + "ms, at most " + (maxInFlight[0] / 1024)
+				+ "KB in flight, largest store write " + (largestWrite / 1024) + "KB, regions written at "
+				+ regionWrites + "% of the archive, " + stats);
+		if (missing > 0) {
+			System.out.println(name + " import: " + missing + " of " + chunks.length + " chunks are missing");
+			return false;
+		}
+		return true;
+	}
+
+	private interface ExportTask {
+		void run(WorldDataOutputStream os) throws IOException;
+	}
+
+	private interface IOTask {
+		void run() throws IOException;
+	}
+
+}
\ No newline at end of file
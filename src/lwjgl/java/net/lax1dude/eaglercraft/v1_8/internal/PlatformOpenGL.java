@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.lwjgl.opengles.GLESCapabilities;
+import org.lwjgl.system.MemoryUtil;
 
 public class PlatformOpenGL {
 
@@ -51,6 +52,7 @@ public class PlatformOpenGL {
 	private static boolean hasOESTextureHalfFloat = false;
 	private static boolean hasOESTextureHalfFloatLinear = false;
 	private static boolean hasEXTTextureFilterAnisotropic = false;
+	private static boolean hasProgramBinary = false;
 
 	private static boolean hasFBO16FSupport = false;
 	private static boolean hasFBO32FSupport = false;
@@ -93,6 +95,7 @@ public class PlatformOpenGL {
 		hasOESVertexArrayObject = glesVersIn == 200 && caps.GL_OES_vertex_array_object;
 		hasLinearHDR32FSupport = caps.GL_OES_texture_float_linear;
 		hasEXTTextureFilterAnisotropic = caps.GL_EXT_texture_filter_anisotropic;
+		hasProgramBinary = glesVersIn >= 300 && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
 		
 		hasFBO16FSupport = glesVersIn >= 320 || ((glesVersIn >= 300 || hasOESTextureFloat) && (hasEXTColorBufferFloat || hasEXTColorBufferHalfFloat));
 		hasFBO32FSupport = glesVersIn >= 320 || ((glesVersIn >= 300 || hasOESTextureHalfFloat) && hasEXTColorBufferFloat);
@@ -356,6 +359,11 @@ public class PlatformOpenGL {
 				data == null ? 0l : EaglerLWJGLAllocator.getAddress(data));
 	}
 
+	public static void _wglCopyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset,
+			int size) {
+		glCopyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+	}
+
 	public static void _wglBindVertexArray(IVertexArrayGL obj) {
 		int ptr = obj == null ? 0 : ((OpenGLObjects.VertexArrayGL) obj).ptr;
 		switch(vertexArrayImpl) {
@@ -541,6 +549,35 @@ public class PlatformOpenGL {
 		return glGetProgramInfoLog(((OpenGLObjects.ProgramGL) obj).ptr);
 	}
 
+	public static byte[] _wglGetProgramBinary(IProgramGL obj, int[] binaryFormat) {
+		int ptr = ((OpenGLObjects.ProgramGL) obj).ptr;
+		int len = glGetProgrami(ptr, GL_PROGRAM_BINARY_LENGTH);
+		if(len <= 0) {
+			return null;
+		}
+		java.nio.ByteBuffer buf = MemoryUtil.memAlloc(len);
+		try {
+			int[] lenOut = new int[1];
+			glGetProgramBinary(ptr, lenOut, binaryFormat, buf);
+			byte[] ret = new byte[lenOut[0]];
+			buf.get(ret);
+			return ret;
+		}finally {
+			MemoryUtil.memFree(buf);
+		}
+	}
+
+	public static void _wglProgramBinary(IProgramGL obj, int binaryFormat, byte[] data) {
+		java.nio.ByteBuffer buf = MemoryUtil.memAlloc(data.length);
+		try {
+			buf.put(data);
+			buf.flip();
+			glProgramBinary(((OpenGLObjects.ProgramGL) obj).ptr, binaryFormat, buf);
+		}finally {
+			MemoryUtil.memFree(buf);
+		}
+	}
+
 	public static void _wglBindAttribLocation(IProgramGL obj, int index, String name) {
 		glBindAttribLocation(((OpenGLObjects.ProgramGL) obj).ptr, index, name);
 	}
@@ -801,6 +838,10 @@ public class PlatformOpenGL {
 		return hasEXTTextureFilterAnisotropic;
 	}
 
+	public static boolean checkProgramBinaryCapable() {
+		return hasProgramBinary;
+	}
+
 	public static String[] getAllExtensions() {
 		return glGetString(GL_EXTENSIONS).split(" ");
 	}
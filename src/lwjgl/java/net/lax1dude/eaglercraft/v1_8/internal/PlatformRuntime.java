@@ -65,6 +65,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.IntBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.DesktopClientConfigAdapter;
+import net.lax1dude.eaglercraft.v1_8.internal.lwjgl.DesktopWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
@@ -680,4 +681,13 @@ public class PlatformRuntime {
 		return false;
 	}
 
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int maxThreads) {
+		int i = Math.min(maxThreads, Runtime.getRuntime().availableProcessors() - 2);
+		if(i < 1) {
+			return null;
+		}
+		logger.info("Starting worker pool \"{}\" with {} threads", name, i);
+		return new DesktopWorkerThreadPool(name, i);
+	}
+
 }
\ No newline at end of file
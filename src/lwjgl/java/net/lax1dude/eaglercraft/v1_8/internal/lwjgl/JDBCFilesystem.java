@@ -23,11 +23,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformRuntime;
 import net.lax1dude.eaglercraft.v1_8.internal.IEaglerFilesystem;
@@ -43,6 +49,15 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 
 	public static final Logger logger = LogManager.getLogger("JDBCFilesystem");
 
+	/**
+	 * Writes are queued and committed together in one transaction once this
+	 * many files or bytes are waiting, or once the oldest one has waited for
+	 * BATCH_MAX_DELAY milliseconds
+	 */
+	private static final int BATCH_MAX_FILES = 256;
+	private static final int BATCH_MAX_BYTES = 16 * 1024 * 1024;
+	private static final long BATCH_MAX_DELAY = 250l;
+
 	private boolean newFilesystem = true;
 
 	private static volatile boolean cleanupThreadStarted = false;
@@ -62,10 +77,53 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	private final PreparedStatement renameStatement;
 	private final PreparedStatement iterateNonRecursive;
 	private final PreparedStatement iterateRecursive;
-	private boolean hasClosed = false;
+	private volatile boolean hasClosed = false;
 
 	private final Object mutex = new Object();
 
+	private final Map<String, byte[]> pendingWrites = new LinkedHashMap<>();
+	/**
+	 * Set under the pendingWrites lock before the final flush in shutdown0, so
+	 * a write is either queued in time to be flushed or fails
+	 */
+	private boolean writesClosed = false;
+	private int pendingBytes = 0;
+	private long pendingSince = 0l;
+	private Thread flushThread = null;
+
+	private final List<ReadConnection> readConnections = new ArrayList<>();
+	private final BlockingQueue<ReadConnection> idleReadConnections;
+
+	/**
+	 * Extra connections only used for reads, so that loading files does not
+	 * have to wait for a batch of writes to be committed
+	 */
+	private static class ReadConnection {
+
+		private final Connection conn;
+		private final PreparedStatement readStatement;
+		private final PreparedStatement existsStatement;
+		private final PreparedStatement sizeStatement;
+
+		private ReadConnection(Connection conn) throws SQLException {
+			this.conn = conn;
+			this.readStatement = conn.prepareStatement("SELECT FileData FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+			this.existsStatement = conn.prepareStatement("SELECT COUNT(FileName) AS has_object FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+			this.sizeStatement = conn.prepareStatement("SELECT FileSize FROM eaglercraft_desktop_runtime_filesystem WHERE FileName = ? LIMIT 1");
+		}
+
+		private void close() {
+			quietClose(readStatement);
+			quietClose(existsStatement);
+			quietClose(sizeStatement);
+			try {
+				conn.close();
+			}catch(SQLException ex) {
+			}
+		}
+
+	}
+
 	public static IEaglerFilesystem initialize(String dbName, String jdbcUri, String jdbcDriver) {
 		Class<?> driver;
 		try {
@@ -94,19 +152,18 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 				}
 			}
 		}
+		// every connection to an in-memory database gets its own empty database
+		int readConnectionCount = Integer.getInteger("eagler.jdbc." + dbName + ".readConnections", jdbcUri.contains(":memory:") || jdbcUri.contains(":mem:") ? 0 : 2);
 		logger.info("Connecting to database: \"{}\"", jdbcUri);
 		Connection conn;
 		try {
-			if(driverObj != null) {
-				conn = driverObj.connect(jdbcUri, props);
-			}else {
-				conn = DriverManager.getConnection(jdbcUri, props);
-			}
+			conn = connect(driverObj, jdbcUri, props);
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("Failed to connect to database: \"" + jdbcUri + "\"", ex);
 		}
+		JDBCFilesystem fs;
 		try {
-			return new JDBCFilesystem(dbName, conn, jdbcUri, jdbcDriver);
+			fs = new JDBCFilesystem(dbName, conn, jdbcUri, jdbcDriver, readConnectionCount);
 		} catch (SQLException ex) {
 			try {
 				conn.close();
@@ -114,9 +171,27 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 			}
 			throw new EaglerFileSystemException("Failed to initialize database: \"" + jdbcUri + "\"", ex);
 		}
+		for(int i = 0; i < readConnectionCount; ++i) {
+			try {
+				fs.addReadConnection(connect(driverObj, jdbcUri, props));
+			}catch(SQLException ex) {
+				logger.warn("Could not open read connection #{} to database, reads will share the write connection", i + 1);
+				logger.warn(ex);
+				break;
+			}
+		}
+		return fs;
+	}
+
+	private static Connection connect(Driver driverObj, String jdbcUri, Properties props) throws SQLException {
+		if(driverObj != null) {
+			return driverObj.connect(jdbcUri, props);
+		}else {
+			return DriverManager.getConnection(jdbcUri, props);
+		}
 	}
 
-	private JDBCFilesystem(String dbName, Connection conn, String jdbcUri, String jdbcDriver) throws SQLException {
+	private JDBCFilesystem(String dbName, Connection conn, String jdbcUri, String jdbcDriver, int readConnectionCount) throws SQLException {
 		this.dbName = dbName;
 		this.conn = conn;
 		this.jdbcUri = jdbcUri;
@@ -149,12 +224,30 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		this.renameStatement = conn.prepareStatement("UPDATE eaglercraft_desktop_runtime_filesystem SET FileName = ? WHERE FileName = ?");
 		this.iterateNonRecursive = conn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ? AND NOT FileName LIKE ?");
 		this.iterateRecursive = conn.prepareStatement("SELECT FileName FROM eaglercraft_desktop_runtime_filesystem WHERE FileName LIKE ?");
+		this.idleReadConnections = new ArrayBlockingQueue<>(Math.max(readConnectionCount, 1));
 		startCleanupThread();
 		synchronized(jdbcFilesystems) {
 			jdbcFilesystems.add(this);
 		}
 	}
 
+	private void addReadConnection(Connection conn) throws SQLException {
+		ReadConnection readConn;
+		try {
+			readConn = new ReadConnection(conn);
+		}catch(SQLException ex) {
+			try {
+				conn.close();
+			}catch(SQLException ex2) {
+			}
+			throw ex;
+		}
+		synchronized(readConnections) {
+			readConnections.add(readConn);
+		}
+		idleReadConnections.add(readConn);
+	}
+
 	@Override
 	public String getFilesystemName() {
 		return dbName;
@@ -196,6 +289,15 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	private void shutdown0() {
 		synchronized(mutex) {
 			if(!hasClosed) {
+				synchronized(pendingWrites) {
+					writesClosed = true;
+				}
+				try {
+					flushWrites0();
+				}catch(Throwable t) {
+					logger.error("Failed to write queued files to database: \"{}\"", jdbcUri);
+					logger.error(t);
+				}
 				hasClosed = true;
 				logger.info("Disconnecting from database: \"{}\"", jdbcUri);
 				try {
@@ -209,6 +311,12 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	}
 
 	private void shutdown1() throws SQLException {
+		synchronized(readConnections) {
+			for(ReadConnection readConn : readConnections) {
+				readConn.close();
+			}
+			readConnections.clear();
+		}
 		if(!conn.isClosed()) {
 			quietClose(createStatement);
 			quietClose(updateStatement);
@@ -230,19 +338,188 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		}
 	}
 
+	private void checkOpen() throws SQLException {
+		if(hasClosed || conn.isClosed()) {
+			throw new SQLException("Filesystem database connection is closed!");
+		}
+	}
+
+	/**
+	 * Returns the contents of a file that is still waiting to be written, or null
+	 */
+	private byte[] getPendingWrite(String pathName) {
+		synchronized(pendingWrites) {
+			return pendingWrites.get(pathName);
+		}
+	}
+
+	private void flushWrites() {
+		try {
+			synchronized(mutex) {
+				if(hasClosed) {
+					// shutdown0 already flushed everything that was queued
+					return;
+				}
+				checkOpen();
+				flushWrites0();
+			}
+		}catch(SQLException ex) {
+			throw new EaglerFileSystemException("JDBC exception thrown while executing batch write!", ex);
+		}
+	}
+
+	/**
+	 * Commits every queued write in one transaction, must hold the mutex. The
+	 * files stay in pendingWrites until the commit is done so reads on the
+	 * other connections never see them missing
+	 */
+	private void flushWrites0() throws SQLException {
+		String[] names;
+		byte[][] datas;
+		synchronized(pendingWrites) {
+			int l = pendingWrites.size();
+			if(l == 0) {
+				return;
+			}
+			names = new String[l];
+			datas = new byte[l][];
+			int i = 0;
+			for(Entry<String, byte[]> etr : pendingWrites.entrySet()) {
+				names[i] = etr.getKey();
+				datas[i] = etr.getValue();
+				++i;
+			}
+		}
+		boolean autoCommit = conn.getAutoCommit();
+		if(autoCommit) {
+			conn.setAutoCommit(false);
+		}
+		try {
+			for(int i = 0; i < names.length; ++i) {
+				updateStatement.setInt(1, datas[i].length);
+				updateStatement.setBytes(2, datas[i]);
+				updateStatement.setString(3, names[i]);
+				updateStatement.addBatch();
+			}
+			int[] updated = updateStatement.executeBatch();
+			boolean hasInserts = false;
+			for(int i = 0; i < names.length; ++i) {
+				boolean exists;
+				if(i < updated.length && updated[i] != Statement.SUCCESS_NO_INFO) {
+					exists = updated[i] > 0;
+				}else {
+					existsStatement.setString(1, names[i]);
+					try(ResultSet resultSet = existsStatement.executeQuery()) {
+						exists = resultSet.next() && resultSet.getInt(1) > 0;
+					}
+				}
+				if(!exists) {
+					createStatement.setString(1, names[i]);
+					createStatement.setInt(2, datas[i].length);
+					createStatement.setBytes(3, datas[i]);
+					createStatement.addBatch();
+					hasInserts = true;
+				}
+			}
+			if(hasInserts) {
+				createStatement.executeBatch();
+			}
+			conn.commit();
+		}catch(SQLException ex) {
+			try {
+				updateStatement.clearBatch();
+				createStatement.clearBatch();
+				conn.rollback();
+			}catch(SQLException ex2) {
+			}
+			throw ex;
+		}finally {
+			if(autoCommit) {
+				conn.setAutoCommit(true);
+			}
+		}
+		synchronized(pendingWrites) {
+			for(int i = 0; i < names.length; ++i) {
+				if(pendingWrites.get(names[i]) == datas[i]) {
+					pendingWrites.remove(names[i]);
+					pendingBytes -= datas[i].length;
+				}
+			}
+			if(!pendingWrites.isEmpty()) {
+				pendingSince = System.nanoTime();
+			}
+		}
+	}
+
+	private void startFlushThread() {
+		if(flushThread == null) {
+			flushThread = new Thread(() -> {
+				while(!hasClosed) {
+					try {
+						Thread.sleep(BATCH_MAX_DELAY / 2);
+					}catch(InterruptedException ex) {
+						break;
+					}
+					boolean flush;
+					synchronized(pendingWrites) {
+						flush = !pendingWrites.isEmpty() && (System.nanoTime() - pendingSince) / 1000000l >= BATCH_MAX_DELAY;
+					}
+					if(flush) {
+						try {
+							synchronized(mutex) {
+								if(!hasClosed) {
+									flushWrites0();
+								}
+							}
+						}catch(Throwable t) {
+							logger.error("Failed to write queued files to database: \"{}\"", jdbcUri);
+							logger.error(t);
+						}
+					}
+				}
+			}, "JDBCFilesystemFlush");
+			flushThread.setDaemon(true);
+			flushThread.start();
+		}
+	}
+
+	private ReadConnection borrowReadConnection() {
+		if(readConnections.isEmpty()) {
+			return null;
+		}
+		try {
+			return idleReadConnections.take();
+		}catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private void returnReadConnection(ReadConnection readConn) {
+		if(readConn != null) {
+			idleReadConnections.add(readConn);
+		}
+	}
+
 	@Override
 	public boolean eaglerDelete(String pathName) {
 		try {
 			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
+				checkOpen();
+				boolean wasPending;
+				synchronized(pendingWrites) {
+					byte[] pending = pendingWrites.remove(pathName);
+					wasPending = pending != null;
+					if(wasPending) {
+						pendingBytes -= pending.length;
+					}
 				}
 				deleteStatement.setString(1, pathName);
 				int ret = deleteStatement.executeUpdate();
-				if(ret == 0) {
+				if(ret == 0 && !wasPending) {
 					PlatformFilesystem.logger.warn("Tried to delete file that doesn't exist: \"{}\"", pathName);
 				}
-				return ret > 0;
+				return ret > 0 || wasPending;
 			}
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("JDBC exception thrown while executing delete!", ex);
@@ -252,82 +529,92 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	@Override
 	public ByteBuffer eaglerRead(String pathName) {
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
-				}
-				readStatement.setString(1, pathName);
-				byte[] has = null;
-				try(ResultSet resultSet = readStatement.executeQuery()) {
-					if(resultSet.next()) {
-						has = resultSet.getBytes(1);
+			byte[] has = getPendingWrite(pathName);
+			if(has == null) {
+				ReadConnection readConn = borrowReadConnection();
+				if(readConn != null) {
+					try {
+						checkOpen();
+						has = readFile(readConn.readStatement, pathName);
+					}finally {
+						returnReadConnection(readConn);
+					}
+				}else {
+					synchronized(mutex) {
+						checkOpen();
+						has = readFile(readStatement, pathName);
 					}
 				}
-				if(has == null) {
-					PlatformFilesystem.logger.warn("Tried to read file that doesn't exist: \"{}\"", pathName);
-					return null;
-				}
-				ByteBuffer byteBuf = PlatformRuntime.allocateByteBuffer(has.length);
-				byteBuf.put(has);
-				byteBuf.flip();
-				return byteBuf;
 			}
+			if(has == null) {
+				PlatformFilesystem.logger.warn("Tried to read file that doesn't exist: \"{}\"", pathName);
+				return null;
+			}
+			ByteBuffer byteBuf = PlatformRuntime.allocateByteBuffer(has.length);
+			byteBuf.put(has);
+			byteBuf.flip();
+			return byteBuf;
 		}catch(SQLException ex) {
 			throw new EaglerFileSystemException("JDBC exception thrown while executing read!", ex);
 		}
 	}
 
+	private static byte[] readFile(PreparedStatement stmt, String pathName) throws SQLException {
+		stmt.setString(1, pathName);
+		try(ResultSet resultSet = stmt.executeQuery()) {
+			if(resultSet.next()) {
+				return resultSet.getBytes(1);
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public void eaglerWrite(String pathName, ByteBuffer data) {
-		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
-				}
-				existsStatement.setString(1, pathName);
-				boolean exists;
-				try(ResultSet resultSet = existsStatement.executeQuery()) {
-					if(resultSet.next()) {
-						exists = resultSet.getInt(1) > 0;
-					}else {
-						exists = false;
-					}
-				}
-				byte[] cp = new byte[data.remaining()];
-				data.get(cp);
-				if(exists) {
-					updateStatement.setInt(1, cp.length);
-					updateStatement.setBytes(2, cp);
-					updateStatement.setString(3, pathName);
-					if(updateStatement.executeUpdate() == 0) {
-						throw new EaglerFileSystemException("SQL file update query did not update any rows!");
-					}
-				}else {
-					createStatement.setString(1, pathName);
-					createStatement.setInt(2, cp.length);
-					createStatement.setBytes(3, cp);
-					createStatement.executeUpdate();
-				}
+		byte[] cp = new byte[data.remaining()];
+		data.get(cp);
+		boolean flush;
+		synchronized(pendingWrites) {
+			if(writesClosed) {
+				throw new EaglerFileSystemException("JDBC exception thrown while executing write!",
+						new SQLException("Filesystem database connection is closed!"));
+			}
+			if(pendingWrites.isEmpty()) {
+				pendingSince = System.nanoTime();
+			}
+			byte[] prev = pendingWrites.put(pathName, cp);
+			if(prev != null) {
+				pendingBytes -= prev.length;
+			}
+			pendingBytes += cp.length;
+			flush = pendingWrites.size() >= BATCH_MAX_FILES || pendingBytes >= BATCH_MAX_BYTES;
+			if(!flush) {
+				startFlushThread();
 			}
-		}catch(SQLException ex) {
-			throw new EaglerFileSystemException("JDBC exception thrown while executing write!", ex);
+		}
+		if(flush) {
+			flushWrites();
 		}
 	}
 
 	@Override
 	public boolean eaglerExists(String pathName) {
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
+			if(getPendingWrite(pathName) != null) {
+				return true;
+			}
+			ReadConnection readConn = borrowReadConnection();
+			if(readConn != null) {
+				try {
+					checkOpen();
+					return fileExists(readConn.existsStatement, pathName);
+				}finally {
+					returnReadConnection(readConn);
 				}
-				existsStatement.setString(1, pathName);
-				try(ResultSet resultSet = existsStatement.executeQuery()) {
-					if(resultSet.next()) {
-						return resultSet.getInt(1) > 0;
-					}else {
-						return false;
-					}
+			}else {
+				synchronized(mutex) {
+					checkOpen();
+					return fileExists(existsStatement, pathName);
 				}
 			}
 		}catch(SQLException ex) {
@@ -335,13 +622,23 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		}
 	}
 
+	private static boolean fileExists(PreparedStatement stmt, String pathName) throws SQLException {
+		stmt.setString(1, pathName);
+		try(ResultSet resultSet = stmt.executeQuery()) {
+			if(resultSet.next()) {
+				return resultSet.getInt(1) > 0;
+			}else {
+				return false;
+			}
+		}
+	}
+
 	@Override
 	public boolean eaglerMove(String pathNameOld, String pathNameNew) {
 		try {
 			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
-				}
+				checkOpen();
+				flushWrites0();
 				renameStatement.setString(1, pathNameNew);
 				renameStatement.setString(2, pathNameOld);
 				return renameStatement.executeUpdate() > 0;
@@ -355,9 +652,8 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	public int eaglerCopy(String pathNameOld, String pathNameNew) {
 		try {
 			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
-				}
+				checkOpen();
+				flushWrites0();
 				readStatement.setString(1, pathNameOld);
 				try(ResultSet resultSet = readStatement.executeQuery()) {
 					byte[] has = null;
@@ -400,17 +696,22 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 	@Override
 	public int eaglerSize(String pathName) {
 		try {
-			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
+			byte[] pending = getPendingWrite(pathName);
+			if(pending != null) {
+				return pending.length;
+			}
+			ReadConnection readConn = borrowReadConnection();
+			if(readConn != null) {
+				try {
+					checkOpen();
+					return fileSize(readConn.sizeStatement, pathName);
+				}finally {
+					returnReadConnection(readConn);
 				}
-				sizeStatement.setString(1, pathName);
-				try(ResultSet resultSet = sizeStatement.executeQuery()) {
-					if(resultSet.next()) {
-						return resultSet.getInt(1);
-					}else {
-						return -1;
-					}
+			}else {
+				synchronized(mutex) {
+					checkOpen();
+					return fileSize(sizeStatement, pathName);
 				}
 			}
 		}catch(SQLException ex) {
@@ -418,13 +719,23 @@ public class JDBCFilesystem implements IEaglerFilesystem {
 		}
 	}
 
+	private static int fileSize(PreparedStatement stmt, String pathName) throws SQLException {
+		stmt.setString(1, pathName);
+		try(ResultSet resultSet = stmt.executeQuery()) {
+			if(resultSet.next()) {
+				return resultSet.getInt(1);
+			}else {
+				return -1;
+			}
+		}
+	}
+
 	@Override
 	public void eaglerIterate(String pathName, VFSFilenameIterator itr, boolean recursive) {
 		try {
 			synchronized(mutex) {
-				if(hasClosed || conn.isClosed()) {
-					throw new SQLException("Filesystem database connection is closed!");
-				}
+				checkOpen();
+				flushWrites0();
 				PreparedStatement stmt;
 				if(recursive) {
 					stmt = iterateRecursive;
@@ -18,6 +18,7 @@ package net.lax1dude.eaglercraft.v1_8.sp.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
 import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformRuntime;
@@ -34,30 +35,27 @@ public class ClientPlatformSingleplayer {
 	}
 
 	public static void sendPacket(IPCPacketData packet) {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			MemoryConnection.clientToServerQueue.add(packet);
+		MemoryConnection.clientToServerQueue.add(packet);
+		Thread serverThread = MemoryConnection.serverThread;
+		if(serverThread != null) {
+			LockSupport.unpark(serverThread);
 		}
 	}
 
 	public static IPCPacketData recievePacket() {
-		synchronized(MemoryConnection.serverToClientQueue) {
-			if(MemoryConnection.serverToClientQueue.size() > 0) {
-				return MemoryConnection.serverToClientQueue.remove(0);
-			}
-		}
-		return null;
+		return MemoryConnection.serverToClientQueue.poll();
 	}
 
 	public static List<IPCPacketData> recieveAllPacket() {
-		synchronized(MemoryConnection.serverToClientQueue) {
-			if(MemoryConnection.serverToClientQueue.size() == 0) {
-				return null;
-			}else {
-				List<IPCPacketData> ret = new ArrayList<>(MemoryConnection.serverToClientQueue);
-				MemoryConnection.serverToClientQueue.clear();
-				return ret;
-			}
+		IPCPacketData pkt = MemoryConnection.serverToClientQueue.poll();
+		if(pkt == null) {
+			return null;
 		}
+		List<IPCPacketData> ret = new ArrayList<>();
+		do {
+			ret.add(pkt);
+		}while((pkt = MemoryConnection.serverToClientQueue.poll()) != null);
+		return ret;
 	}
 
 	public static boolean canKillWorker() {
@@ -18,6 +18,7 @@ package net.lax1dude.eaglercraft.v1_8.sp.server.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 import net.lax1dude.eaglercraft.v1_8.Filesystem;
@@ -33,6 +34,8 @@ public class ServerPlatformSingleplayer {
 
 	private static IEaglerFilesystem filesystem = null;
 
+	private static final boolean localPacketTransport = !Boolean.getBoolean("eagler.sp.disableLocalPacketTransport");
+
 	public static void initializeContext() {
 		if(filesystem == null) {
 			filesystem = Filesystem.getHandleFor(getClientConfigAdapter().getWorldsDB());
@@ -51,30 +54,23 @@ public class ServerPlatformSingleplayer {
 		if(PlatformWebRTC.serverLANPeerPassIPC(packet)) {
 			return;
 		}
-		synchronized(MemoryConnection.serverToClientQueue) {
-			MemoryConnection.serverToClientQueue.add(packet);
-		}
+		MemoryConnection.serverToClientQueue.add(packet);
 	}
 
 	public static IPCPacketData recievePacket() {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			if(MemoryConnection.clientToServerQueue.size() > 0) {
-				return MemoryConnection.clientToServerQueue.remove(0);
-			}
-		}
-		return null;
+		return MemoryConnection.clientToServerQueue.poll();
 	}
 
 	public static List<IPCPacketData> recieveAllPacket() {
-		synchronized(MemoryConnection.clientToServerQueue) {
-			if(MemoryConnection.clientToServerQueue.size() == 0) {
-				return null;
-			}else {
-				List<IPCPacketData> ret = new ArrayList<>(MemoryConnection.clientToServerQueue);
-				MemoryConnection.clientToServerQueue.clear();
-				return ret;
-			}
+		IPCPacketData pkt = MemoryConnection.clientToServerQueue.poll();
+		if(pkt == null) {
+			return null;
 		}
+		List<IPCPacketData> ret = new ArrayList<>();
+		do {
+			ret.add(pkt);
+		}while((pkt = MemoryConnection.clientToServerQueue.poll()) != null);
+		return ret;
 	}
 
 	public static IClientConfigAdapter getClientConfigAdapter() {
@@ -85,6 +81,17 @@ public class ServerPlatformSingleplayer {
 		
 	}
 
+	/**
+	 * Parks the server thread until the client sends a packet or the timeout
+	 * elapses, whichever comes first
+	 */
+	public static void waitForPackets(int millis) {
+		MemoryConnection.serverThread = Thread.currentThread();
+		if(MemoryConnection.clientToServerQueue.isEmpty()) {
+			LockSupport.parkNanos(millis * 1000000l);
+		}
+	}
+
 	public static void platformShutdown() {
 		filesystem = null;
 	}
@@ -93,6 +100,10 @@ public class ServerPlatformSingleplayer {
 		return false;
 	}
 
+	public static boolean isLocalPacketTransportSupported() {
+		return localPacketTransport;
+	}
+
 	public static void setCrashCallbackWASM(IWASMCrashCallback callback) {
 		
 	}
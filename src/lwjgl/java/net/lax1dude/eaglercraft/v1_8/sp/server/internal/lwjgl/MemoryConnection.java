@@ -16,14 +16,19 @@
 
 package net.lax1dude.eaglercraft.v1_8.sp.server.internal.lwjgl;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
 
 public class MemoryConnection {
 
-	public static final List<IPCPacketData> clientToServerQueue = new LinkedList<>();
-	public static final List<IPCPacketData> serverToClientQueue = new LinkedList<>();
+	public static final Queue<IPCPacketData> clientToServerQueue = new ConcurrentLinkedQueue<>();
+	public static final Queue<IPCPacketData> serverToClientQueue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Unparked when a packet is added to clientToServerQueue
+	 */
+	public static volatile Thread serverThread = null;
 
 }
\ No newline at end of file
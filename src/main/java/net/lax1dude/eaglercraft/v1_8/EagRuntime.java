@@ -35,6 +35,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformOS;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformType;
 import net.lax1dude.eaglercraft.v1_8.internal.FileChooserResult;
 import net.lax1dude.eaglercraft.v1_8.internal.IClientConfigAdapter;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformApplication;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformAssets;
 import net.lax1dude.eaglercraft.v1_8.internal.PlatformRuntime;
@@ -380,4 +381,11 @@ public class EagRuntime {
 		return PlatformRuntime.immediateContinueSupported();
 	}
 
+	/**
+	 * Returns null if the runtime has no threads to spare
+	 */
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int maxThreads) {
+		return PlatformRuntime.createWorkerThreadPool(name, maxThreads);
+	}
+
 }
\ No newline at end of file
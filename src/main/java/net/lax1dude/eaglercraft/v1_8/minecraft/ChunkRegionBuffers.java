@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+import net.lax1dude.eaglercraft.v1_8.opengl.VertexArenaBuffer;
+import net.lax1dude.eaglercraft.v1_8.opengl.VertexFormat;
+import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
+import net.minecraft.client.renderer.chunk.ListedRenderChunk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+
+/**
+ * Packs the geometry of every render chunk in a 128x128x128 block region into
+ * one vertex buffer per layer, so a whole region can usually be drawn with a
+ * handful of draw calls instead of one per chunk.
+ * 
+ * Chunk vertices are stored relative to the region origin instead of the chunk
+ * origin when this is in use, see RenderChunk.preRenderBlocks
+ */
+public class ChunkRegionBuffers {
+
+	public static final int REGION_SHIFT = 7;
+	public static final int REGION_MASK = -(1 << REGION_SHIFT);
+
+	/**
+	 * 4096 quads is about 450KB with the default block format
+	 */
+	private static final int INITIAL_QUADS = 4096;
+
+	public static class RegionLayer extends VertexArenaBuffer {
+
+		public final int originX;
+		public final int originY;
+		public final int originZ;
+		public final EnumWorldBlockLayer layer;
+		private final ChunkRegionBuffers owner;
+		private final Long key;
+
+		public int frameTag = -1;
+		public final List<VertexArenaBuffer.Allocation> drawList = new ArrayList<>();
+
+		private RegionLayer(ChunkRegionBuffers owner, Long key, int originX, int originY, int originZ,
+				EnumWorldBlockLayer layer, VertexFormat format) {
+			super(format.eaglercraftAttribBits, format.attribStride, INITIAL_QUADS,
+					layer == EnumWorldBlockLayer.TRANSLUCENT || layer == EnumWorldBlockLayer.REALISTIC_WATER);
+			this.owner = owner;
+			this.key = key;
+			this.originX = originX;
+			this.originY = originY;
+			this.originZ = originZ;
+			this.layer = layer;
+		}
+
+	}
+
+	private final Map<Long, RegionLayer[]> regions = new HashMap<>();
+
+	public static boolean isSupported() {
+		return VertexArenaBuffer.isSupported();
+	}
+
+	private static Long getRegionKey(int x, int y, int z) {
+		return Long.valueOf(((long) (x >> REGION_SHIFT) & 0x1FFFFFl) | (((long) (y >> REGION_SHIFT) & 0x1FFFFFl) << 21)
+				| (((long) (z >> REGION_SHIFT) & 0x1FFFFFl) << 42));
+	}
+
+	private RegionLayer getRegionLayer(BlockPos pos, EnumWorldBlockLayer layer, VertexFormat format) {
+		int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+		Long key = getRegionKey(x, y, z);
+		RegionLayer[] layers = regions.get(key);
+		if(layers == null) {
+			layers = new RegionLayer[EnumWorldBlockLayer._VALUES.length];
+			regions.put(key, layers);
+		}
+		RegionLayer ret = layers[layer.ordinal()];
+		if(ret == null || ret.getAttribs() != format.eaglercraftAttribBits) {
+			// if the format changed the old buffer is left for its chunks to release
+			ret = layers[layer.ordinal()] = new RegionLayer(this, key, x & REGION_MASK, y & REGION_MASK,
+					z & REGION_MASK, layer, format);
+		}
+		return ret;
+	}
+
+	public void uploadChunk(ListedRenderChunk chunk, EnumWorldBlockLayer layer, WorldRenderer worldRenderer) {
+		VertexArenaBuffer.Allocation alloc = chunk.getRegionAllocation(layer);
+		int cnt = worldRenderer.getVertexCount();
+		if(cnt == 0) {
+			if(alloc != null) {
+				release(alloc);
+				chunk.setRegionAllocation(layer, null);
+			}
+			worldRenderer.reset();
+			return;
+		}
+		if(worldRenderer.getDrawMode() != GL_QUADS) {
+			throw new IllegalStateException("Region buffers only support GL_QUADS, got: " + worldRenderer.getDrawMode());
+		}
+		VertexFormat fmt = worldRenderer.getVertexFormat();
+		RegionLayer region = getRegionLayer(chunk.getPosition(), layer, fmt);
+		if(alloc != null && alloc.getArena() != region) {
+			release(alloc);
+			alloc = null;
+		}
+		ByteBuffer buf = worldRenderer.getByteBuffer();
+		buf.position(0).limit(cnt * fmt.attribStride);
+		chunk.setRegionAllocation(layer, region.upload(alloc, buf, cnt));
+		worldRenderer.reset();
+	}
+
+	/**
+	 * Resorts a translucent layer that is already in its region by only
+	 * replacing its indices, the state must be the one that was uploaded.
+	 * Returns false if the layer has to be sorted and uploaded again instead
+	 */
+	public boolean resortChunk(ListedRenderChunk chunk, EnumWorldBlockLayer layer, WorldRenderer.State state,
+			WorldRenderer worldRenderer, float x, float y, float z) {
+		VertexArenaBuffer.Allocation alloc = chunk.getRegionAllocation(layer);
+		if(alloc == null || state == null) {
+			return false;
+		}
+		RegionLayer region = (RegionLayer) alloc.getArena();
+		int quads = state.getVertexCount() >> 2;
+		if(!region.isSortable() || region.getAttribs() != state.getVertexFormat().eaglercraftAttribBits
+				|| quads != alloc.getQuadCount()) {
+			return false;
+		}
+		int[] order = worldRenderer.sortQuadOrder(state, x - region.originX, y - region.originY, z - region.originZ);
+		region.uploadQuadOrder(alloc, order, quads);
+		return true;
+	}
+
+	public static void release(VertexArenaBuffer.Allocation alloc) {
+		RegionLayer region = (RegionLayer) alloc.getArena();
+		region.free(alloc);
+		if(region.isEmpty()) {
+			region.owner.destroyRegionLayer(region);
+		}
+	}
+
+	private void destroyRegionLayer(RegionLayer region) {
+		region.destroy();
+		RegionLayer[] layers = regions.get(region.key);
+		if(layers != null && layers[region.layer.ordinal()] == region) {
+			layers[region.layer.ordinal()] = null;
+			for(int i = 0; i < layers.length; ++i) {
+				if(layers[i] != null) {
+					return;
+				}
+			}
+			regions.remove(region.key);
+		}
+	}
+
+	public int getRegionCount() {
+		return regions.size();
+	}
+
+}
\ No newline at end of file
@@ -1,20 +1,28 @@
 package net.lax1dude.eaglercraft.v1_8.minecraft;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldRenderer;
 import net.lax1dude.eaglercraft.v1_8.opengl.WorldVertexBufferUploader;
+import net.lax1dude.eaglercraft.v1_8.opengl.ext.deferred.DeferredStateManager;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
 import net.minecraft.client.renderer.chunk.ChunkCompileTaskGenerator;
+import net.minecraft.client.renderer.chunk.ChunkRenderWorker;
 import net.minecraft.client.renderer.chunk.CompiledChunk;
 import net.minecraft.client.renderer.chunk.ListedRenderChunk;
 import net.minecraft.client.renderer.chunk.RenderChunk;
 import net.minecraft.entity.Entity;
+import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumWorldBlockLayer;
 
 public class ChunkUpdateManager {
@@ -22,6 +30,7 @@ public class ChunkUpdateManager {
 	private static final Logger LOGGER = LogManager.getLogger();
 
 	private final RegionRenderCacheBuilder renderCache;
+	private final ChunkRegionBuffers regionBuffers;
 
 	private int chunkUpdatesTotal = 0;
 	private int chunkUpdatesTotalLast = 0;
@@ -30,15 +39,76 @@ public class ChunkUpdateManager {
 	private int chunkUpdatesQueued = 0;
 	private int chunkUpdatesQueuedLast = 0;
 	private long chunkUpdatesTotalLastUpdate = 0l;
-	
-	private final List<ChunkCompileTaskGenerator> queue = new LinkedList<>();
+
+	private static final Comparator<ChunkCompileTaskGenerator> PRIORITY_ORDER = (a, b) -> {
+		return Float.compare(a.priority, b.priority);
+	};
+
+	/**
+	 * Rebuilds and resorts are queued separately so resorts can keep running on
+	 * the main thread while every worker is busy, both are ordered by distance
+	 * to the camera with chunks outside the frustum pushed back.
+	 * 
+	 * Cancelled tasks are not removed from the heaps, queuedTasks is what
+	 * decides if a task is still live and stale ones are skipped when polled.
+	 */
+	private PriorityQueue<ChunkCompileTaskGenerator> rebuildQueue = new PriorityQueue<>(256, PRIORITY_ORDER);
+	private PriorityQueue<ChunkCompileTaskGenerator> resortQueue = new PriorityQueue<>(64, PRIORITY_ORDER);
+	private final Map<RenderChunk, ChunkCompileTaskGenerator> queuedTasks = new IdentityHashMap<>();
+	private final List<ChunkCompileTaskGenerator> droppedUpdates = new ArrayList<>();
+
+	private double cameraX = 0.0;
+	private double cameraY = 0.0;
+	private double cameraZ = 0.0;
+	private double lastSortCameraX = 0.0;
+	private double lastSortCameraY = 0.0;
+	private double lastSortCameraZ = 0.0;
+	private long lastSortTime = 0l;
+	private int visibleFrameIndex = -1;
+	private boolean visibilityChanged = false;
+
+	/**
+	 * Only exists on runtimes with real threads, chunk rebuilds are compiled on
+	 * the pool and then uploaded back on the main thread in updateChunks
+	 */
+	private final IWorkerThreadPool workerPool;
+	private final List<ChunkRenderWorker> freeWorkers;
+	private final Object compileResultsLock = new Object();
+	private List<CompileResult> compileResults;
+	private List<CompileResult> compileResultsSwap;
+	private int workerCount = 0;
+	private int workerGeneration = 0;
+	private int workersBusy = 0;
 
 	public ChunkUpdateManager() {
 		renderCache = new RegionRenderCacheBuilder();
+		regionBuffers = ChunkRegionBuffers.isSupported() ? new ChunkRegionBuffers() : null;
+		workerPool = EagRuntime.createWorkerThreadPool("Chunk Batcher", 4);
+		if(workerPool != null) {
+			freeWorkers = new ArrayList<>(workerPool.getThreadCount());
+			compileResults = new ArrayList<>(workerPool.getThreadCount());
+			compileResultsSwap = new ArrayList<>(workerPool.getThreadCount());
+		}else {
+			freeWorkers = null;
+		}
 	}
 	
 	public static class EmptyBlockLayerException extends IllegalStateException {
 	}
+
+	private static class CompileResult {
+
+		private final ChunkRenderWorker worker;
+		private final ChunkCompileTaskGenerator generator;
+		private final Throwable error;
+
+		private CompileResult(ChunkRenderWorker worker, ChunkCompileTaskGenerator generator, Throwable error) {
+			this.worker = worker;
+			this.generator = generator;
+			this.error = error;
+		}
+
+	}
 	
 	private void runGenerator(ChunkCompileTaskGenerator generator, Entity entity) {
 		generator.setRegionRenderCacheBuilder(renderCache);
@@ -51,6 +121,15 @@ public class ChunkUpdateManager {
 			generator.getRenderChunk().rebuildChunk(f, f1, f2, generator);
 		} else if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY) {
 			RenderChunk r = generator.getRenderChunk();
+			if(generator.getCompiledChunk() != r.getCompiledChunk()) {
+				// chunk was rebuilt on a worker thread while this was queued
+				generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
+				return;
+			}
+			if(regionBuffers != null && resortRegionChunk((ListedRenderChunk) r, generator.getCompiledChunk(), f, f1, f2)) {
+				generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
+				return;
+			}
 			try {
 				r.resortTransparency(f, f1, f2, generator);
 				CompiledChunk ch = generator.getCompiledChunk();
@@ -75,9 +154,9 @@ public class ChunkUpdateManager {
 					this.uploadChunk(enumworldblocklayer,
 							generator.getRegionRenderCacheBuilder().getWorldRendererByLayer(enumworldblocklayer),
 							generator.getRenderChunk(), compiledchunk);
-					generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
 				}
 			}
+			generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
 		} else if (chunkcompiletaskgenerator$type == ChunkCompileTaskGenerator.Type.RESORT_TRANSPARENCY) {
 			if(!compiledchunk.isLayerEmpty(EnumWorldBlockLayer.TRANSLUCENT)) {
 				this.uploadChunk(EnumWorldBlockLayer.TRANSLUCENT, generator.getRegionRenderCacheBuilder()
@@ -92,19 +171,246 @@ public class ChunkUpdateManager {
 			generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
 		}
 	}
+
+	/**
+	 * Translucent layers in region buffers are resorted by uploading a new
+	 * index order, the vertices stay where they are
+	 */
+	private boolean resortRegionChunk(ListedRenderChunk chunk, CompiledChunk compiledChunk, float x, float y, float z) {
+		WorldRenderer wr = renderCache.getWorldRendererByLayer(EnumWorldBlockLayer.TRANSLUCENT);
+		boolean translucent = !compiledChunk.isLayerEmpty(EnumWorldBlockLayer.TRANSLUCENT);
+		boolean water = DeferredStateManager.isRenderingRealisticWater()
+				&& !compiledChunk.isLayerEmpty(EnumWorldBlockLayer.REALISTIC_WATER);
+		if(!translucent && !water) {
+			return false;
+		}
+		if(translucent && !regionBuffers.resortChunk(chunk, EnumWorldBlockLayer.TRANSLUCENT,
+				compiledChunk.getState(), wr, x, y, z)) {
+			return false;
+		}
+		if(water && !regionBuffers.resortChunk(chunk, EnumWorldBlockLayer.REALISTIC_WATER,
+				compiledChunk.getStateRealisticWater(), wr, x, y, z)) {
+			return false;
+		}
+		return true;
+	}
+
+	private void runGeneratorAsync(ChunkCompileTaskGenerator generator, Entity entity) {
+		final ChunkRenderWorker worker;
+		if(!freeWorkers.isEmpty()) {
+			worker = freeWorkers.remove(freeWorkers.size() - 1);
+		}else {
+			worker = new ChunkRenderWorker(this, workerGeneration);
+			++workerCount;
+		}
+		final float f = (float) entity.posX;
+		final float f1 = (float) entity.posY + entity.getEyeHeight();
+		final float f2 = (float) entity.posZ;
+		worker.prepareTask(generator);
+		++workersBusy;
+		workerPool.execute(() -> {
+			worker.processTask(generator, f, f1, f2);
+		});
+	}
+
+	/**
+	 * Called from the worker threads
+	 */
+	public void postCompileResult(ChunkRenderWorker worker, ChunkCompileTaskGenerator generator, Throwable error) {
+		synchronized(compileResultsLock) {
+			compileResults.add(new CompileResult(worker, generator, error));
+		}
+	}
+
+	private boolean uploadCompileResults() {
+		List<CompileResult> lst;
+		synchronized(compileResultsLock) {
+			if(compileResults.isEmpty()) {
+				return false;
+			}
+			lst = compileResults;
+			compileResults = compileResultsSwap;
+			compileResultsSwap = lst;
+		}
+		boolean flag = false;
+		try {
+			for(int i = 0, l = lst.size(); i < l; ++i) {
+				CompileResult res = lst.get(i);
+				if(res.worker.getGeneration() == workerGeneration) {
+					--workersBusy;
+					freeWorkers.add(res.worker);
+				}
+				if(res.error != null) {
+					if(res.error instanceof RuntimeException) {
+						throw (RuntimeException)res.error;
+					}else if(res.error instanceof Error) {
+						throw (Error)res.error;
+					}else {
+						throw new RuntimeException("Could not compile chunk", res.error);
+					}
+				}
+				flag |= uploadCompileResult(res);
+			}
+		}finally {
+			lst.clear();
+		}
+		return flag;
+	}
+
+	private boolean uploadCompileResult(CompileResult res) {
+		ChunkCompileTaskGenerator generator = res.generator;
+		RenderChunk renderChunk = generator.getRenderChunk();
+		CompiledChunk compiledchunk = generator.getCompiledChunk();
+		BlockPos pos = generator.getRegionRenderCache().getRenderChunkPosition();
+		if(res.worker.getGeneration() != workerGeneration || generator.isFinished()
+				|| generator.getStatus() != ChunkCompileTaskGenerator.Status.UPLOADING
+				|| !pos.equals(renderChunk.getPosition())) {
+			if(compiledchunk != null && compiledchunk != renderChunk.getCompiledChunk()) {
+				compiledchunk.setState(null);
+				compiledchunk.setStateRealisticWater(null);
+			}
+			if(!generator.isFinished()) {
+				generator.finish();
+			}
+			return false;
+		}
+		renderChunk.setCompiledChunk(compiledchunk);
+		renderChunk.flushEmptyLayers(compiledchunk);
+		if(generator.getGlobalTileEntities() != null) {
+			renderChunk.updateGlobalTileEntities(generator.getGlobalTileEntities());
+		}
+		EnumWorldBlockLayer[] en = EnumWorldBlockLayer._VALUES;
+		for (int i = 0; i < en.length; ++i) {
+			EnumWorldBlockLayer enumworldblocklayer = en[i];
+			if (!compiledchunk.isLayerEmpty(enumworldblocklayer)) {
+				this.uploadChunk(enumworldblocklayer,
+						generator.getRegionRenderCacheBuilder().getWorldRendererByLayer(enumworldblocklayer),
+						renderChunk, compiledchunk);
+			}
+		}
+		generator.setStatus(ChunkCompileTaskGenerator.Status.DONE);
+		++chunkUpdatesTotal;
+		return true;
+	}
 	
+	/**
+	 * Called by RenderGlobal whenever it recomputes the set of visible chunks,
+	 * chunks are visible if their frame index matches
+	 */
+	public void setVisibleFrameIndex(int frameIndex) {
+		if(visibleFrameIndex != frameIndex) {
+			visibleFrameIndex = frameIndex;
+			visibilityChanged = true;
+		}
+	}
+
+	private void updateCameraPosition(Entity entity) {
+		cameraX = entity.posX;
+		cameraY = entity.posY + entity.getEyeHeight();
+		cameraZ = entity.posZ;
+	}
+
+	private float computePriority(RenderChunk chunk) {
+		BlockPos pos = chunk.getPosition();
+		double dx = pos.getX() + 8.0 - cameraX;
+		double dy = pos.getY() + 8.0 - cameraY;
+		double dz = pos.getZ() + 8.0 - cameraZ;
+		float ret = (float)(dx * dx + dy * dy + dz * dz);
+		if(chunk.getFrameIndex() != visibleFrameIndex) {
+			// treat chunks outside of the frustum as if they were twice as far
+			ret *= 4.0f;
+		}
+		return ret;
+	}
+
+	private void enqueue(ChunkCompileTaskGenerator generator) {
+		generator.priority = computePriority(generator.getRenderChunk());
+		if(generator.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
+			rebuildQueue.add(generator);
+		}else {
+			resortQueue.add(generator);
+		}
+	}
+
+	private boolean isStale(ChunkCompileTaskGenerator generator) {
+		return generator.isFinished() || queuedTasks.get(generator.getRenderChunk()) != generator;
+	}
+
+	/**
+	 * Re-sorts both queues if the camera moved a few blocks or the visible set
+	 * changed, this also throws away any stale entries
+	 */
+	private void reprioritize(long millis) {
+		double dx = cameraX - lastSortCameraX;
+		double dy = cameraY - lastSortCameraY;
+		double dz = cameraZ - lastSortCameraZ;
+		if(dx * dx + dy * dy + dz * dz < 16.0 && (!visibilityChanged || millis - lastSortTime < 250l)) {
+			return;
+		}
+		lastSortCameraX = cameraX;
+		lastSortCameraY = cameraY;
+		lastSortCameraZ = cameraZ;
+		lastSortTime = millis;
+		visibilityChanged = false;
+		rebuildQueue = reprioritize(rebuildQueue);
+		resortQueue = reprioritize(resortQueue);
+	}
+
+	private PriorityQueue<ChunkCompileTaskGenerator> reprioritize(PriorityQueue<ChunkCompileTaskGenerator> queue) {
+		if(queue.isEmpty()) {
+			return queue;
+		}
+		PriorityQueue<ChunkCompileTaskGenerator> ret = new PriorityQueue<>(Math.max(queue.size(), 64), PRIORITY_ORDER);
+		for(ChunkCompileTaskGenerator generator : queue) {
+			if(!isStale(generator)) {
+				generator.priority = computePriority(generator.getRenderChunk());
+				ret.add(generator);
+			}
+		}
+		return ret;
+	}
+
+	private ChunkCompileTaskGenerator pollLive(PriorityQueue<ChunkCompileTaskGenerator> queue) {
+		ChunkCompileTaskGenerator ret;
+		while((ret = queue.peek()) != null && isStale(ret)) {
+			queue.poll();
+		}
+		return ret;
+	}
+
 	public boolean updateChunks(long timeout) {
-		Entity entity = Minecraft.getMinecraft().getRenderViewEntity();
+		Minecraft mc = Minecraft.getMinecraft();
+		Entity entity = mc.getRenderViewEntity();
 		if (entity == null) {
-			queue.clear();
-			chunkUpdatesQueued = 0;
+			clearQueue();
 			return false;
 		}else {
 			boolean flag = false;
+			int budget = mc.gameSettings.chunkUpdateBudgetNanos;
+			if(budget > 0) {
+				timeout = EagRuntime.nanoTime() + budget;
+			}
+			if(workerPool != null) {
+				flag = uploadCompileResults();
+			}
 			long millis = EagRuntime.steadyTimeMillis();
-			List<ChunkCompileTaskGenerator> droppedUpdates = new LinkedList<>();
-			while(!queue.isEmpty()) {
-				ChunkCompileTaskGenerator generator = queue.remove(0);
+			updateCameraPosition(entity);
+			reprioritize(millis);
+			while(true) {
+				boolean canDispatch = workerPool == null || !freeWorkers.isEmpty()
+						|| workerCount < workerPool.getThreadCount();
+				ChunkCompileTaskGenerator rebuild = canDispatch ? pollLive(rebuildQueue) : null;
+				ChunkCompileTaskGenerator resort = pollLive(resortQueue);
+				ChunkCompileTaskGenerator generator;
+				if(rebuild != null && (resort == null || rebuild.priority <= resort.priority)) {
+					generator = rebuildQueue.poll();
+				}else if(resort != null) {
+					generator = resortQueue.poll();
+				}else {
+					break;
+				}
+				
+				queuedTasks.remove(generator.getRenderChunk());
 				
 				if(!generator.canExecuteYet()) {
 					if(millis - generator.goddamnFuckingTimeout < 60000l) {
@@ -113,38 +419,69 @@ public class ChunkUpdateManager {
 					continue;
 				}
 				
-				runGenerator(generator, entity);
-				flag = true;
-				
-				++chunkUpdatesTotal;
+				if(workerPool != null && generator.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK) {
+					runGeneratorAsync(generator, entity);
+				}else {
+					runGenerator(generator, entity);
+					flag = true;
+					++chunkUpdatesTotal;
+				}
 				
 				if(timeout < EagRuntime.nanoTime()) {
 					break;
 				}
 			}
-			queue.addAll(droppedUpdates);
+			if(!droppedUpdates.isEmpty()) {
+				for(int i = 0, l = droppedUpdates.size(); i < l; ++i) {
+					ChunkCompileTaskGenerator generator = droppedUpdates.get(i);
+					if(!generator.isFinished() && !queuedTasks.containsKey(generator.getRenderChunk())) {
+						queuedTasks.put(generator.getRenderChunk(), generator);
+						enqueue(generator);
+					}
+				}
+				droppedUpdates.clear();
+			}
 			return flag;
 		}
 	}
 
-	public boolean updateChunkLater(RenderChunk chunkRenderer) {
-		final ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskChunk();
-		boolean flag = queue.size() < 100;
-		if (!flag) {
-			chunkcompiletaskgenerator.finish();
-		}else {
-			chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
-				@Override
-				public void run() {
-					if(queue.remove(chunkcompiletaskgenerator)) {
-						++chunkUpdatesTotal;
-					}
+	private void addToQueue(final ChunkCompileTaskGenerator chunkcompiletaskgenerator) {
+		final RenderChunk chunk = chunkcompiletaskgenerator.getRenderChunk();
+		chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
+			@Override
+			public void run() {
+				if(queuedTasks.get(chunk) == chunkcompiletaskgenerator) {
+					queuedTasks.remove(chunk);
+					++chunkUpdatesTotal;
 				}
-			});
-			queue.add(chunkcompiletaskgenerator);
-			++chunkUpdatesQueued;
+			}
+		});
+		queuedTasks.put(chunk, chunkcompiletaskgenerator);
+		enqueue(chunkcompiletaskgenerator);
+		++chunkUpdatesQueued;
+	}
+
+	private void clearQueue() {
+		rebuildQueue.clear();
+		resortQueue.clear();
+		queuedTasks.clear();
+		droppedUpdates.clear();
+		chunkUpdatesQueued = 0;
+	}
+
+	public boolean updateChunkLater(RenderChunk chunkRenderer) {
+		ChunkCompileTaskGenerator existing = queuedTasks.get(chunkRenderer);
+		if (existing != null && existing.getType() == ChunkCompileTaskGenerator.Type.REBUILD_CHUNK
+				&& !existing.isFinished()) {
+			// it hasn't started yet, so it will already see the latest blocks
+			return true;
 		}
-		return flag;
+		Entity entity = Minecraft.getMinecraft().getRenderViewEntity();
+		if (entity != null) {
+			updateCameraPosition(entity);
+		}
+		addToQueue(chunkRenderer.makeCompileTaskChunk());
+		return true;
 	}
 
 	public boolean updateChunkNow(RenderChunk chunkRenderer) {
@@ -157,40 +494,37 @@ public class ChunkUpdateManager {
 	}
 
 	public void stopChunkUpdates() {
-		queue.clear();
-		chunkUpdatesQueued = 0;
+		clearQueue();
+		if(workerPool != null) {
+			// anything still compiling gets thrown away when it comes back
+			++workerGeneration;
+			freeWorkers.clear();
+			workerCount = 0;
+			workersBusy = 0;
+		}
 	}
 
 	public boolean updateTransparencyLater(RenderChunk chunkRenderer) {
 		if(isAlreadyQueued(chunkRenderer)) {
 			return true;
 		}
-		final ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskTransparency();
+		ChunkCompileTaskGenerator chunkcompiletaskgenerator = chunkRenderer.makeCompileTaskTransparency();
 		if (chunkcompiletaskgenerator == null) {
 			return true;
 		}
 		chunkcompiletaskgenerator.goddamnFuckingTimeout = EagRuntime.steadyTimeMillis();
-		if(queue.size() < 100) {
-			chunkcompiletaskgenerator.addFinishRunnable(new Runnable() {
-				@Override
-				public void run() {
-					if(queue.remove(chunkcompiletaskgenerator)) {
-						++chunkUpdatesTotal;
-					}
-				}
-			});
-			queue.add(chunkcompiletaskgenerator);
-			++chunkUpdatesQueued;
-			return true;
-		}else {
-			return false;
-		}
+		addToQueue(chunkcompiletaskgenerator);
+		return true;
 	}
 
 	public void uploadChunk(final EnumWorldBlockLayer player, final WorldRenderer chunkRenderer,
 			final RenderChunk compiledChunkIn, final CompiledChunk parCompiledChunk) {
-		this.uploadDisplayList(chunkRenderer,
-				((ListedRenderChunk) compiledChunkIn).getDisplayList(player, parCompiledChunk), compiledChunkIn);
+		if(regionBuffers != null) {
+			regionBuffers.uploadChunk((ListedRenderChunk) compiledChunkIn, player, chunkRenderer);
+		}else {
+			this.uploadDisplayList(chunkRenderer,
+					((ListedRenderChunk) compiledChunkIn).getDisplayList(player, parCompiledChunk), compiledChunkIn);
+		}
 		chunkRenderer.setTranslation(0.0D, 0.0D, 0.0D);
 	}
 
@@ -199,12 +533,7 @@ public class ChunkUpdateManager {
 	}
 
 	public boolean isAlreadyQueued(RenderChunk update) {
-		for(int i = 0, l = queue.size(); i < l; ++i) {
-			if(queue.get(i).getRenderChunk() == update) {
-				return true;
-			}
-		}
-		return false;
+		return queuedTasks.containsKey(update);
 	}
 
 	public String getDebugInfo() {
@@ -223,8 +552,15 @@ public class ChunkUpdateManager {
 			}
 		}
 		
-		return "Uq: " + (chunkUpdatesTotalLast + chunkUpdatesTotalImmediateLast) + "/"
+		String ret = "Uq: " + (chunkUpdatesTotalLast + chunkUpdatesTotalImmediateLast) + "/"
 				+ (chunkUpdatesQueuedLast + chunkUpdatesTotalImmediateLast);
+		if(workerPool != null) {
+			ret += " (" + workersBusy + "/" + workerPool.getThreadCount() + " thr)";
+		}
+		if(regionBuffers != null) {
+			ret += " Rg: " + regionBuffers.getRegionCount();
+		}
+		return ret;
 	}
 	
 }
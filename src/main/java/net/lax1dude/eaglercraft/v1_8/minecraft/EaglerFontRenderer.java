@@ -16,6 +16,10 @@
 
 package net.lax1dude.eaglercraft.v1_8.minecraft;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.opengl.EaglercraftGPU;
 import net.lax1dude.eaglercraft.v1_8.opengl.GlStateManager;
 import net.lax1dude.eaglercraft.v1_8.opengl.InstancedFontRenderer;
@@ -24,6 +28,7 @@ import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.texture.TextureManager;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.resources.IResourceManager;
 import net.minecraft.client.settings.GameSettings;
 import net.minecraft.util.ResourceLocation;
 
@@ -31,6 +36,82 @@ public class EaglerFontRenderer extends FontRenderer {
 
 	private final int[] temporaryCodepointArray = new int[6553];
 
+	/**
+	 * Strings drawn with the same color and shadow produce the same quads every
+	 * frame, so the quads are kept for the most recently drawn strings and just
+	 * copied into the instance buffer at the new position next time
+	 */
+	private static final int TEXT_CACHE_SIZE = 1024;
+
+	private static class TextCacheKey {
+
+		private String text;
+		private int color;
+		private boolean shadow;
+		private int hash;
+
+		private TextCacheKey set(String text, int color, boolean shadow) {
+			this.text = text;
+			this.color = color;
+			this.shadow = shadow;
+			this.hash = (text.hashCode() * 31 + color) * 31 + (shadow ? 1 : 0);
+			return this;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof TextCacheKey)) {
+				return false;
+			}
+			TextCacheKey other = (TextCacheKey) obj;
+			return hash == other.hash && color == other.color && shadow == other.shadow && text.equals(other.text);
+		}
+
+	}
+
+	private static class TextMesh {
+
+		private final int[] quads;
+		private final int[] boldQuads;
+		private final float advance;
+
+		private TextMesh(int[] quads, int[] boldQuads, float advance) {
+			this.quads = quads;
+			this.boldQuads = boldQuads;
+			this.advance = advance;
+		}
+
+	}
+
+	private final TextCacheKey textCacheLookup = new TextCacheKey();
+	private final Map<TextCacheKey, TextMesh> textCache = new LinkedHashMap<TextCacheKey, TextMesh>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TextCacheKey, TextMesh> eldest) {
+			if(size() > TEXT_CACHE_SIZE) {
+				++textCacheEvictions;
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private boolean textCacheable = false;
+	private int textCacheHits = 0;
+	private int textCacheMisses = 0;
+	private int textCacheEvictions = 0;
+	private int textCacheHitsLast = 0;
+	private int textCacheMissesLast = 0;
+	private int textCacheEvictionsLast = 0;
+	private long textCacheStatsLastUpdate = 0l;
+
 	public static FontRenderer createSupportedFontRenderer(GameSettings gameSettingsIn, ResourceLocation location,
 			TextureManager textureManagerIn, boolean unicode) {
 		if(EaglercraftGPU.checkInstancingCapable()) {
@@ -50,13 +131,35 @@ public class EaglerFontRenderer extends FontRenderer {
 			this.posX = x + (dropShadow ? 1 : 0);
 			this.posY = y;
 		} else {
-			if(this.unicodeFlag || !decodeASCIICodepointsAndValidate(text)) {
+			if(this.unicodeFlag) {
 				return super.drawString(text, x, y, color, dropShadow);
 			}
-			this.resetStyles();
 			if ((color & 0xFC000000) == 0) {
 				color |= 0xFF000000;
 			}
+			// quads are placed at (int)posX, which only moves by whole pixels
+			// with the origin if the origin is not a negative fraction
+			boolean cacheable = (x >= 0.0f || x == (int) x) && (y >= 0.0f || y == (int) y);
+			if(cacheable) {
+				TextMesh mesh = textCache.get(textCacheLookup.set(text, color, dropShadow));
+				textCacheLookup.text = null;
+				if(mesh != null) {
+					++textCacheHits;
+					this.resetStyles();
+					this.red = (float) (color >>> 16 & 255) / 255.0F;
+					this.blue = (float) (color >>> 8 & 255) / 255.0F;
+					this.green = (float) (color & 255) / 255.0F;
+					this.alpha = (float) (color >>> 24 & 255) / 255.0F;
+					this.posY = y;
+					this.textColor = color;
+					renderTextMesh(mesh, x, y, dropShadow);
+					return (int) this.posX;
+				}
+			}
+			if(!decodeASCIICodepointsAndValidate(text)) {
+				return super.drawString(text, x, y, color, dropShadow);
+			}
+			this.resetStyles();
 			this.red = (float) (color >>> 16 & 255) / 255.0F;
 			this.blue = (float) (color >>> 8 & 255) / 255.0F;
 			this.green = (float) (color & 255) / 255.0F;
@@ -64,11 +167,62 @@ public class EaglerFontRenderer extends FontRenderer {
 			this.posX = x;
 			this.posY = y;
 			this.textColor = color;
+			this.textCacheable = cacheable;
 			this.renderStringAtPos0(text, dropShadow);
+			if(this.textCacheable) {
+				++textCacheMisses;
+				int[] quads = InstancedFontRenderer.copyAppendedQuads(false, (int) x, (int) y);
+				int[] boldQuads = InstancedFontRenderer.copyAppendedQuads(true, (int) x, (int) y);
+				if(quads != null && boldQuads != null) {
+					textCache.put(new TextCacheKey().set(text, color, dropShadow),
+							new TextMesh(quads, boldQuads, this.posX - x - (dropShadow ? 1.0f : 0.0f)));
+				}
+				this.textCacheable = false;
+			}
 		}
 		return (int) this.posX;
 	}
 
+	private void renderTextMesh(TextMesh mesh, float x, float y, boolean dropShadow) {
+		renderEngine.bindTexture(locationFontTexture);
+		InstancedFontRenderer.begin();
+		InstancedFontRenderer.appendRecordedQuads(mesh.quads, false, (int) x, (int) y);
+		InstancedFontRenderer.appendRecordedQuads(mesh.boldQuads, true, (int) x, (int) y);
+		GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
+		InstancedFontRenderer.render(8, 8, 0.0625f, 0.0625f, dropShadow);
+		this.posX = x + mesh.advance + (dropShadow ? 1.0f : 0.0f);
+	}
+
+	public void onResourceManagerReload(IResourceManager resourceManager) {
+		super.onResourceManagerReload(resourceManager);
+		// character widths can change with the font texture
+		textCache.clear();
+	}
+
+	/**
+	 * For the F3 overlay, returns null if the renderer is not an EaglerFontRenderer
+	 */
+	public static String getTextCacheDebugInfo(FontRenderer fontRenderer) {
+		if(!(fontRenderer instanceof EaglerFontRenderer)) {
+			return null;
+		}
+		EaglerFontRenderer self = (EaglerFontRenderer) fontRenderer;
+		long millis = EagRuntime.steadyTimeMillis();
+		if(millis - self.textCacheStatsLastUpdate > 1000l) {
+			self.textCacheStatsLastUpdate = millis;
+			self.textCacheHitsLast = self.textCacheHits;
+			self.textCacheMissesLast = self.textCacheMisses;
+			self.textCacheEvictionsLast = self.textCacheEvictions;
+			self.textCacheHits = 0;
+			self.textCacheMisses = 0;
+			self.textCacheEvictions = 0;
+		}
+		int total = self.textCacheHitsLast + self.textCacheMissesLast;
+		return "Text: " + self.textCache.size() + "/" + TEXT_CACHE_SIZE + ", Hit: "
+				+ (total > 0 ? (self.textCacheHitsLast * 100 / total) : 0) + "%, Evict: "
+				+ self.textCacheEvictionsLast + "/s";
+	}
+
 	protected void renderStringAtPos(String parString1, boolean parFlag) {
 		if(parString1 == null) return;
 		if(this.unicodeFlag || !decodeASCIICodepointsAndValidate(parString1)) {
@@ -129,6 +283,8 @@ public class EaglerFontRenderer extends FontRenderer {
 				if(j > 255) continue;
 				
 				if (this.randomStyle && j != -1) {
+					// different characters every frame
+					this.textCacheable = false;
 					int k = this.getCharWidth(c0);
 					char[] chars = FontRenderer.codepointLookup;
 
@@ -184,6 +340,9 @@ public class EaglerFontRenderer extends FontRenderer {
 		
 		if(!hasStrike) {
 			worldrenderer.finishDrawing();
+		}else {
+			// strikethrough and underline are drawn with the tessellator
+			this.textCacheable = false;
 		}
 		
 		if(parFlag) {
@@ -334,6 +334,18 @@ public class EaglerTextureAtlasSprite {
 		}
 	}
 
+	/**
+	 * Restores a sprite that was loaded and mipmapped before, see TextureAtlasCache
+	 */
+	public void loadCachedSprite(int width, int height, List<int[][]> frames, AnimationMetadataSection meta) {
+		this.resetSprite();
+		this.width = width;
+		this.height = height;
+		this.animationMetadata = meta;
+		this.setFramesTextureData(frames);
+		this.bakeAnimationCache();
+	}
+
 	protected void allocateFrameTextureData(int index) {
 		if (this.framesTextureData.size() <= index) {
 			for (int i = this.framesTextureData.size(); i <= index; ++i) {
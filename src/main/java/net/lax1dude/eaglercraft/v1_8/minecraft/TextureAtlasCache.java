@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.minecraft;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglercraftVersion;
+import net.lax1dude.eaglercraft.v1_8.crypto.SHA1Digest;
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.IResourcePack;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.client.resources.data.AnimationFrame;
+import net.minecraft.client.resources.data.AnimationMetadataSection;
+
+/**
+ * Keeps the last stitched copy of each texture atlas in the local filesystem,
+ * so reloading with the same resource packs and mipmap settings can skip
+ * decoding every sprite and running the stitcher again
+ */
+public class TextureAtlasCache {
+
+	private static final Logger logger = LogManager.getLogger("TextureAtlasCache");
+
+	private static final String CACHE_DIR = "texturecache";
+	private static final int CACHE_MAGIC = 0x45545843;
+	private static final int CACHE_VERSION = 1;
+	private static final int MAX_CACHE_SIZE = 64 * 1024 * 1024;
+
+	private static byte[] intBuffer = null;
+
+	public static class CachedAtlas {
+
+		public final int width;
+		public final int height;
+		public final int mipmapLevels;
+		private final int missingOriginX;
+		private final int missingOriginY;
+		private final boolean missingRotated;
+		private final List<String> spriteNames;
+		private final CachedSprite[] sprites;
+
+		private CachedAtlas(int width, int height, int mipmapLevels, int missingOriginX, int missingOriginY,
+				boolean missingRotated, List<String> spriteNames, CachedSprite[] sprites) {
+			this.width = width;
+			this.height = height;
+			this.mipmapLevels = mipmapLevels;
+			this.missingOriginX = missingOriginX;
+			this.missingOriginY = missingOriginY;
+			this.missingRotated = missingRotated;
+			this.spriteNames = spriteNames;
+			this.sprites = sprites;
+		}
+
+		/**
+		 * Restores every registered sprite, returns the sprites that belong in the
+		 * atlas (including the missing image) in the order they should be uploaded
+		 */
+		public List<EaglerTextureAtlasSprite> apply(Map<String, EaglerTextureAtlasSprite> registeredSprites,
+				EaglerTextureAtlasSprite missingImage) {
+			List<EaglerTextureAtlasSprite> ret = Lists.newArrayListWithCapacity(sprites.length + 1);
+			for (int i = 0; i < sprites.length; ++i) {
+				EaglerTextureAtlasSprite sprite = registeredSprites.get(spriteNames.get(i));
+				CachedSprite data = sprites[i];
+				if (data != null) {
+					sprite.loadCachedSprite(data.width, data.height, data.frames, data.animation);
+					sprite.initSprite(width, height, data.originX, data.originY, data.rotated);
+					ret.add(sprite);
+				} else {
+					sprite.resetSprite();
+				}
+			}
+			missingImage.generateMipmaps(mipmapLevels);
+			missingImage.initSprite(width, height, missingOriginX, missingOriginY, missingRotated);
+			ret.add(missingImage);
+			return ret;
+		}
+
+	}
+
+	private static class CachedSprite {
+
+		private final int width;
+		private final int height;
+		private final int originX;
+		private final int originY;
+		private final boolean rotated;
+		private final List<int[][]> frames;
+		private final AnimationMetadataSection animation;
+
+		private CachedSprite(int width, int height, int originX, int originY, boolean rotated, List<int[][]> frames,
+				AnimationMetadataSection animation) {
+			this.width = width;
+			this.height = height;
+			this.originX = originX;
+			this.originY = originY;
+			this.rotated = rotated;
+			this.frames = frames;
+			this.animation = animation;
+		}
+
+	}
+
+	/**
+	 * Hashes everything that decides what the stitched atlas looks like, returns
+	 * null if one of the enabled resource packs can't be identified reliably
+	 */
+	public static byte[] createKey(String basePath, int mipmapLevels, int maxTextureSize,
+			Map<String, EaglerTextureAtlasSprite> registeredSprites) {
+		if (!EaglerFolderResourcePack.isSupported()) {
+			return null;
+		}
+		ResourcePackRepository repo = Minecraft.getMinecraft().getResourcePackRepository();
+		try {
+			EaglerOutputStream bao = new EaglerOutputStream(4096);
+			DataOutputStream dos = new DataOutputStream(bao);
+			dos.writeInt(CACHE_VERSION);
+			dos.writeUTF(EaglercraftVersion.projectForkName + " " + EaglercraftVersion.projectForkVersion);
+			dos.writeUTF(basePath);
+			dos.writeInt(mipmapLevels);
+			dos.writeInt(maxTextureSize);
+			List<ResourcePackRepository.Entry> entries = repo.getRepositoryEntries();
+			dos.writeInt(entries.size());
+			for (int i = 0, l = entries.size(); i < l; ++i) {
+				if (!writePackKey(dos, entries.get(i).getResourcePack())) {
+					return null;
+				}
+			}
+			IResourcePack serverPack = repo.getResourcePackInstance();
+			dos.writeBoolean(serverPack != null);
+			if (serverPack != null && !writePackKey(dos, serverPack)) {
+				return null;
+			}
+			List<String> names = getSortedNames(registeredSprites);
+			dos.writeInt(names.size());
+			for (int i = 0, l = names.size(); i < l; ++i) {
+				String name = names.get(i);
+				dos.writeUTF(name);
+				dos.writeUTF(registeredSprites.get(name).getClass().getName());
+			}
+			byte[] keyData = bao.toByteArray();
+			SHA1Digest digest = new SHA1Digest();
+			digest.update(keyData, 0, keyData.length);
+			byte[] hashOut = new byte[20];
+			digest.doFinal(hashOut, 0);
+			return hashOut;
+		} catch (IOException ex) {
+			logger.error("Failed to create texture cache key for \"{}\"", basePath);
+			logger.error(ex);
+			return null;
+		}
+	}
+
+	private static boolean writePackKey(DataOutputStream dos, IResourcePack pack) throws IOException {
+		if (!(pack instanceof EaglerFolderResourcePack)) {
+			return false;
+		}
+		EaglerFolderResourcePack folderPack = (EaglerFolderResourcePack) pack;
+		dos.writeUTF(folderPack.getPackName());
+		dos.writeLong(folderPack.getTimestamp());
+		return true;
+	}
+
+	private static List<String> getSortedNames(Map<String, EaglerTextureAtlasSprite> registeredSprites) {
+		List<String> names = new ArrayList<>(registeredSprites.keySet());
+		Collections.sort(names);
+		return names;
+	}
+
+	private static VFile2 getCacheFile(String basePath) {
+		char[] chars = basePath.toCharArray();
+		for (int i = 0; i < chars.length; ++i) {
+			char c = chars[i];
+			if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_'
+					|| c == '-')) {
+				chars[i] = '_';
+			}
+		}
+		return new VFile2(CACHE_DIR, new String(chars) + ".bin");
+	}
+
+	/**
+	 * Returns null if there is no cached atlas for this key
+	 */
+	public static CachedAtlas load(String basePath, byte[] key, Map<String, EaglerTextureAtlasSprite> registeredSprites) {
+		VFile2 file = getCacheFile(basePath);
+		byte[] data = file.getAllBytes();
+		if (data == null) {
+			return null;
+		}
+		try {
+			DataInputStream dis = new DataInputStream(new EaglerInputStream(data));
+			if (dis.readInt() != CACHE_MAGIC || dis.readInt() != CACHE_VERSION) {
+				throw new IOException("Unknown texture cache format");
+			}
+			byte[] fileKey = new byte[20];
+			dis.readFully(fileKey);
+			if (!Arrays.equals(fileKey, key)) {
+				logger.info("Texture cache for \"{}\" is out of date", basePath);
+				return null;
+			}
+			int width = dis.readInt();
+			int height = dis.readInt();
+			int mipmapLevels = dis.readInt();
+			int missingOriginX = dis.readInt();
+			int missingOriginY = dis.readInt();
+			boolean missingRotated = dis.readBoolean();
+			List<String> names = getSortedNames(registeredSprites);
+			int cnt = dis.readInt();
+			if (cnt != names.size()) {
+				throw new IOException("Sprite count mismatch");
+			}
+			CachedSprite[] sprites = new CachedSprite[cnt];
+			for (int i = 0; i < cnt; ++i) {
+				if (!names.get(i).equals(dis.readUTF())) {
+					throw new IOException("Sprite name mismatch");
+				}
+				if (dis.readBoolean()) {
+					sprites[i] = readSprite(dis);
+				}
+			}
+			logger.info("Loaded {}x{} {}-atlas from the texture cache", width, height, basePath);
+			return new CachedAtlas(width, height, mipmapLevels, missingOriginX, missingOriginY, missingRotated, names,
+					sprites);
+		} catch (IOException ex) {
+			logger.error("Failed to read texture cache for \"{}\", deleting it", basePath);
+			logger.error(ex);
+			file.delete();
+			return null;
+		} finally {
+			intBuffer = null;
+		}
+	}
+
+	private static CachedSprite readSprite(DataInputStream dis) throws IOException {
+		int width = dis.readInt();
+		int height = dis.readInt();
+		int originX = dis.readInt();
+		int originY = dis.readInt();
+		boolean rotated = dis.readBoolean();
+		int frameCount = dis.readInt();
+		List<int[][]> frames = Lists.newArrayListWithCapacity(frameCount);
+		for (int i = 0; i < frameCount; ++i) {
+			int levels = dis.readInt();
+			if (levels == -1) {
+				frames.add(null);
+				continue;
+			}
+			int[][] frame = new int[levels][];
+			for (int j = 0; j < levels; ++j) {
+				int len = dis.readInt();
+				if (len != -1) {
+					frame[j] = readInts(dis, len);
+				}
+			}
+			frames.add(frame);
+		}
+		AnimationMetadataSection animation = null;
+		if (dis.readBoolean()) {
+			int frameWidth = dis.readInt();
+			int frameHeight = dis.readInt();
+			int frameTime = dis.readInt();
+			boolean interpolate = dis.readBoolean();
+			int animFrameCount = dis.readInt();
+			List<AnimationFrame> animFrames = Lists.newArrayListWithCapacity(animFrameCount);
+			for (int i = 0; i < animFrameCount; ++i) {
+				int index = dis.readInt();
+				animFrames.add(new AnimationFrame(index, dis.readInt()));
+			}
+			animation = new AnimationMetadataSection(animFrames, frameWidth, frameHeight, frameTime, interpolate);
+		}
+		return new CachedSprite(width, height, originX, originY, rotated, frames, animation);
+	}
+
+	/**
+	 * Stores the atlas that was just stitched, sprites that are not in
+	 * uploadedSprites failed to load and are stored as missing
+	 */
+	public static void save(String basePath, byte[] key, int width, int height, int mipmapLevels,
+			Map<String, EaglerTextureAtlasSprite> registeredSprites,
+			Map<String, EaglerTextureAtlasSprite> uploadedSprites, EaglerTextureAtlasSprite missingImage) {
+		VFile2 file = getCacheFile(basePath);
+		try {
+			EaglerOutputStream bao = new EaglerOutputStream(262144);
+			DataOutputStream dos = new DataOutputStream(bao);
+			dos.writeInt(CACHE_MAGIC);
+			dos.writeInt(CACHE_VERSION);
+			dos.write(key);
+			dos.writeInt(width);
+			dos.writeInt(height);
+			dos.writeInt(mipmapLevels);
+			dos.writeInt(missingImage.originX);
+			dos.writeInt(missingImage.originY);
+			dos.writeBoolean(missingImage.rotated);
+			List<String> names = getSortedNames(registeredSprites);
+			dos.writeInt(names.size());
+			for (int i = 0, l = names.size(); i < l; ++i) {
+				String name = names.get(i);
+				dos.writeUTF(name);
+				EaglerTextureAtlasSprite sprite = registeredSprites.get(name);
+				boolean loaded = uploadedSprites.get(name) == sprite;
+				dos.writeBoolean(loaded);
+				if (loaded) {
+					writeSprite(dos, sprite);
+					if (bao.size() > MAX_CACHE_SIZE) {
+						logger.warn("Texture atlas \"{}\" is too large to cache", basePath);
+						file.delete();
+						return;
+					}
+				}
+			}
+			file.setAllBytes(bao.toByteArray());
+			logger.info("Wrote {}-atlas to the texture cache ({} KB)", basePath, bao.size() / 1024);
+		} catch (IOException ex) {
+			logger.error("Failed to write texture cache for \"{}\"", basePath);
+			logger.error(ex);
+		} finally {
+			intBuffer = null;
+		}
+	}
+
+	private static void writeSprite(DataOutputStream dos, EaglerTextureAtlasSprite sprite) throws IOException {
+		dos.writeInt(sprite.width);
+		dos.writeInt(sprite.height);
+		dos.writeInt(sprite.originX);
+		dos.writeInt(sprite.originY);
+		dos.writeBoolean(sprite.rotated);
+		List<int[][]> frames = sprite.framesTextureData;
+		dos.writeInt(frames.size());
+		for (int i = 0, l = frames.size(); i < l; ++i) {
+			int[][] frame = frames.get(i);
+			if (frame == null) {
+				dos.writeInt(-1);
+				continue;
+			}
+			dos.writeInt(frame.length);
+			for (int j = 0; j < frame.length; ++j) {
+				int[] level = frame[j];
+				if (level == null) {
+					dos.writeInt(-1);
+				} else {
+					dos.writeInt(level.length);
+					writeInts(dos, level);
+				}
+			}
+		}
+		AnimationMetadataSection animation = sprite.animationMetadata;
+		dos.writeBoolean(animation != null);
+		if (animation != null) {
+			dos.writeInt(animation.getFrameWidth());
+			dos.writeInt(animation.getFrameHeight());
+			dos.writeInt(animation.getFrameTime());
+			dos.writeBoolean(animation.isInterpolate());
+			int cnt = animation.getFrameCount();
+			dos.writeInt(cnt);
+			for (int i = 0; i < cnt; ++i) {
+				dos.writeInt(animation.getFrameIndex(i));
+				dos.writeInt(animation.frameHasTime(i) ? animation.getFrameTimeSingle(i) : -1);
+			}
+		}
+	}
+
+	private static byte[] getIntBuffer(int len) {
+		int bytes = len << 2;
+		if (intBuffer == null || intBuffer.length < bytes) {
+			intBuffer = new byte[bytes];
+		}
+		return intBuffer;
+	}
+
+	private static void writeInts(DataOutputStream dos, int[] arr) throws IOException {
+		byte[] buf = getIntBuffer(arr.length);
+		for (int i = 0, j = 0; i < arr.length; ++i, j += 4) {
+			int k = arr[i];
+			buf[j] = (byte) (k >>> 24);
+			buf[j + 1] = (byte) (k >>> 16);
+			buf[j + 2] = (byte) (k >>> 8);
+			buf[j + 3] = (byte) k;
+		}
+		dos.write(buf, 0, arr.length << 2);
+	}
+
+	private static int[] readInts(DataInputStream dis, int len) throws IOException {
+		byte[] buf = getIntBuffer(len);
+		dis.readFully(buf, 0, len << 2);
+		int[] ret = new int[len];
+		for (int i = 0, j = 0; i < len; ++i, j += 4) {
+			ret[i] = ((buf[j] & 0xFF) << 24) | ((buf[j + 1] & 0xFF) << 16) | ((buf[j + 2] & 0xFF) << 8)
+					| (buf[j + 3] & 0xFF);
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
@@ -898,6 +898,7 @@ public class EaglercraftGPU {
 	static boolean textureLODCapable = false;
 	static boolean shader5Capable = false;
 	static boolean npotCapable = false;
+	static boolean programBinaryCapable = false;
 	static int uniformBufferOffsetAlignment = -1;
 
 	public static void createFramebufferHDR16FTexture(int target, int level, int w, int h, int format, boolean allow32bitFallback) {
@@ -996,6 +997,7 @@ public class EaglercraftGPU {
 		textureLODCapable = PlatformOpenGL.checkTextureLODCapable();
 		shader5Capable = PlatformOpenGL.checkOESGPUShader5Capable() || PlatformOpenGL.checkEXTGPUShader5Capable();
 		npotCapable = PlatformOpenGL.checkNPOTCapable();
+		programBinaryCapable = PlatformOpenGL.checkProgramBinaryCapable();
 		uniformBufferOffsetAlignment = glesVers >= 300 ? _wglGetInteger(0x8A34) : -1;
 		if(!npotCapable) {
 			logger.warn("NPOT texture support detected as false, texture wrapping must be set to GL_CLAMP_TO_EDGE if the texture's width or height is not a power of 2");
@@ -1062,6 +1064,7 @@ public class EaglercraftGPU {
 		fboRenderMipmapCapable = false;
 		vertexArrayCapable = false;
 		instancingCapable = false;
+		programBinaryCapable = false;
 		hasFramebufferHDR16FSupport = false;
 		hasFramebufferHDR32FSupport = false;
 		hasLinearHDR32FSupport = false;
@@ -1095,6 +1098,10 @@ public class EaglercraftGPU {
 		return textureLODCapable;
 	}
 
+	public static boolean checkProgramBinaryCapable() {
+		return programBinaryCapable;
+	}
+
 	public static boolean checkShader5Capable() {
 		return shader5Capable;
 	}
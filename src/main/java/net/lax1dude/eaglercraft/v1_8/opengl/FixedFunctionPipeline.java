@@ -186,9 +186,14 @@ public class FixedFunctionPipeline {
 	
 	private static IExtPipelineCompiler extensionProvider;
 	
+	private static boolean extensionPrecompilePending = false;
+	
+	private static boolean precompiling = false;
+	
 	public static void loadExtensionPipeline(IExtPipelineCompiler provider) {
 		flushCache();
 		extensionProvider = provider;
+		extensionPrecompilePending = provider != null;
 	}
 
 	private static final FixedFunctionPipeline[] pipelineStateCache = new FixedFunctionPipeline[fixedFunctionStatesBits + 1];
@@ -201,26 +206,113 @@ public class FixedFunctionPipeline {
 	private static FixedFunctionPipeline getPipelineInstanceCore(int bits) {
 		FixedFunctionPipeline pp = pipelineStateCache[bits];
 		if(pp == null) {
-			pipelineStateCache[bits] = pp = makeNewPipeline(bits, 0, false);
+			pipelineStateCache[bits] = pp = makeNewPipelineOnFirstUse(bits, 0, false);
 		}
 		return pp;
 	}
 	
 	private static FixedFunctionPipeline getPipelineInstanceExt(int coreBits, int extBits) {
+		if(extensionPrecompilePending) {
+			extensionPrecompilePending = false;
+			precompileRecordedExtStates();
+		}
 		coreBits &= (15 | extensionProvider.getCoreStateMask(extBits));
 		FixedFunctionPipeline[] pp = pipelineExtStateCache[coreBits];
 		if(pp == null) {
 			pipelineExtStateCache[coreBits] = pp = new FixedFunctionPipeline[1 << extensionProvider.getExtensionStatesCount()];
-			return pp[extBits] = makeNewPipeline(coreBits, extBits, true);
+			return pp[extBits] = makeNewPipelineOnFirstUse(coreBits, extBits, true);
 		}else {
 			FixedFunctionPipeline ppp = pp[extBits];
 			if(ppp == null) {
-				pp[extBits] = ppp = makeNewPipeline(coreBits, extBits, true);
+				pp[extBits] = ppp = makeNewPipelineOnFirstUse(coreBits, extBits, true);
 			}
 			return ppp;
 		}
 	}
 	
+	/**
+	 * Compiles every core state permutation this device has used before, so the
+	 * first frames with fog, enchantment glint, etc. don't stall on the compiler
+	 */
+	public static void precompileRecordedStates() {
+		int[] states = FixedFunctionPipelineCache.getRecordedCoreStates();
+		if(states.length == 0) {
+			return;
+		}
+		long start = EagRuntime.steadyTimeMillis();
+		int compiled = 0;
+		precompiling = true;
+		try {
+			for(int i = 0; i < states.length; ++i) {
+				int bits = states[i];
+				if(bits < 0 || bits > fixedFunctionStatesBits) {
+					FixedFunctionPipelineCache.forgetState(null, bits, 0);
+					continue;
+				}
+				if(pipelineStateCache[bits] == null) {
+					try {
+						getPipelineInstanceCore(bits);
+						++compiled;
+					}catch(IllegalStateException ex) {
+						FixedFunctionPipelineCache.forgetState(null, bits, 0);
+					}
+				}
+			}
+		}finally {
+			precompiling = false;
+		}
+		LOGGER.info("Precompiled {} recorded shader states in {}ms", compiled, EagRuntime.steadyTimeMillis() - start);
+	}
+	
+	private static void precompileRecordedExtStates() {
+		long[] states = FixedFunctionPipelineCache.getRecordedExtStates(extensionProvider);
+		if(states.length == 0) {
+			return;
+		}
+		long start = EagRuntime.steadyTimeMillis();
+		int extStatesMax = 1 << extensionProvider.getExtensionStatesCount();
+		int compiled = 0;
+		precompiling = true;
+		try {
+			for(int i = 0; i < states.length; ++i) {
+				int coreBits = (int)(states[i] >>> 32);
+				int extBits = (int)states[i];
+				if(coreBits < 0 || coreBits > fixedFunctionStatesBits || extBits < 0 || extBits >= extStatesMax) {
+					FixedFunctionPipelineCache.forgetState(extensionProvider, coreBits, extBits);
+					continue;
+				}
+				FixedFunctionPipeline[] pp = pipelineExtStateCache[coreBits];
+				if(pp == null || pp[extBits] == null) {
+					try {
+						getPipelineInstanceExt(coreBits, extBits);
+						++compiled;
+					}catch(IllegalStateException ex) {
+						FixedFunctionPipelineCache.forgetState(extensionProvider, coreBits, extBits);
+					}
+				}
+			}
+		}finally {
+			precompiling = false;
+		}
+		LOGGER.info("Precompiled {} recorded extension shader states in {}ms", compiled, EagRuntime.steadyTimeMillis() - start);
+	}
+	
+	/**
+	 * Logs how long each state that was not precompiled stalled the frame it was
+	 * first used in, once the manifest has caught up these should stop appearing
+	 */
+	private static FixedFunctionPipeline makeNewPipelineOnFirstUse(int coreBits, int extBits, boolean enableExt) {
+		if(precompiling) {
+			return makeNewPipeline(coreBits, extBits, enableExt);
+		}
+		long start = EagRuntime.steadyTimeMillis();
+		FixedFunctionPipeline ret = makeNewPipeline(coreBits, extBits, enableExt);
+		LOGGER.info("Compiled shader state {} on first use in {}ms",
+				(visualizeBits(coreBits) + (enableExt && extBits != 0 ? " ext " + visualizeBits(extBits) : "")),
+				EagRuntime.steadyTimeMillis() - start);
+		return ret;
+	}
+	
 	private static FixedFunctionPipeline makeNewPipeline(int coreBits, int extBits, boolean enableExt) {
 		String vshSource;
 		String fshSource;
@@ -284,10 +376,21 @@ public class FixedFunctionPipeline {
 		macros.append("precision " + PRECISION_FLOAT + " float;\n");
 		macros.append("precision " + PRECISION_SAMPLER + " sampler2D;\n\n");
 		
+		String macrosStr = macros.toString();
+		vshSource = GLSLHeader.getVertexHeaderCompat(vshSource, macrosStr);
+		fshSource = GLSLHeader.getFragmentHeaderCompat(fshSource, macrosStr);
+		
+		byte[] binaryKey = FixedFunctionPipelineCache.getProgramBinaryKey(vshSource, fshSource);
+		if(binaryKey != null) {
+			IProgramGL prog = FixedFunctionPipelineCache.loadProgramBinary(binaryKey);
+			if(prog != null) {
+				return initializeNewPipeline(new FixedFunctionPipeline(coreBits, extBits, prog, true), extProviderUserPointer);
+			}
+		}
+		
 		IShaderGL vsh = _wglCreateShader(GL_VERTEX_SHADER);
 		
-		String macrosStr = macros.toString();
-		_wglShaderSource(vsh, GLSLHeader.getVertexHeaderCompat(vshSource, macrosStr));
+		_wglShaderSource(vsh, vshSource);
 		_wglCompileShader(vsh);
 		
 		if(_wglGetShaderi(vsh, GL_COMPILE_STATUS) != GL_TRUE) {
@@ -305,7 +408,7 @@ public class FixedFunctionPipeline {
 		
 		IShaderGL fsh = _wglCreateShader(GL_FRAGMENT_SHADER);
 		
-		_wglShaderSource(fsh, GLSLHeader.getFragmentHeaderCompat(fshSource, macrosStr));
+		_wglShaderSource(fsh, fshSource);
 		_wglCompileShader(fsh);
 		
 		if(_wglGetShaderi(fsh, GL_COMPILE_STATUS) != GL_TRUE) {
@@ -330,7 +433,7 @@ public class FixedFunctionPipeline {
 		FixedFunctionPipeline pp = null;
 		IllegalStateException err = null;
 		try {
-			pp = new FixedFunctionPipeline(coreBits, extBits, prog);
+			pp = new FixedFunctionPipeline(coreBits, extBits, prog, false);
 		}catch(IllegalStateException t) {
 			err = t;
 		}
@@ -344,14 +447,22 @@ public class FixedFunctionPipeline {
 			_wglDeleteProgram(prog);
 			throw err;
 		}else {
-			if(extProviderUserPointer != null) {
-				pp.extensionPointer = extProviderUserPointer;
-				extensionProvider.initializeNewShader(prog, pp.stateCoreBits, pp.stateExtBits, extProviderUserPointer);
+			if(binaryKey != null) {
+				FixedFunctionPipelineCache.storeProgramBinary(binaryKey, prog);
 			}
-			pipelineListTracker.add(pp);
-			return pp;
+			return initializeNewPipeline(pp, extProviderUserPointer);
 		}
 	}
+	
+	private static FixedFunctionPipeline initializeNewPipeline(FixedFunctionPipeline pp, Object[] extProviderUserPointer) {
+		if(extProviderUserPointer != null) {
+			pp.extensionPointer = extProviderUserPointer;
+			extensionProvider.initializeNewShader(pp.shaderProgram, pp.stateCoreBits, pp.stateExtBits, extProviderUserPointer);
+		}
+		FixedFunctionPipelineCache.recordState(extProviderUserPointer != null ? extensionProvider : null, pp.stateCoreBits, pp.stateExtBits);
+		pipelineListTracker.add(pp);
+		return pp;
+	}
 
 	public static String visualizeBits(int i) {
 		if(i == 0) {
@@ -503,7 +614,7 @@ public class FixedFunctionPipeline {
 
 	private static FloatBuffer matrixCopyBuffer = null;
 
-	private FixedFunctionPipeline(int bits, int extBits, IProgramGL compiledProg) {
+	private FixedFunctionPipeline(int bits, int extBits, IProgramGL compiledProg, boolean prelinked) {
 		shaderProgram = compiledProg;
 		
 		stateBits = bits;
@@ -518,13 +629,17 @@ public class FixedFunctionPipeline {
 		int index = 0;
 		int stride = 0;
 		
-		_wglBindAttribLocation(compiledProg, index, ATTRIB_POSITION);
+		if(!prelinked) {
+			_wglBindAttribLocation(compiledProg, index, ATTRIB_POSITION);
+		}
 		
 		stride += VertexFormat.COMPONENT_POSITION_STRIDE; // vec3f
 		if(stateHasAttribColor) {
 			attribColorIndex = ++index;
 			attribColorOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_COLOR);
+			if(!prelinked) {
+				_wglBindAttribLocation(compiledProg, index, ATTRIB_COLOR);
+			}
 			stride += VertexFormat.COMPONENT_COLOR_STRIDE; // vec4b
 		}else {
 			attribColorIndex = -1;
@@ -533,7 +648,9 @@ public class FixedFunctionPipeline {
 		if(stateHasAttribTexture) {
 			attribTextureIndex = ++index;
 			attribTextureOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_TEXTURE);
+			if(!prelinked) {
+				_wglBindAttribLocation(compiledProg, index, ATTRIB_TEXTURE);
+			}
 			stride += VertexFormat.COMPONENT_TEX_STRIDE; // vec2f
 		}else {
 			attribTextureIndex = -1;
@@ -542,7 +659,9 @@ public class FixedFunctionPipeline {
 		if(stateHasAttribNormal) {
 			attribNormalIndex = ++index;
 			attribNormalOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_NORMAL);
+			if(!prelinked) {
+				_wglBindAttribLocation(compiledProg, index, ATTRIB_NORMAL);
+			}
 			stride += VertexFormat.COMPONENT_NORMAL_STRIDE; // vec4b
 		}else {
 			attribNormalIndex = -1;
@@ -551,7 +670,9 @@ public class FixedFunctionPipeline {
 		if(stateHasAttribLightmap) {
 			attribLightmapIndex = ++index;
 			attribLightmapOffset = stride;
-			_wglBindAttribLocation(compiledProg, index, ATTRIB_LIGHTMAP);
+			if(!prelinked) {
+				_wglBindAttribLocation(compiledProg, index, ATTRIB_LIGHTMAP);
+			}
 			stride += VertexFormat.COMPONENT_LIGHTMAP_STRIDE; // vec2s
 		}else {
 			attribLightmapIndex = -1;
@@ -560,9 +681,11 @@ public class FixedFunctionPipeline {
 		
 		attribStride = stride;
 		
-		_wglLinkProgram(compiledProg);
+		if(!prelinked) {
+			_wglLinkProgram(compiledProg);
+		}
 		
-		if(_wglGetProgrami(compiledProg, GL_LINK_STATUS) != GL_TRUE) {
+		if(!prelinked && _wglGetProgrami(compiledProg, GL_LINK_STATUS) != GL_TRUE) {
 			LOGGER.error("Program could not be linked for state {} !", (visualizeBits(bits) + (extensionProvider != null && extBits != 0 ? " ext " + visualizeBits(extBits) : "")));
 			String log = _wglGetProgramInfoLog(compiledProg);
 			if(log != null) {
@@ -1067,6 +1190,7 @@ public class FixedFunctionPipeline {
 		for(int i = 0, l = pipelineListTracker.size(); i < l; ++i) {
 			pipelineListTracker.get(i).streamBuffer.optimize();
 		}
+		FixedFunctionPipelineCache.saveManifestIfDirty();
 	}
 
 	public static void flushCache() {
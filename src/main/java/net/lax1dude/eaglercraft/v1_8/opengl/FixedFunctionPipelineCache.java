@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+import net.lax1dude.eaglercraft.v1_8.ArrayUtils;
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.crypto.SHA1Digest;
+import net.lax1dude.eaglercraft.v1_8.internal.IProgramGL;
+import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
+import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
+import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+
+/**
+ * Remembers which FixedFunctionPipeline state permutations this device has
+ * needed so they can be compiled ahead of time on the next startup, and keeps
+ * linked program binaries on runtimes where the driver can export them
+ */
+class FixedFunctionPipelineCache {
+
+	private static final Logger logger = LogManager.getLogger("FixedFunctionPipelineCache");
+
+	private static final String MANIFEST_STORAGE_KEY = "shaders";
+	private static final int MANIFEST_VERSION = 1;
+	private static final long MANIFEST_SAVE_INTERVAL = 10000l;
+	private static final String BINARY_CACHE_DIR = "shadercache";
+
+	private static String deviceString = null;
+	private static IntHashSet coreStates = null;
+	private static Map<String, LongHashSet> extStates = null;
+	private static boolean manifestDirty = false;
+	private static long lastManifestSave = 0l;
+
+	private static String getDeviceString() {
+		if(deviceString == null) {
+			deviceString = EaglercraftGPU.glGetString(GL_RENDERER) + ";" + EaglercraftGPU.glGetString(GL_VERSION);
+		}
+		return deviceString;
+	}
+
+	private static void loadManifest() {
+		if(coreStates != null) {
+			return;
+		}
+		coreStates = new IntHashSet();
+		extStates = new HashMap<>();
+		byte[] data = EagRuntime.getStorage(MANIFEST_STORAGE_KEY);
+		if(data == null) {
+			return;
+		}
+		try {
+			DataInputStream dis = new DataInputStream(new EaglerInputStream(data));
+			if(dis.readInt() != MANIFEST_VERSION) {
+				return;
+			}
+			if(!getDeviceString().equals(dis.readUTF())) {
+				logger.info("Graphics device has changed, discarding the recorded shader states");
+				manifestDirty = true;
+				return;
+			}
+			int cnt = dis.readInt();
+			for(int i = 0; i < cnt; ++i) {
+				coreStates.add(dis.readInt());
+			}
+			int providers = dis.readInt();
+			for(int i = 0; i < providers; ++i) {
+				String name = dis.readUTF();
+				LongHashSet set = new LongHashSet();
+				cnt = dis.readInt();
+				for(int j = 0; j < cnt; ++j) {
+					set.add(dis.readLong());
+				}
+				extStates.put(name, set);
+			}
+		}catch(IOException ex) {
+			logger.error("Failed to read the recorded shader states!");
+			logger.error(ex);
+			coreStates.clear();
+			extStates.clear();
+		}
+	}
+
+	static void saveManifestIfDirty() {
+		if(!manifestDirty) {
+			return;
+		}
+		long millis = EagRuntime.steadyTimeMillis();
+		if(millis - lastManifestSave < MANIFEST_SAVE_INTERVAL) {
+			return;
+		}
+		lastManifestSave = millis;
+		manifestDirty = false;
+		try {
+			EaglerOutputStream bao = new EaglerOutputStream(1024);
+			DataOutputStream dos = new DataOutputStream(bao);
+			dos.writeInt(MANIFEST_VERSION);
+			dos.writeUTF(getDeviceString());
+			dos.writeInt(coreStates.size());
+			for(IntCursor cur : coreStates) {
+				dos.writeInt(cur.value);
+			}
+			dos.writeInt(extStates.size());
+			for(Map.Entry<String, LongHashSet> etr : extStates.entrySet()) {
+				dos.writeUTF(etr.getKey());
+				LongHashSet set = etr.getValue();
+				dos.writeInt(set.size());
+				for(LongCursor cur : set) {
+					dos.writeLong(cur.value);
+				}
+			}
+			EagRuntime.setStorage(MANIFEST_STORAGE_KEY, bao.toByteArray());
+		}catch(IOException ex) {
+			logger.error("Failed to save the recorded shader states!");
+			logger.error(ex);
+		}
+	}
+
+	private static long extStateKey(int coreBits, int extBits) {
+		return ((long)coreBits << 32) | (extBits & 0xFFFFFFFFl);
+	}
+
+	private static LongHashSet getExtStateSet(IExtPipelineCompiler provider, boolean create) {
+		String name = provider.getClass().getName();
+		LongHashSet set = extStates.get(name);
+		if(set == null && create) {
+			extStates.put(name, set = new LongHashSet());
+		}
+		return set;
+	}
+
+	static void recordState(IExtPipelineCompiler provider, int coreBits, int extBits) {
+		loadManifest();
+		boolean added;
+		if(provider == null) {
+			added = coreStates.add(coreBits);
+		}else {
+			added = getExtStateSet(provider, true).add(extStateKey(coreBits, extBits));
+		}
+		if(added) {
+			manifestDirty = true;
+		}
+	}
+
+	static void forgetState(IExtPipelineCompiler provider, int coreBits, int extBits) {
+		loadManifest();
+		boolean removed;
+		if(provider == null) {
+			removed = coreStates.remove(coreBits);
+		}else {
+			LongHashSet set = getExtStateSet(provider, false);
+			removed = set != null && set.remove(extStateKey(coreBits, extBits));
+		}
+		if(removed) {
+			manifestDirty = true;
+		}
+	}
+
+	static int[] getRecordedCoreStates() {
+		loadManifest();
+		return coreStates.toArray();
+	}
+
+	/**
+	 * Returns (coreBits << 32) | extBits for each recorded state
+	 */
+	static long[] getRecordedExtStates(IExtPipelineCompiler provider) {
+		loadManifest();
+		LongHashSet set = getExtStateSet(provider, false);
+		return set != null ? set.toArray() : new long[0];
+	}
+
+	/**
+	 * Returns null if program binaries can't be used on this device
+	 */
+	static byte[] getProgramBinaryKey(String vshSource, String fshSource) {
+		if(!EaglercraftGPU.checkProgramBinaryCapable()) {
+			return null;
+		}
+		SHA1Digest digest = new SHA1Digest();
+		byte[] b = getDeviceString().getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		b = vshSource.getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		b = fshSource.getBytes(StandardCharsets.UTF_8);
+		digest.update(b, 0, b.length);
+		byte[] ret = new byte[20];
+		digest.doFinal(ret, 0);
+		return ret;
+	}
+
+	/**
+	 * Returns an already linked program, or null if there is no usable binary
+	 */
+	static IProgramGL loadProgramBinary(byte[] key) {
+		VFile2 file = new VFile2(BINARY_CACHE_DIR, ArrayUtils.hexString(key) + ".bin");
+		byte[] data = file.getAllBytes();
+		if(data == null || data.length <= 4) {
+			return null;
+		}
+		int format = ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+		byte[] binary = new byte[data.length - 4];
+		System.arraycopy(data, 4, binary, 0, binary.length);
+		IProgramGL prog = _wglCreateProgram();
+		_wglProgramBinary(prog, format, binary);
+		if(_wglGetProgrami(prog, GL_LINK_STATUS) != GL_TRUE) {
+			logger.info("Driver rejected cached program binary {}, it will be recompiled", file.getName());
+			_wglDeleteProgram(prog);
+			file.delete();
+			return null;
+		}
+		return prog;
+	}
+
+	static void storeProgramBinary(byte[] key, IProgramGL prog) {
+		int[] format = new int[1];
+		byte[] binary = _wglGetProgramBinary(prog, format);
+		if(binary == null || binary.length == 0) {
+			return;
+		}
+		byte[] data = new byte[binary.length + 4];
+		int f = format[0];
+		data[0] = (byte)(f >>> 24);
+		data[1] = (byte)(f >>> 16);
+		data[2] = (byte)(f >>> 8);
+		data[3] = (byte)f;
+		System.arraycopy(binary, 0, data, 4, binary.length);
+		(new VFile2(BINARY_CACHE_DIR, ArrayUtils.hexString(key) + ".bin")).setAllBytes(data);
+	}
+
+}
\ No newline at end of file
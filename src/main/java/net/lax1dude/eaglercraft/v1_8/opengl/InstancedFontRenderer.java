@@ -449,6 +449,77 @@ public class InstancedFontRenderer {
 		}
 	}
 
+	/**
+	 * Copies the regular or bold quads appended since begin() so they can be
+	 * appended again later with appendRecordedQuads, positions are stored
+	 * relative to x and y. Returns null if the buffer has overflowed
+	 */
+	public static int[] copyAppendedQuads(boolean bold, int x, int y) {
+		if(bold ? hasBoldOverflowed : hasOverflowed) {
+			return null;
+		}
+		int cnt = bold ? boldCharactersDrawn : charactersDrawn;
+		ByteBuffer buf = bold ? fontBoldDataBuffer : fontDataBuffer;
+		int[] ret = new int[cnt << 2];
+		for(int i = 0; i < cnt; ++i) {
+			int j = i * BYTES_PER_CHARACTER;
+			int k = i << 2;
+			ret[k] = buf.getShort(j) - x;
+			ret[k + 1] = buf.getShort(j + 2) - y;
+			ret[k + 2] = (buf.get(j + 4) & 0xFF) | ((buf.get(j + 5) & 0xFF) << 8);
+			ret[k + 3] = buf.getInt(j + 6);
+		}
+		return ret;
+	}
+
+	/**
+	 * Appends quads that were copied with copyAppendedQuads at a new position
+	 */
+	public static void appendRecordedQuads(int[] quads, boolean bold, int x, int y) {
+		int cnt = quads.length >> 2;
+		if(cnt == 0) {
+			return;
+		}
+		ByteBuffer buf;
+		if(bold) {
+			if(hasBoldOverflowed) {
+				return;
+			}
+			if(boldCharactersDrawn + cnt > CHARACTER_LIMIT) {
+				hasBoldOverflowed = true;
+				logger.error("Font renderer buffer has overflowed! Exceeded {} bold characters, no more bold characters will be rendered.", CHARACTER_LIMIT);
+				return;
+			}
+			boldCharactersDrawn += cnt;
+			buf = fontBoldDataBuffer;
+		}else {
+			if(hasOverflowed) {
+				return;
+			}
+			if(charactersDrawn + cnt > CHARACTER_LIMIT) {
+				hasOverflowed = true;
+				logger.error("Font renderer buffer has overflowed! Exceeded {} regular characters, no more regular characters will be rendered.", CHARACTER_LIMIT);
+				return;
+			}
+			charactersDrawn += cnt;
+			buf = fontDataBuffer;
+		}
+		for(int i = 0; i < cnt; ++i) {
+			int k = i << 2;
+			int xx = quads[k] + x;
+			int yy = quads[k + 1] + y;
+			int c = quads[k + 2];
+			buf.putShort((short)xx);
+			buf.putShort((short)yy);
+			buf.put((byte)c);
+			buf.put((byte)(c >>> 8));
+			buf.putInt(quads[k + 3]);
+			if(fogEnabled) {
+				updateBounds(xx, yy);
+			}
+		}
+	}
+
 	private static void updateBounds(int x, int y) {
 		if(x < widthCalcLeast || widthCalcLeast == Integer.MAX_VALUE) widthCalcLeast = x;
 		if(x > widthCalcMost || widthCalcMost == Integer.MAX_VALUE) widthCalcMost = x;
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.opengl;
+
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.internal.IBufferGL;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
+import net.lax1dude.eaglercraft.v1_8.internal.buffer.IntBuffer;
+
+import static net.lax1dude.eaglercraft.v1_8.internal.PlatformOpenGL.*;
+import static net.lax1dude.eaglercraft.v1_8.opengl.RealOpenGLEnums.*;
+
+/**
+ * A single vertex buffer that many GL_QUADS meshes are packed into, meshes
+ * that end up next to each other in the buffer can be drawn with one call
+ * 
+ * Growing and compacting the buffer is done on the GPU with
+ * glCopyBufferSubData, so this is only available on GLES 3.0+
+ * 
+ * Sortable arenas keep their own index buffer instead of using the shared
+ * quad emulation buffer, so the draw order of the quads in an allocation can
+ * be changed without uploading its vertices again
+ */
+public class VertexArenaBuffer {
+
+	public static class Allocation {
+
+		private VertexArenaBuffer arena;
+		private int firstQuad;
+		private int quadCount;
+		private boolean free;
+		private int[] quadOrder;
+		private Allocation prev;
+		private Allocation next;
+
+		private Allocation(VertexArenaBuffer arena, int firstQuad, int quadCount, boolean free) {
+			this.arena = arena;
+			this.firstQuad = firstQuad;
+			this.quadCount = quadCount;
+			this.free = free;
+		}
+
+		public VertexArenaBuffer getArena() {
+			return arena;
+		}
+
+		/**
+		 * Can change whenever the arena is compacted
+		 */
+		public int getFirstQuad() {
+			return firstQuad;
+		}
+
+		public int getQuadCount() {
+			return quadCount;
+		}
+
+	}
+
+	public static boolean isSupported() {
+		return EaglercraftGPU.checkOpenGLESVersion() >= 300;
+	}
+
+	private final DisplayList list = new DisplayList();
+	private final int attribStride;
+	private final int initialQuads;
+	private final boolean sortable;
+	private IBufferGL indexBuffer = null;
+	private int capacityQuads = 0;
+	private int usedQuads = 0;
+	private int liveCount = 0;
+	private Allocation head = null;
+	private boolean destroyed = false;
+
+	public VertexArenaBuffer(int attribs, int attribStride, int initialQuads) {
+		this(attribs, attribStride, initialQuads, false);
+	}
+
+	public VertexArenaBuffer(int attribs, int attribStride, int initialQuads, boolean sortable) {
+		this.list.attribs = attribs;
+		this.list.mode = GL_QUADS;
+		this.attribStride = attribStride;
+		this.initialQuads = initialQuads;
+		this.sortable = sortable;
+	}
+
+	public boolean isSortable() {
+		return sortable;
+	}
+
+	public int getAttribs() {
+		return list.attribs;
+	}
+
+	public int getCapacityQuads() {
+		return capacityQuads;
+	}
+
+	public int getUsedQuads() {
+		return usedQuads;
+	}
+
+	public boolean isEmpty() {
+		return liveCount == 0;
+	}
+
+	/**
+	 * Uploads a mesh, if prev is not null it gets replaced and the returned
+	 * allocation should be used from now on
+	 */
+	public Allocation upload(Allocation prev, ByteBuffer data, int vertexCount) {
+		if(destroyed) {
+			throw new IllegalStateException("Vertex arena has been destroyed!");
+		}
+		if(prev != null && prev.arena != this) {
+			throw new IllegalArgumentException("Allocation belongs to a different arena!");
+		}
+		int quads = vertexCount >> 2;
+		Allocation ret;
+		if(prev != null && !prev.free && prev.quadCount == quads) {
+			ret = prev;
+		}else {
+			if(prev != null) {
+				free(prev);
+			}
+			ret = allocate(quads);
+		}
+		EaglercraftGPU.bindGLArrayBuffer(list.vertexBuffer);
+		_wglBufferSubData(GL_ARRAY_BUFFER, ret.firstQuad * (attribStride << 2), data);
+		if(sortable) {
+			ret.quadOrder = null;
+			writeQuadOrder(ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * Changes the order the quads of an allocation are drawn in, order[i] is
+	 * the index of the quad in the uploaded mesh that should be drawn i-th.
+	 * Returns false without touching the GPU if the order did not change
+	 */
+	public boolean uploadQuadOrder(Allocation alloc, int[] order, int quadCount) {
+		if(!sortable) {
+			throw new IllegalStateException("Vertex arena is not sortable!");
+		}
+		if(alloc.arena != this || alloc.free) {
+			throw new IllegalArgumentException("Allocation does not belong to this arena!");
+		}
+		if(quadCount != alloc.quadCount) {
+			throw new IllegalArgumentException("Quad order has " + quadCount + " quads, allocation has "
+					+ alloc.quadCount + " quads!");
+		}
+		int[] current = alloc.quadOrder;
+		if(current == null) {
+			int i = 0;
+			while(i < quadCount && order[i] == i) {
+				++i;
+			}
+			if(i == quadCount) {
+				return false;
+			}
+			current = alloc.quadOrder = new int[quadCount];
+		}else {
+			int i = 0;
+			while(i < quadCount && order[i] == current[i]) {
+				++i;
+			}
+			if(i == quadCount) {
+				return false;
+			}
+		}
+		System.arraycopy(order, 0, current, 0, quadCount);
+		writeQuadOrder(alloc);
+		return true;
+	}
+
+	private void writeQuadOrder(Allocation alloc) {
+		IntBuffer buf = EagRuntime.allocateIntBuffer(alloc.quadCount * 6);
+		putQuadOrder(buf, alloc);
+		buf.flip();
+		_wglBindBuffer(GL_COPY_WRITE_BUFFER, indexBuffer);
+		_wglBufferSubData(GL_COPY_WRITE_BUFFER, alloc.firstQuad * 24, buf);
+		_wglBindBuffer(GL_COPY_WRITE_BUFFER, null);
+		EagRuntime.freeIntBuffer(buf);
+	}
+
+	private static void putQuadOrder(IntBuffer buf, Allocation alloc) {
+		int[] order = alloc.quadOrder;
+		int first = alloc.firstQuad;
+		int v1, v2, v3, v4;
+		for(int i = 0, l = alloc.quadCount; i < l; ++i) {
+			v1 = (first + (order != null ? order[i] : i)) << 2;
+			v2 = v1 + 1;
+			v3 = v2 + 1;
+			v4 = v3 + 1;
+			buf.put(v1); buf.put(v2);
+			buf.put(v4); buf.put(v2);
+			buf.put(v3); buf.put(v4);
+		}
+	}
+
+	public void free(Allocation alloc) {
+		if(alloc.arena != this || alloc.free) {
+			return;
+		}
+		alloc.free = true;
+		alloc.quadOrder = null;
+		usedQuads -= alloc.quadCount;
+		--liveCount;
+		Allocation n = alloc.next;
+		if(n != null && n.free) {
+			alloc.quadCount += n.quadCount;
+			unlink(n);
+		}
+		Allocation p = alloc.prev;
+		if(p != null && p.free) {
+			p.quadCount += alloc.quadCount;
+			unlink(alloc);
+		}
+		if(liveCount > 0 && capacityQuads > initialQuads && (usedQuads << 2) < capacityQuads) {
+			relocate(capacityQuads >> 1);
+		}
+	}
+
+	private Allocation allocate(int quads) {
+		Allocation ret = findFree(quads);
+		if(ret == null) {
+			int needed = usedQuads + quads;
+			int newCapacity = capacityQuads > 0 ? capacityQuads : initialQuads;
+			while(newCapacity < needed) {
+				newCapacity <<= 1;
+			}
+			// packs every live allocation to the start, so all free space becomes
+			// one block at the end even if the capacity stays the same
+			relocate(newCapacity);
+			ret = findFree(quads);
+			if(ret == null) {
+				throw new IllegalStateException("Vertex arena compaction failed to free " + quads + " quads!");
+			}
+		}
+		if(ret.quadCount > quads) {
+			Allocation remaining = new Allocation(this, ret.firstQuad + quads, ret.quadCount - quads, true);
+			remaining.prev = ret;
+			remaining.next = ret.next;
+			if(ret.next != null) {
+				ret.next.prev = remaining;
+			}
+			ret.next = remaining;
+			ret.quadCount = quads;
+		}
+		ret.free = false;
+		usedQuads += quads;
+		++liveCount;
+		return ret;
+	}
+
+	private Allocation findFree(int quads) {
+		for(Allocation a = head; a != null; a = a.next) {
+			if(a.free && a.quadCount >= quads) {
+				return a;
+			}
+		}
+		return null;
+	}
+
+	private void unlink(Allocation alloc) {
+		if(alloc.prev != null) {
+			alloc.prev.next = alloc.next;
+		}else {
+			head = alloc.next;
+		}
+		if(alloc.next != null) {
+			alloc.next.prev = alloc.prev;
+		}
+		alloc.prev = null;
+		alloc.next = null;
+	}
+
+	private void relocate(int newCapacity) {
+		int stride = attribStride << 2;
+		IBufferGL oldBuffer = list.vertexBuffer;
+		IBufferGL newBuffer = EaglercraftGPU.createGLArrayBuffer();
+		EaglercraftGPU.bindGLArrayBuffer(newBuffer);
+		_wglBufferData(GL_ARRAY_BUFFER, newCapacity * stride, GL_STATIC_DRAW);
+
+		Allocation newHead = null;
+		Allocation newTail = null;
+		int pos = 0;
+		if(oldBuffer != null) {
+			_wglBindBuffer(GL_COPY_READ_BUFFER, oldBuffer);
+			_wglBindBuffer(GL_COPY_WRITE_BUFFER, newBuffer);
+			int runSrc = -1;
+			int runDst = 0;
+			int runLen = 0;
+			for(Allocation a = head; a != null; a = a.next) {
+				if(a.free) {
+					continue;
+				}
+				if(runSrc != -1 && runSrc + runLen == a.firstQuad) {
+					runLen += a.quadCount;
+				}else {
+					if(runSrc != -1) {
+						_wglCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, runSrc * stride,
+								runDst * stride, runLen * stride);
+					}
+					runSrc = a.firstQuad;
+					runDst = pos;
+					runLen = a.quadCount;
+				}
+				a.firstQuad = pos;
+				pos += a.quadCount;
+				a.prev = newTail;
+				if(newTail != null) {
+					newTail.next = a;
+				}else {
+					newHead = a;
+				}
+				newTail = a;
+			}
+			if(runSrc != -1) {
+				_wglCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, runSrc * stride, runDst * stride,
+						runLen * stride);
+			}
+			_wglBindBuffer(GL_COPY_READ_BUFFER, null);
+			_wglBindBuffer(GL_COPY_WRITE_BUFFER, null);
+			EaglercraftGPU.destroyGLArrayBuffer(oldBuffer);
+		}
+
+		if(pos < newCapacity) {
+			Allocation tail = new Allocation(this, pos, newCapacity - pos, true);
+			tail.prev = newTail;
+			if(newTail != null) {
+				newTail.next = tail;
+			}else {
+				newHead = tail;
+			}
+			newTail = tail;
+		}
+		if(newTail != null) {
+			newTail.next = null;
+		}
+		head = newHead;
+		capacityQuads = newCapacity;
+
+		list.vertexBuffer = newBuffer;
+		if(list.vertexArray == null) {
+			list.vertexArray = EaglercraftGPU.createGLVertexArray();
+		}
+		list.bindQuad16 = false;
+		list.bindQuad32 = false;
+		FixedFunctionPipeline.setupDisplayList(list);
+
+		if(sortable) {
+			// the old indices point at the old quad positions, so every live
+			// allocation has its indices generated again at its new position
+			if(indexBuffer != null) {
+				EaglercraftGPU.destroyGLElementArrayBuffer(indexBuffer);
+			}
+			indexBuffer = EaglercraftGPU.createGLElementArrayBuffer();
+			EaglercraftGPU.bindVAOGLElementArrayBufferNow(indexBuffer);
+			_wglBufferData(GL_ELEMENT_ARRAY_BUFFER, newCapacity * 24, GL_STATIC_DRAW);
+			if(pos > 0) {
+				IntBuffer buf = EagRuntime.allocateIntBuffer(pos * 6);
+				for(Allocation a = head; a != null; a = a.next) {
+					if(!a.free) {
+						putQuadOrder(buf, a);
+					}
+				}
+				buf.flip();
+				_wglBufferSubData(GL_ELEMENT_ARRAY_BUFFER, 0, buf);
+				EagRuntime.freeIntBuffer(buf);
+			}
+		}
+	}
+
+	/**
+	 * Draws a range of quads using the current matrix and pipeline state
+	 */
+	public void drawQuads(int firstQuad, int quadCount) {
+		if(quadCount <= 0 || list.vertexArray == null) {
+			return;
+		}
+		FixedFunctionPipeline p = FixedFunctionPipeline.setupRenderDisplayList(list.attribs).update();
+		EaglercraftGPU.bindGLVertexArray(list.vertexArray);
+		if(!sortable) {
+			// sortable arenas have their own index buffer attached in relocate
+			int cnt = capacityQuads << 2;
+			if(!list.bindQuad32) {
+				list.bindQuad16 = false;
+				list.bindQuad32 = true;
+				EaglercraftGPU.attachQuad32EmulationBuffer(cnt, true);
+			}else {
+				EaglercraftGPU.attachQuad32EmulationBuffer(cnt, false);
+			}
+		}
+		p.drawElements(GL_TRIANGLES, quadCount * 6, GL_UNSIGNED_INT, firstQuad * 24);
+	}
+
+	public void destroy() {
+		if(destroyed) {
+			return;
+		}
+		destroyed = true;
+		if(list.vertexArray != null) {
+			EaglercraftGPU.destroyGLVertexArray(list.vertexArray);
+			list.vertexArray = null;
+		}
+		if(list.vertexBuffer != null) {
+			EaglercraftGPU.destroyGLArrayBuffer(list.vertexBuffer);
+			list.vertexBuffer = null;
+		}
+		if(indexBuffer != null) {
+			EaglercraftGPU.destroyGLElementArrayBuffer(indexBuffer);
+			indexBuffer = null;
+		}
+		for(Allocation a = head; a != null; a = a.next) {
+			a.free = true;
+			a.quadOrder = null;
+		}
+		head = null;
+		capacityQuads = 0;
+		usedQuads = 0;
+		liveCount = 0;
+	}
+
+}
\ No newline at end of file
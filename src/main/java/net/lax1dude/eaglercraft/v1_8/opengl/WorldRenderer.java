@@ -20,9 +20,6 @@ import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.FloatBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.IntBuffer;
 import java.util.BitSet;
-import java.util.function.IntBinaryOperator;
-
-import com.carrotsearch.hppc.sorting.QuickSort;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
@@ -95,19 +92,88 @@ public class WorldRenderer {
 
 	private float[] sortArrayCacheA = null;
 	private int[] sortArrayCacheB = null;
+	private int[] sortArrayCacheC = null;
+	private int[] sortArrayCacheD = null;
+	private final int[] sortHistogramCache = new int[1 << 11];
 	private BitSet sortBitSetCache = null;
-	private final IntBinaryOperator sortArrayCacheLambda = this::sortFunction_func_181674_a;
-	private final IntBinaryOperator swapArrayCacheLambda = this::swapFunction_func_181674_a;
 
-	protected int sortFunction_func_181674_a(int integer, int integer1) {
-		return Float.compare(sortArrayCacheA[sortArrayCacheB[integer1]], sortArrayCacheA[sortArrayCacheB[integer]]);
+	/**
+	 * Sorts the quad indices in sortArrayCacheB by the distances in
+	 * sortArrayCacheA, farthest first. The distances are never negative so the
+	 * raw bits of the floats sort the same way as the floats do, which lets this
+	 * be a 3 pass LSD radix sort (11 + 11 + 9 bits) instead of a comparison sort
+	 */
+	private void radixSortFarthestFirst(int count) {
+		float[] dist = sortArrayCacheA;
+		int[] keys = sortArrayCacheC;
+		if(keys == null || keys.length < count) {
+			keys = sortArrayCacheC = new int[count];
+		}
+		int[] tmp = sortArrayCacheD;
+		if(tmp == null || tmp.length < count) {
+			tmp = sortArrayCacheD = new int[count];
+		}
+		int[] src = sortArrayCacheB;
+		for(int i = 0; i < count; ++i) {
+			// flipped so the farthest quads get the smallest keys
+			keys[i] = 0x7FFFFFFF - Float.floatToRawIntBits(dist[i]);
+			src[i] = i;
+		}
+		int[] hist = sortHistogramCache;
+		int[] dst = tmp;
+		for(int shift = 0; shift < 31; shift += 11) {
+			for(int i = 0; i < hist.length; ++i) {
+				hist[i] = 0;
+			}
+			for(int i = 0; i < count; ++i) {
+				++hist[(keys[src[i]] >>> shift) & 0x7FF];
+			}
+			int sum = 0;
+			for(int i = 0; i < hist.length; ++i) {
+				int j = hist[i];
+				hist[i] = sum;
+				sum += j;
+			}
+			for(int i = 0; i < count; ++i) {
+				int j = src[i];
+				dst[hist[(keys[j] >>> shift) & 0x7FF]++] = j;
+			}
+			int[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		// odd number of passes, so the result ended up in the temp array
+		sortArrayCacheB = src;
+		sortArrayCacheD = dst;
 	}
 
-	protected int swapFunction_func_181674_a(int i, int j) {
-		int swap = sortArrayCacheB[i];
-		sortArrayCacheB[i] = sortArrayCacheB[j];
-		sortArrayCacheB[j] = swap;
-		return 0;
+	/**
+	 * Calculates the back to front order of the quads in a state without
+	 * touching its vertices, the camera position is in the same space as the
+	 * vertices of the state. The returned array is reused by the next sort and
+	 * only the first (state.getVertexCount() / 4) entries are valid
+	 */
+	public int[] sortQuadOrder(WorldRenderer.State state, float x, float y, float z) {
+		float[] centroids = state.getQuadCentroids();
+		int i = centroids.length / 3;
+		float[] afloat = sortArrayCacheA;
+		if(afloat == null || afloat.length < i) {
+			afloat = new float[i];
+			sortArrayCacheA = afloat;
+		}
+		for (int j = 0; j < i; ++j) {
+			float dx = centroids[j * 3] - x;
+			float dy = centroids[j * 3 + 1] - y;
+			float dz = centroids[j * 3 + 2] - z;
+			afloat[j] = dx * dx + dy * dy + dz * dz;
+		}
+		int[] ainteger = sortArrayCacheB;
+		if(ainteger == null || ainteger.length < i) {
+			ainteger = new int[i];
+			sortArrayCacheB = ainteger;
+		}
+		radixSortFarthestFirst(i);
+		return sortArrayCacheB;
 	}
 
 	/**
@@ -137,11 +203,8 @@ public class WorldRenderer {
 			sortArrayCacheB = ainteger;
 		}
 
-		for (int k = 0; k < i; ++k) {
-			ainteger[k] = k;
-		}
-
-		QuickSort.sort(0, i, sortArrayCacheLambda, swapArrayCacheLambda);
+		radixSortFarthestFirst(i);
+		ainteger = sortArrayCacheB;
 
 		BitSet bitset = sortBitSetCache;
 		if(bitset == null) {
@@ -580,6 +643,7 @@ public class WorldRenderer {
 	public class State {
 		private final IntBuffer stateRawBuffer;
 		private final VertexFormat stateVertexFormat;
+		private float[] quadCentroids = null;
 		private int refCount = 1;
 
 		public State(IntBuffer parArrayOfInt, VertexFormat parVertexFormat) {
@@ -599,6 +663,35 @@ public class WorldRenderer {
 			return this.stateVertexFormat;
 		}
 
+		/**
+		 * Center of every quad as x, y, z triples, calculated on first use and
+		 * kept so resorting the same state again only has to do the distances
+		 */
+		public float[] getQuadCentroids() {
+			float[] ret = this.quadCentroids;
+			if(ret == null) {
+				IntBuffer buf = this.stateRawBuffer;
+				int base = buf.position();
+				int stride = this.stateVertexFormat.attribStride >> 2;
+				int quads = getVertexCount() >> 2;
+				ret = this.quadCentroids = new float[quads * 3];
+				for(int i = 0; i < quads; ++i) {
+					int j = base + i * (stride << 2);
+					float x = 0.0f, y = 0.0f, z = 0.0f;
+					for(int k = 0; k < 4; ++k) {
+						x += Float.intBitsToFloat(buf.get(j));
+						y += Float.intBitsToFloat(buf.get(j + 1));
+						z += Float.intBitsToFloat(buf.get(j + 2));
+						j += stride;
+					}
+					ret[i * 3] = x * 0.25f;
+					ret[i * 3 + 1] = y * 0.25f;
+					ret[i * 3 + 2] = z * 0.25f;
+				}
+			}
+			return ret;
+		}
+
 		public void retain() {
 			++refCount;
 		}
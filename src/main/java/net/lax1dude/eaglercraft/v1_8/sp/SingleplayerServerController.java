@@ -18,6 +18,7 @@ package net.lax1dude.eaglercraft.v1_8.sp;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -30,6 +31,7 @@ import net.lax1dude.eaglercraft.v1_8.internal.PlatformWebRTC;
 import org.apache.commons.lang3.StringUtils;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumEaglerConnectionState;
 import net.lax1dude.eaglercraft.v1_8.internal.EnumPlatformType;
 import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
@@ -41,6 +43,7 @@ import net.lax1dude.eaglercraft.v1_8.sp.internal.ClientPlatformSingleplayer;
 import net.lax1dude.eaglercraft.v1_8.sp.ipc.*;
 import net.lax1dude.eaglercraft.v1_8.sp.lan.LANServerController;
 import net.lax1dude.eaglercraft.v1_8.sp.socket.ClientIntegratedServerNetworkManager;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.IPCLocalPacketData;
 import net.minecraft.client.Minecraft;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.IProgressUpdate;
@@ -285,7 +288,11 @@ public class SingleplayerServerController implements ISaveFormat {
 					handleIPCPacket(ipc);
 				}else if(packetData.channel.equals(SingleplayerServerController.PLAYER_CHANNEL)) {
 					if(localPlayerNetworkManager.getConnectStatus() != EnumEaglerConnectionState.CLOSED) {
-						localPlayerNetworkManager.addRecievedPacket(packetData.contents);
+						if(packetData instanceof IPCLocalPacketData) {
+							localPlayerNetworkManager.addRecievedPacket(((IPCLocalPacketData)packetData).packet);
+						}else {
+							localPlayerNetworkManager.addRecievedPacket(packetData.contents);
+						}
 					}else {
 						logger.warn("Recieved {} byte packet on closed local player connection", packetData.contents.length);
 					}
@@ -336,6 +343,8 @@ public class SingleplayerServerController implements ISaveFormat {
 				case IPCPacketFFProcessKeepAlive.FAILURE:
 					logger.error("Server signaled 'FAILURE' response in state '{}'", IntegratedServerState.getStateName(statusState));
 					statusState = IntegratedServerState.WORLD_NONE;
+					importData = null;
+					exportStream = null;
 					callFailed = true;
 					break;
 				case IPCPacket01StopServer.ID:
@@ -346,8 +355,11 @@ public class SingleplayerServerController implements ISaveFormat {
 				case IPCPacket06RenameWorldNBT.ID:
 					statusState = IntegratedServerState.WORLD_NONE;
 					break;
-				case IPCPacket03DeleteWorld.ID:
 				case IPCPacket07ImportWorld.ID:
+					importData = null;
+					statusState = IntegratedServerState.WORLD_NONE;
+					break;
+				case IPCPacket03DeleteWorld.ID:
 				case IPCPacket12FileWrite.ID:
 				case IPCPacket13FileCopyMove.ID:
 				case IPCPacket18ClearPlayers.ID:
@@ -373,12 +385,40 @@ public class SingleplayerServerController implements ISaveFormat {
 			IPCPacket09RequestResponse pkt = (IPCPacket09RequestResponse)ipc;
 			if(statusState == IntegratedServerState.WORLD_EXPORTING) {
 				statusState = IntegratedServerState.WORLD_NONE;
-				exportResponse = pkt.response;
+				if(exportStream != null) {
+					exportStream.write(pkt.response, 0, pkt.response.length);
+					exportResponse = exportStream.toByteArray();
+					exportStream = null;
+				}else {
+					exportResponse = pkt.response;
+				}
 			}else {
 				logger.error("IPCPacket09RequestResponse was recieved but statusState was '{}' instead of 'WORLD_EXPORTING'", IntegratedServerState.getStateName(statusState));
 			}
 			break;
 		}
+		case IPCPacket1DWorldDataChunk.ID: {
+			IPCPacket1DWorldDataChunk pkt = (IPCPacket1DWorldDataChunk)ipc;
+			if(statusState == IntegratedServerState.WORLD_EXPORTING) {
+				if(exportStream == null) {
+					exportStream = new EaglerOutputStream(IPCPacket1DWorldDataChunk.CHUNK_SIZE * 4);
+				}
+				if(pkt.offset == exportStream.size()) {
+					exportStream.write(pkt.data, 0, pkt.data.length);
+				}else {
+					logger.error("IPCPacket1DWorldDataChunk was recieved at offset {} but {} bytes were exported so far", pkt.offset, exportStream.size());
+				}
+			}else {
+				logger.error("IPCPacket1DWorldDataChunk was recieved but statusState was '{}' instead of 'WORLD_EXPORTING'", IntegratedServerState.getStateName(statusState));
+			}
+			break;
+		}
+		case IPCPacket1EWorldDataAck.ID: {
+			if(statusState == IntegratedServerState.WORLD_IMPORTING) {
+				sendNextImportChunk();
+			}
+			break;
+		}
 		case IPCPacket0DProgressUpdate.ID: {
 			IPCPacket0DProgressUpdate pkt = (IPCPacket0DProgressUpdate)ipc;
 			worldStatusString = pkt.updateMessage;
@@ -462,15 +502,50 @@ public class SingleplayerServerController implements ISaveFormat {
 		return c;
 	}
 
+	/**
+	 * Number of archive chunks the server can have in flight while importing,
+	 * it acknowledges each one as it starts reading it
+	 */
+	private static final int IMPORT_CHUNK_WINDOW = 4;
+
+	private static byte[] importData = null;
+	private static int importDataSent = 0;
+
 	public static void importWorld(String name, byte[] data, int format, byte gameRules) {
 		ensureReady();
 		statusState = IntegratedServerState.WORLD_IMPORTING;
-		sendIPCPacket(new IPCPacket07ImportWorld(name, data, (byte)format, gameRules));
+		importData = data;
+		importDataSent = 0;
+		sendIPCPacket(new IPCPacket07ImportWorld(name, data.length, (byte)format, gameRules));
+		if(ClientPlatformSingleplayer.isRunningSingleThreadMode()) {
+			// the server can't ask for more until this returns, so it gets everything now
+			while(importData != null) {
+				sendNextImportChunk();
+			}
+		}else {
+			for(int i = 0; i < IMPORT_CHUNK_WINDOW; ++i) {
+				sendNextImportChunk();
+			}
+		}
+	}
+
+	private static void sendNextImportChunk() {
+		if(importData == null) {
+			return;
+		}
+		if(importDataSent >= importData.length) {
+			importData = null;
+			return;
+		}
+		int j = Math.min(importData.length - importDataSent, IPCPacket1DWorldDataChunk.CHUNK_SIZE);
+		sendIPCPacket(new IPCPacket1DWorldDataChunk(importDataSent, Arrays.copyOfRange(importData, importDataSent, importDataSent + j)));
+		importDataSent += j;
 	}
 	
 	public static void exportWorld(String name, int format) {
 		ensureReady();
 		statusState = IntegratedServerState.WORLD_EXPORTING;
+		exportStream = null;
 		if(format == IPCPacket05RequestData.REQUEST_LEVEL_EAG) {
 			name = name + (new String(new char[] { (char)253, (char)233, (char)233 })) + EaglerProfile.getName();
 		}
@@ -478,6 +553,7 @@ public class SingleplayerServerController implements ISaveFormat {
 	}
 	
 	private static byte[] exportResponse = null;
+	private static EaglerOutputStream exportStream = null;
 
 	public static byte[] getExportResponse() {
 		byte[] dat = exportResponse;
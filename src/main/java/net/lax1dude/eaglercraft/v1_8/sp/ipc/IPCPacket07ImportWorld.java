@@ -26,7 +26,7 @@ public class IPCPacket07ImportWorld implements IPCPacketBase {
 	public byte gameRules;
 
 	public String worldName;
-	public byte[] worldData;
+	public int worldDataLength;
 	public byte worldFormat;
 	
 	public static final byte WORLD_FORMAT_EAG = 0x00;
@@ -35,9 +35,9 @@ public class IPCPacket07ImportWorld implements IPCPacketBase {
 	public IPCPacket07ImportWorld() {
 	}
 	
-	public IPCPacket07ImportWorld(String worldName, byte[] worldData, byte worldFormat, byte gameRules) {
+	public IPCPacket07ImportWorld(String worldName, int worldDataLength, byte worldFormat, byte gameRules) {
 		this.worldName = worldName;
-		this.worldData = worldData;
+		this.worldDataLength = worldDataLength;
 		this.worldFormat = worldFormat;
 		this.gameRules = gameRules;
 	}
@@ -45,19 +45,17 @@ public class IPCPacket07ImportWorld implements IPCPacketBase {
 	@Override
 	public void deserialize(DataInput bin) throws IOException {
 		worldName = bin.readUTF();
-		worldData = new byte[bin.readInt()];
+		worldDataLength = bin.readInt();
 		worldFormat = bin.readByte();
 		gameRules = bin.readByte();
-		bin.readFully(worldData);
 	}
 
 	@Override
 	public void serialize(DataOutput bin) throws IOException {
 		bin.writeUTF(worldName);
-		bin.writeInt(worldData.length);
+		bin.writeInt(worldDataLength);
 		bin.writeByte(worldFormat);
 		bin.writeByte(gameRules);
-		bin.write(worldData);
 	}
 
 	@Override
@@ -67,7 +65,7 @@ public class IPCPacket07ImportWorld implements IPCPacketBase {
 
 	@Override
 	public int size() {
-		return IPCPacketBase.strLen(worldName) + worldData.length + 6;
+		return IPCPacketBase.strLen(worldName) + 6;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.lax1dude.eaglercraft.v1_8.sp.ipc;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class IPCPacket1DWorldDataChunk implements IPCPacketBase {
+
+	public static final int ID = 0x1D;
+
+	/**
+	 * Size of the pieces world archives are split into when they are
+	 * exported or imported, so neither side has to send the whole
+	 * archive in a single message
+	 */
+	public static final int CHUNK_SIZE = 262144;
+
+	public int offset;
+	public byte[] data;
+	
+	public IPCPacket1DWorldDataChunk() {
+	}
+	
+	public IPCPacket1DWorldDataChunk(int offset, byte[] data) {
+		this.offset = offset;
+		this.data = data;
+	}
+
+	@Override
+	public void deserialize(DataInput bin) throws IOException {
+		offset = bin.readInt();
+		data = new byte[bin.readInt()];
+		bin.readFully(data);
+	}
+
+	@Override
+	public void serialize(DataOutput bin) throws IOException {
+		bin.writeInt(offset);
+		bin.writeInt(data.length);
+		bin.write(data);
+	}
+
+	@Override
+	public int id() {
+		return ID;
+	}
+
+	@Override
+	public int size() {
+		return 8 + data.length;
+	}
+
+}
\ No newline at end of file
@@ -61,6 +61,8 @@ public class IPCPacketManager {
 		mappings.put(IPCPacket1ALoggerMessage.ID, IPCPacket1ALoggerMessage::new);
 		mappings.put(IPCPacket1BEnableLogging.ID, IPCPacket1BEnableLogging::new);
 		mappings.put(IPCPacket1CIssueDetected.ID, IPCPacket1CIssueDetected::new);
+		mappings.put(IPCPacket1DWorldDataChunk.ID, IPCPacket1DWorldDataChunk::new);
+		mappings.put(IPCPacket1EWorldDataAck.ID, IPCPacket1EWorldDataAck::new);
 		mappings.put(IPCPacketFFProcessKeepAlive.ID, IPCPacketFFProcessKeepAlive::new);
 	}
 	
@@ -16,25 +16,77 @@
 
 package net.lax1dude.eaglercraft.v1_8.sp.server;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
+import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.internal.IWorkerThreadPool;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.LogManager;
 import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.RandomAccessMemoryFile;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+import net.minecraft.world.chunk.storage.RegionFile;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 
 public class EaglerChunkLoader extends AnvilChunkLoader {
 
 	private static final String hex = "0123456789ABCDEF";
 	private static final Logger logger = LogManager.getLogger("EaglerChunkLoader");
 
+	/**
+	 * Upper bound on the (estimated) memory held by chunks waiting to be written,
+	 * saves past this point block until enough of the queue is flushed
+	 */
+	private static final int MAX_PENDING_BYTES = 32 * 1024 * 1024;
+
+	/**
+	 * How long chunkTick is allowed to spend writing chunks
+	 */
+	private static final long FLUSH_MILLIS_PER_TICK = 8l;
+
+	/**
+	 * Packs chunks 32x32 into region blobs laid out like vanilla .mca files
+	 * instead of storing one file per chunk. Worlds that still have per-chunk
+	 * .dat files are migrated as their chunks get saved
+	 */
+	public static boolean useRegionFiles = true;
+
+	/**
+	 * How many region blobs to keep in memory per dimension
+	 */
+	private static final int MAX_LOADED_REGIONS = 16;
+
+	/**
+	 * How long a modified region can sit in memory before chunkTick writes it,
+	 * so several batches of chunk saves end up in the same store transaction
+	 */
+	private static final long REGION_WRITE_DELAY_MILLIS = 5000l;
+
+	private static IWorkerThreadPool compressPool = null;
+	private static boolean compressPoolCreated = false;
+
+	private static IWorkerThreadPool getCompressPool() {
+		if(!compressPoolCreated) {
+			compressPoolCreated = true;
+			compressPool = EagRuntime.createWorkerThreadPool("Chunk Compressor", 2);
+		}
+		return compressPool;
+	}
+
 	public static String getChunkPath(int x, int z) {
 		int unsignedX = x + 1900000;
 		int unsignedZ = z + 1900000;
@@ -63,18 +115,163 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 		return new ChunkCoordIntPair(retX - 1900000, retZ - 1900000);
 	}
 
+	public static String getRegionPath(int regionX, int regionZ) {
+		return "r." + regionX + "." + regionZ + ".mca";
+	}
+
+	public static boolean isRegionFileName(String filename) {
+		return filename.startsWith("r.") && filename.endsWith(".mca");
+	}
+
+	private static boolean isLegacyChunkFileName(String filename) {
+		if(filename.length() != 16 || !filename.endsWith(".dat")) {
+			return false;
+		}
+		for(int i = 0; i < 12; ++i) {
+			if(hex.indexOf(filename.charAt(i)) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A chunk that was saved but not written yet, the NBT is dropped once a
+	 * worker thread has compressed it
+	 */
+	private static class PendingChunk implements Runnable {
+
+		private final int x;
+		private final int z;
+		private final int estimatedSize;
+		private volatile NBTTagCompound nbt;
+		private volatile byte[] compressed = null;
+		private volatile boolean cancelled = false;
+		private volatile boolean failed = false;
+		private boolean submitted = false;
+
+		private PendingChunk(int x, int z, NBTTagCompound nbt, int estimatedSize) {
+			this.x = x;
+			this.z = z;
+			this.nbt = nbt;
+			this.estimatedSize = estimatedSize;
+		}
+
+		@Override
+		public void run() {
+			NBTTagCompound n = nbt;
+			if(cancelled || n == null) {
+				return;
+			}
+			try {
+				compressed = compress(n);
+				nbt = null;
+			}catch(Throwable t) {
+				logger.error("Failed to compress chunk {}, {}", x, z);
+				logger.error(t);
+				failed = true;
+			}
+		}
+
+	}
+
+	private static class LoadedRegion {
+
+		private final int x;
+		private final int z;
+		private final RegionFile file;
+		private long dirtySince = -1l;
+		private Set<Long> migratedChunks = null;
+
+		private LoadedRegion(int x, int z, RegionFile file) {
+			this.x = x;
+			this.z = z;
+			this.file = file;
+		}
+
+		private void markDirty() {
+			if(dirtySince == -1l) {
+				dirtySince = EagRuntime.steadyTimeMillis();
+			}
+		}
+
+	}
+
 	public final VFile2 chunkDirectory;
+	public final boolean regionStorage;
+
+	private final Map<Long, PendingChunk> pendingWrites = new LinkedHashMap<>();
+	private int pendingBytes = 0;
+
+	private final Set<Long> legacyChunks = new HashSet<>();
+	private final Set<Long> regionsOnDisk = new HashSet<>();
+	private final Map<Long, LoadedRegion> loadedRegions = new LinkedHashMap<>(32, 0.75f, true);
 
 	public EaglerChunkLoader(VFile2 chunkDirectory) {
+		this(chunkDirectory, useRegionFiles);
+	}
+
+	public EaglerChunkLoader(VFile2 chunkDirectory, boolean regionStorage) {
 		this.chunkDirectory = chunkDirectory;
+		this.regionStorage = regionStorage;
+		// list the directory once up front instead of checking if a file exists before every read
+		for(String path : chunkDirectory.listFilenames(false)) {
+			String name = VFile2.getNameFromPath(path);
+			if(isLegacyChunkFileName(name)) {
+				ChunkCoordIntPair pos = getChunkCoords(name.substring(0, 12));
+				legacyChunks.add(ChunkCoordIntPair.chunkXZ2Int(pos.chunkXPos, pos.chunkZPos));
+			}else if(isRegionFileName(name)) {
+				String[] split = name.split("\\.");
+				if(split.length == 4) {
+					try {
+						regionsOnDisk.add(ChunkCoordIntPair.chunkXZ2Int(Integer.parseInt(split[1]), Integer.parseInt(split[2])));
+					}catch(NumberFormatException ex) {
+					}
+				}
+			}
+		}
 	}
 
 	@Override
 	public Chunk loadChunk(World var1, int var2, int var3) throws IOException {
-		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2, var3) + ".dat");
-		if(!file.exists()) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(var2, var3);
+		PendingChunk pending = pendingWrites.get(key);
+		if(pending != null) {
+			try {
+				NBTTagCompound nbt = pending.nbt;
+				if(nbt != null) {
+					// the queued copy must not end up sharing arrays with the live chunk
+					nbt = (NBTTagCompound) nbt.copy();
+				}else {
+					try(InputStream is = new EaglerInputStream(pending.compressed)) {
+						nbt = CompressedStreamTools.readCompressed(is);
+					}
+				}
+				return checkedReadChunkFromNBT(var1, var2, var3, nbt);
+			}catch(Throwable t) {
+				
+			}
 			return null;
 		}
+		LoadedRegion region = getRegion(var2 >> 5, var3 >> 5, false);
+		if(region != null && region.file.isChunkSaved(var2 & 31, var3 & 31)) {
+			try {
+				NBTTagCompound nbt;
+				try(DataInputStream is = region.file.getChunkDataInputStream(var2 & 31, var3 & 31)) {
+					nbt = is != null ? CompressedStreamTools.read(is) : null;
+				}
+				if(nbt != null) {
+					return checkedReadChunkFromNBT(var1, var2, var3, nbt);
+				}
+			}catch(Throwable t) {
+				
+			}
+			logger.error("Could not read chunk {}, {} from region file {}", var2, var3, getRegionPath(region.x, region.z));
+		}
+		if(!legacyChunks.contains(key)) {
+			return null;
+		}
+		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2, var3) + ".dat");
 		try {
 			NBTTagCompound nbt;
 			try(InputStream is = file.getInputStream()) {
@@ -87,16 +284,216 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 		return null;
 	}
 
+	/**
+	 * False only if loadChunk is sure to find nothing for this chunk, used to
+	 * avoid generating terrain ahead of time for chunks that are already saved.
+	 * Never reads anything, a region that isn't loaded yet counts as having
+	 * every chunk in it
+	 */
+	public boolean chunkMayExist(int x, int z) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(x, z);
+		if(pendingWrites.containsKey(key) || legacyChunks.contains(key)) {
+			return true;
+		}
+		long regionKey = ChunkCoordIntPair.chunkXZ2Int(x >> 5, z >> 5);
+		LoadedRegion region = loadedRegions.get(regionKey);
+		if(region != null) {
+			return region.file.isChunkSaved(x & 31, z & 31);
+		}
+		return regionsOnDisk.contains(regionKey);
+	}
+
 	@Override
 	public void saveChunk(World var1, Chunk var2) throws IOException {
 		var1.alfheim$getLightingEngine().processLightUpdates();
 		NBTTagCompound chunkData = new NBTTagCompound();
 		this.writeChunkToNBT(var2, var1, chunkData);
+		detachLiveArrays(chunkData);
 		NBTTagCompound fileData = new NBTTagCompound();
 		fileData.setTag("Level", chunkData);
-		VFile2 file = WorldsDB.newVFile(chunkDirectory, getChunkPath(var2.xPosition, var2.zPosition) + ".dat");
-		try(OutputStream os = file.getOutputStream()) {
-			CompressedStreamTools.writeCompressed(fileData, os);
+		
+		int estimatedSize = 2048 + chunkData.getTagList("Sections", 10).tagCount() * 10240;
+		PendingChunk pending = new PendingChunk(var2.xPosition, var2.zPosition, fileData, estimatedSize);
+		PendingChunk prev = pendingWrites.put(ChunkCoordIntPair.chunkXZ2Int(var2.xPosition, var2.zPosition), pending);
+		if(prev != null) {
+			prev.cancelled = true;
+			pendingBytes -= prev.estimatedSize;
+		}
+		pendingBytes += estimatedSize;
+		
+		IWorkerThreadPool pool = getCompressPool();
+		if(pool != null) {
+			pending.submitted = true;
+			pool.execute(pending);
+		}
+		
+		if(pendingBytes > MAX_PENDING_BYTES) {
+			flushPending(MAX_PENDING_BYTES * 3 / 4, -1l);
+		}
+	}
+
+	/**
+	 * writeChunkToNBT stores some of the chunk's arrays directly instead of
+	 * copying them, they have to be copied before the NBT is queued since the
+	 * chunk can keep changing until it gets written
+	 */
+	private static void detachLiveArrays(NBTTagCompound chunkData) {
+		chunkData.setIntArray("HeightMap", chunkData.getIntArray("HeightMap").clone());
+		chunkData.setByteArray("Biomes", chunkData.getByteArray("Biomes").clone());
+		NBTTagList sections = chunkData.getTagList("Sections", 10);
+		for(int i = 0, l = sections.tagCount(); i < l; ++i) {
+			NBTTagCompound section = sections.getCompoundTagAt(i);
+			section.setByteArray("BlockLight", section.getByteArray("BlockLight").clone());
+			section.setByteArray("SkyLight", section.getByteArray("SkyLight").clone());
+		}
+	}
+
+	private static byte[] compress(NBTTagCompound nbt) throws IOException {
+		EaglerOutputStream bao = new EaglerOutputStream(16384);
+		CompressedStreamTools.writeCompressed(nbt, bao);
+		return bao.toByteArray();
+	}
+
+	/**
+	 * Writes queued chunks oldest first until pendingBytes is at most
+	 * targetBytes, or until the deadline passes if there is one. Chunks still
+	 * being compressed on a worker are skipped unless this is a full flush
+	 */
+	private void flushPending(int targetBytes, long deadline) {
+		boolean block = targetBytes <= 0 && deadline == -1l;
+		Iterator<PendingChunk> itr = pendingWrites.values().iterator();
+		while(itr.hasNext() && pendingBytes > targetBytes) {
+			PendingChunk pending = itr.next();
+			byte[] data = pending.compressed;
+			if(data == null) {
+				if(pending.submitted && !pending.failed && deadline != -1l) {
+					continue;
+				}
+				// still compressing, do it here instead of waiting for the worker
+				pending.cancelled = true;
+				NBTTagCompound nbt = pending.nbt;
+				if(nbt != null) {
+					try {
+						data = compress(nbt);
+					}catch(IOException ex) {
+						logger.error("Failed to compress chunk {}, {}", pending.x, pending.z);
+						logger.error(ex);
+					}
+				}else {
+					data = pending.compressed;
+				}
+			}
+			itr.remove();
+			pendingBytes -= pending.estimatedSize;
+			if(data != null) {
+				writeChunkData(pending.x, pending.z, data);
+			}
+			if(deadline != -1l && EagRuntime.steadyTimeMillis() > deadline) {
+				break;
+			}
+		}
+		if(block && !pendingWrites.isEmpty()) {
+			logger.warn("{} chunks were left in the write queue after a full flush!", pendingWrites.size());
+		}
+	}
+
+	private void writeChunkData(int x, int z, byte[] data) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(x, z);
+		if(regionStorage) {
+			LoadedRegion region = getRegion(x >> 5, z >> 5, true);
+			if(region.file.writeChunk(x & 31, z & 31, data, data.length, 1)) {
+				region.markDirty();
+				if(legacyChunks.remove(key)) {
+					// the old file is deleted once the region has been written
+					if(region.migratedChunks == null) {
+						region.migratedChunks = new HashSet<>();
+					}
+					region.migratedChunks.add(key);
+				}
+				return;
+			}
+			// too large for a region file (over 1MB compressed), keep it in its own file
+			if(region.migratedChunks != null) {
+				region.migratedChunks.remove(key);
+			}
+		}
+		WorldsDB.newVFile(chunkDirectory, getChunkPath(x, z) + ".dat").setAllBytes(data);
+		legacyChunks.add(key);
+		LoadedRegion region = getRegion(x >> 5, z >> 5, false);
+		if(region != null && region.file.isChunkSaved(x & 31, z & 31)) {
+			region.file.removeChunk(x & 31, z & 31);
+			region.markDirty();
+		}
+	}
+
+	private LoadedRegion getRegion(int regionX, int regionZ, boolean create) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(regionX, regionZ);
+		LoadedRegion region = loadedRegions.get(key);
+		if(region != null) {
+			return region;
+		}
+		byte[] data = null;
+		if(regionsOnDisk.contains(key)) {
+			data = WorldsDB.newVFile(chunkDirectory, getRegionPath(regionX, regionZ)).getAllBytes();
+		}
+		RegionFile file = null;
+		if(data != null) {
+			try {
+				file = new RegionFile(new RandomAccessMemoryFile(data, data.length));
+			}catch(RuntimeException ex) {
+				logger.error("Region file {} is corrupt!", getRegionPath(regionX, regionZ));
+				logger.error(ex);
+			}
+		}
+		if(file == null) {
+			if(!create) {
+				return null;
+			}
+			file = new RegionFile(new RandomAccessMemoryFile(new byte[65536], 0));
+		}
+		region = new LoadedRegion(regionX, regionZ, file);
+		loadedRegions.put(key, region);
+		if(loadedRegions.size() > MAX_LOADED_REGIONS) {
+			Iterator<LoadedRegion> itr = loadedRegions.values().iterator();
+			while(itr.hasNext() && loadedRegions.size() > MAX_LOADED_REGIONS) {
+				LoadedRegion eldest = itr.next();
+				if(eldest != region) {
+					if(eldest.dirtySince != -1l) {
+						writeRegion(eldest);
+					}
+					itr.remove();
+				}
+			}
+		}
+		return region;
+	}
+
+	private void writeRegion(LoadedRegion region) {
+		WorldsDB.newVFile(chunkDirectory, getRegionPath(region.x, region.z)).setAllBytes(region.file.getFile().getByteArray());
+		regionsOnDisk.add(ChunkCoordIntPair.chunkXZ2Int(region.x, region.z));
+		region.dirtySince = -1l;
+		if(region.migratedChunks != null) {
+			for(Long key : region.migratedChunks) {
+				long l = key.longValue();
+				WorldsDB.newVFile(chunkDirectory, getChunkPath((int) l, (int) (l >> 32)) + ".dat").delete();
+			}
+			region.migratedChunks = null;
+		}
+	}
+
+	/**
+	 * Writes regions that were modified before dirtyBefore, at most maxCount of
+	 * them, -1 for no limit
+	 */
+	private void flushRegions(long dirtyBefore, int maxCount) {
+		for(LoadedRegion region : loadedRegions.values()) {
+			if(maxCount == 0) {
+				break;
+			}
+			if(region.dirtySince != -1l && region.dirtySince <= dirtyBefore) {
+				writeRegion(region);
+				--maxCount;
+			}
 		}
 	}
 
@@ -107,12 +504,22 @@ public class EaglerChunkLoader extends AnvilChunkLoader {
 
 	@Override
 	public void chunkTick() {
-		// ?
+		if(!pendingWrites.isEmpty()) {
+			flushPending(0, EagRuntime.steadyTimeMillis() + FLUSH_MILLIS_PER_TICK);
+		}
+		if(!loadedRegions.isEmpty()) {
+			flushRegions(EagRuntime.steadyTimeMillis() - REGION_WRITE_DELAY_MILLIS, 1);
+		}
 	}
 
 	@Override
 	public void saveExtraData() {
-		// ?
+		if(!pendingWrites.isEmpty()) {
+			flushPending(0, -1l);
+		}
+		if(!loadedRegions.isEmpty()) {
+			flushRegions(Long.MAX_VALUE, -1);
+		}
 	}
 
 }
\ No newline at end of file
@@ -20,13 +20,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import net.lax1dude.eaglercraft.v1_8.EagRuntime;
-import net.lax1dude.eaglercraft.v1_8.EagUtils;
 import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
 import net.lax1dude.eaglercraft.v1_8.log4j.ILogRedirector;
@@ -45,6 +45,8 @@ import net.minecraft.world.WorldSettings.GameType;
 import net.minecraft.world.WorldType;
 import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterEPK;
 import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldConverterMCA;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldDataInputStream;
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.WorldDataOutputStream;
 import net.lax1dude.eaglercraft.v1_8.sp.server.internal.ServerPlatformSingleplayer;
 import net.lax1dude.eaglercraft.v1_8.sp.server.socket.IntegratedServerPlayerNetworkManager;
 import net.minecraft.nbt.CompressedStreamTools;
@@ -63,27 +65,29 @@ public class EaglerIntegratedServerWorker {
 
 	private static final IPCPacketManager packetManagerInstance = new IPCPacketManager();
 
+	private static final LinkedList<IPCPacketData> packetQueue = new LinkedList<>();
+
 	private static void processAsyncMessageQueue() {
 		List<IPCPacketData> pktList = ServerPlatformSingleplayer.recieveAllPacket();
 		if(pktList != null) {
-			IPCPacketData packetData;
-			for(int i = 0, l = pktList.size(); i < l; ++i) {
-				packetData = pktList.get(i);
-				if(packetData.channel.equals(SingleplayerServerController.IPC_CHANNEL)) {
-					IPCPacketBase ipc;
-					try {
-						ipc = packetManagerInstance.IPCDeserialize(packetData.contents);
-					}catch(IOException ex) {
-						throw new RuntimeException("Failed to deserialize IPC packet", ex);
-					}
-					handleIPCPacket(ipc);
+			packetQueue.addAll(pktList);
+		}
+		IPCPacketData packetData;
+		while((packetData = packetQueue.poll()) != null) {
+			if(packetData.channel.equals(SingleplayerServerController.IPC_CHANNEL)) {
+				IPCPacketBase ipc;
+				try {
+					ipc = packetManagerInstance.IPCDeserialize(packetData.contents);
+				}catch(IOException ex) {
+					throw new RuntimeException("Failed to deserialize IPC packet", ex);
+				}
+				handleIPCPacket(ipc);
+			}else {
+				IntegratedServerPlayerNetworkManager netHandler = openChannels.get(packetData.channel);
+				if(netHandler != null) {
+					netHandler.addRecievedPacket(packetData.contents);
 				}else {
-					IntegratedServerPlayerNetworkManager netHandler = openChannels.get(packetData.channel);
-					if(netHandler != null) {
-						netHandler.addRecievedPacket(packetData.contents);
-					}else {
-						logger.error("Recieved packet on channel that does not exist: \"{}\"", packetData.channel);
-					}
+					logger.error("Recieved packet on channel that does not exist: \"{}\"", packetData.channel);
 				}
 			}
 		}
@@ -95,6 +99,39 @@ public class EaglerIntegratedServerWorker {
 		}
 	}
 
+	/**
+	 * Used while importing a world to pull the next piece of the archive out of
+	 * the packet queue, anything else that arrives in the meantime stays queued
+	 * and is handled in order once the import is done
+	 */
+	public static IPCPacket1DWorldDataChunk pollWorldDataChunk(int timeoutMillis) throws IOException {
+		long start = EagRuntime.steadyTimeMillis();
+		while(true) {
+			Iterator<IPCPacketData> itr = packetQueue.iterator();
+			while(itr.hasNext()) {
+				IPCPacketData packetData = itr.next();
+				if(packetData.contents.length > 0 && (packetData.contents[0] & 0xFF) == IPCPacket1DWorldDataChunk.ID
+						&& packetData.channel.equals(SingleplayerServerController.IPC_CHANNEL)) {
+					itr.remove();
+					return (IPCPacket1DWorldDataChunk)packetManagerInstance.IPCDeserialize(packetData.contents);
+				}
+			}
+			List<IPCPacketData> pktList = ServerPlatformSingleplayer.recieveAllPacket();
+			if(pktList != null) {
+				packetQueue.addAll(pktList);
+				continue;
+			}
+			if(ServerPlatformSingleplayer.isSingleThreadMode()) {
+				// the client sends everything at once when there is no worker
+				throw new IOException("World data ended before the whole archive was recieved");
+			}
+			if(EagRuntime.steadyTimeMillis() - start > timeoutMillis) {
+				throw new IOException("Timed out waiting for world data from the client");
+			}
+			ServerPlatformSingleplayer.waitForPackets(50);
+		}
+	}
+
 	public static void tick() {
 		List<IntegratedServerPlayerNetworkManager> ocs = new ArrayList<>(openChannels.values());
 		for(int i = 0, l = ocs.size(); i < l; ++i) {
@@ -220,9 +257,13 @@ public class EaglerIntegratedServerWorker {
 				tryStopServer();
 				IPCPacket05RequestData pkt = (IPCPacket05RequestData)ipc;
 				if(pkt.request == IPCPacket05RequestData.REQUEST_LEVEL_EAG) {
-					sendIPCPacket(new IPCPacket09RequestResponse(WorldConverterEPK.exportWorld(pkt.worldName)));
+					WorldDataOutputStream os = new WorldDataOutputStream();
+					WorldConverterEPK.exportWorld(pkt.worldName, os);
+					logger.info("Sent {} bytes of EPK data to the client", os.finish());
 				}else if(pkt.request == IPCPacket05RequestData.REQUEST_LEVEL_MCA) {
-					sendIPCPacket(new IPCPacket09RequestResponse(WorldConverterMCA.exportWorld(pkt.worldName)));
+					WorldDataOutputStream os = new WorldDataOutputStream();
+					WorldConverterMCA.exportWorld(pkt.worldName, os);
+					logger.info("Sent {} bytes of MCA data to the client", os.finish());
 				}else {
 					logger.error("Unknown IPCPacket05RequestData type {}", ((int)pkt.request & 0xFF));
 					sendTaskFailed();
@@ -250,9 +291,9 @@ public class EaglerIntegratedServerWorker {
 				IPCPacket07ImportWorld pkt = (IPCPacket07ImportWorld)ipc;
 				try {
 					if(pkt.worldFormat == IPCPacket07ImportWorld.WORLD_FORMAT_EAG) {
-						WorldConverterEPK.importWorld(pkt.worldData, pkt.worldName);
+						WorldConverterEPK.importWorld(new WorldDataInputStream(pkt.worldDataLength, "singleplayer.busy.importing.1"), pkt.worldName);
 					}else if(pkt.worldFormat == IPCPacket07ImportWorld.WORLD_FORMAT_MCA) {
-						WorldConverterMCA.importWorld(pkt.worldData, pkt.worldName, pkt.gameRules);
+						WorldConverterMCA.importWorld(new WorldDataInputStream(pkt.worldDataLength, "singleplayer.busy.importing.2"), pkt.worldName, pkt.gameRules);
 					}else {
 						throw new IOException("Client requested an unsupported export format!");
 					}
@@ -402,6 +443,10 @@ public class EaglerIntegratedServerWorker {
 				enableLoggingRedirector(((IPCPacket1BEnableLogging)ipc).enable);
 				break;
 			}
+			case IPCPacket1DWorldDataChunk.ID: {
+				// still in flight when an import failed
+				break;
+			}
 			default: 
 				logger.error("IPC packet type 0x{} class \"{}\" was not handled", Integer.toHexString(id), ipc.getClass().getSimpleName());
 				sendTaskFailed();
@@ -461,22 +506,27 @@ public class EaglerIntegratedServerWorker {
 		currentProcess = null;
 	}
 
-	private static void mainLoop(boolean singleThreadMode) {
+	/**
+	 * Returns how long the worker can wait for IPC packets before the server
+	 * needs to tick again
+	 */
+	private static int mainLoop(boolean singleThreadMode) {
 		processAsyncMessageQueue();
 		
 		if(currentProcess != null) {
+			int waitMillis = 0;
 			if(currentProcess.isServerRunning()) {
-				currentProcess.mainLoop(singleThreadMode);
+				waitMillis = currentProcess.mainLoop(singleThreadMode);
 			}
 			if(!currentProcess.isServerRunning()) {
 				currentProcess.stopServer();
 				currentProcess = null;
 				sendIPCPacket(new IPCPacketFFProcessKeepAlive(IPCPacket01StopServer.ID));
+				return 0;
 			}
+			return waitMillis;
 		}else {
-			if(!singleThreadMode) {
-				EagUtils.sleep(50);
-			}
+			return 50;
 		}
 	}
 
@@ -495,8 +545,12 @@ public class EaglerIntegratedServerWorker {
 			ServerPlatformSingleplayer.setCrashCallbackWASM(EaglerIntegratedServerWorker::sendIntegratedServerCrashWASMCB);
 			
 			while(true) {
-				mainLoop(false);
-				ServerPlatformSingleplayer.immediateContinue();
+				int waitMillis = mainLoop(false);
+				if(waitMillis > 0) {
+					ServerPlatformSingleplayer.waitForPackets(waitMillis);
+				}else {
+					ServerPlatformSingleplayer.immediateContinue();
+				}
 			}
 		}catch(Throwable tt) {
 			if(tt instanceof ReportedException) {
@@ -17,6 +17,7 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -28,8 +29,10 @@ import net.lax1dude.eaglercraft.v1_8.log4j.Logger;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Bootstrap;
+import net.minecraft.pathfinding.PathFinder;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.EnumDifficulty;
+import net.minecraft.world.IWorldStatsListener;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.WorldSettings;
 import net.minecraft.world.WorldSettings.GameType;
@@ -54,15 +57,92 @@ public class EaglerMinecraftServer extends MinecraftServer {
 
 	private long lastTPSUpdate = 0l;
 
+	/**
+	 * How many ticks mainLoop may run back to back when it is behind before it
+	 * returns to let the worker handle IPC packets
+	 */
+	private static final int MAX_CATCHUP_TICKS = 4;
+
 	public static int counterTicksPerSecond = 0;
 	public static int counterChunkRead = 0;
 	public static int counterChunkGenerate = 0;
 	public static int counterChunkWrite = 0;
 	public static int counterTileUpdate = 0;
 	public static int counterLightUpdate = 0;
+	public static int counterLANPacketsSent = 0;
+	public static int counterLANPacketsEncoded = 0;
 
 	private final List<Runnable> scheduledTasks = new LinkedList<>();
 
+	private int counterPathSearches = 0;
+	private int counterPathNodes = 0;
+	private int counterPathSuspended = 0;
+	private int counterPathCacheHits = 0;
+	private int counterExplosions = 0;
+	private int counterExplosionsMerged = 0;
+	private int counterExplosionCacheHits = 0;
+	private int counterWireUpdates = 0;
+	private int counterWireChanged = 0;
+	private int counterWireNotifies = 0;
+
+	/**
+	 * Installed on every world this server loads, collects the counters of
+	 * the game logic for sendTPSToClient
+	 */
+	private final IWorldStatsListener statsListener = new IWorldStatsListener() {
+
+		@Override
+		public void onExplosion() {
+			++counterExplosions;
+		}
+
+		@Override
+		public void onExplosionMerged() {
+			++counterExplosionsMerged;
+		}
+
+		@Override
+		public void onExplosionCacheHit() {
+			++counterExplosionCacheHits;
+		}
+
+		@Override
+		public void onPathSearch() {
+			++counterPathSearches;
+		}
+
+		@Override
+		public void onPathNodes(int nodes) {
+			counterPathNodes += nodes;
+		}
+
+		@Override
+		public void onPathSuspended() {
+			++counterPathSuspended;
+		}
+
+		@Override
+		public void onPathCacheHit() {
+			++counterPathCacheHits;
+		}
+
+		@Override
+		public void onWireEngineUpdate() {
+			++counterWireUpdates;
+		}
+
+		@Override
+		public void onWirePowerChanged(int wires) {
+			counterWireChanged += wires;
+		}
+
+		@Override
+		public void onWireNotifies(int blocks) {
+			counterWireNotifies += blocks;
+		}
+
+	};
+
 	public EaglerMinecraftServer(String world, String owner, int viewDistance, WorldSettings currentWorldSettings, boolean demo) {
 		super(world);
 		Bootstrap.register();
@@ -123,22 +203,35 @@ public class EaglerMinecraftServer extends MinecraftServer {
 	protected boolean startServer() throws IOException {
 		logger.info("Starting integrated eaglercraft server version 1.8.8");
 		this.loadAllWorlds(saveHandler, this.getWorldName(), newWorldSettings);
+		for(int i = 0; i < this.worldServers.length; ++i) {
+			this.worldServers[i].setStatsListener(statsListener);
+		}
 		serverRunning = true;
 		return true;
 	}
 
+	@Override
+	public void stopServer() {
+		super.stopServer();
+		PathFinder.clearCaches();
+	}
+
 	public void deleteWorldAndStopServer() {
 		super.deleteWorldAndStopServer();
 		logger.info("Deleting world...");
 		EaglerIntegratedServerWorker.saveFormat.deleteWorldDirectory(getFolderName());
 	}
 
-	public void mainLoop(boolean singleThreadMode) {
+	/**
+	 * Runs any ticks that are due and returns how many milliseconds the worker
+	 * can wait before the next one, 0 if it is still behind
+	 */
+	public int mainLoop(boolean singleThreadMode) {
 		long k = getCurrentTimeMillis();
 		this.sendTPSToClient(k);
 		if(paused && this.playersOnline.size() <= 1) {
 			currentTime = k;
-			return;
+			return 50;
 		}
 
 		long j = k - this.currentTime;
@@ -161,17 +254,21 @@ public class EaglerMinecraftServer extends MinecraftServer {
 			this.currentTime = k;
 			this.tick();
 			++counterTicksPerSecond;
+			return 0;
 		} else {
-			if (j > 50L) {
+			for (int i = 0; i < MAX_CATCHUP_TICKS && j >= 50L && this.serverRunning; ++i) {
 				this.currentTime += 50l;
 				this.tick();
 				++counterTicksPerSecond;
+				j = getCurrentTimeMillis() - this.currentTime;
 			}
+			return j >= 50L ? 0 : (int) (50L - j);
 		}
 	}
 
 	public void updateTimeLightAndEntities() {
 		this.skinService.flushCache();
+		PathFinder.resetTickBudget(this.worldServers[0].getGameRules().getBoolean("scheduledPathfinding"));
 		super.updateTimeLightAndEntities();
 	}
 
@@ -181,6 +278,7 @@ public class EaglerMinecraftServer extends MinecraftServer {
 			if(serverRunning && this.worldServers != null) {
 				List<String> lst = Lists.newArrayList(
 						"TPS: " + counterTicksPerSecond + "/20",
+						getMSPTString(),
 						"Chunks: " + countChunksLoaded(this.worldServers) + "/" + countChunksTotal(this.worldServers),
 						"Entities: " + countEntities(this.worldServers) + "+" + countTileEntities(this.worldServers),
 						"R: " + counterChunkRead + ", G: " + counterChunkGenerate + ", W: " + counterChunkWrite,
@@ -190,13 +288,58 @@ public class EaglerMinecraftServer extends MinecraftServer {
 				if(players > 1) {
 					lst.add("Players: " + players);
 				}
+				if(counterLANPacketsEncoded > 0) {
+					// packets sent to LAN peers vs packets actually serialized and compressed
+					lst.add("LAN: " + counterLANPacketsSent + "/" + counterLANPacketsEncoded + " pkt ("
+							+ (counterLANPacketsSent * 100 / counterLANPacketsEncoded) + "%)");
+				}
+				if(counterPathSearches > 0 || counterPathCacheHits > 0) {
+					lst.add("Path: " + counterPathSearches + " (" + counterPathNodes + " nodes), S: "
+							+ counterPathSuspended + ", C: " + counterPathCacheHits);
+				}
+				if(counterExplosions > 0) {
+					lst.add("Expl: " + counterExplosions + ", M: " + counterExplosionsMerged + ", C: "
+							+ counterExplosionCacheHits);
+				}
+				if(counterWireChanged > 0) {
+					lst.add("Wire: " + counterWireChanged + " (" + counterWireUpdates + " BFS), N: "
+							+ counterWireNotifies);
+				}
 				counterTicksPerSecond = counterChunkRead = counterChunkGenerate = 0;
 				counterChunkWrite = counterTileUpdate = counterLightUpdate = 0;
+				counterLANPacketsSent = counterLANPacketsEncoded = 0;
+				counterPathSearches = counterPathNodes = counterPathSuspended = counterPathCacheHits = 0;
+				counterExplosions = counterExplosionsMerged = counterExplosionCacheHits = 0;
+				counterWireUpdates = counterWireChanged = counterWireNotifies = 0;
 				EaglerIntegratedServerWorker.reportTPS(lst);
 			}
 		}
 	}
 
+	/**
+	 * Mean, 95th percentile and max tick time over the last 100 ticks
+	 */
+	private String getMSPTString() {
+		int cnt = Math.min(this.getTickCounter(), tickTimeArray.length);
+		if(cnt <= 0) {
+			return "MSPT: -";
+		}
+		long[] sorted = new long[cnt];
+		System.arraycopy(tickTimeArray, cnt < tickTimeArray.length ? 1 : 0, sorted, 0, cnt);
+		Arrays.sort(sorted);
+		long total = 0l;
+		for(int i = 0; i < cnt; ++i) {
+			total += sorted[i];
+		}
+		return "MSPT: " + formatMillis(total / cnt) + " avg, " + formatMillis(sorted[(cnt * 95 - 1) / 100]) + " p95, "
+				+ formatMillis(sorted[cnt - 1]) + " max";
+	}
+
+	private static String formatMillis(long nanos) {
+		long tenths = (nanos + 50000l) / 100000l;
+		return (tenths / 10l) + "." + (tenths % 10l);
+	}
+
 	private static int countChunksLoaded(WorldServer[] worlds) {
 		int i = 0;
 		for(int j = 0; j < worlds.length; ++j) {
@@ -28,18 +28,34 @@ import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
 
 public class EPKCompiler {
 
-	private final EaglerOutputStream os;
+	private final EaglerOutputStream bufferOut;
+	private final OutputStream os;
 	private final OutputStream dos;
 	private final CRC32 checkSum = new CRC32();
 	private int lengthIntegerOffset = 0;
 	private int totalFileCount = 0;
+	private int expectedFileCount = -1;
 
 	public EPKCompiler(String name, String owner, String type) {
 		this(name, owner, type, false, true, null);
 	}
 
 	public EPKCompiler(String name, String owner, String type, boolean gzip, boolean world, String commentStr) {
-		os = new EaglerOutputStream(0x200000);
+		this(new EaglerOutputStream(0x200000), -1, name, owner, type, gzip, world, commentStr);
+	}
+
+	/**
+	 * Writes an uncompressed world EPK straight to the output stream instead
+	 * of buffering it, the number of files that will be appended must be known
+	 * ahead of time because the header can't be patched afterwards
+	 */
+	public EPKCompiler(OutputStream out, int fileCount, String name, String owner, String type) {
+		this(out, fileCount, name, owner, type, false, true, null);
+	}
+
+	private EPKCompiler(OutputStream out, int fileCount, String name, String owner, String type, boolean gzip, boolean world, String commentStr) {
+		os = out;
+		bufferOut = fileCount < 0 ? (EaglerOutputStream)out : null;
 		try {
 			
 			os.write(new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)36,(byte)36}); // EAGPKG$$
@@ -62,8 +78,13 @@ public class EPKCompiler {
 			
 			writeLong(d.getTime(), os);
 			
-			lengthIntegerOffset = os.size();
-			os.write(new byte[]{(byte)255,(byte)255,(byte)255,(byte)255}); // this will be replaced with the file count
+			if(bufferOut != null) {
+				lengthIntegerOffset = bufferOut.size();
+				os.write(new byte[]{(byte)255,(byte)255,(byte)255,(byte)255}); // this will be replaced with the file count
+			}else {
+				expectedFileCount = fileCount + (world ? (owner != null ? 3 : 2) : 1);
+				writeInt(expectedFileCount, os);
+			}
 			
 			if(gzip) {
 				os.write('G'); // compression type: gzip
@@ -144,13 +165,16 @@ public class EPKCompiler {
 	}
 	
 	public byte[] complete() {
+		if(bufferOut == null) {
+			throw new IllegalStateException("EPK is being streamed, call finish() instead");
+		}
 		try {
 			dos.write(new byte[]{(byte)69,(byte)78,(byte)68,(byte)36}); // END$
 			dos.close();
 			
 			os.write(new byte[]{(byte)58,(byte)58,(byte)58,(byte)89,(byte)69,(byte)69,(byte)58,(byte)62}); // :::YEE:>
 			
-			byte[] ret = os.toByteArray();
+			byte[] ret = bufferOut.toByteArray();
 
 			ret[lengthIntegerOffset] = (byte)(totalFileCount >>> 24);
 			ret[lengthIntegerOffset + 1] = (byte)(totalFileCount >>> 16);
@@ -164,6 +188,17 @@ public class EPKCompiler {
 		}
 	}
 	
+	public void finish() throws IOException {
+		if(bufferOut != null) {
+			throw new IllegalStateException("EPK is being buffered, call complete() instead");
+		}
+		if(totalFileCount != expectedFileCount) {
+			throw new IOException("EPK header promised " + expectedFileCount + " files but " + totalFileCount + " were written");
+		}
+		os.write(new byte[]{(byte)69,(byte)78,(byte)68,(byte)36}); // END$
+		os.write(new byte[]{(byte)58,(byte)58,(byte)58,(byte)89,(byte)69,(byte)69,(byte)58,(byte)62}); // :::YEE:>
+	}
+	
 	public static void writeInt(int i, OutputStream os) throws IOException {
 		os.write((i >>> 24) & 0xFF);
 		os.write((i >>> 16) & 0xFF);
@@ -39,63 +39,203 @@ public class EPKDecompiler implements Closeable {
 		}
 	}
 	
-	private ByteArrayInputStream in2;
+	private static final byte[] endCode = new byte[] { (byte)':', (byte)':', (byte)':', (byte)'Y',
+			(byte)'E', (byte)'E', (byte)':', (byte)'>' };
+
+	private InputStream in;
 	private InputStream zis;
 	private CRC32 crc32;
 	private int numFiles;
 	private boolean isFinished = false;
+	private boolean checkEndCode = false;
+	private IndexedEntry[] indexedEntries = null;
+	private int indexedNext = 0;
+	private int indexedPosition = 0;
+
+	private static class IndexedEntry {
+		private final String type;
+		private final String name;
+		private final char method;
+		private final int offset;
+		private final int storedLength;
+		private final int length;
+		private final int crc;
+		private IndexedEntry(String type, String name, char method, int offset, int storedLength, int length, int crc) {
+			this.type = type;
+			this.name = name;
+			this.method = method;
+			this.offset = offset;
+			this.storedLength = storedLength;
+			this.length = length;
+			this.crc = crc;
+		}
+	}
 	
 	public EPKDecompiler(byte[] data) throws IOException {
-		in2 = new ByteArrayInputStream(data);
+		ByteArrayInputStream in2 = new ByteArrayInputStream(data);
 		
 		byte[] header = new byte[8];
 		IOUtils.readFully(in2, header);
 		
 		if(Arrays.equals(header, new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)36,(byte)36})) {
-			byte[] endCode = new byte[] { (byte)':', (byte)':', (byte)':', (byte)'Y',
-					(byte)'E', (byte)'E', (byte)':', (byte)'>' };
 			for(int i = 0; i < 8; ++i) {
 				if(data[data.length - 8 + i] != endCode[i]) {
 					throw new IOException("EPK file is missing EOF code (:::YEE:>)");
 				}
 			}
-			in2 = new ByteArrayInputStream(data, 8, data.length - 16);
-			InputStream is = in2;
-			
-			String vers = readASCII(is);
-			if(!vers.startsWith("ver2.")) {
-				throw new IOException("Unknown or invalid EPK version: " + vers);
-			}
+			readHeader(new ByteArrayInputStream(data, 8, data.length - 16));
+		}else {
+			checkHeaderType(header);
+		}
+		
+	}
+
+	/**
+	 * Reads the EPK as it arrives instead of requiring the whole file up front,
+	 * the EOF code is checked once END$ is reached on uncompressed files
+	 */
+	public EPKDecompiler(InputStream is) throws IOException {
+		byte[] header = new byte[8];
+		IOUtils.readFully(is, header);
+		
+		if(Arrays.equals(header, new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)36,(byte)36})) {
+			checkEndCode = true;
+			readHeader(is);
+		}else {
+			checkHeaderType(header);
+		}
+	}
+
+	private void readHeader(InputStream is) throws IOException {
+		in = is;
+		
+		String vers = readASCII(is);
+		boolean indexed = vers.startsWith("ver3.");
+		if(!indexed && !vers.startsWith("ver2.")) {
+			throw new IOException("Unknown or invalid EPK version: " + vers);
+		}
 
-			IOUtils.skipFully(is, is.read()); // skip filename
-			IOUtils.skipFully(is, loadShort(is)); // skip comment
-			IOUtils.skipFully(is, 8); // skip millis date
-			
-			numFiles = loadInt(is);
-			
-			char compressionType = (char)is.read();
-			
-			switch(compressionType) {
-			case 'G':
-				zis = EaglerZLIB.newGZIPInputStream(is);
-				break;
-			case 'Z':
-				zis = EaglerZLIB.newInflaterInputStream(is);
-				break;
-			case '0':
-				zis = is;
-				break;
-			default:
+		int fileNameLen = is.read();
+		IOUtils.skipFully(is, fileNameLen); // skip filename
+		int commentLen = loadShort(is);
+		IOUtils.skipFully(is, commentLen); // skip comment
+		IOUtils.skipFully(is, 8); // skip millis date
+		
+		numFiles = loadInt(is);
+		
+		char compressionType = (char)is.read();
+		
+		if(indexed) {
+			if(compressionType != 'I') {
 				throw new IOException("Invalid or unsupported EPK compression: " + compressionType);
 			}
-			
+			indexedPosition = 8 + 1 + vers.length() + 1 + fileNameLen + 2 + commentLen + 8 + 4 + 1;
+			readDirectory(is);
+			zis = is;
 			crc32 = new CRC32();
-		}else if(Arrays.equals(header, new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)33,(byte)33})) {
+			return;
+		}
+		
+		switch(compressionType) {
+		case 'G':
+			zis = EaglerZLIB.newGZIPInputStream(is);
+			break;
+		case 'Z':
+			zis = EaglerZLIB.newInflaterInputStream(is);
+			break;
+		case '0':
+			zis = is;
+			break;
+		default:
+			throw new IOException("Invalid or unsupported EPK compression: " + compressionType);
+		}
+		
+		crc32 = new CRC32();
+	}
+
+	/**
+	 * The "ver3" directory lists every entry before its data, the data is still
+	 * read front to back here so the same code works for streams
+	 */
+	private void readDirectory(InputStream is) throws IOException {
+		if(numFiles < 0) {
+			throw new IOException("Invalid EPK entry count: " + numFiles);
+		}
+		indexedEntries = new IndexedEntry[numFiles];
+		byte[] typeBytes = new byte[4];
+		for(int i = 0; i < numFiles; ++i) {
+			IOUtils.readFully(is, typeBytes);
+			String name = readASCII(is);
+			char method = (char)is.read();
+			int offset = loadInt(is);
+			int storedLength = loadInt(is);
+			int length = loadInt(is);
+			int crc = loadInt(is);
+			if(storedLength < 0 || length < 0) {
+				throw new IOException("Object '" + name + "' has an invalid length");
+			}
+			indexedEntries[i] = new IndexedEntry(readASCII(typeBytes), name, method, offset, storedLength, length, crc);
+			indexedPosition += 4 + 1 + name.length() + 1 + 16;
+		}
+		IOUtils.readFully(is, typeBytes);
+		if(!"END$".equals(readASCII(typeBytes))) {
+			throw new IOException("EPK file is missing END code (END$)");
+		}
+		indexedPosition += 4;
+	}
+
+	private FileEntry readIndexedFile() throws IOException {
+		if(indexedNext == indexedEntries.length) {
+			if(checkEndCode) {
+				byte[] eof = new byte[8];
+				IOUtils.readFully(in, eof);
+				if(!Arrays.equals(eof, endCode)) {
+					throw new IOException("EPK file is missing EOF code (:::YEE:>)");
+				}
+			}
+			isFinished = true;
+			return null;
+		}
+		IndexedEntry etr = indexedEntries[indexedNext++];
+		if(etr.offset < indexedPosition) {
+			throw new IOException("Object '" + etr.name + "' overlaps the previous object");
+		}
+		IOUtils.skipFully(in, etr.offset - indexedPosition);
+		byte[] stored = new byte[etr.storedLength];
+		IOUtils.readFully(in, stored);
+		indexedPosition = etr.offset + etr.storedLength;
+		byte[] data;
+		switch(etr.method) {
+		case '0':
+			data = stored;
+			break;
+		case 'Z':
+			data = new byte[etr.length];
+			if(EaglerZLIB.inflateFull(stored, data) != etr.length) {
+				throw new IOException("Object '" + etr.name + "' is incomplete");
+			}
+			break;
+		default:
+			throw new IOException("Object '" + etr.name + "' has an unsupported compression: " + etr.method);
+		}
+		if(data.length != etr.length) {
+			throw new IOException("Object '" + etr.name + "' is incomplete");
+		}
+		crc32.reset();
+		crc32.update(data, 0, data.length);
+		if((int)crc32.getValue() != etr.crc) {
+			throw new IOException("File '" + etr.name + "' has an invalid checksum");
+		}
+		--numFiles;
+		return new FileEntry(etr.type, etr.name, data);
+	}
+
+	private static void checkHeaderType(byte[] header) throws IOException {
+		if(Arrays.equals(header, new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)33,(byte)33})) {
 			throw new IOException("FILE IS AN UNSUPPORTED LEGACY FORMAT!");
 		}else {
 			throw new IOException("FILE IS NOT AN EPK FILE!");
 		}
-		
 	}
 
 	public FileEntry readFile() throws IOException {
@@ -103,6 +243,10 @@ public class EPKDecompiler implements Closeable {
 			return null;
 		}
 		
+		if(indexedEntries != null) {
+			return readIndexedFile();
+		}
+		
 		byte[] typeBytes = new byte[4];
 		IOUtils.readFully(zis, typeBytes);
 		String type = readASCII(typeBytes);
@@ -111,6 +255,13 @@ public class EPKDecompiler implements Closeable {
 			if(!"END$".equals(type)) {
 				throw new IOException("EPK file is missing END code (END$)");
 			}
+			if(checkEndCode && zis == in) {
+				byte[] eof = new byte[8];
+				IOUtils.readFully(in, eof);
+				if(!Arrays.equals(eof, endCode)) {
+					throw new IOException("EPK file is missing EOF code (:::YEE:>)");
+				}
+			}
 			isFinished = true;
 			return null;
 		}else {
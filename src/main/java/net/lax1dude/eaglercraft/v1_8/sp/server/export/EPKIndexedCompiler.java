@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.sp.server.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
+import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
+
+/**
+ * Writes the "ver3" EPK layout, each entry is deflated on its own and listed in
+ * a directory right after the header so a reader can find and inflate single
+ * files out of the archive without unpacking the whole thing:
+ * 
+ * <pre>
+ * EAGPKG$$, "ver3.0", filename, comment, date, entry count, 'I'
+ * per entry: type[4], name, method ('0' or 'Z'), offset, stored length, length, crc32
+ * END$
+ * entry data in directory order
+ * :::YEE:&gt;
+ * </pre>
+ * 
+ * Offsets are from the start of the file, all integers are big endian
+ */
+public class EPKIndexedCompiler {
+
+	public static final char METHOD_STORED = '0';
+	public static final char METHOD_DEFLATE = 'Z';
+
+	private static class Entry {
+
+		private final byte[] type;
+		private final byte[] name;
+		private final char method;
+		private final byte[] stored;
+		private final int length;
+		private final int crc;
+
+		private Entry(byte[] type, byte[] name, char method, byte[] stored, int length, int crc) {
+			this.type = type;
+			this.name = name;
+			this.method = method;
+			this.stored = stored;
+			this.length = length;
+			this.crc = crc;
+		}
+
+	}
+
+	private final String fileName;
+	private final String comment;
+	private final List<Entry> entries = new ArrayList<>();
+	private final CRC32 checkSum = new CRC32();
+
+	public EPKIndexedCompiler(String name, String type, String commentStr) {
+		this.fileName = name;
+		this.comment = commentStr;
+		byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+		entries.add(new Entry(new byte[] { (byte) 'H', (byte) 'E', (byte) 'A', (byte) 'D' },
+				"file-type".getBytes(StandardCharsets.UTF_8), METHOD_STORED, typeBytes, typeBytes.length,
+				crc(typeBytes)));
+	}
+
+	public void append(String name, byte[] dat) {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		if(nameBytes.length > 255) {
+			throw new IllegalArgumentException("EPK entry name is too long: " + name);
+		}
+		char method = METHOD_STORED;
+		byte[] stored = dat;
+		if(dat.length > 64) {
+			try {
+				EaglerOutputStream bao = new EaglerOutputStream(dat.length);
+				try(OutputStream os = EaglerZLIB.newDeflaterOutputStream(bao)) {
+					os.write(dat);
+				}
+				if(bao.size() < dat.length) {
+					method = METHOD_DEFLATE;
+					stored = bao.toByteArray();
+				}
+			}catch(IOException ex) {
+				throw new RuntimeException("This happened somehow", ex);
+			}
+		}
+		entries.add(new Entry(new byte[] { (byte) 'F', (byte) 'I', (byte) 'L', (byte) 'E' }, nameBytes, method,
+				stored, dat.length, crc(dat)));
+	}
+
+	public byte[] complete() {
+		byte[] nameBytes = (fileName + ".epk").getBytes(StandardCharsets.UTF_8);
+		byte[] commentBytes = (comment != null ? comment : "").getBytes(StandardCharsets.UTF_8);
+		int headerLen = 8 + 7 + 1 + nameBytes.length + 2 + commentBytes.length + 8 + 4 + 1;
+		int dirLen = 4;
+		int dataLen = 0;
+		for(int i = 0, l = entries.size(); i < l; ++i) {
+			Entry etr = entries.get(i);
+			dirLen += 4 + 1 + etr.name.length + 1 + 16;
+			dataLen += etr.stored.length;
+		}
+		try {
+			EaglerOutputStream os = new EaglerOutputStream(headerLen + dirLen + dataLen + 8);
+			os.write(new byte[]{(byte)69,(byte)65,(byte)71,(byte)80,(byte)75,(byte)71,(byte)36,(byte)36}); // EAGPKG$$
+			os.write(new byte[]{(byte)6,(byte)118,(byte)101,(byte)114,(byte)51,(byte)46,(byte)48}); // 6 + ver3.0
+			os.write(nameBytes.length);
+			os.write(nameBytes);
+			os.write((commentBytes.length >>> 8) & 255);
+			os.write(commentBytes.length & 255);
+			os.write(commentBytes);
+			EPKCompiler.writeLong(new Date().getTime(), os);
+			EPKCompiler.writeInt(entries.size(), os);
+			os.write('I'); // compression type: indexed
+
+			int offset = headerLen + dirLen;
+			for(int i = 0, l = entries.size(); i < l; ++i) {
+				Entry etr = entries.get(i);
+				os.write(etr.type);
+				os.write(etr.name.length);
+				os.write(etr.name);
+				os.write(etr.method);
+				EPKCompiler.writeInt(offset, os);
+				EPKCompiler.writeInt(etr.stored.length, os);
+				EPKCompiler.writeInt(etr.length, os);
+				EPKCompiler.writeInt(etr.crc, os);
+				offset += etr.stored.length;
+			}
+			os.write(new byte[]{(byte)69,(byte)78,(byte)68,(byte)36}); // END$
+
+			for(int i = 0, l = entries.size(); i < l; ++i) {
+				os.write(entries.get(i).stored);
+			}
+
+			os.write(new byte[]{(byte)58,(byte)58,(byte)58,(byte)89,(byte)69,(byte)69,(byte)58,(byte)62}); // :::YEE:>
+			return os.toByteArray();
+		}catch(IOException ex) {
+			throw new RuntimeException("This happened somehow", ex);
+		}
+	}
+
+	private int crc(byte[] dat) {
+		checkSum.reset();
+		checkSum.update(dat, 0, dat.length);
+		return (int)checkSum.getValue();
+	}
+
+}
\ No newline at end of file
@@ -17,8 +17,11 @@
 package net.lax1dude.eaglercraft.v1_8.sp.server.export;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
+import net.lax1dude.eaglercraft.v1_8.EagRuntime;
 import net.lax1dude.eaglercraft.v1_8.EaglerInputStream;
 import net.lax1dude.eaglercraft.v1_8.EaglerOutputStream;
 import net.lax1dude.eaglercraft.v1_8.internal.vfs2.VFile2;
@@ -35,7 +38,7 @@ public class WorldConverterEPK {
 
 	private static final Logger logger = LogManager.getLogger("WorldConverterEPK");
 
-	public static void importWorld(byte[] archiveContents, String newName) throws IOException {
+	public static void importWorld(InputStream archiveContents, String newName) throws IOException {
 		logger.info("Importing world \"{}\" from EPK", newName);
 		String folderName = newName.replaceAll("[\\./\"]", "_");
 		VFile2 worldDir = EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory();
@@ -43,13 +46,13 @@ public class WorldConverterEPK {
 			folderName += "_";
 			worldDir = EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory();
 		}
+		long startTime = EagRuntime.steadyTimeMillis();
+		int cnt = 0;
+		int prog = 0;
 		try(EPKDecompiler dc = new EPKDecompiler(archiveContents)) {
 			EPKDecompiler.FileEntry f = null;
-			int lastProgUpdate = 0;
-			int prog = 0;
 			String hasReadType = null;
 			boolean has152Format = false;
-			int cnt = 0;
 			while((f = dc.readFile()) != null) {
 				byte[] b = f.data;
 				if(hasReadType == null) {
@@ -80,15 +83,12 @@ public class WorldConverterEPK {
 					ff.setAllBytes(b);
 					prog += b.length;
 					++cnt;
-					if(prog - lastProgUpdate > 25000) {
-						lastProgUpdate = prog;
-						logger.info("Extracted {} files, {} bytes from EPK...", cnt, prog);
-						EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.importing.1", prog);
-					}
 				}
 			}
 		}
+		long elapsed = Math.max(EagRuntime.steadyTimeMillis() - startTime, 1l);
 		logger.info("EPK was successfully extracted into directory \"{}\"", worldDir.getPath());
+		logger.info("Extracted {} files, {} bytes in {}ms ({} files/sec)", cnt, prog, elapsed, cnt * 1000l / elapsed);
 		String[] worldsTxt = EaglerSaveFormat.worldsList.getAllLines();
 		if(worldsTxt == null || worldsTxt.length <= 0 || (worldsTxt.length == 1 && worldsTxt[0].trim().length() <= 0)) {
 			worldsTxt = new String[] { folderName };
@@ -101,7 +101,7 @@ public class WorldConverterEPK {
 		EaglerSaveFormat.worldsList.setAllChars(String.join("\n", worldsTxt));
 	}
 
-	public static byte[] exportWorld(String worldName) {
+	public static void exportWorld(String worldName, OutputStream os) throws IOException {
 		String realWorldName = worldName;
 		String worldOwner = "UNKNOWN";
 		int j = worldName.lastIndexOf(new String(new char[] { (char)253, (char)233, (char)233 }));
@@ -114,9 +114,9 @@ public class WorldConverterEPK {
 		final int[] bytesWritten = new int[1];
 		final int[] filesWritten = new int[1];
 		final int[] lastUpdate = new int[1];
-		EPKCompiler c = new EPKCompiler(realWorldName, worldOwner, "epk/world188");
 		String pfx = worldDir.getPath();
 		List<VFile2> filesList = worldDir.listFiles(true);
+		EPKCompiler c = new EPKCompiler(os, filesList.size(), realWorldName, worldOwner, "epk/world188");
 		for(int i = 0, l = filesList.size(); i < l; ++i) {
 			VFile2 vf = filesList.get(i);
 			++filesWritten[0];
@@ -129,9 +129,8 @@ public class WorldConverterEPK {
 				EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.exporting.1", bytesWritten[0]);
 			}
 		}
-		byte[] r = c.complete();
+		c.finish();
 		logger.info("World directory \"{}\" was successfully exported as EPK", worldDir.getPath());
-		return r;
 	}
 
 }
\ No newline at end of file
@@ -13,11 +13,12 @@
  * POSSIBILITY OF SUCH DAMAGE.
  * 
  */
-
 package net.lax1dude.eaglercraft.v1_8.sp.server.export;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -45,7 +46,19 @@ public class WorldConverterMCA {
 
 	private static final Logger logger = LogManager.getLogger("WorldConverterMCA");
 
-	public static void importWorld(byte[] archiveContents, String newName, byte gameRules) throws IOException {
+	private static class DeferredEntry {
+
+		private final String name;
+		private final byte[] data;
+
+		private DeferredEntry(String name, byte[] data) {
+			this.name = name;
+			this.data = data;
+		}
+
+	}
+
+	public static void importWorld(InputStream archiveContents, String newName, byte gameRules) throws IOException {
 		logger.info("Importing world \"{}\" from MCA", newName);
 		String folderName = newName.replaceAll("[\\./\"]", "_");
 		VFile2 worldDir = EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory();
@@ -53,24 +66,14 @@ public class WorldConverterMCA {
 			folderName += "_";
 			worldDir = EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory();
 		}
-		List<char[]> fileNames = new ArrayList<>();
-		try(ZipInputStream zis = new ZipInputStream(new EaglerInputStream(archiveContents))) {
-			ZipEntry folderNameFile = null;
-			while((folderNameFile = zis.getNextEntry()) != null) {
-				if (folderNameFile.getName().contains("__MACOSX/")) continue;
-				if (folderNameFile.isDirectory()) continue;
-				String lowerName = folderNameFile.getName().toLowerCase();
-				if (!(lowerName.endsWith(".dat") || lowerName.endsWith(".dat_old") || lowerName.endsWith(".mca") || lowerName.endsWith(".mcr"))) continue;
-				fileNames.add(folderNameFile.getName().toCharArray());
-			}
-		}
-		final int[] i = new int[] { 0 };
-		while(fileNames.get(0).length > i[0] && fileNames.stream().allMatch(w -> w[i[0]] == fileNames.get(0)[i[0]])) i[0]++;
-		int folderPrefixOffset = i[0];
-		try(ZipInputStream zis = new ZipInputStream(new EaglerInputStream(archiveContents))) {
+		// the archive is only read once, the world folder inside it is found from the
+		// first level.dat or region file, anything before that is held until then
+		String folderPrefix = null;
+		List<DeferredEntry> deferred = new ArrayList<>();
+		Map<VFile2,RegionFile> importedRegions = new HashMap<>();
+		int prog = 0;
+		try(ZipInputStream zis = new ZipInputStream(archiveContents)) {
 			ZipEntry f = null;
-			int lastProgUpdate = 0;
-			int prog = 0;
 			while ((f = zis.getNextEntry()) != null) {
 				if (f.getName().contains("__MACOSX/")) continue;
 				if (f.isDirectory()) continue;
@@ -87,85 +90,54 @@ public class WorldConverterMCA {
 				}else {
 					b = EaglerInputStream.inputStreamToBytesNoClose(zis);
 				}
-				String fileName = f.getName().substring(folderPrefixOffset);
-				if (fileName.equals("level.dat") || fileName.equals("level.dat_old")) {
-					NBTTagCompound worldDatNBT = CompressedStreamTools.readCompressed(new EaglerInputStream(b));
-	
-					NBTTagCompound gameRulesNBT = worldDatNBT.getCompoundTag("Data").getCompoundTag("GameRules");
-					gameRulesNBT.setString("loadSpawnChunks", (gameRules & 2) != 0 ? "true" : "false");
-					String s = (gameRules & 1) != 0 ? "true" : "false";
-					gameRulesNBT.setString("bedSpawnPoint", s);
-					gameRulesNBT.setString("clickToRide", "false");
-					gameRulesNBT.setString("clickToSit", s);
-					gameRulesNBT.setString("colorCodes", s);
-					gameRulesNBT.setString("doSignEditing", s);
-					worldDatNBT.getCompoundTag("Data").setTag("GameRules", gameRulesNBT);
-					worldDatNBT.getCompoundTag("Data").setString("LevelName", newName);
-					worldDatNBT.getCompoundTag("Data").setLong("LastPlayed", System.currentTimeMillis());
-					WorldInfo.initEaglerVersion(worldDatNBT.getCompoundTag("Data"));
-					EaglerOutputStream bo = new EaglerOutputStream();
-					CompressedStreamTools.writeCompressed(worldDatNBT, bo);
-					b = bo.toByteArray();
-					VFile2 ff = WorldsDB.newVFile(worldDir, fileName);
-					ff.setAllBytes(b);
-					prog += b.length;
-				} else if ((fileName.endsWith(".mcr") || fileName.endsWith(".mca")) && (fileName.startsWith("region/") || fileName.startsWith("DIM1/region/") || fileName.startsWith("DIM-1/region/"))) {
-					VFile2 chunkFolder = WorldsDB.newVFile(worldDir, fileName.startsWith("DIM1") ? "level1" : (fileName.startsWith("DIM-1") ? "level-1" : "level0"));
-					RegionFile mca = new RegionFile(new RandomAccessMemoryFile(b, b.length));
-					int loadChunksCount = 0;
-					for(int j = 0; j < 32; ++j) {
-						for(int k = 0; k < 32; ++k) {
-							if(mca.isChunkSaved(j, k)) {
-								NBTTagCompound chunkNBT;
-								NBTTagCompound chunkLevel;
-								try {
-									chunkNBT = CompressedStreamTools.read(mca.getChunkDataInputStream(j, k));
-									if(!chunkNBT.hasKey("Level", 10)) {
-										throw new IOException("Chunk is missing level data!");
-									}
-									chunkLevel = chunkNBT.getCompoundTag("Level");
-								}catch(Throwable t) {
-									logger.error("{}: Could not read chunk: {}, {}", fileName, j, k);
-									logger.error(t);
-									continue;
-								}
-								int chunkX = chunkLevel.getInteger("xPos");
-								int chunkZ = chunkLevel.getInteger("zPos");
-								VFile2 chunkOut = WorldsDB.newVFile(chunkFolder, EaglerChunkLoader.getChunkPath(chunkX, chunkZ) + ".dat");
-								if(chunkOut.exists()) {
-									logger.error("{}: Chunk already exists: {}", fileName, chunkOut.getPath());
-									continue;
-								}
-								EaglerOutputStream bao = new EaglerOutputStream();
-								CompressedStreamTools.writeCompressed(chunkNBT, bao);
-								b = bao.toByteArray();
-								chunkOut.setAllBytes(b);
-								prog += b.length;
-								if (prog - lastProgUpdate > 25000) {
-									lastProgUpdate = prog;
-									EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.importing.2", prog);
-								}
-								++loadChunksCount;
-							}
-						}
+				if(folderPrefix == null) {
+					folderPrefix = findFolderPrefix(f.getName());
+					if(folderPrefix == null) {
+						deferred.add(new DeferredEntry(f.getName(), b));
+						continue;
 					}
-					logger.info("{}: Imported {} chunks successfully ({} bytes)", fileName, loadChunksCount, prog);
-				} else if (fileName.startsWith("playerdata/") || fileName.startsWith("stats/")) {
-					//TODO: LAN player inventories
-				} else if (fileName.startsWith("data/") || fileName.startsWith("players/") || fileName.startsWith("eagler/skulls/")) {
-					VFile2 ff = WorldsDB.newVFile(worldDir, fileName);
-					ff.setAllBytes(b);
-					prog += b.length;
-				} else if (!fileName.equals("level.dat_mcr") && !fileName.equals("session.lock")) {
-					logger.info("Skipping file: {}", fileName);
+					logger.info("World folder in archive is \"{}\"", folderPrefix);
+					for(int i = 0, l = deferred.size(); i < l; ++i) {
+						DeferredEntry etr = deferred.get(i);
+						prog += importFile(etr.name, folderPrefix, etr.data, worldDir, newName, gameRules, importedRegions);
+					}
+					deferred.clear();
 				}
-				if (prog - lastProgUpdate > 25000) {
-					lastProgUpdate = prog;
-					EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.importing.2", prog);
+				prog += importFile(f.getName(), folderPrefix, b, worldDir, newName, gameRules, importedRegions);
+			}
+		}
+		if(folderPrefix == null) {
+			if(deferred.isEmpty()) {
+				throw new IOException("Archive does not contain any world files!");
+			}
+			final List<char[]> fileNames = new ArrayList<>(deferred.size());
+			for(int i = 0, l = deferred.size(); i < l; ++i) {
+				String name = deferred.get(i).name;
+				if(!name.toLowerCase().endsWith(".bmp")) {
+					fileNames.add(name.toCharArray());
 				}
 			}
+			int i = 0;
+			if(!fileNames.isEmpty()) {
+				char[] first = fileNames.get(0);
+				outer: while(i < first.length) {
+					for(int j = 1, l = fileNames.size(); j < l; ++j) {
+						char[] name = fileNames.get(j);
+						if(i >= name.length || name[i] != first[i]) {
+							break outer;
+						}
+					}
+					++i;
+				}
+			}
+			folderPrefix = deferred.get(0).name.substring(0, i);
+			for(int j = 0, l = deferred.size(); j < l; ++j) {
+				DeferredEntry etr = deferred.get(j);
+				prog += importFile(etr.name, folderPrefix, etr.data, worldDir, newName, gameRules, importedRegions);
+			}
 		}
-		logger.info("MCA was successfully extracted into directory \"{}\"", worldDir.getPath());
+		flushRegions(importedRegions);
+		logger.info("MCA was successfully extracted into directory \"{}\" ({} bytes)", worldDir.getPath(), prog);
 		String[] worldsTxt = EaglerSaveFormat.worldsList.getAllLines();
 		if(worldsTxt == null || worldsTxt.length <= 0 || (worldsTxt.length == 1 && worldsTxt[0].trim().length() <= 0)) {
 			worldsTxt = new String[] { folderName };
@@ -178,10 +150,142 @@ public class WorldConverterMCA {
 		EaglerSaveFormat.worldsList.setAllChars(String.join("\n", worldsTxt));
 	}
 
-	public static byte[] exportWorld(String folderName) throws IOException {
-		EaglerOutputStream bao = new EaglerOutputStream();
+	private static void flushRegions(Map<VFile2, RegionFile> importedRegions) {
+		for(Entry<VFile2,RegionFile> etr : importedRegions.entrySet()) {
+			etr.getKey().setAllBytes(etr.getValue().getFile().getByteArray());
+		}
+		importedRegions.clear();
+	}
+
+	private static String findFolderPrefix(String entryName) {
+		int i = entryName.lastIndexOf('/');
+		String dir = entryName.substring(0, i + 1);
+		String name = entryName.substring(i + 1);
+		if(name.equals("level.dat") || name.equals("level.dat_old")) {
+			return dir;
+		}
+		String lowerName = name.toLowerCase();
+		if((lowerName.endsWith(".mca") || lowerName.endsWith(".mcr")) && endsWithFolder(dir, "region/")) {
+			dir = dir.substring(0, dir.length() - 7);
+			if(endsWithFolder(dir, "DIM1/")) {
+				dir = dir.substring(0, dir.length() - 5);
+			}else if(endsWithFolder(dir, "DIM-1/")) {
+				dir = dir.substring(0, dir.length() - 6);
+			}
+			return dir;
+		}
+		return null;
+	}
+
+	private static boolean endsWithFolder(String dir, String folder) {
+		int i = dir.length() - folder.length();
+		return dir.endsWith(folder) && (i == 0 || dir.charAt(i - 1) == '/');
+	}
+
+	private static int importFile(String entryName, String folderPrefix, byte[] b, VFile2 worldDir, String newName,
+			byte gameRules, Map<VFile2, RegionFile> importedRegions) throws IOException {
+		if(!entryName.startsWith(folderPrefix)) {
+			logger.info("Skipping file: {}", entryName);
+			return 0;
+		}
+		String fileName = entryName.substring(folderPrefix.length());
+		int prog = 0;
+		if (fileName.equals("level.dat") || fileName.equals("level.dat_old")) {
+			NBTTagCompound worldDatNBT = CompressedStreamTools.readCompressed(new EaglerInputStream(b));
+
+			NBTTagCompound gameRulesNBT = worldDatNBT.getCompoundTag("Data").getCompoundTag("GameRules");
+			gameRulesNBT.setString("loadSpawnChunks", (gameRules & 2) != 0 ? "true" : "false");
+			String s = (gameRules & 1) != 0 ? "true" : "false";
+			gameRulesNBT.setString("bedSpawnPoint", s);
+			gameRulesNBT.setString("clickToRide", "false");
+			gameRulesNBT.setString("clickToSit", s);
+			gameRulesNBT.setString("colorCodes", s);
+			gameRulesNBT.setString("doSignEditing", s);
+			worldDatNBT.getCompoundTag("Data").setTag("GameRules", gameRulesNBT);
+			worldDatNBT.getCompoundTag("Data").setString("LevelName", newName);
+			worldDatNBT.getCompoundTag("Data").setLong("LastPlayed", System.currentTimeMillis());
+			WorldInfo.initEaglerVersion(worldDatNBT.getCompoundTag("Data"));
+			EaglerOutputStream bo = new EaglerOutputStream();
+			CompressedStreamTools.writeCompressed(worldDatNBT, bo);
+			b = bo.toByteArray();
+			VFile2 ff = WorldsDB.newVFile(worldDir, fileName);
+			ff.setAllBytes(b);
+			prog += b.length;
+		} else if ((fileName.endsWith(".mcr") || fileName.endsWith(".mca")) && (fileName.startsWith("region/") || fileName.startsWith("DIM1/region/") || fileName.startsWith("DIM-1/region/"))) {
+			VFile2 chunkFolder = WorldsDB.newVFile(worldDir, fileName.startsWith("DIM1") ? "level1" : (fileName.startsWith("DIM-1") ? "level-1" : "level0"));
+			RegionFile mca = new RegionFile(new RandomAccessMemoryFile(b, b.length));
+			int loadChunksCount = 0;
+			for(int j = 0; j < 32; ++j) {
+				for(int k = 0; k < 32; ++k) {
+					if(mca.isChunkSaved(j, k)) {
+						NBTTagCompound chunkNBT;
+						NBTTagCompound chunkLevel;
+						try {
+							chunkNBT = CompressedStreamTools.read(mca.getChunkDataInputStream(j, k));
+							if(!chunkNBT.hasKey("Level", 10)) {
+								throw new IOException("Chunk is missing level data!");
+							}
+							chunkLevel = chunkNBT.getCompoundTag("Level");
+						}catch(Throwable t) {
+							logger.error("{}: Could not read chunk: {}, {}", fileName, j, k);
+							logger.error(t);
+							continue;
+						}
+						int chunkX = chunkLevel.getInteger("xPos");
+						int chunkZ = chunkLevel.getInteger("zPos");
+						EaglerOutputStream bao = new EaglerOutputStream();
+						CompressedStreamTools.writeCompressed(chunkNBT, bao);
+						b = bao.toByteArray();
+						VFile2 chunkOut = WorldsDB.newVFile(chunkFolder, EaglerChunkLoader.getChunkPath(chunkX, chunkZ) + ".dat");
+						if(EaglerChunkLoader.useRegionFiles) {
+							VFile2 regionOut = WorldsDB.newVFile(chunkFolder, EaglerChunkLoader.getRegionPath(chunkX >> 5, chunkZ >> 5));
+							RegionFile rf = importedRegions.get(regionOut);
+							if(rf == null) {
+								// only happens for an existing region when a chunk is stored in the wrong source region
+								byte[] existing = regionOut.exists() ? regionOut.getAllBytes() : null;
+								rf = existing != null
+										? new RegionFile(new RandomAccessMemoryFile(existing, existing.length))
+										: new RegionFile(new RandomAccessMemoryFile(new byte[65536], 0));
+								importedRegions.put(regionOut, rf);
+							}
+							if(rf.isChunkSaved(chunkX & 31, chunkZ & 31)) {
+								logger.error("{}: Chunk already exists: {}, {}", fileName, chunkX, chunkZ);
+								continue;
+							}
+							if(!rf.writeChunk(chunkX & 31, chunkZ & 31, b, b.length, 1)) {
+								chunkOut.setAllBytes(b);
+							}
+						}else {
+							if(chunkOut.exists()) {
+								logger.error("{}: Chunk already exists: {}", fileName, chunkOut.getPath());
+								continue;
+							}
+							chunkOut.setAllBytes(b);
+						}
+						prog += b.length;
+						++loadChunksCount;
+					}
+				}
+			}
+			// source regions map 1:1 to destination regions, so anything written to is
+			// finished now and doesn't need to stay in memory for the rest of the import
+			flushRegions(importedRegions);
+			logger.info("{}: Imported {} chunks successfully ({} bytes)", fileName, loadChunksCount, prog);
+		} else if (fileName.startsWith("playerdata/") || fileName.startsWith("stats/")) {
+			//TODO: LAN player inventories
+		} else if (fileName.startsWith("data/") || fileName.startsWith("players/") || fileName.startsWith("eagler/skulls/")) {
+			VFile2 ff = WorldsDB.newVFile(worldDir, fileName);
+			ff.setAllBytes(b);
+			prog += b.length;
+		} else if (!fileName.equals("level.dat_mcr") && !fileName.equals("session.lock")) {
+			logger.info("Skipping file: {}", fileName);
+		}
+		return prog;
+	}
+
+	public static void exportWorld(String folderName, OutputStream os) throws IOException {
 		VFile2 worldFolder;
-		try(ZipOutputStream zos = new ZipOutputStream(bao)) {
+		try(ZipOutputStream zos = new ZipOutputStream(os)) {
 			zos.setComment("contains backup of world '" + folderName + "'");
 			worldFolder = EaglerIntegratedServerWorker.saveFormat.getSaveLoader(folderName, false).getWorldDirectory();
 			logger.info("Exporting world directory \"{}\" as MCA", worldFolder.getPath());
@@ -217,9 +321,21 @@ public class WorldConverterMCA {
 				fileList = vf.listFiles(true);
 				String regionFolder = folderName + dstFolderNames[i];
 				logger.info("Converting chunks in \"{}\" as MCA to \"{}\"...", vf.getPath(), regionFolder);
+				// regions saved by EaglerChunkLoader already are MCA files and are copied one at a time
+				// as they are, only regions that per-chunk files have to be merged into are kept in memory
+				Map<String,VFile2> regionFilesOnDisk = new HashMap<>();
 				Map<String,RegionFile> regionFiles = new HashMap<>();
 				for(int k = 0, l = fileList.size(); k < l; ++k) {
 					VFile2 chunkFile = fileList.get(k);
+					if(EaglerChunkLoader.isRegionFileName(chunkFile.getName())) {
+						regionFilesOnDisk.put(chunkFile.getName(), chunkFile);
+					}
+				}
+				for(int k = 0, l = fileList.size(); k < l; ++k) {
+					VFile2 chunkFile = fileList.get(k);
+					if(EaglerChunkLoader.isRegionFileName(chunkFile.getName())) {
+						continue;
+					}
 					NBTTagCompound chunkNBT;
 					NBTTagCompound chunkLevel;
 					try {
@@ -239,9 +355,19 @@ public class WorldConverterMCA {
 					String regionFileName = "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca";
 					RegionFile rf = regionFiles.get(regionFileName);
 					if(rf == null) {
-						rf = new RegionFile(new RandomAccessMemoryFile(new byte[65536], 0));
+						VFile2 regionFile = regionFilesOnDisk.remove(regionFileName);
+						byte[] rb = regionFile != null ? regionFile.getAllBytes() : null;
+						if(rb != null) {
+							rf = new RegionFile(new RandomAccessMemoryFile(rb, rb.length));
+						}else {
+							rf = new RegionFile(new RandomAccessMemoryFile(new byte[65536], 0));
+						}
 						regionFiles.put(regionFileName, rf);
 					}
+					if(rf.isChunkSaved(chunkX & 31, chunkZ & 31)) {
+						// left over from an interrupted migration, the copy in the region is newer
+						continue;
+					}
 					try(DataOutputStream dos = rf.getChunkDataOutputStream(chunkX & 31, chunkZ & 31)) {
 						CompressedStreamTools.write(chunkNBT, dos);
 					}catch(IOException t) {
@@ -255,10 +381,25 @@ public class WorldConverterMCA {
 						EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.exporting.2", prog);
 					}
 				}
-				if(regionFiles.isEmpty()) {
+				if(regionFilesOnDisk.isEmpty() && regionFiles.isEmpty()) {
 					logger.info("No region files were generated");
 					continue;
 				}
+				for(Entry<String,VFile2> etr : regionFilesOnDisk.entrySet()) {
+					b = etr.getValue().getAllBytes();
+					if(b == null) {
+						continue;
+					}
+					String regionPath = regionFolder + etr.getKey();
+					logger.info("Writing region file: {}", regionPath);
+					zos.putNextEntry(new ZipEntry(regionPath));
+					zos.write(b);
+					prog += b.length;
+					if (prog - lastProgUpdate > 25000) {
+						lastProgUpdate = prog;
+						EaglerIntegratedServerWorker.sendProgress("singleplayer.busy.exporting.2", prog);
+					}
+				}
 				for(Entry<String,RegionFile> etr : regionFiles.entrySet()) {
 					String regionPath = regionFolder + etr.getKey();
 					logger.info("Writing region file: {}", regionPath);
@@ -305,7 +446,6 @@ public class WorldConverterMCA {
 			}
 		}
 		logger.info("World directory \"{}\" was successfully exported as MCA", worldFolder.getPath());
-		return bao.toByteArray();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.lax1dude.eaglercraft.v1_8.sp.server.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket1DWorldDataChunk;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket1EWorldDataAck;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
+
+/**
+ * Reads a world archive the client is importing one chunk at a time, each
+ * chunk is acknowledged as soon as it arrives so the client only ever has a
+ * few chunks in flight instead of the whole archive
+ */
+public class WorldDataInputStream extends InputStream {
+
+	private static final int CHUNK_TIMEOUT_MILLIS = 30000;
+
+	private final int length;
+	private final String progressMessage;
+	private byte[] chunk = null;
+	private int chunkPos = 0;
+	private int position = 0;
+
+	public WorldDataInputStream(int length, String progressMessage) {
+		this.length = length;
+		this.progressMessage = progressMessage;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(!fill()) {
+			return -1;
+		}
+		++position;
+		return chunk[chunkPos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0) {
+			return 0;
+		}
+		if(!fill()) {
+			return -1;
+		}
+		int j = Math.min(len, chunk.length - chunkPos);
+		System.arraycopy(chunk, chunkPos, b, off, j);
+		chunkPos += j;
+		position += j;
+		return j;
+	}
+
+	@Override
+	public int available() {
+		return chunk != null ? chunk.length - chunkPos : 0;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	private boolean fill() throws IOException {
+		if(chunk != null && chunkPos < chunk.length) {
+			return true;
+		}
+		chunk = null;
+		if(position >= length) {
+			return false;
+		}
+		IPCPacket1DWorldDataChunk pkt = EaglerIntegratedServerWorker.pollWorldDataChunk(CHUNK_TIMEOUT_MILLIS);
+		if(pkt.offset != position) {
+			throw new IOException("Recieved world data chunk at offset " + pkt.offset + ", expected offset " + position);
+		}
+		if(pkt.data.length == 0 || pkt.data.length > length - position) {
+			throw new IOException("Recieved world data chunk with invalid length " + pkt.data.length);
+		}
+		chunk = pkt.data;
+		chunkPos = 0;
+		EaglerIntegratedServerWorker.sendIPCPacket(new IPCPacket1EWorldDataAck(position + chunk.length));
+		if(progressMessage != null) {
+			EaglerIntegratedServerWorker.sendProgress(progressMessage, (float)position / (float)length);
+		}
+		return true;
+	}
+
+}
\ No newline at end of file
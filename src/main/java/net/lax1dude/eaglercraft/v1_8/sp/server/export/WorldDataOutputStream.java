@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.lax1dude.eaglercraft.v1_8.sp.server.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket09RequestResponse;
+import net.lax1dude.eaglercraft.v1_8.sp.ipc.IPCPacket1DWorldDataChunk;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
+
+/**
+ * Sends an exported world archive to the client as it is being written,
+ * the last piece goes out as the IPCPacket09RequestResponse so the client
+ * knows the export has finished
+ */
+public class WorldDataOutputStream extends OutputStream {
+
+	private final byte[] buffer = new byte[IPCPacket1DWorldDataChunk.CHUNK_SIZE];
+	private int bufferPos = 0;
+	private int bytesSent = 0;
+	private boolean finished = false;
+
+	@Override
+	public void write(int b) throws IOException {
+		if(finished) {
+			throw new IOException("World data stream was already finished");
+		}
+		if(bufferPos == buffer.length) {
+			sendChunk();
+		}
+		buffer[bufferPos++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if(finished) {
+			throw new IOException("World data stream was already finished");
+		}
+		while(len > 0) {
+			if(bufferPos == buffer.length) {
+				sendChunk();
+			}
+			int j = Math.min(len, buffer.length - bufferPos);
+			System.arraycopy(b, off, buffer, bufferPos, j);
+			bufferPos += j;
+			off += j;
+			len -= j;
+		}
+	}
+
+	private void sendChunk() {
+		// the packet is serialized immediately, so the buffer can be reused
+		EaglerIntegratedServerWorker.sendIPCPacket(new IPCPacket1DWorldDataChunk(bytesSent, buffer));
+		bytesSent += bufferPos;
+		bufferPos = 0;
+	}
+
+	public int finish() {
+		if(!finished) {
+			finished = true;
+			EaglerIntegratedServerWorker.sendIPCPacket(new IPCPacket09RequestResponse(Arrays.copyOf(buffer, bufferPos)));
+			bytesSent += bufferPos;
+			bufferPos = 0;
+		}
+		return bytesSent;
+	}
+
+}
\ No newline at end of file
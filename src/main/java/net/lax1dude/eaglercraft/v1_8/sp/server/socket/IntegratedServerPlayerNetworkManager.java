@@ -33,11 +33,20 @@ import net.lax1dude.eaglercraft.v1_8.netty.Unpooled;
 import net.lax1dude.eaglercraft.v1_8.socket.CompressionNotSupportedException;
 import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
 import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerIntegratedServerWorker;
+import net.lax1dude.eaglercraft.v1_8.sp.server.EaglerMinecraftServer;
+import net.lax1dude.eaglercraft.v1_8.sp.socket.IPCLocalPacketData;
 import net.minecraft.network.EnumConnectionState;
 import net.minecraft.network.EnumPacketDirection;
 import net.minecraft.network.INetHandler;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.S0CPacketSpawnPlayer;
+import net.minecraft.network.play.server.S0FPacketSpawnMob;
+import net.minecraft.network.play.server.S1CPacketEntityMetadata;
+import net.minecraft.network.play.server.S33PacketUpdateSign;
+import net.minecraft.network.play.server.S35PacketUpdateTileEntity;
+import net.minecraft.network.play.server.S3FPacketCustomPayload;
+import net.minecraft.network.play.server.S49PacketUpdateEntityNBT;
 import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.IChatComponent;
 import net.minecraft.util.ITickable;
@@ -53,6 +62,7 @@ public class IntegratedServerPlayerNetworkManager {
 	private int debugPacketCounter = 0;
 	private final List<byte[]> recievedPacketBuffer = new LinkedList<>();
 	private final boolean enableSendCompression;
+	private final boolean localPacketTransport;
 
 	private boolean firstPacket = true;
 
@@ -63,12 +73,36 @@ public class IntegratedServerPlayerNetworkManager {
 	
 	public static final Logger logger = LogManager.getLogger("NetworkManager");
 
+	/**
+	 * While a broadcast is in progress the frames of the last packet sent to a
+	 * LAN peer are kept, so sending the same packet object to the next peer
+	 * doesn't serialize and deflate it all over again
+	 */
+	private static int broadcastDepth = 0;
+	private static Packet<?> broadcastPacket = null;
+	private static EnumConnectionState broadcastState = null;
+	private static byte[][] broadcastFrames = null;
+
+	public static void beginBroadcast() {
+		++broadcastDepth;
+	}
+
+	public static void endBroadcast() {
+		if(--broadcastDepth <= 0) {
+			broadcastDepth = 0;
+			broadcastPacket = null;
+			broadcastState = null;
+			broadcastFrames = null;
+		}
+	}
+
 	public IntegratedServerPlayerNetworkManager(String playerChannel) {
 		if(temporaryBuffer == null) {
 			temporaryBuffer = new PacketBuffer(Unpooled.buffer(0x1FFFF));
 		}
 		this.playerChannel = playerChannel;
 		this.enableSendCompression = !SingleplayerServerController.PLAYER_CHANNEL.equals(playerChannel);
+		this.localPacketTransport = !enableSendCompression && ServerPlatformSingleplayer.isLocalPacketTransportSupported();
 	}
 	
 	public void connect() {
@@ -209,6 +243,40 @@ public class IntegratedServerPlayerNetworkManager {
 			return;
 		}
 		
+		if(localPacketTransport && !sharesServerState(pkt)) {
+			if(pkt instanceof S3FPacketCustomPayload) {
+				// reading the payload consumes the buffer, so the client can't share it with other players
+				S3FPacketCustomPayload payload = (S3FPacketCustomPayload)pkt;
+				pkt = new S3FPacketCustomPayload(payload.getChannelName(), new PacketBuffer(payload.getBufferData().copy()));
+			}
+			ServerPlatformSingleplayer.sendPacket(new IPCLocalPacketData(playerChannel, pkt));
+			return;
+		}
+		
+		if(enableSendCompression) {
+			byte[][] frames;
+			if(broadcastDepth > 0 && broadcastPacket == pkt && broadcastState == packetState) {
+				frames = broadcastFrames;
+			}else {
+				frames = encodeFrames(pkt, i);
+				if(frames == null) {
+					return;
+				}
+				++EaglerMinecraftServer.counterLANPacketsEncoded;
+				if(broadcastDepth > 0) {
+					broadcastPacket = pkt;
+					broadcastState = packetState;
+					broadcastFrames = frames;
+				}
+			}
+			++EaglerMinecraftServer.counterLANPacketsSent;
+			for(int j = 0; j < frames.length; ++j) {
+				// the contents are never modified after this, so peers can share the arrays
+				ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, frames[j]));
+			}
+			return;
+		}
+		
 		temporaryBuffer.clear();
 		temporaryBuffer.writeVarIntToBuffer(i);
 		try {
@@ -219,58 +287,90 @@ public class IntegratedServerPlayerNetworkManager {
 		}
 		
 		int len = temporaryBuffer.readableBytes();
-		if(enableSendCompression) {
-			if(len > compressionThreshold) {
-				if(compressedPacketTmp == null || compressedPacketTmp.length < len) {
-					compressedPacketTmp = new byte[len];
-				}
-				int cmpLen;
-				try {
-					cmpLen = EaglerZLIB.deflateFull(temporaryBuffer.array(), 0, len, compressedPacketTmp, 0, compressedPacketTmp.length);
-				}catch(IOException ex) {
-					logger.error("Failed to compress packet {}!", pkt.getClass().getSimpleName());
-					logger.error(ex);
-					return;
-				}
-				byte[] compressedData = new byte[5 + cmpLen];
-				compressedData[0] = (byte)2;
-				compressedData[1] = (byte)((len >>> 24) & 0xFF);
-				compressedData[2] = (byte)((len >>> 16) & 0xFF);
-				compressedData[3] = (byte)((len >>> 8) & 0xFF);
-				compressedData[4] = (byte)(len & 0xFF);
-				System.arraycopy(compressedPacketTmp, 0, compressedData, 5, cmpLen);
-				if(compressedData.length > fragmentSize) {
-					int fragmentSizeN1 = fragmentSize - 1;
-					for (int j = 1; j < compressedData.length; j += fragmentSizeN1) {
-						byte[] fragData = new byte[((j + fragmentSizeN1 > (compressedData.length - 1)) ? ((compressedData.length - 1) % fragmentSizeN1) : fragmentSizeN1) + 1];
-						System.arraycopy(compressedData, j, fragData, 1, fragData.length - 1);
-						fragData[0] = (j + fragmentSizeN1 < compressedData.length) ? (byte) 1 : (byte) 2;
-						ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, fragData));
-					}
-				}else {
-					ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, compressedData));
-				}
-			}else {
+		byte[] bytes = new byte[len];
+		temporaryBuffer.readBytes(bytes, 0, len);
+		ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, bytes));
+	}
+
+	/**
+	 * Packets that keep references to live server objects, a DataWatcher or its
+	 * WatchableObjects, tile entity NBT or sign text, which the server keeps
+	 * modifying after the packet is sent. These can't be handed to the client
+	 * thread as objects so they go through the uncompressed serialized path,
+	 * which is written on the server thread.
+	 */
+	private static boolean sharesServerState(Packet<?> pkt) {
+		return pkt instanceof S0CPacketSpawnPlayer || pkt instanceof S0FPacketSpawnMob
+				|| pkt instanceof S1CPacketEntityMetadata || pkt instanceof S33PacketUpdateSign
+				|| pkt instanceof S35PacketUpdateTileEntity || pkt instanceof S49PacketUpdateEntityNBT;
+	}
+
+	/**
+	 * Serializes, compresses and fragments a packet for a LAN peer
+	 */
+	private static byte[][] encodeFrames(Packet<?> pkt, int i) {
+		temporaryBuffer.clear();
+		temporaryBuffer.writeVarIntToBuffer(i);
+		try {
+			pkt.writePacketData(temporaryBuffer);
+		}catch(IOException ex) {
+			logger.error("Failed to write packet {}!", pkt.getClass().getSimpleName());
+			return null;
+		}
+		
+		int len = temporaryBuffer.readableBytes();
+		if(len > compressionThreshold) {
+			if(compressedPacketTmp == null || compressedPacketTmp.length < len) {
+				compressedPacketTmp = new byte[len];
+			}
+			int cmpLen;
+			try {
+				cmpLen = EaglerZLIB.deflateFull(temporaryBuffer.array(), 0, len, compressedPacketTmp, 0, compressedPacketTmp.length);
+			}catch(IOException ex) {
+				logger.error("Failed to compress packet {}!", pkt.getClass().getSimpleName());
+				logger.error(ex);
+				return null;
+			}
+			byte[] compressedData = new byte[5 + cmpLen];
+			compressedData[0] = (byte)2;
+			compressedData[1] = (byte)((len >>> 24) & 0xFF);
+			compressedData[2] = (byte)((len >>> 16) & 0xFF);
+			compressedData[3] = (byte)((len >>> 8) & 0xFF);
+			compressedData[4] = (byte)(len & 0xFF);
+			System.arraycopy(compressedPacketTmp, 0, compressedData, 5, cmpLen);
+			if(compressedData.length > fragmentSize) {
 				int fragmentSizeN1 = fragmentSize - 1;
-				if(len > fragmentSizeN1) {
-					do {
-						int readLen = len > fragmentSizeN1 ? fragmentSizeN1 : len;
-						byte[] frag = new byte[readLen + 1];
-						temporaryBuffer.readBytes(frag, 1, readLen);
-						frag[0] = temporaryBuffer.readableBytes() == 0 ? (byte)0 : (byte)1;
-						ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, frag));
-					}while((len = temporaryBuffer.readableBytes()) > 0);
-				}else {
-					byte[] bytes = new byte[len + 1];
-					bytes[0] = 0;
-					temporaryBuffer.readBytes(bytes, 1, len);
-					ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, bytes));
+				byte[][] ret = new byte[(compressedData.length - 1 + fragmentSizeN1 - 1) / fragmentSizeN1][];
+				int k = 0;
+				for (int j = 1; j < compressedData.length; j += fragmentSizeN1) {
+					byte[] fragData = new byte[((j + fragmentSizeN1 > (compressedData.length - 1)) ? ((compressedData.length - 1) % fragmentSizeN1) : fragmentSizeN1) + 1];
+					System.arraycopy(compressedData, j, fragData, 1, fragData.length - 1);
+					fragData[0] = (j + fragmentSizeN1 < compressedData.length) ? (byte) 1 : (byte) 2;
+					ret[k++] = fragData;
 				}
+				return ret;
+			}else {
+				return new byte[][] { compressedData };
 			}
 		}else {
-			byte[] bytes = new byte[len];
-			temporaryBuffer.readBytes(bytes, 0, len);
-			ServerPlatformSingleplayer.sendPacket(new IPCPacketData(playerChannel, bytes));
+			int fragmentSizeN1 = fragmentSize - 1;
+			if(len > fragmentSizeN1) {
+				byte[][] ret = new byte[(len + fragmentSizeN1 - 1) / fragmentSizeN1][];
+				int k = 0;
+				do {
+					int readLen = len > fragmentSizeN1 ? fragmentSizeN1 : len;
+					byte[] frag = new byte[readLen + 1];
+					temporaryBuffer.readBytes(frag, 1, readLen);
+					frag[0] = temporaryBuffer.readableBytes() == 0 ? (byte)0 : (byte)1;
+					ret[k++] = frag;
+				}while((len = temporaryBuffer.readableBytes()) > 0);
+				return ret;
+			}else {
+				byte[] bytes = new byte[len + 1];
+				bytes[0] = 0;
+				temporaryBuffer.readBytes(bytes, 1, len);
+				return new byte[][] { bytes };
+			}
 		}
 	}
 	
@@ -278,8 +378,12 @@ public class IntegratedServerPlayerNetworkManager {
 		this.nethandler = nethandler;
 	}
 	
+	/**
+	 * True for the player that owns the integrated server, LAN peers connect
+	 * through their own channels
+	 */
 	public boolean isLocalChannel() {
-		return false;
+		return !enableSendCompression;
 	}
 	
 	public boolean isChannelOpen() {
@@ -29,6 +29,7 @@ import net.lax1dude.eaglercraft.v1_8.sp.SingleplayerServerController;
 import net.lax1dude.eaglercraft.v1_8.sp.internal.ClientPlatformSingleplayer;
 import net.lax1dude.eaglercraft.v1_8.sp.lan.LANServerController;
 import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.INetHandler;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ChatComponentTranslation;
@@ -37,7 +38,7 @@ import net.minecraft.util.IChatComponent;
 public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkManager {
 
 	private int debugPacketCounter = 0;
-	private final List<byte[]> recievedPacketBuffer = new LinkedList<>();
+	private final List<Object> recievedPacketBuffer = new LinkedList<>();
 	public boolean isPlayerChannelOpen = false;
 
 	public ClientIntegratedServerNetworkManager(String channel) {
@@ -70,13 +71,34 @@ public class ClientIntegratedServerNetworkManager extends EaglercraftNetworkMana
 		recievedPacketBuffer.add(next);
 	}
 
+	/**
+	 * Packets from an IPCLocalPacketData were never serialized, they are
+	 * processed as-is
+	 */
+	public void addRecievedPacket(Packet<?> next) {
+		recievedPacketBuffer.add(next);
+	}
+
 	@Override
 	public void processReceivedPackets() throws IOException {
 		if(nethandler == null) return;
 
 		while(!recievedPacketBuffer.isEmpty()) {
-			byte[] next = recievedPacketBuffer.remove(0);
+			Object obj = recievedPacketBuffer.remove(0);
 			++debugPacketCounter;
+			if(obj instanceof Packet) {
+				// handed over by the integrated server, always clientbound play packets
+				@SuppressWarnings("unchecked")
+				Packet<INetHandler> pkt = (Packet<INetHandler>)obj;
+				try {
+					pkt.processPacket(nethandler);
+				}catch(Throwable t) {
+					logger.error("Failed to process {}! It'll be skipped for debug purposes.", pkt.getClass().getSimpleName());
+					logger.error(t);
+				}
+				continue;
+			}
+			byte[] next = (byte[])obj;
 			try {
 				ByteBuf nettyBuffer = Unpooled.buffer(next, next.length);
 				nettyBuffer.writerIndex(next.length);
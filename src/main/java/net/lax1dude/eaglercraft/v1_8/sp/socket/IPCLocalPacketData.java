@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.sp.socket;
+
+import net.lax1dude.eaglercraft.v1_8.internal.IPCPacketData;
+import net.minecraft.network.Packet;
+
+/**
+ * Carries a packet object from the integrated server to the local player
+ * without serializing it, only used when the platform runs the server in the
+ * same JVM as the client
+ */
+public class IPCLocalPacketData extends IPCPacketData {
+
+	private static final byte[] EMPTY = new byte[0];
+
+	public final Packet<?> packet;
+
+	public IPCLocalPacketData(String channel, Packet<?> packet) {
+		super(channel, EMPTY);
+		this.packet = packet;
+	}
+
+}
\ No newline at end of file
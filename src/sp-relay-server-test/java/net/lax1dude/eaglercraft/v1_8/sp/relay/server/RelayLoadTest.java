@@ -0,0 +1,635 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket00Handshake;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket01ICEServers;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket03ICECandidate;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket04Description;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket05ClientSuccess;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacketFFErrorCode;
+
+/**
+ * Load test for the relay, run with --help for the options. One selector
+ * thread drives a swarm of websockets that do exactly what
+ * RelayServerSocketImpl does for LANServerController and
+ * LANClientNetworkManager: the hosts open worlds and stay connected, every
+ * client joins one of them, trades a description and an ICE candidate with
+ * the host and then reports success and disconnects. A finished client is
+ * replaced right away so the number of joining clients stays constant.
+ * 
+ * Every socket sends a made up address in a forwarded address header so the
+ * relay's per address limits apply to each simulated player instead of to
+ * the machine running the test, the relay has to be started with
+ * --forwarded-for for that (--embedded does this). Lives in its own source
+ * root so it isn't packaged with the relay
+ */
+public class RelayLoadTest {
+
+	private static final String FORWARDED_HEADER = "X-Forwarded-For";
+	private static final int MAX_PENDING_CONNECTS = 256;
+
+	private static final int STATE_CONNECTING = 0;
+	private static final int STATE_UPGRADING = 1;
+	private static final int STATE_OPEN = 2;
+	private static final int STATE_DONE = 3;
+
+	private final RelayServerLogger logger;
+	private final InetSocketAddress relayAddress;
+	private final int hostCount;
+	private final int clientCount;
+	private final long duration;
+	private final byte[] description;
+	private final byte[] candidate;
+
+	private final Random random = new Random();
+	private Selector selector;
+	private int addressCounter = 0;
+	private int pendingConnects = 0;
+	private final ArrayDeque<SwarmSocket> connectQueue = new ArrayDeque<>();
+
+	private final List<SwarmSocket> hosts = new ArrayList<>();
+	private int hostsReady = 0;
+	private int nextHost = 0;
+	private boolean running = true;
+
+	private int openSockets = 0;
+	private int joins = 0;
+	private int failures = 0;
+	private int hostsLost = 0;
+	private long[] latencies = new long[1024];
+	private int latencyCount = 0;
+
+	private int totalJoins = 0;
+	private int totalFailures = 0;
+	private long[] totalLatencies = new long[1024];
+	private int totalLatencyCount = 0;
+
+	private RelayLoadTest(RelayServerLogger logger, InetSocketAddress relayAddress, int hostCount, int clientCount,
+			long duration, int descriptionSize) {
+		this.logger = logger;
+		this.relayAddress = relayAddress;
+		this.hostCount = hostCount;
+		this.clientCount = clientCount;
+		this.duration = duration;
+		// SDP blobs and candidates are text in the real protocol, content doesn't matter to the relay
+		this.description = new byte[descriptionSize];
+		Arrays.fill(this.description, (byte) 'v');
+		this.candidate = new byte[Math.max(descriptionSize / 8, 16)];
+		Arrays.fill(this.candidate, (byte) 'c');
+	}
+
+	public static void main(String[] args) {
+		RelayServerLogger logger = new RelayServerLogger("RelayLoadTest");
+		String address = "127.0.0.1";
+		int port = 6699;
+		int hostCount = 200;
+		int clientCount = 2000;
+		int seconds = 30;
+		int descriptionSize = 2048;
+		boolean embedded = false;
+		try {
+			for(int i = 0; i < args.length; ++i) {
+				String arg = args[i];
+				switch(arg) {
+				case "--help":
+					printUsage();
+					return;
+				case "--address":
+					address = nextArg(args, ++i, arg);
+					break;
+				case "--port":
+					port = nextInt(args, ++i, arg);
+					break;
+				case "--hosts":
+					hostCount = nextInt(args, ++i, arg);
+					break;
+				case "--clients":
+					clientCount = nextInt(args, ++i, arg);
+					break;
+				case "--duration":
+					seconds = nextInt(args, ++i, arg);
+					break;
+				case "--description-size":
+					descriptionSize = nextInt(args, ++i, arg);
+					break;
+				case "--embedded":
+					embedded = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + arg);
+				}
+			}
+			if(hostCount < 1 || clientCount < 1) {
+				throw new IllegalArgumentException("There must be at least one host and one client");
+			}
+			if(descriptionSize < 1 || descriptionSize > 65535) {
+				throw new IllegalArgumentException("Description size must be between 1 and 65535");
+			}
+		}catch(IllegalArgumentException ex) {
+			logger.error("Invalid arguments: {}", ex.getMessage());
+			printUsage();
+			System.exit(-1);
+			return;
+		}
+
+		RelayNIOServer server = null;
+		if(embedded) {
+			RelayConfig config = new RelayConfig();
+			config.bindAddress = address;
+			config.port = port;
+			config.forwardedForHeader = FORWARDED_HEADER;
+			config.maxClientsPerHost = Math.max(config.maxClientsPerHost, (clientCount + hostCount - 1) / hostCount);
+			config.statsInterval = 5000l;
+			config.addDefaultICEServers();
+			server = new RelayNIOServer(config, new RelayServerLogger("EaglerSPRelay"));
+			try {
+				server.bind();
+			}catch(IOException ex) {
+				logger.error("Could not bind to {}:{}!", address, port);
+				logger.error(ex);
+				System.exit(-1);
+				return;
+			}
+			Thread serverThread = new Thread(server::run, "Relay Thread");
+			serverThread.setDaemon(true);
+			serverThread.start();
+		}
+
+		RelayLoadTest test = new RelayLoadTest(logger, new InetSocketAddress(address, port), hostCount, clientCount,
+				seconds * 1000l, descriptionSize);
+		boolean ok;
+		try {
+			ok = test.run();
+		}catch(IOException ex) {
+			logger.error("Load test failed!");
+			logger.error(ex);
+			ok = false;
+		}
+		if(server != null) {
+			server.stop();
+		}
+		System.exit(ok ? 0 : 1);
+	}
+
+	private static String nextArg(String[] args, int i, String name) {
+		if(i >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + name);
+		}
+		return args[i];
+	}
+
+	private static int nextInt(String[] args, int i, String name) {
+		try {
+			return Integer.parseInt(nextArg(args, i, name));
+		}catch(NumberFormatException ex) {
+			throw new IllegalArgumentException("Value for " + name + " is not a number");
+		}
+	}
+
+	private static void printUsage() {
+		System.out.println("Usage: java -cp <relay classes>:<load test classes> " + RelayLoadTest.class.getName() + " [options]");
+		System.out.println("  --address <addr>          relay address (default 127.0.0.1)");
+		System.out.println("  --port <port>             relay port (default 6699)");
+		System.out.println("  --hosts <n>               worlds to open (default 200)");
+		System.out.println("  --clients <n>             clients joining at the same time (default 2000)");
+		System.out.println("  --duration <secs>         how long to keep clients joining (default 30)");
+		System.out.println("  --description-size <len>  bytes in each description (default 2048)");
+		System.out.println("  --embedded                start a relay in this process to test against");
+	}
+
+	private boolean run() throws IOException {
+		selector = Selector.open();
+		logger.info("Opening {} worlds on {}", hostCount, relayAddress);
+		for(int i = 0; i < hostCount; ++i) {
+			SwarmSocket host = new SwarmSocket(true, null);
+			hosts.add(host);
+			connectQueue.add(host);
+		}
+
+		long start = System.nanoTime();
+		long clientsStart = 0l;
+		long lastReport = start;
+		while(running) {
+			while(pendingConnects < MAX_PENDING_CONNECTS && !connectQueue.isEmpty()) {
+				SwarmSocket sock = connectQueue.poll();
+				try {
+					sock.connect();
+				}catch(IOException ex) {
+					sock.fail(ex.toString());
+				}
+			}
+			selector.select(100l);
+			Iterator<SelectionKey> itr = selector.selectedKeys().iterator();
+			while(itr.hasNext()) {
+				SelectionKey key = itr.next();
+				itr.remove();
+				SwarmSocket sock = (SwarmSocket) key.attachment();
+				try {
+					if(key.isValid() && key.isConnectable()) {
+						sock.handleConnect();
+					}
+					if(key.isValid() && key.isReadable()) {
+						sock.handleRead();
+					}
+					if(key.isValid() && key.isWritable()) {
+						sock.handleWrite();
+					}
+				}catch(IOException ex) {
+					sock.fail(ex.toString());
+				}
+			}
+			long now = System.nanoTime();
+			if(clientsStart == 0l) {
+				if(hostsReady == hostCount) {
+					logger.info("All worlds are open after {}ms, starting {} clients for {}s", (now - start) / 1000000l,
+							clientCount, duration / 1000l);
+					clientsStart = now;
+					lastReport = now;
+					for(int i = 0; i < clientCount; ++i) {
+						startClient();
+					}
+				}else if(now - start > 30000000000l) {
+					logger.error("Only {} of {} worlds were opened after 30s", hostsReady, hostCount);
+					return false;
+				}
+			}else {
+				if(now - lastReport >= 1000000000l) {
+					report((now - lastReport) / 1000000l);
+					lastReport = now;
+				}
+				if(now - clientsStart >= duration * 1000000l) {
+					running = false;
+				}
+			}
+		}
+
+		report(Math.max((System.nanoTime() - lastReport) / 1000000l, 1l));
+		for(SelectionKey key : selector.keys()) {
+			((SwarmSocket) key.attachment()).close();
+		}
+		selector.close();
+
+		float secs = duration * 0.001f;
+		Arrays.sort(totalLatencies, 0, totalLatencyCount);
+		logger.info("Done: {} joins in {}s ({}/s), {} failed, {} worlds lost", totalJoins, (int) secs,
+				(int) (totalJoins / secs), totalFailures, hostsLost);
+		logger.info("Join latency: p50 {}ms, p90 {}ms, p99 {}ms, max {}ms", percentile(totalLatencies, totalLatencyCount, 0.5f),
+				percentile(totalLatencies, totalLatencyCount, 0.9f), percentile(totalLatencies, totalLatencyCount, 0.99f),
+				percentile(totalLatencies, totalLatencyCount, 1.0f));
+		return totalFailures == 0 && hostsLost == 0;
+	}
+
+	private void startClient() {
+		SwarmSocket host;
+		int i = 0;
+		do {
+			host = hosts.get(nextHost++ % hosts.size());
+		}while(host.code == null && ++i < hosts.size());
+		if(host.code == null) {
+			logger.error("Every world was closed!");
+			running = false;
+			return;
+		}
+		connectQueue.add(new SwarmSocket(false, host.code));
+	}
+
+	private void report(long period) {
+		Arrays.sort(latencies, 0, latencyCount);
+		logger.info("{} joins/s, {} failed, p50 {}ms, p99 {}ms, {} sockets open", (int) (joins * 1000l / period),
+				failures, percentile(latencies, latencyCount, 0.5f), percentile(latencies, latencyCount, 0.99f),
+				openSockets);
+		totalJoins += joins;
+		totalFailures += failures;
+		joins = 0;
+		failures = 0;
+		latencyCount = 0;
+	}
+
+	private static long percentile(long[] values, int count, float p) {
+		if(count == 0) {
+			return 0l;
+		}
+		return values[Math.min((int) (count * p), count - 1)] / 1000000l;
+	}
+
+	private void recordJoin(long latency) {
+		++joins;
+		if(latencyCount == latencies.length) {
+			latencies = Arrays.copyOf(latencies, latencyCount << 1);
+		}
+		latencies[latencyCount++] = latency;
+		if(totalLatencyCount == totalLatencies.length) {
+			totalLatencies = Arrays.copyOf(totalLatencies, totalLatencyCount << 1);
+		}
+		totalLatencies[totalLatencyCount++] = latency;
+	}
+
+	private String nextAddress() {
+		int i = ++addressCounter;
+		return "10." + ((i >> 16) & 255) + "." + ((i >> 8) & 255) + "." + (i & 255);
+	}
+
+	/**
+	 * Client side of one websocket, masks its frames like a browser does
+	 */
+	private class SwarmSocket {
+
+		private final boolean isHost;
+		private final String address;
+		private String code;
+
+		private SocketChannel channel;
+		private SelectionKey key;
+		private int state = STATE_CONNECTING;
+		private long startTime;
+		private String wsKey;
+
+		private ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+		private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+		private SwarmSocket(boolean isHost, String code) {
+			this.isHost = isHost;
+			this.code = isHost ? null : code;
+			this.address = nextAddress();
+		}
+
+		private void connect() throws IOException {
+			startTime = System.nanoTime();
+			channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+			++pendingConnects;
+			++openSockets;
+			if(channel.connect(relayAddress)) {
+				handleConnect();
+			}
+		}
+
+		private void handleConnect() throws IOException {
+			if(!channel.finishConnect()) {
+				return;
+			}
+			--pendingConnects;
+			state = STATE_UPGRADING;
+			key.interestOps(SelectionKey.OP_READ);
+			byte[] keyBytes = new byte[16];
+			random.nextBytes(keyBytes);
+			wsKey = Base64.getEncoder().encodeToString(keyBytes);
+			String request = "GET / HTTP/1.1\r\nHost: " + relayAddress.getHostString() + "\r\n"
+					+ "Upgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Version: 13\r\n"
+					+ "Sec-WebSocket-Key: " + wsKey + "\r\n" + FORWARDED_HEADER + ": " + address + "\r\n\r\n";
+			queueWrite(ByteBuffer.wrap(request.getBytes(StandardCharsets.ISO_8859_1)));
+		}
+
+		private void handleRead() throws IOException {
+			int i = channel.read(readBuffer);
+			if(i < 0) {
+				if(state != STATE_DONE) {
+					fail("Connection closed by the relay");
+				}
+				return;
+			}
+			readBuffer.flip();
+			try {
+				if(state == STATE_UPGRADING && !readUpgradeResponse()) {
+					return;
+				}
+				while(state == STATE_OPEN && readFrame()) {
+				}
+			}finally {
+				if(channel.isOpen()) {
+					readBuffer.compact();
+					if(!readBuffer.hasRemaining()) {
+						ByteBuffer newBuffer = ByteBuffer.allocate(readBuffer.capacity() << 1);
+						readBuffer.flip();
+						newBuffer.put(readBuffer);
+						readBuffer = newBuffer;
+					}
+				}
+			}
+		}
+
+		private boolean readUpgradeResponse() throws IOException {
+			int pos = readBuffer.position();
+			int lim = readBuffer.limit();
+			for(int i = pos; i + 3 < lim; ++i) {
+				if(readBuffer.get(i) == '\r' && readBuffer.get(i + 1) == '\n' && readBuffer.get(i + 2) == '\r'
+						&& readBuffer.get(i + 3) == '\n') {
+					byte[] header = new byte[i - pos];
+					readBuffer.get(header);
+					readBuffer.position(i + 4);
+					String response = new String(header, StandardCharsets.ISO_8859_1);
+					if(!response.startsWith("HTTP/1.1 101")) {
+						throw new IOException("Upgrade failed: " + response.split("\r\n", 2)[0]);
+					}
+					state = STATE_OPEN;
+					sendPacket(new RelayPacket00Handshake(isHost ? RelayHub.TYPE_HOST : RelayHub.TYPE_CLIENT,
+							RelayHub.PROTOCOL_VERSION, isHost ? "Load Test World;0" : code));
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean readFrame() throws IOException {
+			int start = readBuffer.position();
+			int avail = readBuffer.remaining();
+			if(avail < 2) {
+				return false;
+			}
+			int opcode = readBuffer.get(start) & 0x0F;
+			int len = readBuffer.get(start + 1) & 0x7F;
+			int hdr = 2;
+			if(len == 126) {
+				if(avail < 4) {
+					return false;
+				}
+				len = readBuffer.getShort(start + 2) & 0xFFFF;
+				hdr = 4;
+			}else if(len == 127) {
+				if(avail < 10) {
+					return false;
+				}
+				len = (int) readBuffer.getLong(start + 2);
+				hdr = 10;
+			}
+			if(avail < hdr + len) {
+				return false;
+			}
+			byte[] payload = new byte[len];
+			readBuffer.position(start + hdr);
+			readBuffer.get(payload);
+			if(opcode == 0x8) {
+				if(state != STATE_DONE) {
+					fail("Connection closed by the relay");
+				}
+				return false;
+			}else if(opcode == 0x2) {
+				handlePacket(RelayPacket.readPacket(new DataInputStream(new ByteArrayInputStream(payload)), logger));
+			}
+			return true;
+		}
+
+		private void handlePacket(RelayPacket pkt) throws IOException {
+			if(pkt instanceof RelayPacketFFErrorCode) {
+				fail("Relay sent error: " + ((RelayPacketFFErrorCode) pkt).desc);
+			}else if(isHost) {
+				if(pkt instanceof RelayPacket00Handshake) {
+					code = ((RelayPacket00Handshake) pkt).connectionCode;
+					++hostsReady;
+				}else if(pkt instanceof RelayPacket04Description) {
+					sendPacket(new RelayPacket04Description(((RelayPacket04Description) pkt).peerId, description));
+				}else if(pkt instanceof RelayPacket03ICECandidate) {
+					sendPacket(new RelayPacket03ICECandidate(((RelayPacket03ICECandidate) pkt).peerId, candidate));
+				}
+			}else {
+				if(pkt instanceof RelayPacket01ICEServers) {
+					sendPacket(new RelayPacket04Description("", description));
+				}else if(pkt instanceof RelayPacket04Description) {
+					sendPacket(new RelayPacket03ICECandidate("", candidate));
+				}else if(pkt instanceof RelayPacket03ICECandidate) {
+					sendPacket(new RelayPacket05ClientSuccess(((RelayPacket03ICECandidate) pkt).peerId));
+					recordJoin(System.nanoTime() - startTime);
+					finish();
+				}
+			}
+		}
+
+		private void sendPacket(RelayPacket pkt) throws IOException {
+			byte[] data = RelayPacket.writePacket(pkt, logger);
+			int len = data.length;
+			ByteBuffer buf = ByteBuffer.allocate(len + 14);
+			buf.put((byte) 0x82);
+			if(len < 126) {
+				buf.put((byte) (0x80 | len));
+			}else if(len <= 0xFFFF) {
+				buf.put((byte) (0x80 | 126));
+				buf.putShort((short) len);
+			}else {
+				buf.put((byte) (0x80 | 127));
+				buf.putLong(len);
+			}
+			byte[] mask = new byte[4];
+			random.nextBytes(mask);
+			buf.put(mask);
+			for(int i = 0; i < len; ++i) {
+				buf.put((byte) (data[i] ^ mask[i & 3]));
+			}
+			buf.flip();
+			queueWrite(buf);
+		}
+
+		private void queueWrite(ByteBuffer buf) throws IOException {
+			if(writeQueue.isEmpty()) {
+				channel.write(buf);
+				if(!buf.hasRemaining()) {
+					return;
+				}
+			}
+			writeQueue.add(buf);
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+
+		private void handleWrite() throws IOException {
+			ByteBuffer buf;
+			while((buf = writeQueue.peek()) != null) {
+				channel.write(buf);
+				if(buf.hasRemaining()) {
+					return;
+				}
+				writeQueue.poll();
+			}
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+			if(state == STATE_DONE) {
+				close();
+			}
+		}
+
+		/**
+		 * Client finished joining, the real client closes its relay socket
+		 * right after sending the success packet
+		 */
+		private void finish() {
+			state = STATE_DONE;
+			if(writeQueue.isEmpty()) {
+				close();
+			}
+			if(running) {
+				startClient();
+			}
+		}
+
+		private void fail(String reason) {
+			if(state == STATE_DONE) {
+				return;
+			}
+			if(state == STATE_CONNECTING) {
+				--pendingConnects;
+			}
+			state = STATE_DONE;
+			close();
+			if(!running) {
+				return;
+			}
+			logger.debug("{} {} failed: {}", isHost ? "Host" : "Client", address, reason);
+			if(isHost) {
+				++hostsLost;
+				code = null;
+			}else {
+				++failures;
+				startClient();
+			}
+		}
+
+		private void close() {
+			if(channel == null || !channel.isOpen()) {
+				return;
+			}
+			--openSockets;
+			if(key != null) {
+				key.cancel();
+			}
+			try {
+				channel.close();
+			}catch(IOException e) {
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.IOException;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket01ICEServers;
+
+/**
+ * Standalone shared world relay, run with --help for the options
+ */
+public class EaglerSPRelay {
+
+	public static void main(String[] args) {
+		RelayServerLogger logger = new RelayServerLogger("EaglerSPRelay");
+		RelayConfig config = new RelayConfig();
+		try {
+			if(!parseArgs(args, config, logger)) {
+				return;
+			}
+		}catch(IllegalArgumentException ex) {
+			logger.error("Invalid arguments: {}", ex.getMessage());
+			printUsage();
+			System.exit(-1);
+			return;
+		}
+		if(config.iceServers.isEmpty()) {
+			config.addDefaultICEServers();
+		}
+		final RelayNIOServer server = new RelayNIOServer(config, logger);
+		try {
+			server.bind();
+		}catch(IOException ex) {
+			logger.error("Could not bind to {}:{}!", config.bindAddress, config.port);
+			logger.error(ex);
+			System.exit(-1);
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "Relay Shutdown Thread"));
+		server.run();
+		logger.info("Relay stopped");
+	}
+
+	private static boolean parseArgs(String[] args, RelayConfig config, RelayServerLogger logger) {
+		for(int i = 0; i < args.length; ++i) {
+			String arg = args[i];
+			switch(arg) {
+			case "--help":
+				printUsage();
+				return false;
+			case "--debug":
+				logger.setDebugEnabled(true);
+				break;
+			case "--address":
+				config.bindAddress = nextArg(args, ++i, arg);
+				break;
+			case "--port":
+				config.port = nextInt(args, ++i, arg);
+				break;
+			case "--forwarded-for":
+				config.forwardedForHeader = nextArg(args, ++i, arg);
+				break;
+			case "--code-length":
+				config.codeLength = nextInt(args, ++i, arg);
+				if(config.codeLength < 3 || config.codeLength > 32) {
+					throw new IllegalArgumentException("Code length must be between 3 and 32");
+				}
+				break;
+			case "--code-chars":
+				config.codeChars = nextArg(args, ++i, arg).toLowerCase();
+				break;
+			case "--comment":
+				config.comment = nextArg(args, ++i, arg);
+				break;
+			case "--stun":
+				config.iceServers.add(new RelayPacket01ICEServers.RelayServer(nextArg(args, ++i, arg),
+						RelayPacket01ICEServers.RelayType.NO_PASSWD, null, null));
+				break;
+			case "--turn":
+				String addr = nextArg(args, ++i, arg);
+				String user = nextArg(args, ++i, arg);
+				String passwd = nextArg(args, ++i, arg);
+				config.iceServers.add(new RelayPacket01ICEServers.RelayServer(addr,
+						RelayPacket01ICEServers.RelayType.PASSWD, user, passwd));
+				break;
+			case "--max-connections":
+				config.maxConnections = nextInt(args, ++i, arg);
+				break;
+			case "--max-connections-per-address":
+				config.maxConnectionsPerAddress = nextInt(args, ++i, arg);
+				break;
+			case "--stats-interval":
+				config.statsInterval = nextInt(args, ++i, arg) * 1000l;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + arg);
+			}
+		}
+		return true;
+	}
+
+	private static String nextArg(String[] args, int i, String name) {
+		if(i >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + name);
+		}
+		return args[i];
+	}
+
+	private static int nextInt(String[] args, int i, String name) {
+		try {
+			return Integer.parseInt(nextArg(args, i, name));
+		}catch(NumberFormatException ex) {
+			throw new IllegalArgumentException("Value for " + name + " is not a number");
+		}
+	}
+
+	private static void printUsage() {
+		System.out.println("Usage: java -jar EaglerSPRelay.jar [options]");
+		System.out.println("  --address <addr>                  address to bind to (default 0.0.0.0)");
+		System.out.println("  --port <port>                     port to bind to (default 6699)");
+		System.out.println("  --forwarded-for <header>          read client addresses from this header (reverse proxies)");
+		System.out.println("  --code-length <len>               length of join codes (default 5)");
+		System.out.println("  --code-chars <chars>              characters join codes are made of");
+		System.out.println("  --comment <text>                  comment shown in the relay list");
+		System.out.println("  --stun <uri>                      add a STUN server");
+		System.out.println("  --turn <uri> <user> <passwd>      add a TURN server");
+		System.out.println("  --max-connections <n>             total connection limit");
+		System.out.println("  --max-connections-per-address <n> connection limit for each address");
+		System.out.println("  --stats-interval <secs>           how often to log traffic stats, 0 to disable");
+		System.out.println("  --debug                           log every connection");
+	}
+
+}
\ No newline at end of file
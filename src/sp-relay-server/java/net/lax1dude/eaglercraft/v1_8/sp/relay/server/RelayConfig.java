@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket01ICEServers;
+
+/**
+ * Settings for the relay, filled in from the command line by EaglerSPRelay
+ */
+public class RelayConfig {
+
+	public String bindAddress = "0.0.0.0";
+	public int port = 6699;
+
+	/**
+	 * Header to read the real client address from when running behind a
+	 * reverse proxy, null to use the address of the socket
+	 */
+	public String forwardedForHeader = null;
+
+	public int codeLength = 5;
+	public String codeChars = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+	public String comment = "Eaglercraft Relay";
+	public String brand = "lax1dude";
+
+	public int maxConnections = 32768;
+	public int maxConnectionsPerAddress = 128;
+	public int maxClientsPerHost = 64;
+	public int maxHostsPerAddress = 16;
+
+	/**
+	 * Largest websocket message accepted, descriptions and ICE candidates are
+	 * limited to 65535 bytes by the packet format
+	 */
+	public int maxMessageSize = 0x20000;
+	public int maxPendingWriteBytes = 0x100000;
+
+	public long handshakeTimeout = 5000l;
+	public long clientTimeout = 60000l;
+	public long queryTimeout = 10000l;
+
+	public int pingLimit = 16;
+	public int joinLimit = 16;
+	public int hostLimit = 8;
+	public long limitPeriod = 10000l;
+	public int lockoutViolations = 4;
+
+	public long statsInterval = 60000l;
+
+	public final List<RelayPacket01ICEServers.RelayServer> iceServers = new ArrayList<>();
+
+	public RelayConfig() {
+	}
+
+	public void addDefaultICEServers() {
+		iceServers.add(new RelayPacket01ICEServers.RelayServer("stun:stun.l.google.com:19302",
+				RelayPacket01ICEServers.RelayType.NO_PASSWD, null, null));
+		iceServers.add(new RelayPacket01ICEServers.RelayServer("stun:stun1.l.google.com:19302",
+				RelayPacket01ICEServers.RelayType.NO_PASSWD, null, null));
+	}
+
+}
\ No newline at end of file
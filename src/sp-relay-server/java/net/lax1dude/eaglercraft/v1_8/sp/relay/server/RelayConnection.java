@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+
+/**
+ * One websocket on the selector thread, does the HTTP upgrade and the framing
+ * by hand so the relay only needs the JDK and the protocol-relay classes.
+ * Every binary message is one relay packet, exactly like the browser side
+ */
+public class RelayConnection {
+
+	private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+	private static final int MAX_HEADER_SIZE = 8192;
+
+	private static final int OPCODE_CONTINUATION = 0x0;
+	private static final int OPCODE_TEXT = 0x1;
+	private static final int OPCODE_BINARY = 0x2;
+	private static final int OPCODE_CLOSE = 0x8;
+	private static final int OPCODE_PING = 0x9;
+	private static final int OPCODE_PONG = 0xA;
+
+	protected final RelayNIOServer server;
+	protected final SocketChannel channel;
+	protected final SelectionKey key;
+	protected final long openedAt;
+
+	protected String address;
+	protected boolean addressCounted = false;
+	protected Object attachment = null;
+
+	private ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+	private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+	private int pendingWriteBytes = 0;
+
+	private boolean upgraded = false;
+	private boolean closeAfterFlush = false;
+	private boolean closed = false;
+	private long deadline;
+
+	private byte[] fragmentBuffer = null;
+	private int fragmentLength = 0;
+
+	RelayConnection(RelayNIOServer server, SocketChannel channel, SelectionKey key, long now) {
+		this.server = server;
+		this.channel = channel;
+		this.key = key;
+		this.openedAt = now;
+		this.deadline = now + server.config.handshakeTimeout;
+		InetSocketAddress addr = (InetSocketAddress) channel.socket().getRemoteSocketAddress();
+		this.address = addr != null ? addr.getAddress().getHostAddress() : "unknown";
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public boolean isOpen() {
+		return !closed && !closeAfterFlush;
+	}
+
+	/**
+	 * Replaces the inactivity deadline, 0 disables it for connections that are
+	 * expected to stay open for as long as the peer wants (hosts)
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	long getDeadline() {
+		return deadline;
+	}
+
+	void handleRead() throws IOException {
+		int i = channel.read(readBuffer);
+		if(i < 0) {
+			close();
+			return;
+		}
+		if(i == 0) {
+			return;
+		}
+		server.bytesIn += i;
+		readBuffer.flip();
+		try {
+			if(!upgraded) {
+				if(!readUpgradeRequest()) {
+					return;
+				}
+			}
+			while(isOpen() && readFrame()) {
+			}
+		}finally {
+			if(!closed) {
+				readBuffer.compact();
+				if(!readBuffer.hasRemaining()) {
+					growReadBuffer();
+				}
+			}
+		}
+	}
+
+	private void growReadBuffer() throws IOException {
+		int newSize = readBuffer.capacity() << 1;
+		if(newSize > server.config.maxMessageSize + 16) {
+			throw new IOException("Frame is too large");
+		}
+		ByteBuffer newBuffer = ByteBuffer.allocate(newSize);
+		readBuffer.flip();
+		newBuffer.put(readBuffer);
+		readBuffer = newBuffer;
+	}
+
+	private boolean readUpgradeRequest() throws IOException {
+		int end = -1;
+		int pos = readBuffer.position();
+		int lim = readBuffer.limit();
+		for(int i = pos; i + 3 < lim; ++i) {
+			if(readBuffer.get(i) == '\r' && readBuffer.get(i + 1) == '\n' && readBuffer.get(i + 2) == '\r'
+					&& readBuffer.get(i + 3) == '\n') {
+				end = i;
+				break;
+			}
+		}
+		if(end == -1) {
+			if(lim - pos >= MAX_HEADER_SIZE) {
+				throw new IOException("HTTP request header is too large");
+			}
+			return false;
+		}
+		byte[] headerBytes = new byte[end - pos];
+		readBuffer.get(headerBytes);
+		readBuffer.position(end + 4);
+		String[] lines = new String(headerBytes, StandardCharsets.ISO_8859_1).split("\r\n");
+		if(lines.length == 0 || !lines[0].startsWith("GET ")) {
+			sendHTTPError("405 Method Not Allowed");
+			return false;
+		}
+		String wsKey = null;
+		boolean upgradeHeader = false;
+		String forwardedFor = null;
+		for(int i = 1; i < lines.length; ++i) {
+			String line = lines[i];
+			int j = line.indexOf(':');
+			if(j == -1) {
+				continue;
+			}
+			String name = line.substring(0, j).trim();
+			String value = line.substring(j + 1).trim();
+			if(name.equalsIgnoreCase("Sec-WebSocket-Key")) {
+				wsKey = value;
+			}else if(name.equalsIgnoreCase("Upgrade")) {
+				upgradeHeader = value.equalsIgnoreCase("websocket");
+			}else if(server.config.forwardedForHeader != null && name.equalsIgnoreCase(server.config.forwardedForHeader)) {
+				forwardedFor = value;
+			}
+		}
+		if(!upgradeHeader || wsKey == null) {
+			sendHTTPError("426 Upgrade Required");
+			return false;
+		}
+		if(server.config.forwardedForHeader != null) {
+			String realAddress = address;
+			if(forwardedFor != null) {
+				int j = forwardedFor.indexOf(',');
+				String s = (j != -1 ? forwardedFor.substring(0, j) : forwardedFor).trim();
+				if(s.length() > 0) {
+					realAddress = s;
+				}
+			}
+			server.changeAddress(this, realAddress);
+			if(closed) {
+				return false;
+			}
+		}
+		String response = "HTTP/1.1 101 Switching Protocols\r\n" + "Upgrade: websocket\r\n" + "Connection: Upgrade\r\n"
+				+ "Sec-WebSocket-Accept: " + acceptKey(wsKey) + "\r\n\r\n";
+		upgraded = true;
+		queueWrite(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+		server.hub.handleOpen(this);
+		return true;
+	}
+
+	private void sendHTTPError(String status) {
+		String response = "HTTP/1.1 " + status + "\r\nContent-Type: text/plain\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+		queueWrite(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+		closeAfterFlush();
+	}
+
+	private static String acceptKey(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return Base64.getEncoder().encodeToString(
+					digest.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+		}catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException("SHA-1 is not supported", e);
+		}
+	}
+
+	/**
+	 * Decodes one frame out of the read buffer, leaves the buffer alone and
+	 * returns false if the whole frame hasn't arrived yet
+	 */
+	private boolean readFrame() throws IOException {
+		int start = readBuffer.position();
+		int avail = readBuffer.remaining();
+		if(avail < 2) {
+			return false;
+		}
+		int b0 = readBuffer.get(start) & 0xFF;
+		int b1 = readBuffer.get(start + 1) & 0xFF;
+		boolean fin = (b0 & 0x80) != 0;
+		int opcode = b0 & 0x0F;
+		if((b1 & 0x80) == 0) {
+			throw new IOException("Client frame was not masked");
+		}
+		long len = b1 & 0x7F;
+		int hdr = 2;
+		if(len == 126) {
+			if(avail < 4) {
+				return false;
+			}
+			len = readBuffer.getShort(start + 2) & 0xFFFF;
+			hdr = 4;
+		}else if(len == 127) {
+			if(avail < 10) {
+				return false;
+			}
+			len = readBuffer.getLong(start + 2);
+			hdr = 10;
+		}
+		if(len < 0l || len + fragmentLength > server.config.maxMessageSize) {
+			throw new IOException("Frame is too large");
+		}
+		if(avail < hdr + 4 + len) {
+			return false;
+		}
+		int maskPos = start + hdr;
+		int dataPos = maskPos + 4;
+		byte[] payload = new byte[(int) len];
+		for(int i = 0; i < payload.length; ++i) {
+			payload[i] = (byte) (readBuffer.get(dataPos + i) ^ readBuffer.get(maskPos + (i & 3)));
+		}
+		readBuffer.position(dataPos + payload.length);
+		switch(opcode) {
+		case OPCODE_BINARY:
+			if(fragmentBuffer != null) {
+				throw new IOException("Unexpected new message during a fragmented message");
+			}
+			if(fin) {
+				++server.messagesIn;
+				server.hub.handleMessage(this, payload);
+			}else {
+				fragmentBuffer = payload;
+				fragmentLength = payload.length;
+			}
+			break;
+		case OPCODE_CONTINUATION:
+			if(fragmentBuffer == null) {
+				throw new IOException("Unexpected continuation frame");
+			}
+			if(fragmentLength + payload.length > fragmentBuffer.length) {
+				byte[] newBuffer = new byte[Math.max(fragmentLength + payload.length, fragmentBuffer.length << 1)];
+				System.arraycopy(fragmentBuffer, 0, newBuffer, 0, fragmentLength);
+				fragmentBuffer = newBuffer;
+			}
+			System.arraycopy(payload, 0, fragmentBuffer, fragmentLength, payload.length);
+			fragmentLength += payload.length;
+			if(fin) {
+				byte[] msg = fragmentBuffer;
+				if(msg.length != fragmentLength) {
+					msg = new byte[fragmentLength];
+					System.arraycopy(fragmentBuffer, 0, msg, 0, fragmentLength);
+				}
+				fragmentBuffer = null;
+				fragmentLength = 0;
+				++server.messagesIn;
+				server.hub.handleMessage(this, msg);
+			}
+			break;
+		case OPCODE_TEXT:
+			throw new IOException("Text frames are not part of the relay protocol");
+		case OPCODE_PING:
+			queueFrame(OPCODE_PONG, ByteBuffer.wrap(payload));
+			break;
+		case OPCODE_PONG:
+			break;
+		case OPCODE_CLOSE:
+			queueFrame(OPCODE_CLOSE, ByteBuffer.allocate(0));
+			closeAfterFlush();
+			return false;
+		default:
+			throw new IOException("Unknown opcode: " + opcode);
+		}
+		return true;
+	}
+
+	public void send(byte[] packet) {
+		send(ByteBuffer.wrap(packet));
+	}
+
+	public void send(ByteBuffer packet) {
+		if(isOpen()) {
+			++server.messagesOut;
+			queueFrame(OPCODE_BINARY, packet);
+		}
+	}
+
+	private void queueFrame(int opcode, ByteBuffer payload) {
+		int len = payload.remaining();
+		ByteBuffer hdr;
+		if(len < 126) {
+			hdr = ByteBuffer.allocate(2);
+			hdr.put((byte) (0x80 | opcode));
+			hdr.put((byte) len);
+		}else if(len <= 0xFFFF) {
+			hdr = ByteBuffer.allocate(4);
+			hdr.put((byte) (0x80 | opcode));
+			hdr.put((byte) 126);
+			hdr.putShort((short) len);
+		}else {
+			hdr = ByteBuffer.allocate(10);
+			hdr.put((byte) (0x80 | opcode));
+			hdr.put((byte) 127);
+			hdr.putLong(len);
+		}
+		hdr.flip();
+		queueWrite(hdr);
+		queueWrite(payload);
+	}
+
+	private void queueWrite(ByteBuffer buf) {
+		if(closed) {
+			return;
+		}
+		int len = buf.remaining();
+		if(writeQueue.isEmpty()) {
+			try {
+				server.bytesOut += channel.write(buf);
+			}catch(IOException ex) {
+				server.logger.debug("Write to {} failed: {}", address, ex.toString());
+				close();
+				return;
+			}
+			if(!buf.hasRemaining()) {
+				return;
+			}
+			len = buf.remaining();
+		}
+		pendingWriteBytes += len;
+		if(pendingWriteBytes > server.config.maxPendingWriteBytes) {
+			server.logger.debug("Disconnecting {} for not reading fast enough", address);
+			close();
+			return;
+		}
+		writeQueue.add(buf);
+		key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+	}
+
+	void handleWrite() throws IOException {
+		ByteBuffer buf;
+		while((buf = writeQueue.peek()) != null) {
+			int i = channel.write(buf);
+			server.bytesOut += i;
+			pendingWriteBytes -= i;
+			if(buf.hasRemaining()) {
+				return;
+			}
+			writeQueue.poll();
+		}
+		key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+		if(closeAfterFlush) {
+			close();
+		}
+	}
+
+	/**
+	 * Stops accepting packets and closes the socket once everything already
+	 * queued has been written, used after the last reply to a query
+	 */
+	public void closeAfterFlush() {
+		if(closed || closeAfterFlush) {
+			return;
+		}
+		closeAfterFlush = true;
+		if(writeQueue.isEmpty()) {
+			close();
+		}else {
+			deadline = server.getCurrentTime() + 5000l;
+		}
+	}
+
+	public void close() {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		writeQueue.clear();
+		pendingWriteBytes = 0;
+		key.cancel();
+		try {
+			channel.close();
+		}catch(IOException e) {
+		}
+		server.handleClosed(this, upgraded);
+	}
+
+}
\ No newline at end of file
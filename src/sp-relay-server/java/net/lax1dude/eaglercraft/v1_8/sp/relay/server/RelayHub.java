@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket00Handshake;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket01ICEServers;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket02NewClient;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket03ICECandidate;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket04Description;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket05ClientSuccess;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket06ClientFailure;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket07LocalWorlds;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacket69Pong;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacketFEDisconnectClient;
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacketFFErrorCode;
+
+/**
+ * The relay protocol itself, hosts are indexed by join code and by address so
+ * joining and the local worlds query are both a single map lookup instead of
+ * a scan over every open world
+ */
+public class RelayHub {
+
+	public static final int PROTOCOL_VERSION = 1;
+
+	public static final int TYPE_HOST = 0x01;
+	public static final int TYPE_CLIENT = 0x02;
+	public static final int TYPE_PING = 0x03;
+	public static final int TYPE_WORLDS = 0x04;
+
+	private static final String UPDATE_CERT_MAGIC = "~!REQUEST_UPDATE_CERT";
+	private static final String CLIENT_ID_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+	private static final int CLIENT_ID_LENGTH = 16;
+
+	private static class HostSession {
+
+		private final RelayConnection conn;
+		private final String code;
+		private final String worldName;
+		private final boolean hidden;
+		private final Map<String, ClientSession> clients = new HashMap<>();
+
+		private HostSession(RelayConnection conn, String code, String worldName, boolean hidden) {
+			this.conn = conn;
+			this.code = code;
+			this.worldName = worldName;
+			this.hidden = hidden;
+		}
+
+	}
+
+	private static class ClientSession {
+
+		private final RelayConnection conn;
+		private final HostSession host;
+		private final String clientId;
+		private boolean finished = false;
+
+		private ClientSession(RelayConnection conn, HostSession host, String clientId) {
+			this.conn = conn;
+			this.host = host;
+			this.clientId = clientId;
+		}
+
+	}
+
+	private final RelayNIOServer server;
+	private final RelayConfig config;
+	private final RelayServerLogger logger;
+	private final SecureRandom random = new SecureRandom();
+
+	private final Map<String, HostSession> hostsByCode = new HashMap<>();
+	private final Map<String, List<HostSession>> hostsByAddress = new HashMap<>();
+	private int pendingClientCount = 0;
+
+	private final RelayRateLimiter pingLimiter;
+	private final RelayRateLimiter joinLimiter;
+	private final RelayRateLimiter hostLimiter;
+
+	private final RelayPacket01ICEServers iceServersPacket;
+	private byte[] iceServersBytes = null;
+
+	RelayHub(RelayNIOServer server) {
+		this.server = server;
+		this.config = server.config;
+		this.logger = server.logger;
+		this.pingLimiter = new RelayRateLimiter("ping", config.pingLimit, config.limitPeriod, config.lockoutViolations);
+		this.joinLimiter = new RelayRateLimiter("join", config.joinLimit, config.limitPeriod, config.lockoutViolations);
+		this.hostLimiter = new RelayRateLimiter("host", config.hostLimit, config.limitPeriod, config.lockoutViolations);
+		this.iceServersPacket = new RelayPacket01ICEServers(config.iceServers);
+	}
+
+	public int getHostCount() {
+		return hostsByCode.size();
+	}
+
+	public int getPendingClientCount() {
+		return pendingClientCount;
+	}
+
+	public int getAndResetLimited() {
+		return pingLimiter.getAndResetLimited() + joinLimiter.getAndResetLimited() + hostLimiter.getAndResetLimited();
+	}
+
+	void sweep(long now) {
+		pingLimiter.sweep(now);
+		joinLimiter.sweep(now);
+		hostLimiter.sweep(now);
+	}
+
+	void handleOpen(RelayConnection conn) {
+		conn.setDeadline(server.getCurrentTime() + config.handshakeTimeout);
+	}
+
+	void handleMessage(RelayConnection conn, byte[] data) {
+		if(!conn.isOpen()) {
+			return;
+		}
+		RelayPacket pkt;
+		try {
+			pkt = RelayPacket.readPacket(new DataInputStream(new ByteArrayInputStream(data)), logger);
+		}catch(IOException ex) {
+			logger.debug("Invalid packet from {}: {}", conn.address, ex.toString());
+			sendError(conn, RelayPacketFFErrorCode.TYPE_INVALID_PACKET, "Invalid packet recieved");
+			conn.closeAfterFlush();
+			return;
+		}
+		Object attachment = conn.attachment;
+		if(attachment == null) {
+			if(pkt instanceof RelayPacket00Handshake) {
+				handleHandshake(conn, (RelayPacket00Handshake) pkt);
+			}else {
+				sendError(conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION, "Expected a handshake packet");
+				conn.closeAfterFlush();
+			}
+		}else if(attachment instanceof HostSession) {
+			handleHostPacket((HostSession) attachment, pkt);
+		}else if(attachment instanceof ClientSession) {
+			handleClientPacket((ClientSession) attachment, pkt);
+		}
+	}
+
+	void handleClose(RelayConnection conn) {
+		Object attachment = conn.attachment;
+		conn.attachment = null;
+		if(attachment instanceof HostSession) {
+			HostSession host = (HostSession) attachment;
+			hostsByCode.remove(host.code);
+			List<HostSession> lst = hostsByAddress.get(conn.address);
+			if(lst != null) {
+				lst.remove(host);
+				if(lst.isEmpty()) {
+					hostsByAddress.remove(conn.address);
+				}
+			}
+			if(!host.clients.isEmpty()) {
+				List<ClientSession> clients = new ArrayList<>(host.clients.values());
+				host.clients.clear();
+				for(int i = 0, l = clients.size(); i < l; ++i) {
+					ClientSession client = clients.get(i);
+					if(!client.finished) {
+						client.finished = true;
+						--pendingClientCount;
+					}
+					sendError(client.conn, RelayPacketFFErrorCode.TYPE_SERVER_DISCONNECTED, "The world was closed");
+					client.conn.closeAfterFlush();
+				}
+			}
+			logger.debug("Host {} closed world \"{}\"", conn.address, host.code);
+		}else if(attachment instanceof ClientSession) {
+			ClientSession client = (ClientSession) attachment;
+			if(client.host.clients.remove(client.clientId) != null && !client.finished) {
+				client.finished = true;
+				--pendingClientCount;
+				sendPacket(client.host.conn, new RelayPacket06ClientFailure(client.clientId));
+			}
+		}
+	}
+
+	private void handleHandshake(RelayConnection conn, RelayPacket00Handshake pkt) {
+		if(pkt.connectionVersion != PROTOCOL_VERSION) {
+			if(pkt.connectionVersion < PROTOCOL_VERSION) {
+				sendError(conn, RelayPacketFFErrorCode.TYPE_PROTOCOL_VERSION,
+						"Outdated Client! (v" + pkt.connectionVersion + " < v" + PROTOCOL_VERSION + ")");
+			}else {
+				sendError(conn, RelayPacketFFErrorCode.TYPE_PROTOCOL_VERSION,
+						"Outdated Server! (v" + PROTOCOL_VERSION + " < v" + pkt.connectionVersion + ")");
+			}
+			conn.closeAfterFlush();
+			return;
+		}
+		switch(pkt.connectionType) {
+		case TYPE_HOST:
+			if(checkLimit(conn, hostLimiter)) {
+				handleHostHandshake(conn, pkt);
+			}
+			break;
+		case TYPE_CLIENT:
+			if(UPDATE_CERT_MAGIC.equals(pkt.connectionCode)) {
+				// this relay does not distribute update certificates
+				conn.closeAfterFlush();
+			}else if(checkLimit(conn, joinLimiter)) {
+				handleClientHandshake(conn, pkt);
+			}
+			break;
+		case TYPE_PING:
+			if(checkLimit(conn, pingLimiter)) {
+				sendPacket(conn, new RelayPacket69Pong(PROTOCOL_VERSION, config.comment, config.brand));
+				conn.closeAfterFlush();
+			}
+			break;
+		case TYPE_WORLDS:
+			if(checkLimit(conn, pingLimiter)) {
+				List<RelayPacket07LocalWorlds.LocalWorld> worlds = new ArrayList<>();
+				List<HostSession> lst = hostsByAddress.get(conn.address);
+				if(lst != null) {
+					for(int i = 0, l = lst.size(); i < l; ++i) {
+						HostSession host = lst.get(i);
+						if(!host.hidden) {
+							worlds.add(new RelayPacket07LocalWorlds.LocalWorld(host.worldName, host.code));
+						}
+					}
+				}
+				sendPacket(conn, new RelayPacket07LocalWorlds(worlds));
+				conn.closeAfterFlush();
+			}
+			break;
+		default:
+			sendError(conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION,
+					"Unknown connection type: " + pkt.connectionType);
+			conn.closeAfterFlush();
+			break;
+		}
+	}
+
+	private void handleHostHandshake(RelayConnection conn, RelayPacket00Handshake pkt) {
+		List<HostSession> lst = hostsByAddress.get(conn.address);
+		if(lst != null && lst.size() >= config.maxHostsPerAddress) {
+			sendError(conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION, "Too many worlds are open from your address");
+			conn.closeAfterFlush();
+			return;
+		}
+		String worldName = pkt.connectionCode != null ? pkt.connectionCode : "";
+		boolean hidden = false;
+		int i = worldName.lastIndexOf(';');
+		if(i != -1) {
+			hidden = worldName.substring(i + 1).equals("1");
+			worldName = worldName.substring(0, i);
+		}
+		String code = generateCode();
+		if(code == null) {
+			sendError(conn, RelayPacketFFErrorCode.TYPE_INTERNAL_ERROR, "Could not find an unused join code");
+			conn.closeAfterFlush();
+			return;
+		}
+		HostSession host = new HostSession(conn, code, worldName, hidden);
+		conn.attachment = host;
+		conn.setDeadline(0l);
+		hostsByCode.put(code, host);
+		if(lst == null) {
+			hostsByAddress.put(conn.address, lst = new ArrayList<>(2));
+		}
+		lst.add(host);
+		sendPacket(conn, new RelayPacket00Handshake(TYPE_HOST, PROTOCOL_VERSION, code));
+		sendICEServers(conn);
+		logger.debug("Host {} opened world \"{}\" as \"{}\"", conn.address, worldName, code);
+	}
+
+	private void handleClientHandshake(RelayConnection conn, RelayPacket00Handshake pkt) {
+		String code = pkt.connectionCode != null ? pkt.connectionCode.toLowerCase() : "";
+		if(code.length() != config.codeLength) {
+			sendError(conn, RelayPacketFFErrorCode.TYPE_CODE_LENGTH,
+					"Join code must be " + config.codeLength + " characters long");
+			conn.closeAfterFlush();
+			return;
+		}
+		HostSession host = hostsByCode.get(code);
+		if(host == null) {
+			sendError(conn, RelayPacketFFErrorCode.TYPE_INCORRECT_CODE, "Invalid code, no LAN world found!");
+			conn.closeAfterFlush();
+			return;
+		}
+		if(host.clients.size() >= config.maxClientsPerHost) {
+			sendError(conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION, "Too many players are joining this world");
+			conn.closeAfterFlush();
+			return;
+		}
+		String clientId;
+		do {
+			clientId = randomString(CLIENT_ID_CHARS, CLIENT_ID_LENGTH);
+		}while(host.clients.containsKey(clientId));
+		ClientSession client = new ClientSession(conn, host, clientId);
+		conn.attachment = client;
+		conn.setDeadline(server.getCurrentTime() + config.clientTimeout);
+		host.clients.put(clientId, client);
+		++pendingClientCount;
+		sendPacket(conn, new RelayPacket00Handshake(TYPE_CLIENT, PROTOCOL_VERSION, clientId));
+		sendICEServers(conn);
+		sendPacket(host.conn, new RelayPacket02NewClient(clientId));
+	}
+
+	private void handleHostPacket(HostSession host, RelayPacket pkt) {
+		if(pkt instanceof RelayPacket03ICECandidate) {
+			RelayPacket03ICECandidate ipkt = (RelayPacket03ICECandidate) pkt;
+			ClientSession client = getClient(host, ipkt.peerId);
+			if(client != null) {
+				sendPacket(client.conn, new RelayPacket03ICECandidate(client.clientId, ipkt.candidate));
+			}
+		}else if(pkt instanceof RelayPacket04Description) {
+			RelayPacket04Description ipkt = (RelayPacket04Description) pkt;
+			ClientSession client = getClient(host, ipkt.peerId);
+			if(client != null) {
+				sendPacket(client.conn, new RelayPacket04Description(client.clientId, ipkt.description));
+			}
+		}else if(pkt instanceof RelayPacketFEDisconnectClient) {
+			RelayPacketFEDisconnectClient ipkt = (RelayPacketFEDisconnectClient) pkt;
+			ClientSession client = host.clients.remove(ipkt.clientId);
+			if(client != null) {
+				if(!client.finished) {
+					client.finished = true;
+					--pendingClientCount;
+				}
+				client.conn.close();
+			}
+		}else {
+			sendError(host.conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION,
+					"Unexpected packet: " + pkt.getClass().getSimpleName());
+		}
+	}
+
+	private ClientSession getClient(HostSession host, String clientId) {
+		ClientSession client = host.clients.get(clientId);
+		if(client == null) {
+			sendError(host.conn, RelayPacketFFErrorCode.TYPE_UNKNOWN_CLIENT, "Unknown client id: " + clientId);
+		}
+		return client;
+	}
+
+	private void handleClientPacket(ClientSession client, RelayPacket pkt) {
+		if(client.finished) {
+			return;
+		}
+		if(pkt instanceof RelayPacket03ICECandidate) {
+			sendPacket(client.host.conn,
+					new RelayPacket03ICECandidate(client.clientId, ((RelayPacket03ICECandidate) pkt).candidate));
+		}else if(pkt instanceof RelayPacket04Description) {
+			sendPacket(client.host.conn,
+					new RelayPacket04Description(client.clientId, ((RelayPacket04Description) pkt).description));
+		}else if(pkt instanceof RelayPacket05ClientSuccess) {
+			finishClient(client);
+			sendPacket(client.host.conn, new RelayPacket05ClientSuccess(client.clientId));
+			client.conn.closeAfterFlush();
+		}else if(pkt instanceof RelayPacket06ClientFailure) {
+			finishClient(client);
+			sendPacket(client.host.conn, new RelayPacket06ClientFailure(client.clientId));
+			client.conn.closeAfterFlush();
+		}else {
+			sendError(client.conn, RelayPacketFFErrorCode.TYPE_ILLEGAL_OPERATION,
+					"Unexpected packet: " + pkt.getClass().getSimpleName());
+			client.conn.closeAfterFlush();
+		}
+	}
+
+	private void finishClient(ClientSession client) {
+		client.finished = true;
+		--pendingClientCount;
+		client.host.clients.remove(client.clientId);
+	}
+
+	private boolean checkLimit(RelayConnection conn, RelayRateLimiter limiter) {
+		RelayRateLimiter.RateLimit limit = limiter.checkLimit(conn.address, server.getCurrentTime());
+		if(limit == RelayRateLimiter.RateLimit.NONE) {
+			return true;
+		}
+		logger.debug("Address {} was rate limited for \"{}\": {}", conn.address, limiter.getName(), limit.name());
+		conn.send(limit.getPacket());
+		conn.closeAfterFlush();
+		return false;
+	}
+
+	private String generateCode() {
+		for(int i = 0; i < 64; ++i) {
+			String code = randomString(config.codeChars, config.codeLength);
+			if(!hostsByCode.containsKey(code)) {
+				return code;
+			}
+		}
+		return null;
+	}
+
+	private String randomString(String chars, int len) {
+		char[] ret = new char[len];
+		for(int i = 0; i < len; ++i) {
+			ret[i] = chars.charAt(random.nextInt(chars.length()));
+		}
+		return new String(ret);
+	}
+
+	private void sendICEServers(RelayConnection conn) {
+		if(iceServersBytes == null) {
+			try {
+				iceServersBytes = RelayPacket.writePacket(iceServersPacket, logger);
+			}catch(IOException ex) {
+				logger.error("Could not serialize the ICE servers list!");
+				logger.error(ex);
+				return;
+			}
+		}
+		conn.send(ByteBuffer.wrap(iceServersBytes));
+	}
+
+	private void sendError(RelayConnection conn, int code, String desc) {
+		sendPacket(conn, new RelayPacketFFErrorCode(code, desc));
+	}
+
+	private void sendPacket(RelayConnection conn, RelayPacket pkt) {
+		try {
+			conn.send(RelayPacket.writePacket(pkt, logger));
+		}catch(IOException ex) {
+			logger.error("Could not serialize packet {}!", pkt.getClass().getSimpleName());
+			logger.error(ex);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single threaded selector loop, all relay state is only ever touched from
+ * this thread so RelayHub needs no locking. The relay only forwards small
+ * signalling packets, use RelayLoadTest from src/sp-relay-server-test to see
+ * how far one thread goes on a given machine
+ */
+public class RelayNIOServer {
+
+	private static final long TICK_INTERVAL = 250l;
+	private static final long SWEEP_INTERVAL = 5000l;
+
+	protected final RelayConfig config;
+	protected final RelayServerLogger logger;
+	protected final RelayHub hub;
+
+	private Selector selector = null;
+	private ServerSocketChannel serverChannel = null;
+	private volatile boolean running = false;
+
+	private final Set<RelayConnection> connections = new HashSet<>();
+	private final Map<String, int[]> connectionsPerAddress = new HashMap<>();
+	private long currentTime = 0l;
+
+	protected long bytesIn = 0l;
+	protected long bytesOut = 0l;
+	protected int messagesIn = 0;
+	protected int messagesOut = 0;
+	protected int connectionsAccepted = 0;
+	protected int connectionsRejected = 0;
+
+	public RelayNIOServer(RelayConfig config, RelayServerLogger logger) {
+		this.config = config;
+		this.logger = logger;
+		this.hub = new RelayHub(this);
+	}
+
+	public long getCurrentTime() {
+		return currentTime;
+	}
+
+	private static long steadyTimeMillis() {
+		return System.nanoTime() / 1000000l;
+	}
+
+	public void bind() throws IOException {
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+		serverChannel.bind(new InetSocketAddress(config.bindAddress, config.port), 1024);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		logger.info("Listening on {}:{}", config.bindAddress, config.port);
+	}
+
+	public void run() {
+		running = true;
+		currentTime = steadyTimeMillis();
+		long lastTick = currentTime;
+		long lastSweep = currentTime;
+		long lastStats = currentTime;
+		try {
+			while(running) {
+				selector.select(TICK_INTERVAL);
+				currentTime = steadyTimeMillis();
+				Iterator<SelectionKey> itr = selector.selectedKeys().iterator();
+				while(itr.hasNext()) {
+					SelectionKey key = itr.next();
+					itr.remove();
+					if(!key.isValid()) {
+						continue;
+					}
+					if(key.isAcceptable()) {
+						acceptConnections();
+						continue;
+					}
+					RelayConnection conn = (RelayConnection) key.attachment();
+					try {
+						if(key.isReadable()) {
+							conn.handleRead();
+						}
+						if(key.isValid() && key.isWritable()) {
+							conn.handleWrite();
+						}
+					}catch(IOException ex) {
+						logger.debug("Connection from {} failed: {}", conn.address, ex.toString());
+						conn.close();
+					}catch(Throwable t) {
+						logger.error("Uncaught exception handling connection from {}", conn.address);
+						logger.error(t);
+						conn.close();
+					}
+				}
+				if(currentTime - lastTick >= TICK_INTERVAL) {
+					lastTick = currentTime;
+					checkDeadlines();
+				}
+				if(currentTime - lastSweep >= SWEEP_INTERVAL) {
+					lastSweep = currentTime;
+					hub.sweep(currentTime);
+				}
+				if(config.statsInterval > 0l && currentTime - lastStats >= config.statsInterval) {
+					logStats(currentTime - lastStats);
+					lastStats = currentTime;
+				}
+			}
+		}catch(IOException | ClosedSelectorException ex) {
+			if(running) {
+				logger.error("Selector loop failed!");
+				logger.error(ex);
+			}
+		}finally {
+			running = false;
+			for(RelayConnection conn : new ArrayList<>(connections)) {
+				conn.close();
+			}
+			try {
+				serverChannel.close();
+				selector.close();
+			}catch(IOException e) {
+			}
+		}
+	}
+
+	public void stop() {
+		running = false;
+		Selector s = selector;
+		if(s != null) {
+			s.wakeup();
+		}
+	}
+
+	private void acceptConnections() throws IOException {
+		SocketChannel ch;
+		while((ch = serverChannel.accept()) != null) {
+			if(connections.size() >= config.maxConnections) {
+				++connectionsRejected;
+				ch.close();
+				continue;
+			}
+			ch.configureBlocking(false);
+			ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectionKey key = ch.register(selector, SelectionKey.OP_READ);
+			RelayConnection conn = new RelayConnection(this, ch, key, currentTime);
+			// behind a reverse proxy every socket comes from the proxy, those are
+			// counted once the forwarded address has been read instead
+			if(config.forwardedForHeader == null) {
+				if(!addAddress(conn.address)) {
+					++connectionsRejected;
+					key.cancel();
+					ch.close();
+					continue;
+				}
+				conn.addressCounted = true;
+			}
+			key.attach(conn);
+			connections.add(conn);
+			++connectionsAccepted;
+		}
+	}
+
+	private boolean addAddress(String addr) {
+		int[] i = connectionsPerAddress.get(addr);
+		if(i == null) {
+			connectionsPerAddress.put(addr, new int[] { 1 });
+			return true;
+		}else if(i[0] >= config.maxConnectionsPerAddress) {
+			return false;
+		}else {
+			++i[0];
+			return true;
+		}
+	}
+
+	private void removeAddress(String addr) {
+		int[] i = connectionsPerAddress.get(addr);
+		if(i != null && --i[0] <= 0) {
+			connectionsPerAddress.remove(addr);
+		}
+	}
+
+	/**
+	 * Called once the forwarded address header has been read, or with the
+	 * socket's own address if the header is missing, and applies the per
+	 * address connection limit to it
+	 */
+	void changeAddress(RelayConnection conn, String newAddress) {
+		if(!addAddress(newAddress)) {
+			++connectionsRejected;
+			conn.close();
+			return;
+		}
+		if(conn.addressCounted) {
+			removeAddress(conn.address);
+		}
+		conn.address = newAddress;
+		conn.addressCounted = true;
+	}
+
+	void handleClosed(RelayConnection conn, boolean upgraded) {
+		connections.remove(conn);
+		if(conn.addressCounted) {
+			removeAddress(conn.address);
+		}
+		if(upgraded) {
+			hub.handleClose(conn);
+		}
+	}
+
+	private void checkDeadlines() {
+		List<RelayConnection> expired = null;
+		for(RelayConnection conn : connections) {
+			long l = conn.getDeadline();
+			if(l > 0l && currentTime >= l) {
+				if(expired == null) {
+					expired = new ArrayList<>();
+				}
+				expired.add(conn);
+			}
+		}
+		if(expired != null) {
+			for(int i = 0, l = expired.size(); i < l; ++i) {
+				RelayConnection conn = expired.get(i);
+				logger.debug("Connection from {} timed out", conn.address);
+				conn.close();
+			}
+		}
+	}
+
+	private void logStats(long period) {
+		float secs = period * 0.001f;
+		logger.info("{} connections ({} accepted, {} rejected), {} hosts, {} pending clients",
+				connections.size(), connectionsAccepted, connectionsRejected, hub.getHostCount(),
+				hub.getPendingClientCount());
+		logger.info("{} msg/s in, {} msg/s out, {} KiB/s in, {} KiB/s out, {} rate limited",
+				(int) (messagesIn / secs), (int) (messagesOut / secs), (int) (bytesIn / secs / 1024.0f),
+				(int) (bytesOut / secs / 1024.0f), hub.getAndResetLimited());
+		messagesIn = 0;
+		messagesOut = 0;
+		bytesIn = 0l;
+		bytesOut = 0l;
+		connectionsAccepted = 0;
+		connectionsRejected = 0;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.RelayPacketFEDisconnectClient;
+
+/**
+ * Per address request limiter, the durations match RelayServerRateLimitTracker
+ * on the client side so a client never retries before the relay would let it:
+ * going over the limit blocks the address for 10 seconds, and going over it
+ * too many times in a row locks the address out for 60 seconds
+ */
+public class RelayRateLimiter {
+
+	public static final long BLOCK_DURATION = 10000l;
+	public static final long LOCK_DURATION = 60000l;
+
+	public static enum RateLimit {
+		NONE(null),
+		LIMIT(RelayPacketFEDisconnectClient.ratelimitPacketTooMany),
+		LIMIT_NOW_LOCKOUT(RelayPacketFEDisconnectClient.ratelimitPacketBlockLock),
+		BLOCKED(RelayPacketFEDisconnectClient.ratelimitPacketBlock),
+		LOCKOUT(RelayPacketFEDisconnectClient.ratelimitPacketLocked);
+
+		private final ByteBuffer packet;
+
+		private RateLimit(ByteBuffer packet) {
+			this.packet = packet;
+		}
+
+		/**
+		 * The raw 0xFC frame the client expects, shared between all connections
+		 * so it must be duplicated before use
+		 */
+		public ByteBuffer getPacket() {
+			return packet != null ? packet.duplicate() : null;
+		}
+
+	}
+
+	private static class Bucket {
+
+		private long periodStart;
+		private int count;
+		private int violations;
+		private long blockedUntil;
+		private long lockedUntil;
+		private long lastUsed;
+
+	}
+
+	private final String name;
+	private final int limit;
+	private final long period;
+	private final int lockoutViolations;
+	private final Map<String, Bucket> buckets = new HashMap<>();
+
+	private int totalLimited = 0;
+
+	public RelayRateLimiter(String name, int limit, long period, int lockoutViolations) {
+		this.name = name;
+		this.limit = limit;
+		this.period = period;
+		this.lockoutViolations = lockoutViolations;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public RateLimit checkLimit(String address, long now) {
+		Bucket b = buckets.get(address);
+		if(b == null) {
+			b = new Bucket();
+			b.periodStart = now;
+			buckets.put(address, b);
+		}
+		b.lastUsed = now;
+		if(now < b.lockedUntil) {
+			++totalLimited;
+			return RateLimit.LOCKOUT;
+		}
+		if(now < b.blockedUntil) {
+			++totalLimited;
+			if(++b.violations >= lockoutViolations) {
+				b.lockedUntil = now + LOCK_DURATION;
+				return RateLimit.LIMIT_NOW_LOCKOUT;
+			}
+			return RateLimit.BLOCKED;
+		}
+		if(now - b.periodStart >= period) {
+			b.periodStart = now;
+			b.count = 0;
+			if(now - b.blockedUntil >= LOCK_DURATION) {
+				b.violations = 0;
+			}
+		}
+		if(++b.count > limit) {
+			++totalLimited;
+			b.blockedUntil = now + BLOCK_DURATION;
+			if(++b.violations >= lockoutViolations) {
+				b.lockedUntil = now + LOCK_DURATION;
+				return RateLimit.LIMIT_NOW_LOCKOUT;
+			}
+			return RateLimit.LIMIT;
+		}
+		return RateLimit.NONE;
+	}
+
+	/**
+	 * Drops addresses that have nothing left to remember, called every few
+	 * seconds from the selector thread so the map stays the size of the set of
+	 * recently active addresses
+	 */
+	public void sweep(long now) {
+		Iterator<Bucket> itr = buckets.values().iterator();
+		while(itr.hasNext()) {
+			Bucket b = itr.next();
+			if(now >= b.lockedUntil && now >= b.blockedUntil && now - b.lastUsed >= LOCK_DURATION) {
+				itr.remove();
+			}
+		}
+	}
+
+	public int getTrackedAddresses() {
+		return buckets.size();
+	}
+
+	public int getAndResetLimited() {
+		int i = totalLimited;
+		totalLimited = 0;
+		return i;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025 lax1dude. All Rights Reserved.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT
+ * NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+
+
+package net.lax1dude.eaglercraft.v1_8.sp.relay.server;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import net.lax1dude.eaglercraft.v1_8.sp.relay.pkt.IRelayLogger;
+
+/**
+ * Console logger for the relay, uses the same {} placeholders as the log4j
+ * shim in the client so messages can be copied between the two
+ */
+public class RelayServerLogger implements IRelayLogger {
+
+	private final String name;
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+	private boolean debugEnabled = false;
+
+	public RelayServerLogger(String name) {
+		this.name = name;
+	}
+
+	public void setDebugEnabled(boolean debugEnabled) {
+		this.debugEnabled = debugEnabled;
+	}
+
+	@Override
+	public void debug(String msg, Object... args) {
+		if(debugEnabled) {
+			log(System.out, "DEBUG", msg, args);
+		}
+	}
+
+	@Override
+	public void info(String msg, Object... args) {
+		log(System.out, "INFO", msg, args);
+	}
+
+	@Override
+	public void warn(String msg, Object... args) {
+		log(System.err, "WARN", msg, args);
+	}
+
+	@Override
+	public void error(String msg, Object... args) {
+		log(System.err, "ERROR", msg, args);
+	}
+
+	@Override
+	public void error(Throwable th) {
+		synchronized(this) {
+			log(System.err, "ERROR", th.toString());
+			th.printStackTrace(System.err);
+		}
+	}
+
+	private synchronized void log(PrintStream out, String level, String msg, Object... args) {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[').append(timeFormat.format(new Date())).append("][").append(level).append("][").append(name)
+				.append("]: ");
+		int argIndex = 0;
+		int i = 0;
+		int j;
+		while((j = msg.indexOf("{}", i)) != -1) {
+			sb.append(msg, i, j);
+			sb.append(argIndex < args.length ? String.valueOf(args[argIndex++]) : "{}");
+			i = j + 2;
+		}
+		sb.append(msg, i, msg.length());
+		out.println(sb.toString());
+	}
+
+}
\ No newline at end of file
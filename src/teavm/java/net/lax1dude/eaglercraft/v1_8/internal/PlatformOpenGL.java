@@ -383,6 +383,11 @@ public class PlatformOpenGL {
 	public static void _wglBufferSubData(int target, int offset, FloatBuffer data) {
 		ctx.bufferSubData(target, offset, EaglerArrayBufferAllocator.getDataView32F(data));
 	}
+
+	public static void _wglCopyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset,
+			int size) {
+		ctx.copyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+	}
 	
 	public static void _wglBindVertexArray(IVertexArrayGL obj) {
 		WebGLVertexArray ptr = obj != null ? ((OpenGLObjects.VertexArrayGL)obj).ptr : null;
@@ -557,6 +562,14 @@ public class PlatformOpenGL {
 		return ctx.getProgramInfoLog(((OpenGLObjects.ProgramGL)obj).ptr);
 	}
 	
+	public static byte[] _wglGetProgramBinary(IProgramGL obj, int[] binaryFormat) {
+		return null;
+	}
+	
+	public static void _wglProgramBinary(IProgramGL obj, int binaryFormat, byte[] data) {
+		throw new UnsupportedOperationException("Program binaries are not supported in WebGL");
+	}
+	
 	public static void _wglBindAttribLocation(IProgramGL obj, int index, String name) {
 		ctx.bindAttribLocation(((OpenGLObjects.ProgramGL)obj).ptr, index, name);
 	}
@@ -830,6 +843,10 @@ public class PlatformOpenGL {
 		return hasEXTTextureFilterAnisotropic;
 	}
 	
+	public static boolean checkProgramBinaryCapable() {
+		return false;
+	}
+	
 	public static boolean checkNPOTCapable() {
 		return glesVers >= 300;
 	}
@@ -783,6 +783,10 @@ public class PlatformRuntime {
 		return immediateContinueSupport;
 	}
 
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int maxThreads) {
+		return null;
+	}
+
 	@Async
 	private static native void immediateContinueTeaVM0();
 
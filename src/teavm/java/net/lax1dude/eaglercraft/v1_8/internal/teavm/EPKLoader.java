@@ -27,6 +27,8 @@ import com.jcraft.jzlib.CRC32;
 import com.jcraft.jzlib.GZIPInputStream;
 import com.jcraft.jzlib.InflaterInputStream;
 
+import net.lax1dude.eaglercraft.v1_8.sp.server.export.EPKDecompiler;
+
 public class EPKLoader {
 
 	public static final void loadEPK(ArrayBuffer epkFile, Map<String, byte[]> loadedFiles) throws IOException {
@@ -61,6 +63,10 @@ public class EPKLoader {
 		}
 		
 		String vers = readASCII(is);
+		if(vers.startsWith("ver3.")) {
+			loadIndexedEPK(epkFile, path, loadedFiles);
+			return;
+		}
 		if(!vers.startsWith("ver2.")) {
 			throw new IOException("Unknown or invalid EPK version: " + vers);
 		}
@@ -164,6 +170,27 @@ public class EPKLoader {
 		zis.close();
 	}
 	
+	/**
+	 * The indexed "ver3" EPKs are still unpacked all at once on this runtime
+	 */
+	private static final void loadIndexedEPK(ArrayBuffer epkFile, String path, Map<String, byte[]> loadedFiles) throws IOException {
+		if(path.length() > 0 && !path.endsWith("/")) {
+			path = path + "/";
+		}
+		try(EPKDecompiler dec = new EPKDecompiler(new ArrayBufferInputStream(epkFile, 0, epkFile.getByteLength()))) {
+			EPKDecompiler.FileEntry etr = dec.readFile();
+			if(etr == null || !"HEAD".equals(etr.type) || !"file-type".equals(etr.name)
+					|| !"epk/resources".equals(readASCII(etr.data))) {
+				throw new IOException("EPK is not of file-type 'epk/resources'!");
+			}
+			while((etr = dec.readFile()) != null) {
+				if("FILE".equals(etr.type)) {
+					loadedFiles.put(path + etr.name, etr.data);
+				}
+			}
+		}
+	}
+	
 	private static final int loadShort(InputStream is) throws IOException {
 		return (is.read() << 8) | is.read();
 	}
@@ -66,6 +66,8 @@ public interface WebGL2RenderingContext extends WebGLRenderingContext {
 	
 	void readBuffer(int p1);
 
+	void copyBufferSubData(int p1, int p2, int p3, int p4, int p5);
+
 	void vertexAttribDivisor(int p1, int p2);
 
 	void drawArraysInstanced(int p1, int p2, int p3, int p4);
@@ -66,6 +66,8 @@ public class ServerPlatformSingleplayer {
 	private static final JSString emptyJSString = JSString.valueOf("");
 	private static boolean singleThreadMode = false;
 	private static Consumer<IPCPacketData> singleThreadCB = null;
+	private static AsyncCallback<Void> packetWaitCallback = null;
+	private static int packetWaitTimer = -1;
 
 	private static IEaglerFilesystem filesystem = null;
 
@@ -90,6 +92,7 @@ public class ServerPlatformSingleplayer {
 			synchronized(messageQueue) {
 				messageQueue.add(new IPCPacketData(channel, TeaVMUtils.wrapByteArrayBuffer(buf)));
 			}
+			wakePacketWait();
 		}
 		
 	}
@@ -283,10 +286,57 @@ public class ServerPlatformSingleplayer {
 		}
 	}
 
+	/**
+	 * Parks the worker until an IPC packet arrives or the timeout elapses,
+	 * whichever comes first
+	 */
+	public static void waitForPackets(int millis) {
+		boolean hasPackets;
+		synchronized(messageQueue) {
+			hasPackets = !messageQueue.isEmpty();
+		}
+		if(singleThreadMode || hasPackets) {
+			immediateContinue();
+		}else {
+			waitForPacketsTeaVM(millis);
+		}
+	}
+
+	@Async
+	private static native void waitForPacketsTeaVM(int millis);
+
+	private static void waitForPacketsTeaVM(int millis, final AsyncCallback<Void> cb) {
+		if(packetWaitCallback != null) {
+			cb.error(new IllegalStateException("Worker thread is already waiting for packets!"));
+			return;
+		}
+		packetWaitCallback = cb;
+		packetWaitTimer = Window.setTimeout(() -> {
+			packetWaitTimer = -1;
+			wakePacketWait();
+		}, millis);
+	}
+
+	private static void wakePacketWait() {
+		AsyncCallback<Void> cb = packetWaitCallback;
+		if(cb != null) {
+			packetWaitCallback = null;
+			if(packetWaitTimer != -1) {
+				Window.clearTimeout(packetWaitTimer);
+				packetWaitTimer = -1;
+			}
+			cb.complete(null);
+		}
+	}
+
 	public static boolean isSingleThreadMode() {
 		return singleThreadMode;
 	}
 
+	public static boolean isLocalPacketTransportSupported() {
+		return false;
+	}
+
 	public static void recievePacketSingleThreadTeaVM(IPCPacketData pkt) {
 		synchronized(messageQueue) {
 			messageQueue.add(pkt);
@@ -18,7 +18,11 @@ package net.lax1dude.eaglercraft.v1_8.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.teavm.interop.Address;
@@ -50,12 +54,51 @@ public class PlatformAssets {
 
 	static Map<String,byte[]> assets = new HashMap<>();
 
+	/**
+	 * Files of "ver3" EPKs, inflated on demand from the archive buffers which
+	 * stay allocated instead of being unpacked into the assets map on startup
+	 */
+	static Map<String,EPKLoader.IndexedEntry> indexedAssets = new HashMap<>();
+	static final List<ByteBuffer> indexedArchives = new ArrayList<>();
+
+	private static final int INDEXED_CACHE_MAX_BYTES = 8 * 1024 * 1024;
+	private static final LinkedHashMap<String,byte[]> indexedCache = new LinkedHashMap<>(64, 0.75f, true);
+	private static int indexedCacheBytes = 0;
+
+	private static byte[] getIndexedResource(String path) {
+		byte[] data = indexedCache.get(path);
+		if(data != null) {
+			return data;
+		}
+		EPKLoader.IndexedEntry etr = indexedAssets.get(path);
+		if(etr == null) {
+			return null;
+		}
+		try {
+			data = etr.load();
+		}catch(IOException e) {
+			logger.error("Failed to read \"{}\" from the EPK file!", path);
+			logger.error(e);
+			return null;
+		}
+		if(data.length <= (INDEXED_CACHE_MAX_BYTES >> 2)) {
+			indexedCache.put(path, data);
+			indexedCacheBytes += data.length;
+			Iterator<byte[]> itr = indexedCache.values().iterator();
+			while(indexedCacheBytes > INDEXED_CACHE_MAX_BYTES && itr.hasNext()) {
+				indexedCacheBytes -= itr.next().length;
+				itr.remove();
+			}
+		}
+		return data;
+	}
+
 	public static boolean getResourceExists(String path) {
 		if(path.startsWith("/")) {
 			path = path.substring(1);
 		}
 		byte[] ret = assets.get(path);
-		if(ret != null && ret != MISSING_FILE) {
+		if((ret != null && ret != MISSING_FILE) || indexedAssets.containsKey(path)) {
 			return true;
 		}else {
 			if(path.startsWith("assets/minecraft/lang/") && !path.endsWith(".mcmeta")) {
@@ -79,6 +122,12 @@ public class PlatformAssets {
 			path = path.substring(1);
 		}
 		byte[] data = assets.get(path);
+		if(data == null && !indexedAssets.isEmpty()) {
+			data = getIndexedResource(path);
+			if(data != null) {
+				return data;
+			}
+		}
 		if(data == null && path.startsWith("assets/minecraft/lang/") && !path.endsWith(".mcmeta")) {
 			byte[] file = PlatformRuntime.downloadRemoteURIByteArray(
 					ClientMain.configLocalesFolder + "/" + path.substring(22));
@@ -98,8 +147,19 @@ public class PlatformAssets {
 		if(!assets.isEmpty()) {
 			assets = new HashMap<>();
 		}
+		if(!indexedAssets.isEmpty()) {
+			indexedAssets = new HashMap<>();
+			indexedCache.clear();
+			indexedCacheBytes = 0;
+		}
+		for(int i = 0, l = indexedArchives.size(); i < l; ++i) {
+			PlatformRuntime.freeByteBuffer(indexedArchives.get(i));
+		}
+		indexedArchives.clear();
 
 		int epkCount = getEPKFileCount();
+		long startTime = PlatformRuntime.steadyTimeMillis();
+		long totalBytes = 0l;
 
 		logger.info("Reading {} EPK files", epkCount);
 
@@ -113,19 +173,30 @@ public class PlatformAssets {
 			logger.info("Reading: \"{}\" @ {}", name, path.startsWith("/") ? path : ("/" + path));
 			
 			ByteBuffer buf = PlatformRuntime.allocateByteBuffer(dataLen);
+			boolean keepBuffer = false;
 			try {
 				WASMGCBufferAllocator.getUnsignedByteBufferView(buf).set(data);
-				EPKLoader.loadEPK(buf, path, assets);
+				keepBuffer = EPKLoader.loadEPK(buf, path, assets, indexedAssets);
 			}catch(IOException e) {
 				logger.error("Failed to load the EPK file!");
 				logger.error(e);
 				throw new RuntimeInitializationFailureException("Failed to read EPK file \"" + name + "\"!");
 			}finally {
-				PlatformRuntime.freeByteBuffer(buf);
+				if(keepBuffer) {
+					indexedArchives.add(buf);
+					totalBytes += dataLen;
+				}else {
+					PlatformRuntime.freeByteBuffer(buf);
+				}
 			}
 		}
 
-		logger.info("Loaded {} assets from EPK(s)", assets.size());
+		for(byte[] b : assets.values()) {
+			totalBytes += b.length;
+		}
+
+		logger.info("Loaded {} assets from EPK(s) in {}ms, {} indexed, {}KB resident", assets.size() + indexedAssets.size(),
+				PlatformRuntime.steadyTimeMillis() - startTime, indexedAssets.size(), totalBytes / 1024l);
 	}
 
 	private interface JSEPKFileEntry extends JSObject {
@@ -340,6 +340,10 @@ public class PlatformOpenGL {
 	@Import(module = "platformOpenGL", name = "glBufferSubData")
 	static native void _wglBufferSubDataN(int target, int dstOffset, ArrayBufferView typedArray);
 
+	@Import(module = "platformOpenGL", name = "glCopyBufferSubData")
+	public static native void _wglCopyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset,
+			int size);
+
 	public static void _wglBindVertexArray(IVertexArrayGL objId) {
 		_wglBindVertexArrayN(objId != null ? ((OpenGLObjects.VertexArrayGL)objId).ptr : null);
 	}
@@ -531,6 +535,14 @@ public class PlatformOpenGL {
 	@Import(module = "platformOpenGL", name = "glGetProgramInfoLog")
 	static native JSString _wglGetProgramInfoLogN(WebGLProgram prog);
 
+	public static byte[] _wglGetProgramBinary(IProgramGL obj, int[] binaryFormat) {
+		return null;
+	}
+
+	public static void _wglProgramBinary(IProgramGL obj, int binaryFormat, byte[] data) {
+		throw new UnsupportedOperationException("Program binaries are not supported in WebGL");
+	}
+
 	@Import(module = "platformOpenGL", name = "glDrawArrays")
 	public static native void _wglDrawArrays(int mode, int first, int count);
 
@@ -830,6 +842,10 @@ public class PlatformOpenGL {
 		return (capABits & CAP_A_BIT_ANISOTROPIC) != 0;
 	}
 
+	public static boolean checkProgramBinaryCapable() {
+		return false;
+	}
+
 	public static String[] getAllExtensions() {
 		return BetterJSStringConverter.stringArrayFromJS(getAllExtensions0());
 	}
@@ -481,6 +481,10 @@ public class PlatformRuntime {
 	@Import(module = "platformRuntime", name = "immediateContinueSupported")
 	public static native boolean immediateContinueSupported();
 
+	public static IWorkerThreadPool createWorkerThreadPool(String name, int maxThreads) {
+		return null;
+	}
+
 	public static void postCreate() {
 		
 	}
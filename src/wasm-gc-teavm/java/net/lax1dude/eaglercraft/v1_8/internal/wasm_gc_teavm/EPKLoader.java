@@ -24,16 +24,72 @@ import com.jcraft.jzlib.CRC32;
 import com.jcraft.jzlib.GZIPInputStream;
 import com.jcraft.jzlib.InflaterInputStream;
 
+import net.lax1dude.eaglercraft.v1_8.EaglerZLIB;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.ByteBuffer;
 import net.lax1dude.eaglercraft.v1_8.internal.buffer.EaglerBufferInputStream;
 
 public class EPKLoader {
 
+	/**
+	 * A file inside a "ver3" EPK that is still sitting compressed in the
+	 * archive's buffer, the buffer must stay allocated as long as these exist
+	 */
+	public static class IndexedEntry {
+
+		private final ByteBuffer archive;
+		private final String name;
+		private final char method;
+		private final int offset;
+		private final int storedLength;
+		public final int length;
+		private final int crc;
+
+		private IndexedEntry(ByteBuffer archive, String name, char method, int offset, int storedLength, int length,
+				int crc) {
+			this.archive = archive;
+			this.name = name;
+			this.method = method;
+			this.offset = offset;
+			this.storedLength = storedLength;
+			this.length = length;
+			this.crc = crc;
+		}
+
+		public byte[] load() throws IOException {
+			byte[] stored = new byte[storedLength];
+			ByteBuffer buf = archive.duplicate();
+			buf.position(offset);
+			buf.get(stored);
+			byte[] data;
+			if(method == 'Z') {
+				data = new byte[length];
+				if(EaglerZLIB.inflateFull(stored, data) != length) {
+					throw new IOException("File '" + name + "' is incomplete");
+				}
+			}else {
+				data = stored;
+			}
+			CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, data.length);
+			if(crc != (int)crc32.getValue()) {
+				throw new IOException("File '" + name + "' has an invalid checksum");
+			}
+			return data;
+		}
+
+	}
+
 	public static final void loadEPK(ByteBuffer epkFile, Map<String, byte[]> loadedFiles) throws IOException {
-		loadEPK(epkFile, "", loadedFiles);
+		loadEPK(epkFile, "", loadedFiles, null);
 	}
 
-	public static final void loadEPK(ByteBuffer epkFile, String path, Map<String, byte[]> loadedFiles) throws IOException {
+	/**
+	 * Loads the files in the EPK, "ver2" archives are unpacked into loadedFiles
+	 * and "ver3" archives are only indexed into indexedFiles. Returns true if
+	 * the archive was indexed, the caller then has to keep epkFile allocated
+	 */
+	public static final boolean loadEPK(ByteBuffer epkFile, String path, Map<String, byte[]> loadedFiles,
+			Map<String, IndexedEntry> indexedFiles) throws IOException {
 		int byteLength = epkFile.remaining();
 		int l = byteLength - 16;
 		if(l < 1) {
@@ -61,7 +117,8 @@ public class EPKLoader {
 		epkFile.limit(epkFile.limit() - 8);
 		
 		String vers = readASCII(is);
-		if(!vers.startsWith("ver2.")) {
+		boolean indexed = vers.startsWith("ver3.") && indexedFiles != null;
+		if(!indexed && !vers.startsWith("ver2.")) {
 			throw new IOException("Unknown or invalid EPK version: " + vers);
 		}
 		
@@ -73,6 +130,18 @@ public class EPKLoader {
 		
 		char compressionType = (char)is.read();
 		
+		if(path.length() > 0 && !path.endsWith("/")) {
+			path = path + "/";
+		}
+		
+		if(indexed) {
+			if(compressionType != 'I') {
+				throw new IOException("Invalid or unsupported EPK compression: " + compressionType);
+			}
+			loadIndexedEPK(epkFile, is, numFiles, path, indexedFiles);
+			return true;
+		}
+		
 		InputStream zis;
 		switch(compressionType) {
 		case 'G':
@@ -92,10 +161,6 @@ public class EPKLoader {
 		int blockEnd = ('E' << 24) | ('N' << 16) | ('D' << 8) | '$';
 		int blockHead = ('H' << 24) | ('E' << 16) | ('A' << 8) | 'D';
 		
-		if(path.length() > 0 && !path.endsWith("/")) {
-			path = path + "/";
-		}
-		
 		CRC32 crc32 = new CRC32();
 		int blockType;
 		for(int i = 0; i < numFiles; ++i) {
@@ -162,6 +227,50 @@ public class EPKLoader {
 		}
 		
 		zis.close();
+		return false;
+	}
+	
+	private static final void loadIndexedEPK(ByteBuffer epkFile, InputStream is, int numFiles, String path,
+			Map<String, IndexedEntry> indexedFiles) throws IOException {
+		int blockFile = ('F' << 24) | ('I' << 16) | ('L' << 8) | 'E';
+		int blockEnd = ('E' << 24) | ('N' << 16) | ('D' << 8) | '$';
+		int blockHead = ('H' << 24) | ('E' << 16) | ('A' << 8) | 'D';
+		
+		int dataEnd = epkFile.limit();
+		for(int i = 0; i < numFiles; ++i) {
+			int blockType = loadInt(is);
+			String name = readASCII(is);
+			char method = (char)is.read();
+			int offset = loadInt(is);
+			int storedLength = loadInt(is);
+			int length = loadInt(is);
+			int crc = loadInt(is);
+			
+			if(offset < 0 || storedLength < 0 || length < 0 || offset > dataEnd - storedLength) {
+				throw new IOException("Object '" + name + "' is outside of the EPK file");
+			}
+			if(method != '0' && method != 'Z') {
+				throw new IOException("Object '" + name + "' has an unsupported compression: " + method);
+			}
+			
+			IndexedEntry etr = new IndexedEntry(epkFile, name, method, offset, storedLength, length, crc);
+			
+			if(i == 0) {
+				if(blockType != blockHead || !"file-type".equals(name)
+						|| !"epk/resources".equals(readASCII(etr.load()))) {
+					throw new IOException("EPK is not of file-type 'epk/resources'!");
+				}
+				continue;
+			}
+			
+			if(blockType == blockFile) {
+				indexedFiles.put(path + name, etr);
+			}
+		}
+		
+		if(loadInt(is) != blockEnd) {
+			throw new IOException("EPK missing END$ object");
+		}
 	}
 	
 	private static final int loadShort(InputStream is) throws IOException {
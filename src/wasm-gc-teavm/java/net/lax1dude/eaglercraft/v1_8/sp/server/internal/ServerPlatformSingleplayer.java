@@ -116,6 +116,18 @@ public class ServerPlatformSingleplayer {
 	@Import(module = "platformRuntime", name = "immediateContinue")
 	public static native void immediateContinue();
 
+	/**
+	 * Sleeps until the next server tick is due, IPC packets that arrive in the
+	 * meantime are picked up when it wakes
+	 */
+	public static void waitForPackets(int millis) {
+		if(singleThreadMode || getAvailablePackets() > 0) {
+			immediateContinue();
+		}else {
+			PlatformRuntime.sleep(millis);
+		}
+	}
+
 	public static IClientConfigAdapter getClientConfigAdapter() {
 		return WASMGCClientConfigAdapter.instance;
 	}
@@ -124,6 +136,10 @@ public class ServerPlatformSingleplayer {
 		return singleThreadMode;
 	}
 
+	public static boolean isLocalPacketTransportSupported() {
+		return false;
+	}
+
 	public static void recievePacketSingleThreadTeaVM(IPCPacketData pkt) {
 		messageQueue.add(pkt);
 	}
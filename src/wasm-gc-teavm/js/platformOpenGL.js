@@ -119,6 +119,7 @@ function setCurrentGLContext(ctx, glesVersIn, allowExts, glImports) {
 	glImports["glBindBuffer"] = ctx.bindBuffer.bind(ctx);
 	glImports["glBufferData"] = ctx.bufferData.bind(ctx);
 	glImports["glBufferSubData"] = ctx.bufferSubData.bind(ctx);
+	glImports["glCopyBufferSubData"] = glesVersIn >= 300 ? ctx.copyBufferSubData.bind(ctx) : unsupportedFunc(platfOpenGLName, "glCopyBufferSubData");
 	glImports["glEnableVertexAttribArray"] = ctx.enableVertexAttribArray.bind(ctx);
 	glImports["glDisableVertexAttribArray"] = ctx.disableVertexAttribArray.bind(ctx);
 	glImports["glVertexAttribPointer"] = ctx.vertexAttribPointer.bind(ctx);
@@ -318,6 +319,7 @@ function setNoGLContext(glImports) {
 	setUnsupportedFunc(glImports, platfOpenGLName, "glBindBuffer");
 	setUnsupportedFunc(glImports, platfOpenGLName, "glBufferData");
 	setUnsupportedFunc(glImports, platfOpenGLName, "glBufferSubData");
+	setUnsupportedFunc(glImports, platfOpenGLName, "glCopyBufferSubData");
 	setUnsupportedFunc(glImports, platfOpenGLName, "glEnableVertexAttribArray");
 	setUnsupportedFunc(glImports, platfOpenGLName, "glDisableVertexAttribArray");
 	setUnsupportedFunc(glImports, platfOpenGLName, "glVertexAttribPointer");